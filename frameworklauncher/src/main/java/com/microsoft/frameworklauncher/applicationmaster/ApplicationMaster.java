@@ -33,6 +33,7 @@
 import org.apache.hadoop.yarn.client.api.YarnClient;
 import org.apache.hadoop.yarn.client.api.async.AMRMClientAsync;
 import org.apache.hadoop.yarn.client.api.async.NMClientAsync;
+import org.apache.hadoop.yarn.conf.YarnConfiguration;
 import org.apache.hadoop.yarn.exceptions.YarnException;
 import org.apache.hadoop.yarn.util.ConverterUtils;
 import org.apache.hadoop.yarn.util.Records;
@@ -70,7 +71,9 @@ public class ApplicationMaster extends AbstractService {
   protected RequestManager requestManager;
   private RMResyncHandler rmResyncHandler;
   protected AntiaffinityAllocationManager aaAllocationManager;
-  private GpuAllocationManager gpuAllocationManager;
+  protected GpuAllocationManager gpuAllocationManager;
+  protected NodeInventory nodeInventory;
+  protected ContainerRequestQueue containerRequestQueue;
 
   /**
    * REGION StateVariable
@@ -85,6 +88,25 @@ public class ApplicationMaster extends AbstractService {
   //  before launchContainersTogether and will be Transitioned to Completed due
   //  to expire. So the only impact is longer time to launchContainersTogether.
   private Map<String, Container> allocatedContainers = new HashMap<>();
+  // GangAllocation Round starts when the first Container of the round is held, and ends when
+  // all Tasks are launched together or the round is timeout.
+  // It is identified by the GangAllocationRound, so that the timeout of an ended round is ignored.
+  private long gangAllocationRound = 0;
+  private Boolean gangAllocationRoundStarted = false;
+  private int gangAllocationTimeoutCount = 0;
+  // No ContainerRequest is added before it, after the GangAllocation Round is timeout.
+  private long gangAllocationRetryNotBeforeTimestamp = 0;
+  // TaskLocator -> The ContainerRequest added for the Task, so that the outstanding ContainerRequest of a
+  // CONTAINER_REQUESTED Task can be exactly removed, such as when the GangAllocation Round is timeout.
+  // The entry of a not CONTAINER_REQUESTED Task is stale, and it is overwritten when the Task is requested again.
+  private Map<TaskStatusLocator, ContainerRequest> taskContainerRequests = new HashMap<>();
+  private Boolean containerRequestSubmissionScheduled = false;
+  // TaskRoleName -> The LaunchContext shared by all Tasks of the TaskRole, which is
+  // overlaid with the Task specific environments to launch each Task.
+  // It is rebuilt once the TaskRole's ServiceDescriptor is updated or the ContainerIpList is uploaded.
+  private Map<String, ContainerLaunchContext> taskRoleLaunchContexts = new HashMap<>();
+  // TaskRoleName -> The ServiceDescriptor with which the TaskRole's LaunchContext is built
+  private Map<String, ServiceDescriptor> taskRoleLaunchContextServices = new HashMap<>();
   private Map<String, Integer> containerConnectionExceedCount = new HashMap<>();
 
   /**
@@ -138,7 +160,11 @@ protected void initialize() throws Exception {
     // Start NMClient
     nmClient = NMClientAsync.createNMClientAsync(
         new NMClientCallbackHandler(this));
-    nmClient.init(conf.getYarnConfig());
+    // NMClientAsync starts Containers in parallel by its thread pool
+    YarnConfiguration nmClientConfig = new YarnConfiguration(conf.getYarnConfig());
+    nmClientConfig.setInt(YarnConfiguration.NM_CLIENT_ASYNC_THREAD_POOL_MAX_SIZE,
+        conf.getLauncherConfig().getAmContainerStartMaxConcurrency());
+    nmClient.init(nmClientConfig);
     nmClient.start();
 
     // Start YarnClient
@@ -150,6 +176,8 @@ protected void initialize() throws Exception {
     // Initialize Launcher Store
     zkStore = new ZookeeperStore(conf.getZkConnectString(), conf.getZkRootDir());
     conf.initializeDependOnZKStoreConfig(zkStore);
+    zkStore.setObjectFormat(conf.getLauncherConfig().getZkObjectFormat());
+    zkStore.setTaskStatusesSharded(conf.getLauncherConfig().getZkTaskStatusesSharded());
     hdfsStore = new HdfsStore(conf.getLauncherConfig().getHdfsRootDir());
     hdfsStore.makeFrameworkRootDir(conf.getFrameworkName());
     hdfsStore.makeAMStoreRootDir(conf.getFrameworkName());
@@ -161,6 +189,10 @@ protected void initialize() throws Exception {
 
     aaAllocationManager = new AntiaffinityAllocationManager();
     gpuAllocationManager = new GpuAllocationManager();
+    nodeInventory = new NodeInventory(conf.getLauncherConfig().getAmNodeInventoryRefreshIntervalSec());
+    containerRequestQueue = new ContainerRequestQueue(
+        conf.getAmRmHeartbeatIntervalSec(),
+        conf.getLauncherConfig().getAmContainerRequestMaxCountPerHeartbeat());
     rmResyncHandler = new RMResyncHandler(this, conf);
   }
 
@@ -315,7 +347,7 @@ private ContainerRequest setupContainerRequest(TaskStatus taskStatus) throws Exc
     String nodeLabel = requestManager.getPlatParams().getTaskNodeLabel();
     Boolean aaAllocation = requestManager.getPlatParams().getAntiaffinityAllocation();
     ResourceDescriptor resource = requestManager.getTaskResources().get(taskRoleName);
-    Integer priority = requestManager.getTaskRoles().get(taskRoleName).getPriority();
+    Integer priority = getRequestPriority(taskStatus);
     Resource maxResource = conf.getMaxResource();
     ResourceDescriptor maxRes = ResourceDescriptor.fromResource(maxResource);
 
@@ -330,12 +362,7 @@ private ContainerRequest setupContainerRequest(TaskStatus taskStatus) throws Exc
     }
 
     if (resource.getGpuNumber() > 0) {
-      // Used to workaround for bug YARN-314.
-      // We need to make sure the Priority for each different GPU request are also different.
-      priority = (priority << 16) + taskStatus.getTaskIndex();
-
-      List<NodeReport> nodeReport = yarnClient.getNodeReports(NodeState.RUNNING);
-      updateNodeReport(nodeReport, resource);
+      refreshNodeInventoryIfDue();
 
       Node candidateRequestNode = gpuAllocationManager.allocateCandidateRequestNode(resource, nodeLabel);
       if (candidateRequestNode != null) {
@@ -476,7 +503,7 @@ private void attemptToStop(TaskStatus taskStatus) throws IOException {
     }
   }
 
-  // Only can be used in completeContainer, onTaskToRemove or to release a not live associated Container.
+  // Only can be used in completeContainer, onTaskToRemove, onGangAllocationTimeout or to release a not live associated Container.
   // Should use completeContainer to release a live associated Container or need to log
   // the diagnostics of a Container.
   private Boolean tryToReleaseContainer(String containerId) {
@@ -514,28 +541,60 @@ private float getApplicationProgress() throws Exception {
     }
   }
 
-  private TaskStatus findTask(Container container) throws Exception {
+  // The Priority to request Container for the Task, which is also used to match the Allocated Container to it.
+  private Integer getRequestPriority(TaskStatus taskStatus) {
+    String taskRoleName = taskStatus.getTaskRoleName();
+    ResourceDescriptor resourceDescriptor = requestManager.getTaskResources().get(taskRoleName);
+
+    Integer priority = requestManager.getTaskRoles().get(taskRoleName).getPriority();
+    if (resourceDescriptor.getGpuNumber() > 0) {
+      // Used to workaround for bug YARN-314.
+      // We need to make sure the Priority for each different GPU request are also different
+      priority = (priority << 16) + taskStatus.getTaskIndex();
+    }
+    return priority;
+  }
+
+  // Index the CONTAINER_REQUESTED Tasks by their ContainerRequest Key, so that each Allocated
+  // Container is only matched against the Tasks requested with the same Resource and Priority.
+  // RequestKey -> CONTAINER_REQUESTED Tasks in the order of TaskIndex
+  private Map<String, LinkedList<TaskStatus>> indexRequestedTasks() throws Exception {
     List<TaskStatus> taskStatuses = statusManager.getTaskStatus(
         new HashSet<>(Collections.singletonList(TaskState.CONTAINER_REQUESTED)));
 
     // Higher Priority for Lower TaskIndex, since updateTaskNumbers update tail Tasks firstly.
     taskStatuses.sort(Comparator.comparing(TaskStatus::getTaskIndex));
+
+    Map<String, LinkedList<TaskStatus>> requestedTasks = new HashMap<>();
     for (TaskStatus taskStatus : taskStatuses) {
-      String taskRoleName = taskStatus.getTaskRoleName();
-      ResourceDescriptor resourceDescriptor = requestManager.getTaskResources().get(taskRoleName);
+      ResourceDescriptor resourceDescriptor = requestManager.getTaskResources().get(taskStatus.getTaskRoleName());
+      String requestKey = HadoopExtensions.toRequestKey(
+          resourceDescriptor.toResource(), HadoopExtensions.toPriority(getRequestPriority(taskStatus)));
+      requestedTasks.computeIfAbsent(requestKey, k -> new LinkedList<>()).add(taskStatus);
+    }
+    return requestedTasks;
+  }
 
-      Integer priority = requestManager.getTaskRoles().get(taskRoleName).getPriority();
-      if (resourceDescriptor.getGpuNumber() > 0) {
-        // Used to workaround for bug YARN-314.
-        // We need to make sure the Priority for each different GPU request are also different
-        priority = (priority << 16) + taskStatus.getTaskIndex();
+  private TaskStatus findTask(Map<String, LinkedList<TaskStatus>> requestedTasks, Container container) throws Exception {
+    LinkedList<TaskStatus> taskStatuses = requestedTasks.get(
+        HadoopExtensions.toRequestKey(container.getResource(), container.getPriority()));
+    if (taskStatuses == null) {
+      return null;
+    }
+
+    Long containerGpuAttribute = ResourceDescriptor.fromResource(container.getResource()).getGpuAttribute();
+    Iterator<TaskStatus> iter = taskStatuses.iterator();
+    while (iter.hasNext()) {
+      TaskStatus taskStatus = iter.next();
+      // The Task may be Transitioned after indexed
+      if (taskStatus.getTaskState() != TaskState.CONTAINER_REQUESTED) {
+        iter.remove();
+        continue;
       }
 
-      Long containerGpuAttribute = ResourceDescriptor.fromResource(container.getResource()).getGpuAttribute();
-      if (HadoopExtensions.equals(resourceDescriptor.toResource(), container.getResource()) &&
-          HadoopExtensions.equals(HadoopExtensions.toPriority(priority), container.getPriority()) &&
-          (containerGpuAttribute == 0 || taskStatus.getContainerGpus() == 0 ||
-              taskStatus.getContainerGpus().longValue() == containerGpuAttribute.longValue())) {
+      if (containerGpuAttribute == 0 || taskStatus.getContainerGpus() == 0 ||
+          taskStatus.getContainerGpus().longValue() == containerGpuAttribute.longValue()) {
+        iter.remove();
         return taskStatus;
       }
     }
@@ -571,9 +630,7 @@ private Boolean testContainer(Container container) {
     return true;
   }
 
-  private ContainerLaunchContext setupContainerLaunchContext(TaskStatus taskStatus) throws Exception {
-    String taskRoleName = taskStatus.getTaskRoleName();
-    Integer taskIndex = taskStatus.getTaskIndex();
+  private ContainerLaunchContext setupTaskRoleLaunchContext(String taskRoleName) throws Exception {
     Integer serviceVersion = getServiceVersion(taskRoleName);
 
     UserDescriptor user = requestManager.getUser();
@@ -605,7 +662,6 @@ private ContainerLaunchContext setupContainerLaunchContext(TaskStatus taskStatus
     localEnvs.put(GlobalConstants.ENV_VAR_FRAMEWORK_NAME, conf.getFrameworkName());
     localEnvs.put(GlobalConstants.ENV_VAR_FRAMEWORK_VERSION, conf.getFrameworkVersion().toString());
     localEnvs.put(GlobalConstants.ENV_VAR_TASK_ROLE_NAME, taskRoleName);
-    localEnvs.put(GlobalConstants.ENV_VAR_TASK_INDEX, taskIndex.toString());
     localEnvs.put(GlobalConstants.ENV_VAR_SERVICE_VERSION, serviceVersion.toString());
 
     localEnvs.put(GlobalConstants.ENV_VAR_ZK_CONNECT_STRING, conf.getZkConnectString());
@@ -614,15 +670,6 @@ private ContainerLaunchContext setupContainerLaunchContext(TaskStatus taskStatus
     localEnvs.put(GlobalConstants.ENV_VAR_APP_ID, conf.getApplicationId());
     localEnvs.put(GlobalConstants.ENV_VAR_ATTEMPT_ID, conf.getAttemptId());
 
-    localEnvs.put(GlobalConstants.ENV_VAR_CONTAINER_GPUS, Long.toBinaryString(taskStatus.getContainerGpus()));
-
-    if (generateContainerIpList) {
-      // Since one machine may have many external IPs, we assigned a specific one to
-      // help the UserService to locate itself in CONTAINER_IP_LIST_FILE
-      localEnvs.put(GlobalConstants.ENV_VAR_CONTAINER_IP, taskStatus.getContainerIp());
-    }
-
-
     // SetupEntryPoint
     String command = String.format(
         "%1$s 1>%2$sstdout 2>%2$sstderr",
@@ -638,6 +685,47 @@ private ContainerLaunchContext setupContainerLaunchContext(TaskStatus taskStatus
     return launchContext;
   }
 
+  private ContainerLaunchContext getTaskRoleLaunchContext(String taskRoleName) throws Exception {
+    ServiceDescriptor service = requestManager.getTaskServices().get(taskRoleName);
+    if (!taskRoleLaunchContexts.containsKey(taskRoleName) ||
+        taskRoleLaunchContextServices.get(taskRoleName) != service) {
+      taskRoleLaunchContexts.put(taskRoleName, setupTaskRoleLaunchContext(taskRoleName));
+      taskRoleLaunchContextServices.put(taskRoleName, service);
+    }
+    return taskRoleLaunchContexts.get(taskRoleName);
+  }
+
+  private void invalidateTaskRoleLaunchContexts() {
+    taskRoleLaunchContexts.clear();
+    taskRoleLaunchContextServices.clear();
+  }
+
+  private ContainerLaunchContext setupContainerLaunchContext(TaskStatus taskStatus) throws Exception {
+    String taskRoleName = taskStatus.getTaskRoleName();
+    Integer taskIndex = taskStatus.getTaskIndex();
+    Boolean generateContainerIpList = requestManager.getPlatParams().getGenerateContainerIpList();
+    ContainerLaunchContext taskRoleLaunchContext = getTaskRoleLaunchContext(taskRoleName);
+
+    // Overlay the Task specific environments on the TaskRole's
+    Map<String, String> localEnvs = new HashMap<>(taskRoleLaunchContext.getEnvironment());
+    localEnvs.put(GlobalConstants.ENV_VAR_TASK_INDEX, taskIndex.toString());
+    localEnvs.put(GlobalConstants.ENV_VAR_CONTAINER_GPUS, Long.toBinaryString(taskStatus.getContainerGpus()));
+
+    if (generateContainerIpList) {
+      // Since one machine may have many external IPs, we assigned a specific one to
+      // help the UserService to locate itself in CONTAINER_IP_LIST_FILE
+      localEnvs.put(GlobalConstants.ENV_VAR_CONTAINER_IP, taskStatus.getContainerIp());
+    }
+
+    ContainerLaunchContext launchContext = Records.newRecord(ContainerLaunchContext.class);
+    launchContext.setLocalResources(taskRoleLaunchContext.getLocalResources());
+    launchContext.setCommands(taskRoleLaunchContext.getCommands());
+    launchContext.setServiceData(new HashMap<>());
+    launchContext.setEnvironment(localEnvs);
+
+    return launchContext;
+  }
+
   private void updateAntiaffinityAllocation(List<String> accessibleHostNames) {
     Boolean aaAllocation = requestManager.getPlatParams().getAntiaffinityAllocation();
     if (aaAllocation) {
@@ -651,30 +739,86 @@ private void updateAntiaffinityAllocation(List<String> accessibleHostNames) {
     }
   }
 
-  private void updateNodeReport(List<NodeReport> nodeReports) throws Exception {
-    updateNodeReport(nodeReports, ResourceDescriptor.newInstance(0, 0, 0, 0L));
+  private Node toNode(NodeReport nodeReport) throws Exception {
+    return new Node(nodeReport.getNodeId().getHost(), nodeReport.getNodeLabels(),
+        ResourceDescriptor.fromResource(nodeReport.getCapability()),
+        ResourceDescriptor.fromResource(nodeReport.getUsed()));
+  }
+
+  // Get the RUNNING NodeReports from the NodeInventory instead of RM.
+  private List<NodeReport> getNodeReports() throws Exception {
+    refreshNodeInventoryIfDue();
+    return nodeInventory.getNodeReports();
   }
 
-  private void updateNodeReport(List<NodeReport> nodeReports, ResourceDescriptor requestedResource) throws Exception {
+  // Refresh the NodeInventory with a full snapshot from RM at most once per AmNodeInventoryRefreshIntervalSec,
+  // so that the Node resources used by other Applications are eventually synced.
+  // The resources allocated by this AM in between are tracked by the Node itself, and returned to
+  // the Node once their Containers are completed or released, see releaseNodeResource.
+  private void refreshNodeInventoryIfDue() throws Exception {
+    if (!nodeInventory.isRefreshDue()) {
+      return;
+    }
+
     Boolean aaAllocation = requestManager.getPlatParams().getAntiaffinityAllocation();
+    List<NodeReport> removedNodeReports = nodeInventory.refresh(yarnClient.getNodeReports(NodeState.RUNNING));
+    for (NodeReport nodeReport : removedNodeReports) {
+      if (aaAllocation) {
+        aaAllocationManager.removeCandidateRequestHostName(nodeReport.getNodeId().getHost());
+      }
+      gpuAllocationManager.removeCandidateRequestNode(toNode(nodeReport));
+    }
+
+    // AntiaffinityAllocation candidates are fully updated by updateAntiaffinityAllocation, since
+    // the Nodes which are live associated should not be candidates.
+    for (NodeReport nodeReport : nodeInventory.getNodeReports()) {
+      gpuAllocationManager.addCandidateRequestNode(toNode(nodeReport));
+    }
+  }
+
+  // Refresh the NodeInventory periodically once it is used, so that a ContainerRequest seldom
+  // needs to wait for the full snapshot from RM.
+  private void queueNodeInventoryRefresh() {
+    if (nodeInventory.getRefreshIntervalMs() <= 0) {
+      // Already refreshed for each ContainerRequest
+      return;
+    }
 
+    transitionTaskStateQueue.queueSystemTaskDelayed(() -> {
+      if (nodeInventory.isRefreshed()) {
+        refreshNodeInventoryIfDue();
+      }
+      queueNodeInventoryRefresh();
+    }, nodeInventory.getRefreshIntervalMs());
+  }
+
+  // Release the resources allocated by this AM on the Node of the Container, so that they can be
+  // allocated again before the Node is refreshed from RM.
+  // Only the GPU requests allocate resources on the Node, see setupContainerRequest.
+  private void releaseNodeResource(TaskStatus taskStatus, String hostName) {
+    ResourceDescriptor resource = requestManager.getTaskResources().get(taskStatus.getTaskRoleName());
+    Long containerGpus = taskStatus.getContainerGpus();
+    if (resource == null || resource.getGpuNumber() <= 0 || hostName == null || containerGpus == null) {
+      return;
+    }
+    gpuAllocationManager.releaseCandidateRequestNodeResource(hostName, resource, containerGpus);
+  }
+
+  // Apply the Node deltas from AM RM heartbeat.
+  private void updateNodeReport(List<NodeReport> nodeReports) throws Exception {
+    Boolean aaAllocation = requestManager.getPlatParams().getAntiaffinityAllocation();
+
+    nodeInventory.update(nodeReports);
     for (NodeReport nodeReport : nodeReports) {
       String hostName = nodeReport.getNodeId().getHost();
       NodeState state = nodeReport.getNodeState();
-      Set<String> labelSet = nodeReport.getNodeLabels();
+      Node node = toNode(nodeReport);
 
-      Node node = new Node(hostName, labelSet,
-          ResourceDescriptor.fromResource(nodeReport.getCapability()),
-          ResourceDescriptor.fromResource(nodeReport.getUsed()));
-
-      if (state == NodeState.RUNNING ||
-          state == NodeState.NEW) {
+      if (NodeInventory.isUsable(state)) {
         if (aaAllocation) {
           aaAllocationManager.addCandidateRequestHostName(hostName);
         }
-        if (requestedResource.getGpuNumber() > 0) {
-          gpuAllocationManager.addCandidateRequestNode(node);
-        }
+        gpuAllocationManager.addCandidateRequestNode(node);
       } else if (
           state == NodeState.DECOMMISSIONED ||
               state == NodeState.LOST ||
@@ -682,9 +826,7 @@ private void updateNodeReport(List<NodeReport> nodeReports, ResourceDescriptor r
         if (aaAllocation) {
           aaAllocationManager.removeCandidateRequestHostName(hostName);
         }
-        if (requestedResource.getGpuNumber() > 0) {
-          gpuAllocationManager.removeCandidateRequestNode(node);
-        }
+        gpuAllocationManager.removeCandidateRequestNode(node);
       }
     }
   }
@@ -750,20 +892,84 @@ private void recoverTransitionTaskStateQueue() {
     LOGGER.logInfo("All the previous CONTAINER_COMPLETED Tasks have been driven");
   }
 
-  private void addContainerRequest(TaskStatus taskStatus) throws Exception {
+  private void addContainerRequest(TaskStatus taskStatus, ContainerRequest request) throws Exception {
     String taskRoleName = taskStatus.getTaskRoleName();
     TaskStatusLocator taskLocator = new TaskStatusLocator(taskRoleName, taskStatus.getTaskIndex());
-    ContainerRequest request = setupContainerRequest(taskStatus);
 
     LOGGER.logInfo("%s: addContainerRequest: %s", taskLocator, HadoopExtensions.toString(request));
-    rmClient.addContainerRequest(request);
+    containerRequestQueue.add(request);
+    taskContainerRequests.put(taskLocator, request);
     statusManager.transitionTaskState(taskLocator, TaskState.CONTAINER_REQUESTED);
   }
 
+  private void addContainerRequest(TaskStatus taskStatus) throws Exception {
+    if (isInGangAllocationRetryBackoff()) {
+      return;
+    }
+
+    addContainerRequest(taskStatus, setupContainerRequest(taskStatus));
+    submitContainerRequests();
+  }
+
   private void addContainerRequest() throws Exception {
+    if (isInGangAllocationRetryBackoff()) {
+      return;
+    }
+
+    // TaskRoleName -> The ContainerRequest coalesced for all TASK_WAITING Tasks of the TaskRole
+    Map<String, ContainerRequest> coalescedRequests = new HashMap<>();
     for (TaskStatus taskStatus : statusManager.getTaskStatus(
         new HashSet<>(Collections.singletonList(TaskState.TASK_WAITING)))) {
-      addContainerRequest(taskStatus);
+      // Skip the Tasks which are still in their retry backoff, and request them after it
+      if (isInRetryBackoff(taskStatus)) {
+        addContainerRequestAfterBackoff(taskStatus);
+        continue;
+      }
+
+      String taskRoleName = taskStatus.getTaskRoleName();
+      ContainerRequest request = coalescedRequests.get(taskRoleName);
+      if (request == null) {
+        request = setupContainerRequest(taskStatus);
+        if (isContainerRequestCoalescable(taskRoleName)) {
+          coalescedRequests.put(taskRoleName, request);
+        }
+      }
+      addContainerRequest(taskStatus, request);
+    }
+    submitContainerRequests();
+  }
+
+  private Boolean isInRetryBackoff(TaskStatus taskStatus) {
+    return taskStatus.getTaskRetryPolicyState().getRetryNotBeforeTimestamp() > System.currentTimeMillis();
+  }
+
+  // The ContainerRequest is identical for all Tasks of the TaskRole, if it is not setup with a
+  // Task specific HostName or GPUs.
+  private Boolean isContainerRequestCoalescable(String taskRoleName) {
+    String nodeLabel = requestManager.getPlatParams().getTaskNodeLabel();
+    Boolean aaAllocation = requestManager.getPlatParams().getAntiaffinityAllocation();
+    ResourceDescriptor resource = requestManager.getTaskResources().get(taskRoleName);
+
+    if (resource.getGpuNumber() > 0) {
+      return false;
+    }
+    return (nodeLabel != null || !aaAllocation);
+  }
+
+  // Submit the queued ContainerRequests which are allowed in current AM RM heartbeat, and
+  // schedule the remaining ones to the next heartbeat.
+  // AMRMClient itself aggregates the identical ContainerRequests into one ResourceRequest.
+  private void submitContainerRequests() {
+    for (ContainerRequest request : containerRequestQueue.poll()) {
+      rmClient.addContainerRequest(request);
+    }
+
+    if (containerRequestQueue.size() > 0 && !containerRequestSubmissionScheduled) {
+      containerRequestSubmissionScheduled = true;
+      transitionTaskStateQueue.queueSystemTaskDelayed(() -> {
+        containerRequestSubmissionScheduled = false;
+        submitContainerRequests();
+      }, containerRequestQueue.getHeartbeatIntervalMs());
     }
   }
 
@@ -783,12 +989,68 @@ private void retryTask(TaskStatus taskStatus, RetryPolicyState newRetryPolicySta
     String taskRoleName = taskStatus.getTaskRoleName();
     TaskStatusLocator taskLocator = new TaskStatusLocator(taskRoleName, taskStatus.getTaskIndex());
 
+    // Calculate before the transition, since the Container Timestamps are cleared by it
+    int retryDelaySec = calcTaskRetryDelaySec(taskStatus, newRetryPolicyState);
+
     LOGGER.logSplittedLines(Level.INFO,
-        "%s: retryTask: NewRetryPolicyState:\n%s",
-        taskLocator, WebCommon.toJson(newRetryPolicyState));
+        "%s: retryTask: RetryDelaySec: %s, NewRetryPolicyState:\n%s",
+        taskLocator, retryDelaySec, WebCommon.toJson(newRetryPolicyState));
 
+    newRetryPolicyState.setRetryNotBeforeTimestamp(
+        retryDelaySec > 0 ? System.currentTimeMillis() + retryDelaySec * 1000L : 0L);
     statusManager.transitionTaskState(taskLocator, TaskState.TASK_WAITING, null, 0, null, newRetryPolicyState);
-    addContainerRequest(taskStatus);
+    if (retryDelaySec <= 0) {
+      addContainerRequest(taskStatus);
+    } else {
+      addContainerRequestAfterBackoff(statusManager.getTaskStatus(taskLocator));
+    }
+  }
+
+  // Backoff in TASK_WAITING, so that it can still be driven by others, such as the AM restart recovery.
+  // The delayed request is ignored if the Task has been requested or retried again during the backoff.
+  private void addContainerRequestAfterBackoff(TaskStatus taskStatus) {
+    String taskRoleName = taskStatus.getTaskRoleName();
+    TaskStatusLocator taskLocator = new TaskStatusLocator(taskRoleName, taskStatus.getTaskIndex());
+    Long retryNotBeforeTimestamp = taskStatus.getTaskRetryPolicyState().getRetryNotBeforeTimestamp();
+
+    transitionTaskStateQueue.queueSystemTaskDelayed(() -> {
+      if (!statusManager.containsTask(taskLocator)) {
+        return;
+      }
+
+      TaskStatus waitingTaskStatus = statusManager.getTaskStatus(taskLocator);
+      if (waitingTaskStatus.getTaskState() != TaskState.TASK_WAITING) {
+        LOGGER.logDebug("%s: addContainerRequestAfterBackoff: Skipped since the Task is already in [%s]",
+            taskLocator, waitingTaskStatus.getTaskState());
+        return;
+      }
+      if (!retryNotBeforeTimestamp.equals(
+          waitingTaskStatus.getTaskRetryPolicyState().getRetryNotBeforeTimestamp())) {
+        LOGGER.logDebug("%s: addContainerRequestAfterBackoff: Skipped since it is for a previous Retry",
+            taskLocator);
+        return;
+      }
+      addContainerRequest(waitingTaskStatus);
+    }, Math.max(retryNotBeforeTimestamp - System.currentTimeMillis(), 0));
+  }
+
+  // Calculate the RetryDelaySec by exponential backoff with jitter, and record the backoff in the newRetryPolicyState.
+  private int calcTaskRetryDelaySec(TaskStatus taskStatus, RetryPolicyState newRetryPolicyState) {
+    RetryPolicyDescriptor retryPolicy = requestManager.getTaskRetryPolicies().get(taskStatus.getTaskRoleName());
+    int minDelaySec = retryPolicy.getRetryMinDelaySec();
+    int maxDelaySec = Math.max(minDelaySec, retryPolicy.getRetryMaxDelaySec());
+    if (minDelaySec <= 0) {
+      newRetryPolicyState.setRetryDelaySec(0);
+      return 0;
+    }
+
+    // The backoff is reset if the Container has run long enough
+    int retryDelaySec = RetryPolicy.calcExponentialBackoffDelay(
+        newRetryPolicyState.getRetryDelaySec(),
+        taskStatus.getContainerLaunchedTimestamp(), taskStatus.getContainerCompletedTimestamp(),
+        minDelaySec, maxDelaySec);
+    newRetryPolicyState.setRetryDelaySec(retryDelaySec);
+    return RetryPolicy.calcRandomJitterDelay(retryDelaySec);
   }
 
   // Implement TaskRetryPolicy
@@ -798,7 +1060,7 @@ private void attemptToRetry(TaskStatus taskStatus) throws Exception {
     Integer exitCode = taskStatus.getContainerExitCode();
     ExitType exitType = taskStatus.getContainerExitType();
     Integer retriedCount = taskStatus.getTaskRetryPolicyState().getRetriedCount();
-    RetryPolicyState newRetryPolicyState = YamlUtils.deepCopy(taskStatus.getTaskRetryPolicyState(), RetryPolicyState.class);
+    RetryPolicyState newRetryPolicyState = ModelUtils.deepCopy(taskStatus.getTaskRetryPolicyState());
     String logPrefix = String.format("%s: attemptToRetry: ", taskLocator);
 
     LOGGER.logSplittedLines(Level.INFO,
@@ -916,6 +1178,7 @@ private void completeContainer(String containerId, int exitCode, String diagnost
         "%s%s\n%s",
         taskLocator, logSuffix, generateContainerDiagnostics(taskStatus, linePrefix));
 
+    releaseNodeResource(taskStatus, taskStatus.getContainerHost());
     statusManager.transitionTaskState(taskLocator, TaskState.CONTAINER_COMPLETED, null, exitCode, diagnostics);
 
     // Post-mortem CONTAINER_COMPLETED Task
@@ -1043,18 +1306,18 @@ private Set<String> resyncTasksWithLiveContainers(HashSet<String> liveContainerI
     return retainContainerIds;
   }
 
-  private void allocateContainer(Container container) throws Exception {
+  private void allocateContainer(
+      Map<String, LinkedList<TaskStatus>> requestedTasks, Container container) throws Exception {
     String containerId = container.getId().toString();
     String containerHostName = container.getNodeId().getHost();
     Boolean aaAllocation = requestManager.getPlatParams().getAntiaffinityAllocation();
-    Boolean generateContainerIpList = requestManager.getPlatParams().getGenerateContainerIpList();
 
     LOGGER.logInfo(
         "[%s]: allocateContainer: Try to Allocate Container to Task: Container: %s",
         containerId, HadoopExtensions.toString(container));
 
     // 1. findTask
-    TaskStatus taskStatus = findTask(container);
+    TaskStatus taskStatus = findTask(requestedTasks, container);
     if (taskStatus == null) {
       LOGGER.logDebug(
           "[%s]: Cannot find a suitable Task to accept the Allocate Container. It should be exceeded.",
@@ -1071,6 +1334,7 @@ private void allocateContainer(Container container) throws Exception {
           "%s[%s]: Container is Rejected, Release Container and Request again",
           taskLocator, containerId);
       tryToReleaseContainer(containerId);
+      releaseNodeResource(taskStatus, containerHostName);
       addContainerRequest(taskStatus);
       return;
     }
@@ -1097,7 +1361,7 @@ private void allocateContainer(Container container) throws Exception {
     }
 
     // 4. launchContainer
-    if (!generateContainerIpList) {
+    if (!isLaunchContainersTogether()) {
       launchContainer(taskStatus, container);
     } else {
       allocatedContainers.put(containerId, container);
@@ -1105,12 +1369,132 @@ private void allocateContainer(Container container) throws Exception {
       int neverBeenAllocatedTaskCount = statusManager.getTaskCount(
           new HashSet<>(Arrays.asList(TaskState.TASK_WAITING, TaskState.CONTAINER_REQUESTED)));
       if (neverBeenAllocatedTaskCount == 0) {
+        endGangAllocationRound(true);
         launchContainersTogether();
       } else {
         LOGGER.logInfo(
             "Waiting for %s never been CONTAINER_ALLOCATED Tasks to become CONTAINER_ALLOCATED, " +
-                "since GenerateContainerIpList enabled",
+                "since GangAllocation or GenerateContainerIpList enabled",
             neverBeenAllocatedTaskCount);
+        if (isGangAllocation()) {
+          startGangAllocationRound();
+        }
+      }
+    }
+  }
+
+  // Hold the CONTAINER_ALLOCATED Tasks until all Tasks become CONTAINER_ALLOCATED and then Launch them together.
+  private Boolean isLaunchContainersTogether() {
+    return requestManager.getPlatParams().getGangAllocation() ||
+        requestManager.getPlatParams().getGenerateContainerIpList();
+  }
+
+  // Only the explicit GangAllocation releases the partial allocation after timeout, since it may change
+  // the behavior of the legacy Frameworks which only enable GenerateContainerIpList.
+  private Boolean isGangAllocation() {
+    return requestManager.getPlatParams().getGangAllocation();
+  }
+
+  // The Tasks are left in TASK_WAITING during the backoff, and they are all requested once it expires.
+  private Boolean isInGangAllocationRetryBackoff() {
+    if (gangAllocationRetryNotBeforeTimestamp > System.currentTimeMillis()) {
+      LOGGER.logDebug("Skip to addContainerRequest, since it is still in the GangAllocation retry backoff");
+      return true;
+    }
+    return false;
+  }
+
+  private void startGangAllocationRound() {
+    if (gangAllocationRoundStarted) {
+      return;
+    }
+
+    long round = gangAllocationRound;
+    Integer timeoutSec = requestManager.getPlatParams().getGangAllocationTimeoutSec();
+    gangAllocationRoundStarted = true;
+
+    LOGGER.logInfo(
+        "startGangAllocationRound: Round %s will be timeout after %ss if not all Tasks become CONTAINER_ALLOCATED",
+        round, timeoutSec);
+    transitionTaskStateQueue.queueSystemTaskDelayed(() -> {
+      onGangAllocationTimeout(round);
+    }, timeoutSec * 1000L);
+  }
+
+  private void endGangAllocationRound(Boolean succeeded) {
+    gangAllocationRound++;
+    gangAllocationRoundStarted = false;
+    if (succeeded) {
+      gangAllocationTimeoutCount = 0;
+    } else {
+      gangAllocationTimeoutCount++;
+    }
+  }
+
+  // Release all held Containers and remove all outstanding ContainerRequests of the timeout round,
+  // so that the partial allocation will not hold resources idle, and request them again after backoff,
+  // so that the Frameworks which are competing for the same resources have chance to complete their allocation.
+  private void onGangAllocationTimeout(long round) throws Exception {
+    if (!gangAllocationRoundStarted || round != gangAllocationRound) {
+      return;
+    }
+    endGangAllocationRound(false);
+
+    List<TaskStatus> taskStatuses = statusManager.getTaskStatus(
+        new HashSet<>(Collections.singletonList(TaskState.CONTAINER_ALLOCATED)));
+    List<TaskStatus> requestedTaskStatuses = statusManager.getTaskStatus(
+        new HashSet<>(Collections.singletonList(TaskState.CONTAINER_REQUESTED)));
+    Integer retryIntervalSec = requestManager.getPlatParams().getGangAllocationRetryIntervalSec();
+    Integer maxRetryIntervalSec = requestManager.getPlatParams().getGangAllocationMaxRetryIntervalSec();
+    long backoffSec = Math.min(
+        (long) retryIntervalSec << Math.min(gangAllocationTimeoutCount - 1, 30),
+        maxRetryIntervalSec);
+
+    LOGGER.logWarning(
+        "onGangAllocationTimeout: Round %s is timeout for %s consecutive times. " +
+            "Will release %s held Containers, remove %s outstanding ContainerRequests " +
+            "and request them again after %ss",
+        round, gangAllocationTimeoutCount, taskStatuses.size(), requestedTaskStatuses.size(), backoffSec);
+
+    for (TaskStatus taskStatus : taskStatuses) {
+      String taskRoleName = taskStatus.getTaskRoleName();
+      TaskStatusLocator taskLocator = new TaskStatusLocator(taskRoleName, taskStatus.getTaskIndex());
+      String containerId = taskStatus.getContainerId();
+
+      // The held Container is never launched, so just release it and wait to request again
+      tryToReleaseContainer(containerId);
+      releaseNodeResource(taskStatus, taskStatus.getContainerHost());
+      allocatedContainers.remove(containerId);
+      statusManager.transitionTaskState(taskLocator, TaskState.TASK_WAITING);
+    }
+
+    for (TaskStatus taskStatus : requestedTaskStatuses) {
+      TaskStatusLocator taskLocator = new TaskStatusLocator(taskStatus.getTaskRoleName(), taskStatus.getTaskIndex());
+      removeContainerRequest(taskLocator);
+      statusManager.transitionTaskState(taskLocator, TaskState.TASK_WAITING);
+    }
+
+    gangAllocationRetryNotBeforeTimestamp = System.currentTimeMillis() + backoffSec * 1000;
+    transitionTaskStateQueue.queueSystemTaskDelayed(() -> {
+      gangAllocationRetryNotBeforeTimestamp = 0;
+      addContainerRequest();
+    }, backoffSec * 1000);
+  }
+
+  // Remove the outstanding ContainerRequest of the CONTAINER_REQUESTED Task, from the ContainerRequestQueue
+  // if it is not submitted yet, otherwise from RM.
+  private void removeContainerRequest(TaskStatusLocator taskLocator) throws Exception {
+    ContainerRequest request = taskContainerRequests.remove(taskLocator);
+    if (request == null) {
+      return;
+    }
+
+    LOGGER.logInfo("%s: removeContainerRequest: %s", taskLocator, HadoopExtensions.toString(request));
+    if (!containerRequestQueue.remove(request)) {
+      try {
+        rmClient.removeContainerRequest(request);
+      } catch (Exception e) {
+        LOGGER.logError(e, "%s: Failed to removeContainerRequest", taskLocator);
       }
     }
   }
@@ -1120,12 +1504,18 @@ private void allocateContainers(List<Container> containers) throws Exception {
         "allocateContainers: Try to Allocate %s Containers to Tasks",
         containers.size());
 
+    Map<String, LinkedList<TaskStatus>> requestedTasks = indexRequestedTasks();
     for (Container container : containers) {
-      allocateContainer(container);
+      allocateContainer(requestedTasks, container);
     }
   }
 
   private void launchContainer(TaskStatus taskStatus, Container container) throws Exception {
+    launchContainer(taskStatus, container, setupContainerLaunchContext(taskStatus));
+  }
+
+  private void launchContainer(
+      TaskStatus taskStatus, Container container, ContainerLaunchContext launchContext) throws Exception {
     String taskRoleName = taskStatus.getTaskRoleName();
     TaskStatusLocator taskLocator = new TaskStatusLocator(taskRoleName, taskStatus.getTaskIndex());
     String containerId = container.getId().toString();
@@ -1133,7 +1523,7 @@ private void launchContainer(TaskStatus taskStatus, Container container) throws
 
     LOGGER.logInfo("%s[%s]: launchContainer", taskLocator, containerId);
 
-    ContainerLaunchContext launchContext = setupContainerLaunchContext(taskStatus);
+    // The Container is started asynchronously by the NMClientAsync thread pool
     nmClient.startContainerAsync(container, launchContext);
     statusManager.transitionTaskState(taskLocator, TaskState.CONTAINER_LAUNCHED);
   }
@@ -1145,6 +1535,7 @@ private void launchContainersTogether() throws Exception {
 
     LOGGER.logInfo("launchContainersTogether: %s Tasks", taskStatuses.size());
 
+    long uploadStartTimestamp = System.currentTimeMillis();
     if (generateContainerIpList) {
       StringBuilder fileContent = new StringBuilder();
       for (TaskStatus taskStatus : taskStatuses) {
@@ -1156,18 +1547,33 @@ private void launchContainersTogether() throws Exception {
       try {
         hdfsStore.uploadContainerIpListFile(conf.getFrameworkName());
         HadoopUtils.invalidateLocalResourcesCache();
+        invalidateTaskRoleLaunchContexts();
       } catch (Exception e) {
         // It contains HDFS OP, so handle the corresponding Exception ASAP
         handleException(e);
       }
     }
 
+    long uploadDurationMs = System.currentTimeMillis() - uploadStartTimestamp;
+
+    long setupContextDurationMs = 0;
+    long startContainerDurationMs = 0;
     for (TaskStatus taskStatus : taskStatuses) {
       String containerId = taskStatus.getContainerId();
       assert allocatedContainers.containsKey(containerId);
 
-      launchContainer(taskStatus, allocatedContainers.get(taskStatus.getContainerId()));
+      long setupContextStartTimestamp = System.currentTimeMillis();
+      ContainerLaunchContext launchContext = setupContainerLaunchContext(taskStatus);
+      long startContainerStartTimestamp = System.currentTimeMillis();
+      launchContainer(taskStatus, allocatedContainers.get(containerId), launchContext);
+      setupContextDurationMs += startContainerStartTimestamp - setupContextStartTimestamp;
+      startContainerDurationMs += System.currentTimeMillis() - startContainerStartTimestamp;
     }
+
+    LOGGER.logInfo(
+        "launchContainersTogether: Launched %s Tasks. Latency: UploadContainerIpList: %sms, " +
+            "SetupLaunchContext: %sms, DispatchStartContainer: %sms",
+        taskStatuses.size(), uploadDurationMs, setupContextDurationMs, startContainerDurationMs);
   }
 
   private void onContainerStartSucceeded(String containerId) throws Exception {
@@ -1184,8 +1590,9 @@ private void onContainerStartSucceeded(String containerId) throws Exception {
     String linePrefix = String.format("%s: ", taskLocator);
 
     LOGGER.logSplittedLines(Level.INFO,
-        "%s%s\n%s",
-        taskLocator, logSuffix, generateContainerDiagnostics(taskStatus, linePrefix));
+        "%s%s: Started %sms after launched\n%s",
+        taskLocator, logSuffix, System.currentTimeMillis() - taskStatus.getContainerLaunchedTimestamp(),
+        generateContainerDiagnostics(taskStatus, linePrefix));
 
     statusManager.transitionTaskState(taskLocator, TaskState.CONTAINER_RUNNING);
   }
@@ -1251,8 +1658,8 @@ public void onTaskNodeLabelUpdated(String taskNodeLabel) throws Exception {
       effectiveTaskNodeLabel = taskNodeLabel;
     }
 
-    List<String> accessibleHostNames = HadoopUtils.getCurrentAccessibleHostNames(yarnClient, effectiveTaskNodeLabel);
     transitionTaskStateQueue.queueSystemTask(() -> {
+      List<String> accessibleHostNames = HadoopUtils.getAccessibleHostNames(getNodeReports(), effectiveTaskNodeLabel);
       updateAntiaffinityAllocation(accessibleHostNames);
     });
   }
@@ -1298,6 +1705,7 @@ public void onStartRMResyncHandler() {
 
   public void onStartTransitionTaskStateQueue() {
     LOGGER.logInfo("onStartTransitionTaskStateQueue");
+    queueNodeInventoryRefresh();
     transitionTaskStateQueue.start();
     LOGGER.logInfo("Running TransitionTaskStateQueue");
   }
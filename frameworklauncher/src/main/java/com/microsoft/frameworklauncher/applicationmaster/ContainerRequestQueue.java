@@ -0,0 +1,90 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.applicationmaster;
+
+import com.microsoft.frameworklauncher.utils.DefaultLogger;
+import org.apache.hadoop.yarn.client.api.AMRMClient.ContainerRequest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// Queue the ContainerRequests to be submitted to RM, and release them in batched steps
+// across AM RM heartbeats, so that a large TaskRole will not inflate the AM RM ask list
+// and the RM scheduling cost all at once.
+public class ContainerRequestQueue { // THREAD SAFE
+  private static final DefaultLogger LOGGER = new DefaultLogger(ContainerRequestQueue.class);
+
+  private final long heartbeatIntervalMs;
+  // Non-positive value means no limit.
+  private final int maxCountPerHeartbeat;
+
+  private final ArrayDeque<ContainerRequest> pendingRequests = new ArrayDeque<>();
+  private long currentHeartbeatStartTimestamp = 0;
+  private int currentHeartbeatPolledCount = 0;
+
+  public ContainerRequestQueue(int heartbeatIntervalSec, int maxCountPerHeartbeat) {
+    this.heartbeatIntervalMs = heartbeatIntervalSec * 1000L;
+    this.maxCountPerHeartbeat = maxCountPerHeartbeat;
+  }
+
+  public synchronized void add(ContainerRequest request) {
+    pendingRequests.addLast(request);
+  }
+
+  // Poll the ContainerRequests which can be submitted in current heartbeat.
+  public synchronized List<ContainerRequest> poll() {
+    long currentTimestamp = System.currentTimeMillis();
+    if (currentTimestamp - currentHeartbeatStartTimestamp >= heartbeatIntervalMs) {
+      currentHeartbeatStartTimestamp = currentTimestamp;
+      currentHeartbeatPolledCount = 0;
+    }
+
+    int pollCount = pendingRequests.size();
+    if (maxCountPerHeartbeat > 0) {
+      pollCount = Math.min(pollCount, maxCountPerHeartbeat - currentHeartbeatPolledCount);
+    }
+
+    List<ContainerRequest> requests = new ArrayList<>(Math.max(pollCount, 0));
+    for (int i = 0; i < pollCount; i++) {
+      requests.add(pendingRequests.pollFirst());
+    }
+    currentHeartbeatPolledCount += requests.size();
+
+    if (pendingRequests.size() > 0) {
+      LOGGER.logInfo(
+          "poll: %s ContainerRequests polled, %s ContainerRequests are deferred to next heartbeat",
+          requests.size(), pendingRequests.size());
+    }
+    return requests;
+  }
+
+  // Remove the ContainerRequest which is not polled yet.
+  // Return false if it is not in the queue, such as it has been polled.
+  public synchronized boolean remove(ContainerRequest request) {
+    return pendingRequests.removeFirstOccurrence(request);
+  }
+
+  public synchronized int size() {
+    return pendingRequests.size();
+  }
+
+  public long getHeartbeatIntervalMs() {
+    return heartbeatIntervalMs;
+  }
+}
@@ -20,67 +20,107 @@
 import com.microsoft.frameworklauncher.common.model.ResourceDescriptor;
 import com.microsoft.frameworklauncher.utils.DefaultLogger;
 
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Set;
-
+import java.util.*;
+
+// The candidate request Nodes are indexed by NodeLabel and then by available GPU number, so that
+// a Node can be allocated without scanning all Nodes:
+//  1. Best fit: the Node with the least available GPUs which can satisfy the request is allocated,
+//  so that the Nodes with more available GPUs are reserved for the larger requests.
+//  2. The GPUs are selected in an aligned power of 2 group if possible, since such a group is usually
+//  under the same PCIe switch, see selectCandidateGPU.
 public class GpuAllocationManager { // THREAD SAFE
   private static final DefaultLogger LOGGER = new DefaultLogger(GpuAllocationManager.class);
+  private static final int MAX_GPU_NUMBER = Long.SIZE;
 
   // Candidate request Nodes for this application
-  private final LinkedHashMap<String, Node> candidateRequestNodes = new LinkedHashMap<>();
+  // HostName -> Node
+  private final Map<String, Node> candidateRequestNodes = new HashMap<>();
+  // HostName -> The AvailableNumGpus with which the Node is indexed
+  private final Map<String, Integer> indexedAvailableNumGpus = new HashMap<>();
+  // NodeLabel -> AvailableNumGpus -> Nodes in the order of being indexed
+  // The null NodeLabel indexes all Nodes, since it matches any Node.
+  private final Map<String, TreeMap<Integer, LinkedHashSet<Node>>> nodeIndex = new HashMap<>();
+
+  private List<String> getIndexLabels(Node node) {
+    List<String> labels = new ArrayList<>();
+    labels.add(null);
+    if (node.getNodeLabels() != null) {
+      labels.addAll(node.getNodeLabels());
+    }
+    return labels;
+  }
+
+  private void indexNode(Node node) {
+    int availableNumGpus = node.getAvailableNumGpus();
+    indexedAvailableNumGpus.put(node.getHostName(), availableNumGpus);
+    for (String label : getIndexLabels(node)) {
+      nodeIndex.computeIfAbsent(label, k -> new TreeMap<>())
+          .computeIfAbsent(availableNumGpus, k -> new LinkedHashSet<>())
+          .add(node);
+    }
+  }
+
+  private void unindexNode(Node node) {
+    Integer availableNumGpus = indexedAvailableNumGpus.remove(node.getHostName());
+    if (availableNumGpus == null) {
+      return;
+    }
+    for (String label : getIndexLabels(node)) {
+      TreeMap<Integer, LinkedHashSet<Node>> labelIndex = nodeIndex.get(label);
+      LinkedHashSet<Node> nodes = labelIndex.get(availableNumGpus);
+      nodes.remove(node);
+      if (nodes.isEmpty()) {
+        labelIndex.remove(availableNumGpus);
+      }
+      if (labelIndex.isEmpty()) {
+        nodeIndex.remove(label);
+      }
+    }
+  }
 
   public synchronized void addCandidateRequestNode(Node candidateRequestNode) {
-    if (!candidateRequestNodes.containsKey(candidateRequestNode.getHostName())) {
-      LOGGER.logInfo("addCandidateRequestNode: %s", candidateRequestNode.getHostName());
-      candidateRequestNodes.put(candidateRequestNode.getHostName(), candidateRequestNode);
+    String hostName = candidateRequestNode.getHostName();
+    if (!candidateRequestNodes.containsKey(hostName)) {
+      LOGGER.logDebug("addCandidateRequestNode: %s", hostName);
+      candidateRequestNodes.put(hostName, candidateRequestNode);
+      indexNode(candidateRequestNode);
     } else {
-      Node existNode = candidateRequestNodes.get(candidateRequestNode.getHostName());
+      Node existNode = candidateRequestNodes.get(hostName);
+      unindexNode(existNode);
       existNode.updateNode(candidateRequestNode);
-      LOGGER.logInfo("updateCandidateRequestNode: %s ", existNode);
+      indexNode(existNode);
+      LOGGER.logDebug("updateCandidateRequestNode: %s ", existNode);
     }
   }
 
   // According to the request resource, find a candidate node.
-  // To improve it, considers the GPU topology structure, find a node which can minimize
-  // the communication cost between GPUs;
   public synchronized Node allocateCandidateRequestNode(ResourceDescriptor request, String nodeLabel) {
     LOGGER.logInfo(
         "allocateCandidateRequestNode: Request resources:" + request.toString());
 
-    Iterator<Map.Entry<String, Node>> iter = candidateRequestNodes.entrySet().iterator();
     Node candidateNode = null;
-    long candidateSelectGPU = 0;
-
-    while (iter.hasNext()) {
-      Map.Entry<String, Node> entry = iter.next();
-      LOGGER.logInfo(
-          "allocateCandidateRequestNode: Try node: " + entry.getValue().toString());
-
-      if (nodeLabel != null) {
-        Set<String> nodeLabels = entry.getValue().getNodeLabels();
-        if (!nodeLabels.contains(nodeLabel)) {
-          LOGGER.logInfo(
-              "allocateCandidateRequestNode: Skip node %s, label does not match:%s",
-              entry.getValue().getHostName(), nodeLabel);
-          continue;
+    TreeMap<Integer, LinkedHashSet<Node>> labelIndex = nodeIndex.get(nodeLabel);
+    if (request.getGpuNumber() > 0 && labelIndex != null) {
+      // Only the Nodes with enough available GPUs are tried, from the least to the most available GPUs
+      for (LinkedHashSet<Node> nodes : labelIndex.tailMap(request.getGpuNumber(), true).values()) {
+        for (Node node : nodes) {
+          if (request.getMemoryMB() <= node.getAvailableMemory() &&
+              request.getCpuNumber() <= node.getAvailableCpu()) {
+            candidateNode = node;
+            break;
+          }
         }
-      }
-
-      if (request.getMemoryMB() <= entry.getValue().getAvailableMemory() &&
-          request.getCpuNumber() <= entry.getValue().getAvailableCpu() &&
-          request.getGpuNumber() <= entry.getValue().getAvailableNumGpus()) {
-        if (request.getGpuNumber() > 0) {
-          candidateNode = entry.getValue();
-          candidateSelectGPU = selectCandidateGPU(candidateNode, request.getGpuNumber());
+        if (candidateNode != null) {
+          break;
         }
-        break;
       }
     }
 
     if (candidateNode != null) {
+      long candidateSelectGPU = selectCandidateGPU(candidateNode, request.getGpuNumber());
+      unindexNode(candidateNode);
       candidateNode.allocateResource(request, candidateSelectGPU);
+      indexNode(candidateNode);
       LOGGER.logInfo(
           "allocateCandidateRequestNode: select node: " + candidateNode.toString());
     } else {
@@ -92,11 +132,53 @@ public synchronized Node allocateCandidateRequestNode(ResourceDescriptor request
     return candidateNode;
   }
 
+  // Select the requested number of GPUs from the available GPUs of the Node:
+  //  1. Select them in the smallest aligned power of 2 group which can hold them, such as GPU 0-1, 2-3, 0-3, 4-7,
+  //  since the GPUs in such a group are usually under the same PCIe switch and have less communication cost.
+  //  2. Among the candidate groups, prefer the one with the least available GPUs, and then the one whose
+  //  enclosing group has the least available GPUs, so that the larger free groups are kept for larger requests.
+  //  3. If no group can hold them, select them sequentially from the lowest available GPU.
   public synchronized long selectCandidateGPU(Node candidateNode, int requestGPUCount) {
-    long candidateSelectGPU = 0;
     long availableGPU = candidateNode.getNodeGpuStatus();
 
-    // Sequentially select GPUs.
+    for (int groupSize = Integer.highestOneBit(Math.max(requestGPUCount * 2 - 1, 1));
+         groupSize <= MAX_GPU_NUMBER; groupSize *= 2) {
+      long bestGroupGPU = 0;
+      int bestGroupScore = Integer.MAX_VALUE;
+
+      for (int offset = 0; offset < MAX_GPU_NUMBER; offset += groupSize) {
+        long groupGPU = availableGPU & getGroupMask(offset, groupSize);
+        int groupAvailableNumGpus = Long.bitCount(groupGPU);
+        if (groupAvailableNumGpus < requestGPUCount) {
+          continue;
+        }
+
+        int parentSize = Math.min(groupSize * 2, MAX_GPU_NUMBER);
+        int parentOffset = offset / parentSize * parentSize;
+        int parentAvailableNumGpus = Long.bitCount(availableGPU & getGroupMask(parentOffset, parentSize));
+        int groupScore = groupAvailableNumGpus * (MAX_GPU_NUMBER + 1) + parentAvailableNumGpus;
+        if (groupScore < bestGroupScore) {
+          bestGroupScore = groupScore;
+          bestGroupGPU = groupGPU;
+        }
+      }
+
+      if (bestGroupScore != Integer.MAX_VALUE) {
+        return selectLowestGPU(bestGroupGPU, requestGPUCount);
+      }
+    }
+
+    return selectLowestGPU(availableGPU, requestGPUCount);
+  }
+
+  private static long getGroupMask(int offset, int groupSize) {
+    long mask = (groupSize >= MAX_GPU_NUMBER ? -1L : (1L << groupSize) - 1);
+    return mask << offset;
+  }
+
+  // Sequentially select GPUs.
+  private static long selectLowestGPU(long availableGPU, int requestGPUCount) {
+    long candidateSelectGPU = 0;
     for (int i = 0; i < requestGPUCount; i++) {
       candidateSelectGPU += (availableGPU - (availableGPU & (availableGPU - 1)));
       availableGPU &= (availableGPU - 1);
@@ -104,11 +186,27 @@ public synchronized long selectCandidateGPU(Node candidateNode, int requestGPUCo
     return candidateSelectGPU;
   }
 
+  // Return the resources of the completed or released Container to its Node, so that they can be
+  // allocated again before the Node is refreshed from RM.
+  public synchronized void releaseCandidateRequestNodeResource(
+      String hostName, ResourceDescriptor resource, long gpuMap) {
+    Node node = candidateRequestNodes.get(hostName);
+    if (node == null) {
+      return;
+    }
+
+    unindexNode(node);
+    node.releaseResource(resource, gpuMap);
+    indexNode(node);
+    LOGGER.logDebug("releaseCandidateRequestNodeResource: %s", node);
+  }
+
   public synchronized void removeCandidateRequestNode(Node candidateRequestNode) {
-    if (candidateRequestNodes.containsKey(candidateRequestNode.getHostName())) {
-      LOGGER.logInfo("removeCandidateRequestNode: %s", candidateRequestNode.getHostName());
+    String hostName = candidateRequestNode.getHostName();
+    if (candidateRequestNodes.containsKey(hostName)) {
+      LOGGER.logDebug("removeCandidateRequestNode: %s", hostName);
 
-      candidateRequestNodes.remove(candidateRequestNode.getHostName());
+      unindexNode(candidateRequestNodes.remove(hostName));
     }
   }
 }
@@ -26,7 +26,8 @@ public class Node {
   private final String name;
   private ResourceDescriptor used;
   //localAllocated in remember the local tried request, it will remember the tried information don't re-try the same request in a AM life cycle.
-  //so here, it is no need to de-crease the localAllocated information once the container request success.
+  //so here, it is no need to de-crease the localAllocated information once the container request success,
+  //but it should be de-creased once the container is completed or released.
   private ResourceDescriptor localAllocated;
   private long selectedGpuBitmap;
   private Set<String> nodeLabels;
@@ -97,6 +98,13 @@ public void allocateResource(ResourceDescriptor resource, long gpuMap) {
     selectedGpuBitmap = gpuMap;
   }
 
+  public void releaseResource(ResourceDescriptor resource, long gpuMap) {
+    localAllocated.setCpuNumber(Math.max(localAllocated.getCpuNumber() - resource.getCpuNumber(), 0));
+    localAllocated.setMemoryMB(Math.max(localAllocated.getMemoryMB() - resource.getMemoryMB(), 0));
+    localAllocated.setGpuAttribute(localAllocated.getGpuAttribute() & (~gpuMap));
+    localAllocated.setGpuNumber(Math.max(localAllocated.getGpuNumber() - resource.getGpuNumber(), 0));
+  }
+
   @Override
   public String toString() {
     return this.name + "(capacity: " + this.capacity + ", used: " + this.used + ", localAllocated:" + this.localAllocated + ")";
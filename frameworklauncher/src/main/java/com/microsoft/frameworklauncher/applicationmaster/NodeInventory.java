@@ -0,0 +1,101 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.applicationmaster;
+
+import com.microsoft.frameworklauncher.utils.DefaultLogger;
+import org.apache.hadoop.yarn.api.records.NodeReport;
+import org.apache.hadoop.yarn.api.records.NodeState;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The in memory snapshot of the cluster's RUNNING Nodes shared by all allocations in AM.
+// It is refreshed by a full snapshot from RM at most once per RefreshInterval, and updated
+// by the Node deltas from AM RM heartbeat in between, so that the allocations need not get
+// the full snapshot from RM for each ContainerRequest.
+// Once it is used, it is also refreshed periodically by the AM, so that the refresh is not
+// always on the path of a ContainerRequest.
+public class NodeInventory { // THREAD SAFE
+  private static final DefaultLogger LOGGER = new DefaultLogger(NodeInventory.class);
+
+  private final long refreshIntervalMs;
+
+  // HostName -> Latest NodeReport of the RUNNING Node
+  private final Map<String, NodeReport> nodeReports = new HashMap<>();
+  // 0 means never refreshed
+  private long lastRefreshTimestamp = 0;
+
+  public NodeInventory(int refreshIntervalSec) {
+    this.refreshIntervalMs = refreshIntervalSec * 1000L;
+  }
+
+  public static Boolean isUsable(NodeState state) {
+    return (state == NodeState.RUNNING || state == NodeState.NEW);
+  }
+
+  // Whether the NodeInventory has been used by any allocation
+  public synchronized Boolean isRefreshed() {
+    return (lastRefreshTimestamp != 0);
+  }
+
+  public synchronized Boolean isRefreshDue() {
+    return (lastRefreshTimestamp == 0 ||
+        System.currentTimeMillis() - lastRefreshTimestamp >= refreshIntervalMs);
+  }
+
+  // Replace the snapshot with the full snapshot from RM.
+  // Return the NodeReports which are no longer in the snapshot.
+  public synchronized List<NodeReport> refresh(List<NodeReport> snapshotNodeReports) {
+    Map<String, NodeReport> removedNodeReports = new HashMap<>(nodeReports);
+    nodeReports.clear();
+    for (NodeReport nodeReport : snapshotNodeReports) {
+      if (isUsable(nodeReport.getNodeState())) {
+        String hostName = nodeReport.getNodeId().getHost();
+        nodeReports.put(hostName, nodeReport);
+        removedNodeReports.remove(hostName);
+      }
+    }
+    lastRefreshTimestamp = System.currentTimeMillis();
+
+    LOGGER.logInfo("refresh: %s Nodes, %s Nodes removed",
+        nodeReports.size(), removedNodeReports.size());
+    return new ArrayList<>(removedNodeReports.values());
+  }
+
+  // Apply the Node deltas from AM RM heartbeat.
+  public synchronized void update(List<NodeReport> updatedNodeReports) {
+    for (NodeReport nodeReport : updatedNodeReports) {
+      String hostName = nodeReport.getNodeId().getHost();
+      if (isUsable(nodeReport.getNodeState())) {
+        nodeReports.put(hostName, nodeReport);
+      } else {
+        nodeReports.remove(hostName);
+      }
+    }
+  }
+
+  public synchronized List<NodeReport> getNodeReports() {
+    return new ArrayList<>(nodeReports.values());
+  }
+
+  public long getRefreshIntervalMs() {
+    return refreshIntervalMs;
+  }
+}
@@ -44,6 +44,7 @@ public class RequestManager extends AbstractService {  // THREAD SAFE
   private final Configuration conf;
   private final ZookeeperStore zkStore;
   private final LauncherClientInternal launcherClient;
+  private final ChangeNotifier requestChangeNotifier = new ChangeNotifier();
 
 
   /**
@@ -119,6 +120,9 @@ protected Boolean handleException(Exception e) {
   protected void run() throws Exception {
     super.run();
 
+    // Subscribe before the first pull, so that no change after it will be missed
+    zkStore.subscribeFrameworkRequestChanges(conf.getFrameworkName(), () -> requestChangeNotifier.notifyChanged(null));
+
     new Thread(() -> {
       while (true) {
         try {
@@ -129,7 +133,9 @@ protected void run() throws Exception {
           handleException(e);
         } finally {
           try {
-            Thread.sleep(conf.getLauncherConfig().getAmRequestPullIntervalSec() * 1000);
+            // Pull ASAP once the AggregatedFrameworkRequest is notified to be changed, and
+            // still pull periodically as a resync in case any change is missed.
+            requestChangeNotifier.awaitChanges(conf.getLauncherConfig().getAmRequestPullIntervalSec() * 1000);
           } catch (InterruptedException e) {
             handleException(e);
           }
@@ -211,7 +217,7 @@ private void checkUnsupportedOnTheFlyChanges(FrameworkDescriptor newFrameworkDes
     }
 
     Boolean detectedUnsupportedChanges = false;
-    FrameworkDescriptor clonedNewFrameworkDescriptor = YamlUtils.deepCopy(newFrameworkDescriptor, FrameworkDescriptor.class);
+    FrameworkDescriptor clonedNewFrameworkDescriptor = ModelUtils.deepCopy(newFrameworkDescriptor);
     Map<String, TaskRoleDescriptor> clonedNewTaskRoles = clonedNewFrameworkDescriptor.getTaskRoles();
     Map<String, TaskRoleDescriptor> frameworkTaskRoles = frameworkDescriptor.getTaskRoles();
     for (Map.Entry<String, TaskRoleDescriptor> taskRole : frameworkTaskRoles.entrySet()) {
@@ -227,7 +233,7 @@ private void checkUnsupportedOnTheFlyChanges(FrameworkDescriptor newFrameworkDes
     }
 
     if (!detectedUnsupportedChanges) {
-      if (!YamlUtils.deepEquals(frameworkDescriptor, clonedNewFrameworkDescriptor)) {
+      if (!ModelUtils.deepEquals(frameworkDescriptor, clonedNewFrameworkDescriptor)) {
         detectedUnsupportedChanges = true;
       }
     }
@@ -238,7 +244,7 @@ private void checkUnsupportedOnTheFlyChanges(FrameworkDescriptor newFrameworkDes
   }
 
   private void updateFrameworkDescriptor(FrameworkDescriptor newFrameworkDescriptor) throws Exception {
-    if (YamlUtils.deepEquals(frameworkDescriptor, newFrameworkDescriptor)) {
+    if (ModelUtils.deepEquals(frameworkDescriptor, newFrameworkDescriptor)) {
       return;
     }
 
@@ -302,7 +308,7 @@ private void updateFrameworkDescriptor(FrameworkDescriptor newFrameworkDescripto
 
   private void updateOverrideApplicationProgressRequest(
       OverrideApplicationProgressRequest newOverrideApplicationProgressRequest) throws IOException {
-    if (YamlUtils.deepEquals(overrideApplicationProgressRequest, newOverrideApplicationProgressRequest)) {
+    if (ModelUtils.deepEquals(overrideApplicationProgressRequest, newOverrideApplicationProgressRequest)) {
       return;
     }
 
@@ -315,7 +321,7 @@ private void updateOverrideApplicationProgressRequest(
   }
 
   private void updateMigrateTaskRequests(Map<String, MigrateTaskRequest> newMigrateTaskRequests) throws IOException {
-    if (YamlUtils.deepEquals(migrateTaskRequests, newMigrateTaskRequests)) {
+    if (ModelUtils.deepEquals(migrateTaskRequests, newMigrateTaskRequests)) {
       return;
     }
 
@@ -21,6 +21,7 @@
 import com.microsoft.frameworklauncher.common.exceptions.NotAvailableException;
 import com.microsoft.frameworklauncher.common.model.*;
 import com.microsoft.frameworklauncher.utils.*;
+import com.microsoft.frameworklauncher.zookeeperstore.ZkWriteBatch;
 import com.microsoft.frameworklauncher.zookeeperstore.ZookeeperStore;
 import org.apache.hadoop.yarn.api.records.Container;
 import org.apache.zookeeper.KeeperException;
@@ -53,6 +54,10 @@ public class StatusManager extends AbstractService {  // THREAD SAFE
   private Map<String, Boolean> taskRoleStatusesChanged = new HashMap<>();
   // TaskRoleName -> TaskStatusesChanged
   private Map<String, Boolean> taskStatusesesChanged = new HashMap<>();
+  // TaskIndexes of the TaskStatus changed or removed since previous zkStore update,
+  // so that only the corresponding shards of TaskStatuses need to be pushed.
+  // TaskRoleName -> ChangedTaskIndexes
+  private Map<String, Set<Integer>> taskStatusesesChangedTaskIndexes = new HashMap<>();
 
   // Used to invert index TaskStatus by ContainerId/TaskState instead of TaskStatusLocator, i.e. TaskRoleName + TaskIndex
   // TaskState -> TaskStatusLocators
@@ -156,6 +161,7 @@ protected void recover() throws Exception {
 
         taskRoleStatusesChanged.put(taskRoleName, false);
         taskStatusesesChanged.put(taskRoleName, false);
+        taskStatusesesChangedTaskIndexes.put(taskRoleName, new HashSet<>());
 
         List<TaskStatus> taskStatusArray = taskStatuses.getTaskStatusArray();
         for (int taskIndex = 0; taskIndex < taskStatusArray.size(); taskIndex++) {
@@ -234,16 +240,17 @@ private synchronized void pushStatus() throws Exception {
       return;
     }
 
+    // Push all changed Statuses in one batch, so that they are committed in as few ZK transactions as possible
+    ZkWriteBatch batch = new ZkWriteBatch();
+    List<String> pushedTaskRoleStatuses = new ArrayList<>();
+    List<String> pushedTaskStatuseses = new ArrayList<>();
+
     // Push TaskRoleStatuses
     for (TaskRoleStatus taskRoleStatus : taskRoleStatuses.values()) {
       String taskRoleName = taskRoleStatus.getTaskRoleName();
       if (taskRoleStatusesChanged.get(taskRoleName)) {
-        LOGGER.logInfo("[%s]: Pushing TaskRoleStatus", taskRoleName);
-
-        zkStore.setTaskRoleStatus(conf.getFrameworkName(), taskRoleName, taskRoleStatuses.get(taskRoleName));
-        taskRoleStatusesChanged.put(taskRoleName, false);
-
-        LOGGER.logInfo("[%s]: Pushed TaskRoleStatus", taskRoleName);
+        zkStore.setTaskRoleStatus(batch, conf.getFrameworkName(), taskRoleName, taskRoleStatuses.get(taskRoleName));
+        pushedTaskRoleStatuses.add(taskRoleName);
       }
     }
 
@@ -251,15 +258,31 @@ private synchronized void pushStatus() throws Exception {
     for (TaskStatuses taskStatuses : taskStatuseses.values()) {
       String taskRoleName = taskStatuses.getTaskRoleName();
       if (taskStatusesesChanged.get(taskRoleName)) {
-        LOGGER.logInfo("[%s]: Pushing TaskStatuses", taskRoleName);
+        zkStore.setTaskStatuses(batch, conf.getFrameworkName(), taskRoleName, taskStatuseses.get(taskRoleName),
+            taskStatusesesChangedTaskIndexes.get(taskRoleName));
+        pushedTaskStatuseses.add(taskRoleName);
+      }
+    }
 
-        zkStore.setTaskStatuses(conf.getFrameworkName(), taskRoleName, taskStatuseses.get(taskRoleName));
-        taskStatusesesChanged.put(taskRoleName, false);
-        logTaskStateCounters(taskRoleName);
+    if (batch.isEmpty()) {
+      return;
+    }
 
-        LOGGER.logInfo("[%s]: Pushed TaskStatuses", taskRoleName);
-      }
+    LOGGER.logInfo("Pushing TaskRoleStatuses %s and TaskStatuseses %s",
+        pushedTaskRoleStatuses, pushedTaskStatuseses);
+
+    zkStore.commitBatch(batch);
+    for (String taskRoleName : pushedTaskRoleStatuses) {
+      taskRoleStatusesChanged.put(taskRoleName, false);
+    }
+    for (String taskRoleName : pushedTaskStatuseses) {
+      taskStatusesesChanged.put(taskRoleName, false);
+      taskStatusesesChangedTaskIndexes.get(taskRoleName).clear();
+      logTaskStateCounters(taskRoleName);
     }
+
+    LOGGER.logInfo("Pushed TaskRoleStatuses %s and TaskStatuseses %s",
+        pushedTaskRoleStatuses, pushedTaskStatuseses);
   }
 
   // Should call disassociateTaskWithContainer if associateTaskWithContainer failed
@@ -277,7 +300,7 @@ private void associateTaskWithContainer(TaskStatusLocator locator, Container con
     taskStatus.setContainerGpus(
         ResourceDescriptor.fromResource(container.getResource()).getGpuAttribute());
 
-    taskStatusesesChanged.put(locator.getTaskRoleName(), true);
+    markTaskStatusChanged(locator);
   }
 
   private void disassociateTaskWithContainer(TaskStatusLocator locator) {
@@ -296,7 +319,12 @@ private void disassociateTaskWithContainer(TaskStatusLocator locator) {
     taskStatus.setContainerExitType(ExitType.NOT_AVAILABLE);
     taskStatus.setContainerGpus(null);
 
+    markTaskStatusChanged(locator);
+  }
+
+  private void markTaskStatusChanged(TaskStatusLocator locator) {
     taskStatusesesChanged.put(locator.getTaskRoleName(), true);
+    taskStatusesesChangedTaskIndexes.get(locator.getTaskRoleName()).add(locator.getTaskIndex());
   }
 
   private void updateExtensionTaskStatusWithContainerLiveness(TaskStatusLocator locator, Boolean isLive) {
@@ -339,9 +367,8 @@ private void decreaseTaskNumber(String taskRoleName, int newTaskNumber) {
 
       // To ensure other Task's TaskIndex unchanged, we have to remove the Task at tail
       taskStatusArray.remove(taskIndex);
+      markTaskStatusChanged(locator);
     }
-
-    taskStatusesesChanged.put(taskRoleName, true);
   }
 
   private void removeExtensionTaskStatus(TaskStatusLocator locator) {
@@ -382,10 +409,10 @@ private void increaseTaskNumber(String taskRoleName, int newTaskNumber) {
       taskStatusArray.add(taskStatus);
 
       // Update ExtensionStatus
-      addExtensionTaskStatus(new TaskStatusLocator(taskRoleName, taskIndex));
+      TaskStatusLocator locator = new TaskStatusLocator(taskRoleName, taskIndex);
+      addExtensionTaskStatus(locator);
+      markTaskStatusChanged(locator);
     }
-
-    taskStatusesesChanged.put(taskRoleName, true);
   }
 
   private void addExtensionTaskStatus(TaskStatusLocator locator) {
@@ -402,7 +429,7 @@ private void setContainerConnectionLostCount(String containerId, int count) {
     TaskStatus taskStatus = getTaskStatusWithLiveAssociatedContainerId(containerId);
     if (taskStatus.getContainerConnectionLostCount() != count) {
       taskStatus.setContainerConnectionLostCount(count);
-      taskStatusesesChanged.put(taskStatus.getTaskRoleName(), true);
+      markTaskStatusChanged(new TaskStatusLocator(taskStatus.getTaskRoleName(), taskStatus.getTaskIndex()));
     }
   }
 
@@ -669,7 +696,7 @@ public synchronized void transitionTaskState(
     taskStatus.setTaskState(dstState);
 
     // Mark as changed
-    taskStatusesesChanged.put(locator.getTaskRoleName(), true);
+    markTaskStatusChanged(locator);
     LOGGER.logInfo("Transitioned Task %s from [%s] to [%s]", locator, srcState, dstState);
   }
 
@@ -695,6 +722,7 @@ public synchronized void updateTaskNumbers(Map<String, Integer> newTaskNumbers)
         taskStatuses.setFrameworkVersion(conf.getFrameworkVersion());
         taskStatuseses.put(newTaskRoleName, taskStatuses);
         taskStatusesesChanged.put(newTaskRoleName, true);
+        taskStatusesesChangedTaskIndexes.put(newTaskRoleName, new HashSet<>());
       }
 
       // Update TaskStatus
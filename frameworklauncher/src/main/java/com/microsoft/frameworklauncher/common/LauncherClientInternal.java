@@ -23,6 +23,7 @@
 import org.apache.http.entity.ContentType;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.function.Predicate;
@@ -47,12 +48,32 @@ public RequestedFrameworkNames getFrameworks() throws Exception {
   }
 
   public RequestedFrameworkNames getFrameworks(LaunchClientType launchClientType) throws Exception {
+    return getFrameworks(launchClientType, null, null, null, null);
+  }
+
+  // Get the FrameworkNames matched with all the given filters, the null filter matches all.
+  // The FrameworkNames are paginated if the limit is not null, and the returned NextStartAfter can be used
+  // as the startAfter to get the next page.
+  public RequestedFrameworkNames getFrameworks(
+      LaunchClientType launchClientType, FrameworkState frameworkState, String userName,
+      String startAfter, Integer limit) throws Exception {
     return executeWithRetry(() -> {
-      Map<String, String> parameters = null;
+      Map<String, String> parameters = new HashMap<>();
       if (launchClientType != null) {
-        parameters = new HashMap<>();
         parameters.put(WebCommon.LAUNCH_CLIENT_TYPE_REQUEST_HEADER, launchClientType.toString());
       }
+      if (frameworkState != null) {
+        parameters.put(WebCommon.FRAMEWORK_STATE_QUERY_PARAM, frameworkState.toString());
+      }
+      if (userName != null) {
+        parameters.put(WebCommon.USER_NAME_QUERY_PARAM, userName);
+      }
+      if (startAfter != null) {
+        parameters.put(WebCommon.START_AFTER_QUERY_PARAM, startAfter);
+      }
+      if (limit != null) {
+        parameters.put(WebCommon.LIMIT_QUERY_PARAM, limit.toString());
+      }
       return webClient.get(WebStructure.FRAMEWORK_ROOT_PATH, parameters);
     }, RequestedFrameworkNames.class);
   }
@@ -72,6 +93,17 @@ public void putFramework(String frameworkName, FrameworkDescriptor frameworkDesc
     });
   }
 
+  // Put the Frameworks together, and the result of each Framework is returned instead of thrown.
+  public BatchFrameworkResults putFrameworks(BatchFrameworkDescriptors batchFrameworkDescriptors) throws Exception {
+    return executeWithRetry(() -> {
+      ModelValidation.validate(batchFrameworkDescriptors);
+      return webClient.put(
+          WebStructure.BATCH_FRAMEWORKS_PATH,
+          ContentType.APPLICATION_JSON,
+          WebCommon.toJson(batchFrameworkDescriptors));
+    }, BatchFrameworkResults.class);
+  }
+
   public void putTaskNumber(String frameworkName, String taskRoleName, UpdateTaskNumberRequest updateTaskNumberRequest) throws Exception {
     executeWithRetry(() -> {
       ModelValidation.validate(frameworkName);
@@ -148,6 +180,80 @@ public TaskStatuses getTaskStatuses(String frameworkName, String taskRoleName) t
     });
   }
 
+  // List at most limit FrameworkStatuses after the startAfter in the FrameworkName order, which are matched with
+  // all the given filters, the null filter matches all, and the null limit means the max limit.
+  // Only the given fields of each FrameworkStatus are meaningful, and all fields are returned if fields is null.
+  // The returned NextStartAfter can be used as the startAfter to get the next page.
+  public FrameworkStatusPage listFrameworkStatuses(
+      LaunchClientType launchClientType, FrameworkState frameworkState, String userName,
+      String startAfter, Integer limit, List<String> fields) throws Exception {
+    return executeWithRetry(() -> {
+      Map<String, String> parameters = new HashMap<>();
+      if (launchClientType != null) {
+        parameters.put(WebCommon.LAUNCH_CLIENT_TYPE_REQUEST_HEADER, launchClientType.toString());
+      }
+      if (frameworkState != null) {
+        parameters.put(WebCommon.FRAMEWORK_STATE_QUERY_PARAM, frameworkState.toString());
+      }
+      if (userName != null) {
+        parameters.put(WebCommon.USER_NAME_QUERY_PARAM, userName);
+      }
+      if (startAfter != null) {
+        parameters.put(WebCommon.START_AFTER_QUERY_PARAM, startAfter);
+      }
+      if (limit != null) {
+        parameters.put(WebCommon.LIMIT_QUERY_PARAM, limit.toString());
+      }
+      if (fields != null) {
+        parameters.put(WebCommon.FIELDS_QUERY_PARAM, String.join(",", fields));
+      }
+      return webClient.get(WebStructure.FRAMEWORK_STATUSES_PATH, parameters);
+    }, FrameworkStatusPage.class);
+  }
+
+  // Get the FrameworkStatuses together, and the not found ones are returned in the results instead of retried.
+  public BatchFrameworkStatuses getFrameworkStatuses(RequestedFrameworkNames frameworkNames) throws Exception {
+    return executeWithRetry(() -> {
+      return webClient.post(
+          WebStructure.BATCH_FRAMEWORK_STATUSES_PATH,
+          ContentType.APPLICATION_JSON,
+          WebCommon.toJson(frameworkNames));
+    }, BatchFrameworkStatuses.class);
+  }
+
+  // Block until the FrameworkStatusVersion is larger than the given frameworkStatusVersion or the timeoutSec
+  // elapsed, and then return the current WatchedFrameworkStatus.
+  // Null frameworkStatusVersion means return immediately, and the returned FrameworkStatusVersion can be used
+  // to watch the next change.
+  public WatchedFrameworkStatus watchFrameworkStatus(
+      String frameworkName, Long frameworkStatusVersion, int timeoutSec) throws Exception {
+    return executeWithRetry(() -> {
+      return webClient.get(
+          WebStructure.getFrameworkWatchPath(frameworkName),
+          getWatchParameters(frameworkStatusVersion, timeoutSec));
+    }, WatchedFrameworkStatus.class, (output) -> {
+      return shouldRetryGetStatus(output, frameworkName);
+    });
+  }
+
+  // Block until any FrameworkStatus is added, changed or removed after the given watchVersion or the timeoutSec
+  // elapsed, and then return the current WatchedFrameworkStatusVersions.
+  // Null watchVersion means return immediately.
+  public WatchedFrameworkStatusVersions watchFrameworkStatusVersions(Long watchVersion, int timeoutSec) throws Exception {
+    return executeWithRetry(() -> {
+      return webClient.get(WebStructure.WATCH_PATH, getWatchParameters(watchVersion, timeoutSec));
+    }, WatchedFrameworkStatusVersions.class);
+  }
+
+  private static Map<String, String> getWatchParameters(Long version, int timeoutSec) {
+    Map<String, String> parameters = new HashMap<>();
+    if (version != null) {
+      parameters.put(WebCommon.WATCH_VERSION_QUERY_PARAM, version.toString());
+    }
+    parameters.put(WebCommon.WATCH_TIMEOUT_SEC_QUERY_PARAM, String.valueOf(timeoutSec));
+    return parameters;
+  }
+
   public AggregatedFrameworkRequest getAggregatedFrameworkRequest(String frameworkName) throws Exception {
     return executeWithRetry(() -> {
       return webClient.get(WebStructure.getAggregatedFrameworkRequestPath(frameworkName));
@@ -166,6 +272,12 @@ public LauncherStatus getLauncherStatus() throws Exception {
     }, LauncherStatus.class);
   }
 
+  public WebServerStatus getWebServerStatus() throws Exception {
+    return executeWithRetry(() -> {
+      return webClient.get(WebStructure.WEB_SERVER_STATUS_PATH);
+    }, WebServerStatus.class);
+  }
+
   public LauncherRequest getLauncherRequest() throws Exception {
     return executeWithRetry(() -> {
       return webClient.get(WebStructure.LAUNCHER_REQUEST_PATH);
@@ -22,6 +22,7 @@
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
@@ -53,6 +54,12 @@ public WebClientOutput put(String relativeURI, ContentType contentType, String b
     return execute(() -> httpClient.execute(request));
   }
 
+  public WebClientOutput post(String relativeURI, ContentType contentType, String body) {
+    HttpPost request = new HttpPost(WebCommon.getURI(baseURI, relativeURI));
+    request.setEntity(new StringEntity(body, contentType));
+    return execute(() -> httpClient.execute(request));
+  }
+
   public WebClientOutput delete(String relativeURI) {
     HttpDelete request = new HttpDelete(WebCommon.getURI(baseURI, relativeURI));
     return execute(() -> httpClient.execute(request));
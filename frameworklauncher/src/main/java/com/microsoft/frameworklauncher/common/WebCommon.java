@@ -29,6 +29,30 @@
 public class WebCommon {
   public final static String LAUNCH_CLIENT_TYPE_REQUEST_HEADER = "LaunchClientType";
   public final static int SC_TOO_MANY_REQUESTS = 429;
+  public final static String RETRY_AFTER_HEADER = "Retry-After";
+
+  // Watch QueryParams, see WebStructure.FRAMEWORK_WATCH_PATH and WebStructure.WATCH_PATH
+  public final static String WATCH_VERSION_QUERY_PARAM = "Version";
+  public final static String WATCH_TIMEOUT_SEC_QUERY_PARAM = "TimeoutSec";
+  // It is also the default TimeoutSec, and it should be less than the client side socket timeout
+  public final static int MAX_WATCH_TIMEOUT_SEC = 60;
+  // The Retry-After of the Watch GET rejected since there are too many active watches
+  public final static int WATCH_RETRY_AFTER_SEC = 5;
+
+  // Framework List QueryParams, see WebStructure.FRAMEWORK_ROOT_PATH and WebStructure.FRAMEWORK_STATUSES_PATH
+  public final static String FRAMEWORK_STATE_QUERY_PARAM = "FrameworkState";
+  public final static String USER_NAME_QUERY_PARAM = "UserName";
+  // Only the FrameworkNames after the StartAfter in the sorted order are returned
+  public final static String START_AFTER_QUERY_PARAM = "StartAfter";
+  // The max number of FrameworkNames to be returned, the list is not paginated if it is not specified
+  public final static String LIMIT_QUERY_PARAM = "Limit";
+  // The comma separated FrameworkStatus fields to be returned, all fields are returned if it is not specified
+  public final static String FIELDS_QUERY_PARAM = "Fields";
+  // It is also the default Limit of the FrameworkStatus list
+  public final static int MAX_FRAMEWORK_STATUS_LIST_LIMIT = 1000;
+
+  // The max number of Frameworks in one batch request, see WebStructure.BATCH_FRAMEWORKS_PATH
+  public final static int MAX_BATCH_FRAMEWORK_NUMBER = 1000;
 
   public static String getURI(String baseURI, String relativeURI) {
     return getURI(baseURI, relativeURI, null);
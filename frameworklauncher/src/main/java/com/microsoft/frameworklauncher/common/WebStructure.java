@@ -35,11 +35,17 @@ public class WebStructure {
   public static final String VERSION_PATH = ROOT_PATH + "v1";
   public static final String LAUNCHER_STATUS_PATH = VERSION_PATH + PATH_SEPARATOR + "LauncherStatus";
   public static final String LAUNCHER_REQUEST_PATH = VERSION_PATH + PATH_SEPARATOR + "LauncherRequest";
+  public static final String WEB_SERVER_STATUS_PATH = VERSION_PATH + PATH_SEPARATOR + "WebServerStatus";
+  public static final String WATCH_PATH = VERSION_PATH + PATH_SEPARATOR + "Watch";
   public static final String DATA_DEPLOYMENT_VERSION_PATH = LAUNCHER_REQUEST_PATH + PATH_SEPARATOR + "DataDeploymentVersion";
   public static final String FRAMEWORK_ROOT_PATH = VERSION_PATH + PATH_SEPARATOR + "Frameworks";
+  public static final String BATCH_FRAMEWORKS_PATH = VERSION_PATH + PATH_SEPARATOR + "BatchFrameworks";
+  public static final String FRAMEWORK_STATUSES_PATH = VERSION_PATH + PATH_SEPARATOR + "FrameworkStatuses";
+  public static final String BATCH_FRAMEWORK_STATUSES_PATH = VERSION_PATH + PATH_SEPARATOR + "BatchFrameworkStatuses";
   public static final String FRAMEWORK_PATH = FRAMEWORK_ROOT_PATH + PATH_SEPARATOR + FRAMEWORK_NAME_PATH_PARAM_PLACEMENT;
   public static final String AGGREGATED_FRAMEWORK_STATUS_PATH = FRAMEWORK_PATH + PATH_SEPARATOR + "AggregatedFrameworkStatus";
   public static final String FRAMEWORK_STATUS_PATH = FRAMEWORK_PATH + PATH_SEPARATOR + "FrameworkStatus";
+  public static final String FRAMEWORK_WATCH_PATH = FRAMEWORK_PATH + PATH_SEPARATOR + "Watch";
   public static final String TASK_ROLE_PATH = FRAMEWORK_PATH + PATH_SEPARATOR + "TaskRoles" + PATH_SEPARATOR + TASK_ROLE_NAME_PATH_PARAM_PLACEMENT;
   public static final String TASK_ROLE_STATUS_PATH = TASK_ROLE_PATH + PATH_SEPARATOR + "TaskRoleStatus";
   public static final String TASK_STATUSES_PATH = TASK_ROLE_PATH + PATH_SEPARATOR + "TaskStatuses";
@@ -70,6 +76,11 @@ public static String getFrameworkStatusPath(String frameworkName) {
         .replace(FRAMEWORK_NAME_PATH_PARAM_PLACEMENT, frameworkName);
   }
 
+  public static String getFrameworkWatchPath(String frameworkName) {
+    return FRAMEWORK_WATCH_PATH
+        .replace(FRAMEWORK_NAME_PATH_PARAM_PLACEMENT, frameworkName);
+  }
+
   private static String getTaskRolePath(String frameworkName, String taskRoleName) {
     return TASK_ROLE_PATH
         .replace(FRAMEWORK_NAME_PATH_PARAM_PLACEMENT, frameworkName)
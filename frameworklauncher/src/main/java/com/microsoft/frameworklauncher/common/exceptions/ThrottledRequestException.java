@@ -19,6 +19,8 @@
 
 public class ThrottledRequestException extends TransientException {
   private static final long serialVersionUID = 1L;
+  // The seconds after which the request can be retried, or null if it is unknown
+  private Integer retryAfterSec = null;
 
   public ThrottledRequestException() {
     super();
@@ -35,4 +37,13 @@ public ThrottledRequestException(Throwable cause) {
   public ThrottledRequestException(String message, Throwable cause) {
     super(message, cause);
   }
+
+  public ThrottledRequestException(String message, Integer retryAfterSec) {
+    super(message);
+    this.retryAfterSec = retryAfterSec;
+  }
+
+  public Integer getRetryAfterSec() {
+    return retryAfterSec;
+  }
 }
\ No newline at end of file
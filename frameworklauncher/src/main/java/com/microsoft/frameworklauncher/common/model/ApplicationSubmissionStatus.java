@@ -0,0 +1,44 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.common.model;
+
+import java.io.Serializable;
+
+// The backpressure of the Service's Application submission pipeline
+public class ApplicationSubmissionStatus implements Serializable {
+  // Number of the created Applications which are waiting to setup their ApplicationSubmissionContexts
+  private Integer applicationSetupContextQueueLength = 0;
+  // Number of the setup Applications which are waiting to be submitted to RM, due to the RM QPS limit
+  private Integer applicationSubmitQueueLength = 0;
+
+  public Integer getApplicationSetupContextQueueLength() {
+    return applicationSetupContextQueueLength;
+  }
+
+  public void setApplicationSetupContextQueueLength(Integer applicationSetupContextQueueLength) {
+    this.applicationSetupContextQueueLength = applicationSetupContextQueueLength;
+  }
+
+  public Integer getApplicationSubmitQueueLength() {
+    return applicationSubmitQueueLength;
+  }
+
+  public void setApplicationSubmitQueueLength(Integer applicationSubmitQueueLength) {
+    this.applicationSubmitQueueLength = applicationSubmitQueueLength;
+  }
+}
@@ -0,0 +1,44 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.common.model;
+
+import java.io.Serializable;
+
+// The in-flight diagnostics retrievals of the Service's completed Applications
+public class DiagnosticsRetrieveStatus implements Serializable {
+  // Number of the Applications whose diagnostics are being retrieved
+  private Integer retrievingApplicationCount = 0;
+  // Number of the retrieving Applications which have failed to retrieve at least once
+  private Integer retryingApplicationCount = 0;
+
+  public Integer getRetrievingApplicationCount() {
+    return retrievingApplicationCount;
+  }
+
+  public void setRetrievingApplicationCount(Integer retrievingApplicationCount) {
+    this.retrievingApplicationCount = retrievingApplicationCount;
+  }
+
+  public Integer getRetryingApplicationCount() {
+    return retryingApplicationCount;
+  }
+
+  public void setRetryingApplicationCount(Integer retryingApplicationCount) {
+    this.retryingApplicationCount = retryingApplicationCount;
+  }
+}
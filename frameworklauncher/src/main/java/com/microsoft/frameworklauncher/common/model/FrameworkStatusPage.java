@@ -0,0 +1,45 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.common.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+// A page of the FrameworkStatus list, see WebStructure.FRAMEWORK_STATUSES_PATH
+public class FrameworkStatusPage implements Serializable {
+  // Sorted by FrameworkName, and only the projected fields are meaningful
+  private List<FrameworkStatus> frameworkStatuses;
+  // The StartAfter to get the next page, null if it is the last page, see WebCommon.START_AFTER_QUERY_PARAM
+  private String nextStartAfter;
+
+  public List<FrameworkStatus> getFrameworkStatuses() {
+    return frameworkStatuses;
+  }
+
+  public void setFrameworkStatuses(List<FrameworkStatus> frameworkStatuses) {
+    this.frameworkStatuses = frameworkStatuses;
+  }
+
+  public String getNextStartAfter() {
+    return nextStartAfter;
+  }
+
+  public void setNextStartAfter(String nextStartAfter) {
+    this.nextStartAfter = nextStartAfter;
+  }
+}
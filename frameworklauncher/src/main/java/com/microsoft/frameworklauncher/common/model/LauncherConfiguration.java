@@ -25,18 +25,46 @@ public class LauncherConfiguration implements Serializable {
   private String zkConnectString = "127.0.0.1:2181";
   private String zkRootDir = "/Launcher";
   private String hdfsRootDir = "/Launcher";
+  // The format to write the frequently changed and large objects into ZK.
+  // To migrate an existing cluster, upgrade all Launcher components with YAML first,
+  // since the legacy components can only read YAML.
+  private ZkObjectFormat zkObjectFormat = ZkObjectFormat.YAML;
+  // Whether to store the TaskStatuses in shards, so that only the changed shards are rewritten.
+  // To migrate an existing cluster, upgrade all Launcher components with false first,
+  // since the legacy components can only read the unsharded TaskStatuses.
+  private Boolean zkTaskStatusesSharded = false;
 
   // Service Setup
   private Integer serviceRMResyncIntervalSec = 60;
+  // Incremental resync only gets the live Applications and the Applications associated with Frameworks
+  // from RM, instead of all the LAUNCHER Applications including the completed ones retained by RM,
+  // and only feeds the changed ApplicationReports into the FrameworkStates.
+  private Boolean serviceRMResyncIncremental = true;
   private Integer serviceRequestPullIntervalSec = 30;
+  // The number of partitions to transition FrameworkStates in parallel.
+  // The SystemTasks of the same Framework are still transitioned in order.
+  private Integer serviceTransitionQueuePartitionCount = 8;
+  // The interval to update the Service's runtime Status in LauncherStatus, such as ApplicationSubmissionStatus.
+  private Integer serviceStatusUpdateIntervalSec = 10;
 
   // Application Setup
   private Integer applicationRetrieveDiagnosticsIntervalSec = 60;
   private Integer applicationRetrieveDiagnosticsMaxRetryCount = 15;
+  private Integer applicationRetrieveDiagnosticsThreadCount = 4;
+  // If at least ApplicationRetrieveDiagnosticsBatchMinCount Applications are due to retrieve at the same time,
+  // they will be retrieved by a single batched GetApplications instead of one by one, unless they are too few
+  // compared with the completed Applications retained in RM, i.e. yarn.resourcemanager.max-completed-applications.
+  private Integer applicationRetrieveDiagnosticsBatchMinCount = 20;
   private Integer applicationTransientConflictMinDelaySec = 600;
   private Integer applicationTransientConflictMaxDelaySec = 3600;
   private Integer applicationSetupContextMaxRetryCount = 3;
   private Integer applicationSetupContextRetryIntervalSec = 1;
+  // The bounded pipeline to setup and submit Applications, so that a burst of new Frameworks will
+  // neither overload HDFS nor RM, and the backpressure is exposed in LauncherStatus.
+  private Integer applicationSetupContextThreadCount = 20;
+  private Integer applicationSubmitThreadCount = 8;
+  // Non-positive value means no limit.
+  private Integer applicationSubmitMaxQps = 50;
 
   // Framework Setup
   // Completed Frameworks will ONLY be retained in recent FrameworkCompletedRetainSec,
@@ -77,12 +105,25 @@ public class LauncherConfiguration implements Serializable {
   // This can tolerate transient Exceptions, such as
   // RM InterruptedException (RM is shutting down during AM RM heartbeat).
   private Integer amRmClientMaxFailureCount = 3;
+  // The max count of ContainerRequests submitted to RM in one AM RM heartbeat, the remaining
+  // ContainerRequests will be submitted in the following heartbeats.
+  // Non-positive value means no limit.
+  private Integer amContainerRequestMaxCountPerHeartbeat = 1000;
+  // The max number of Containers started concurrently by AM, i.e. the max thread pool size of NMClientAsync.
+  private Integer amContainerStartMaxConcurrency = 100;
+  // The cluster Nodes used for allocation are fully refreshed from RM at most once per this interval,
+  // and updated by the Node changes from AM RM heartbeat in between.
+  private Integer amNodeInventoryRefreshIntervalSec = 30;
 
   // WebServer Setup
   private String webServerBindHost = "0.0.0.0";
   @Pattern(regexp = "https?://[^:^/]+:\\d+")
   private String webServerAddress = "http://localhost:9086";
   private Integer webServerStatusPullIntervalSec = 30;
+  // The max number of Watch GETs blocked concurrently, each of which holds a WebServer Thread.
+  // The Watch GETs beyond it are rejected as Too Many Requests with Retry-After, instead of returning immediately,
+  // which makes the watch loops of the clients poll frequently.
+  private Integer webServerMaxActiveWatchCount = 100;
 
 
   public String getZkConnectString() {
@@ -109,6 +150,22 @@ public void setHdfsRootDir(String hdfsRootDir) {
     this.hdfsRootDir = hdfsRootDir;
   }
 
+  public ZkObjectFormat getZkObjectFormat() {
+    return zkObjectFormat;
+  }
+
+  public void setZkObjectFormat(ZkObjectFormat zkObjectFormat) {
+    this.zkObjectFormat = zkObjectFormat;
+  }
+
+  public Boolean getZkTaskStatusesSharded() {
+    return zkTaskStatusesSharded;
+  }
+
+  public void setZkTaskStatusesSharded(Boolean zkTaskStatusesSharded) {
+    this.zkTaskStatusesSharded = zkTaskStatusesSharded;
+  }
+
   public Integer getServiceRMResyncIntervalSec() {
     return serviceRMResyncIntervalSec;
   }
@@ -117,6 +174,14 @@ public void setServiceRMResyncIntervalSec(Integer serviceRMResyncIntervalSec) {
     this.serviceRMResyncIntervalSec = serviceRMResyncIntervalSec;
   }
 
+  public Boolean getServiceRMResyncIncremental() {
+    return serviceRMResyncIncremental;
+  }
+
+  public void setServiceRMResyncIncremental(Boolean serviceRMResyncIncremental) {
+    this.serviceRMResyncIncremental = serviceRMResyncIncremental;
+  }
+
   public Integer getServiceRequestPullIntervalSec() {
     return serviceRequestPullIntervalSec;
   }
@@ -125,6 +190,22 @@ public void setServiceRequestPullIntervalSec(Integer serviceRequestPullIntervalS
     this.serviceRequestPullIntervalSec = serviceRequestPullIntervalSec;
   }
 
+  public Integer getServiceTransitionQueuePartitionCount() {
+    return serviceTransitionQueuePartitionCount;
+  }
+
+  public void setServiceTransitionQueuePartitionCount(Integer serviceTransitionQueuePartitionCount) {
+    this.serviceTransitionQueuePartitionCount = serviceTransitionQueuePartitionCount;
+  }
+
+  public Integer getServiceStatusUpdateIntervalSec() {
+    return serviceStatusUpdateIntervalSec;
+  }
+
+  public void setServiceStatusUpdateIntervalSec(Integer serviceStatusUpdateIntervalSec) {
+    this.serviceStatusUpdateIntervalSec = serviceStatusUpdateIntervalSec;
+  }
+
   public Integer getApplicationRetrieveDiagnosticsIntervalSec() {
     return applicationRetrieveDiagnosticsIntervalSec;
   }
@@ -141,6 +222,22 @@ public void setApplicationRetrieveDiagnosticsMaxRetryCount(Integer applicationRe
     this.applicationRetrieveDiagnosticsMaxRetryCount = applicationRetrieveDiagnosticsMaxRetryCount;
   }
 
+  public Integer getApplicationRetrieveDiagnosticsThreadCount() {
+    return applicationRetrieveDiagnosticsThreadCount;
+  }
+
+  public void setApplicationRetrieveDiagnosticsThreadCount(Integer applicationRetrieveDiagnosticsThreadCount) {
+    this.applicationRetrieveDiagnosticsThreadCount = applicationRetrieveDiagnosticsThreadCount;
+  }
+
+  public Integer getApplicationRetrieveDiagnosticsBatchMinCount() {
+    return applicationRetrieveDiagnosticsBatchMinCount;
+  }
+
+  public void setApplicationRetrieveDiagnosticsBatchMinCount(Integer applicationRetrieveDiagnosticsBatchMinCount) {
+    this.applicationRetrieveDiagnosticsBatchMinCount = applicationRetrieveDiagnosticsBatchMinCount;
+  }
+
   public Integer getApplicationTransientConflictMinDelaySec() {
     return applicationTransientConflictMinDelaySec;
   }
@@ -173,6 +270,30 @@ public void setApplicationSetupContextRetryIntervalSec(Integer applicationSetupC
     this.applicationSetupContextRetryIntervalSec = applicationSetupContextRetryIntervalSec;
   }
 
+  public Integer getApplicationSetupContextThreadCount() {
+    return applicationSetupContextThreadCount;
+  }
+
+  public void setApplicationSetupContextThreadCount(Integer applicationSetupContextThreadCount) {
+    this.applicationSetupContextThreadCount = applicationSetupContextThreadCount;
+  }
+
+  public Integer getApplicationSubmitThreadCount() {
+    return applicationSubmitThreadCount;
+  }
+
+  public void setApplicationSubmitThreadCount(Integer applicationSubmitThreadCount) {
+    this.applicationSubmitThreadCount = applicationSubmitThreadCount;
+  }
+
+  public Integer getApplicationSubmitMaxQps() {
+    return applicationSubmitMaxQps;
+  }
+
+  public void setApplicationSubmitMaxQps(Integer applicationSubmitMaxQps) {
+    this.applicationSubmitMaxQps = applicationSubmitMaxQps;
+  }
+
   public Integer getFrameworkCompletedRetainSec() {
     return frameworkCompletedRetainSec;
   }
@@ -277,6 +398,30 @@ public void setAmRmClientMaxFailureCount(Integer amRmClientMaxFailureCount) {
     this.amRmClientMaxFailureCount = amRmClientMaxFailureCount;
   }
 
+  public Integer getAmContainerRequestMaxCountPerHeartbeat() {
+    return amContainerRequestMaxCountPerHeartbeat;
+  }
+
+  public void setAmContainerRequestMaxCountPerHeartbeat(Integer amContainerRequestMaxCountPerHeartbeat) {
+    this.amContainerRequestMaxCountPerHeartbeat = amContainerRequestMaxCountPerHeartbeat;
+  }
+
+  public Integer getAmContainerStartMaxConcurrency() {
+    return amContainerStartMaxConcurrency;
+  }
+
+  public void setAmContainerStartMaxConcurrency(Integer amContainerStartMaxConcurrency) {
+    this.amContainerStartMaxConcurrency = amContainerStartMaxConcurrency;
+  }
+
+  public Integer getAmNodeInventoryRefreshIntervalSec() {
+    return amNodeInventoryRefreshIntervalSec;
+  }
+
+  public void setAmNodeInventoryRefreshIntervalSec(Integer amNodeInventoryRefreshIntervalSec) {
+    this.amNodeInventoryRefreshIntervalSec = amNodeInventoryRefreshIntervalSec;
+  }
+
   public String getWebServerBindHost() {
     return webServerBindHost;
   }
@@ -300,4 +445,12 @@ public Integer getWebServerStatusPullIntervalSec() {
   public void setWebServerStatusPullIntervalSec(Integer webServerStatusPullIntervalSec) {
     this.webServerStatusPullIntervalSec = webServerStatusPullIntervalSec;
   }
+
+  public Integer getWebServerMaxActiveWatchCount() {
+    return webServerMaxActiveWatchCount;
+  }
+
+  public void setWebServerMaxActiveWatchCount(Integer webServerMaxActiveWatchCount) {
+    this.webServerMaxActiveWatchCount = webServerMaxActiveWatchCount;
+  }
 }
@@ -22,6 +22,10 @@
 public class LauncherStatus implements Serializable {
   private LauncherConfiguration launcherConfiguration;
   private UserDescriptor loggedInUser;
+  private ApplicationSubmissionStatus applicationSubmissionStatus;
+  private TransitionQueueStatus transitionQueueStatus;
+  private RMResyncStatus rmResyncStatus;
+  private DiagnosticsRetrieveStatus diagnosticsRetrieveStatus;
 
   public LauncherConfiguration getLauncherConfiguration() {
     return launcherConfiguration;
@@ -38,4 +42,36 @@ public UserDescriptor getLoggedInUser() {
   public void setLoggedInUser(UserDescriptor loggedInUser) {
     this.loggedInUser = loggedInUser;
   }
+
+  public ApplicationSubmissionStatus getApplicationSubmissionStatus() {
+    return applicationSubmissionStatus;
+  }
+
+  public void setApplicationSubmissionStatus(ApplicationSubmissionStatus applicationSubmissionStatus) {
+    this.applicationSubmissionStatus = applicationSubmissionStatus;
+  }
+
+  public TransitionQueueStatus getTransitionQueueStatus() {
+    return transitionQueueStatus;
+  }
+
+  public void setTransitionQueueStatus(TransitionQueueStatus transitionQueueStatus) {
+    this.transitionQueueStatus = transitionQueueStatus;
+  }
+
+  public RMResyncStatus getRmResyncStatus() {
+    return rmResyncStatus;
+  }
+
+  public void setRmResyncStatus(RMResyncStatus rmResyncStatus) {
+    this.rmResyncStatus = rmResyncStatus;
+  }
+
+  public DiagnosticsRetrieveStatus getDiagnosticsRetrieveStatus() {
+    return diagnosticsRetrieveStatus;
+  }
+
+  public void setDiagnosticsRetrieveStatus(DiagnosticsRetrieveStatus diagnosticsRetrieveStatus) {
+    this.diagnosticsRetrieveStatus = diagnosticsRetrieveStatus;
+  }
 }
@@ -18,6 +18,8 @@
 package com.microsoft.frameworklauncher.common.model;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
 import java.io.Serializable;
 
 // Computation Platform Specific Parameters
@@ -66,6 +68,34 @@ public class PlatformSpecificParametersDescriptor implements Serializable {
   // Task's IPAddress can be retrieved from its environment variable CONTAINER_IP.
   private Boolean generateContainerIpList = false;
 
+  @Valid
+  // If this feature enabled, AM will hold the CONTAINER_ALLOCATED Tasks until all Tasks become
+  // CONTAINER_ALLOCATED and then Launches them together, i.e. all-or-nothing allocation.
+  // generateContainerIpList also Launches all Tasks together, but it never releases the held Containers,
+  // i.e. the following timeout only takes effect if gangAllocation is enabled explicitly.
+  private Boolean gangAllocation = false;
+
+  @Valid
+  @NotNull
+  @Min(1)
+  // The following will take effect only if gangAllocation is enabled.
+  // If not all Tasks become CONTAINER_ALLOCATED within this timeout, the held Containers will be
+  // released and the outstanding ContainerRequests will be removed, and all their Tasks will be
+  // requested again after the retry interval, so that the partial allocation will not hold resources
+  // idle or deadlock with other Frameworks.
+  private Integer gangAllocationTimeoutSec = 600;
+
+  @Valid
+  @NotNull
+  @Min(1)
+  // The retry interval is doubled for each consecutive timeout, up to gangAllocationMaxRetryIntervalSec.
+  private Integer gangAllocationRetryIntervalSec = 30;
+
+  @Valid
+  @NotNull
+  @Min(1)
+  private Integer gangAllocationMaxRetryIntervalSec = 600;
+
   @Valid
   private AMType amType = AMType.DEFAULT;
 
@@ -171,6 +201,38 @@ public void setGenerateContainerIpList(Boolean generateContainerIpList) {
     this.generateContainerIpList = generateContainerIpList;
   }
 
+  public Boolean getGangAllocation() {
+    return gangAllocation;
+  }
+
+  public void setGangAllocation(Boolean gangAllocation) {
+    this.gangAllocation = gangAllocation;
+  }
+
+  public Integer getGangAllocationTimeoutSec() {
+    return gangAllocationTimeoutSec;
+  }
+
+  public void setGangAllocationTimeoutSec(Integer gangAllocationTimeoutSec) {
+    this.gangAllocationTimeoutSec = gangAllocationTimeoutSec;
+  }
+
+  public Integer getGangAllocationRetryIntervalSec() {
+    return gangAllocationRetryIntervalSec;
+  }
+
+  public void setGangAllocationRetryIntervalSec(Integer gangAllocationRetryIntervalSec) {
+    this.gangAllocationRetryIntervalSec = gangAllocationRetryIntervalSec;
+  }
+
+  public Integer getGangAllocationMaxRetryIntervalSec() {
+    return gangAllocationMaxRetryIntervalSec;
+  }
+
+  public void setGangAllocationMaxRetryIntervalSec(Integer gangAllocationMaxRetryIntervalSec) {
+    this.gangAllocationMaxRetryIntervalSec = gangAllocationMaxRetryIntervalSec;
+  }
+
   public AMType getAmType() {
     return amType;
   }
@@ -0,0 +1,47 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.common.model;
+
+import java.io.Serializable;
+
+// Metrics of the last resync of the Service with RM
+// The timing of the resync is only logged, since it changes on every resync, and persisting it
+// would either write ZK every resync or leave it stale.
+public class RMResyncStatus implements Serializable {
+  // Number of the ApplicationReports got from RM
+  private Integer lastResyncReportCount;
+  // Number of the ApplicationReports which are changed since the previous resync, and then
+  // fed into the FrameworkStates. All the reports are fed if the resync is not incremental.
+  private Integer lastResyncChangedReportCount;
+
+  public Integer getLastResyncReportCount() {
+    return lastResyncReportCount;
+  }
+
+  public void setLastResyncReportCount(Integer lastResyncReportCount) {
+    this.lastResyncReportCount = lastResyncReportCount;
+  }
+
+  public Integer getLastResyncChangedReportCount() {
+    return lastResyncChangedReportCount;
+  }
+
+  public void setLastResyncChangedReportCount(Integer lastResyncChangedReportCount) {
+    this.lastResyncChangedReportCount = lastResyncChangedReportCount;
+  }
+}
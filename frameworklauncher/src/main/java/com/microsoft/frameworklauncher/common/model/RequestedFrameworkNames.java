@@ -21,7 +21,10 @@
 import java.util.List;
 
 public class RequestedFrameworkNames implements Serializable {
+  // Sorted by FrameworkName if it is paginated
   private List<String> frameworkNames;
+  // The StartAfter to get the next page, null if it is the last page, see WebCommon.START_AFTER_QUERY_PARAM
+  private String nextStartAfter;
 
   public List<String> getFrameworkNames() {
     return frameworkNames;
@@ -30,4 +33,12 @@ public List<String> getFrameworkNames() {
   public void setFrameworkNames(List<String> frameworkNames) {
     this.frameworkNames = frameworkNames;
   }
+
+  public String getNextStartAfter() {
+    return nextStartAfter;
+  }
+
+  public void setNextStartAfter(String nextStartAfter) {
+    this.nextStartAfter = nextStartAfter;
+  }
 }
@@ -18,6 +18,8 @@
 package com.microsoft.frameworklauncher.common.model;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import java.io.Serializable;
 
 // If fancyRetryPolicy is enabled,
@@ -30,6 +32,13 @@
 //  will Retry and RetriedCount++ if maxRetryCount is equal to -1,
 //  will Retry and RetriedCount++ if RetriedCount is less than maxRetryCount,
 //  will Not Retry if all previous conditions are not satisfied.
+//
+// For TaskRetryPolicy, if retryMinDelaySec is positive, which is the default, each Retry will be delayed by
+// exponential backoff with jitter:
+//  the RetryDelaySec starts from retryMinDelaySec and is doubled for each consecutive Retry up to retryMaxDelaySec,
+//  and the actual delay is randomly picked from [RetryDelaySec / 2, RetryDelaySec].
+//  The RetryDelaySec is reset once the failed Container has run longer than retryMaxDelaySec.
+//  Set retryMinDelaySec to 0 to Retry immediately without backoff.
 public class RetryPolicyDescriptor implements Serializable {
   @Valid
   private Integer maxRetryCount = 0;
@@ -37,6 +46,16 @@ public class RetryPolicyDescriptor implements Serializable {
   @Valid
   private Boolean fancyRetryPolicy = false;
 
+  @Valid
+  @Min(0)
+  @Max(86400)
+  private Integer retryMinDelaySec = 10;
+
+  @Valid
+  @Min(0)
+  @Max(86400)
+  private Integer retryMaxDelaySec = 300;
+
   public Integer getMaxRetryCount() {
     return maxRetryCount;
   }
@@ -52,4 +71,20 @@ public Boolean getFancyRetryPolicy() {
   public void setFancyRetryPolicy(Boolean fancyRetryPolicy) {
     this.fancyRetryPolicy = fancyRetryPolicy;
   }
+
+  public Integer getRetryMinDelaySec() {
+    return retryMinDelaySec;
+  }
+
+  public void setRetryMinDelaySec(Integer retryMinDelaySec) {
+    this.retryMinDelaySec = retryMinDelaySec;
+  }
+
+  public Integer getRetryMaxDelaySec() {
+    return retryMaxDelaySec;
+  }
+
+  public void setRetryMaxDelaySec(Integer retryMaxDelaySec) {
+    this.retryMaxDelaySec = retryMaxDelaySec;
+  }
 }
@@ -30,6 +30,14 @@ public class RetryPolicyState implements Serializable {
   private Integer nonTransientRetriedCount = 0;
   private Integer unKnownRetriedCount = 0;
 
+  // The RetryDelaySec of the last Retry, 0 if it was not delayed, see RetryPolicyDescriptor.
+  // It is persisted, so that the backoff is not reset by AM restart.
+  private Integer retryDelaySec = 0;
+
+  // The Timestamp before which the Task should not be requested again, 0 if the last Retry was not delayed.
+  // It also identifies the last Retry, so that the delayed request of a previous Retry is ignored.
+  private Long retryNotBeforeTimestamp = 0L;
+
   public Integer getRetriedCount() {
     return retriedCount;
   }
@@ -69,4 +77,20 @@ public Integer getUnKnownRetriedCount() {
   public void setUnKnownRetriedCount(Integer unKnownRetriedCount) {
     this.unKnownRetriedCount = unKnownRetriedCount;
   }
+
+  public Integer getRetryDelaySec() {
+    return retryDelaySec;
+  }
+
+  public void setRetryDelaySec(Integer retryDelaySec) {
+    this.retryDelaySec = retryDelaySec;
+  }
+
+  public Long getRetryNotBeforeTimestamp() {
+    return retryNotBeforeTimestamp;
+  }
+
+  public void setRetryNotBeforeTimestamp(Long retryNotBeforeTimestamp) {
+    this.retryNotBeforeTimestamp = retryNotBeforeTimestamp;
+  }
 }
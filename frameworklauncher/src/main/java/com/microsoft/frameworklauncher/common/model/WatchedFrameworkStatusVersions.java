@@ -0,0 +1,46 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.common.model;
+
+import java.io.Serializable;
+import java.util.Map;
+
+// The result of watching all FrameworkStatuses, see WebStructure.WATCH_PATH
+public class WatchedFrameworkStatusVersions implements Serializable {
+  // It is changed once any FrameworkStatus is added, changed or removed.
+  // It is only meaningful to the WebServer which returned it, since it is not persisted.
+  private Long watchVersion;
+  // FrameworkName -> FrameworkStatusVersion
+  private Map<String, Long> frameworkStatusVersions;
+
+  public Long getWatchVersion() {
+    return watchVersion;
+  }
+
+  public void setWatchVersion(Long watchVersion) {
+    this.watchVersion = watchVersion;
+  }
+
+  public Map<String, Long> getFrameworkStatusVersions() {
+    return frameworkStatusVersions;
+  }
+
+  public void setFrameworkStatusVersions(Map<String, Long> frameworkStatusVersions) {
+    this.frameworkStatusVersions = frameworkStatusVersions;
+  }
+}
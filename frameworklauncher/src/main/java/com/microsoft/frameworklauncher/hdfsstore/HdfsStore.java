@@ -18,17 +18,25 @@
 package com.microsoft.frameworklauncher.hdfsstore;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.microsoft.frameworklauncher.utils.CommonUtils;
 import com.microsoft.frameworklauncher.utils.DefaultLogger;
 import com.microsoft.frameworklauncher.utils.GlobalConstants;
 import com.microsoft.frameworklauncher.utils.HadoopUtils;
+import org.apache.hadoop.yarn.api.records.LocalResourceVisibility;
 
 import java.util.Set;
+import java.util.UUID;
 
 public class HdfsStore {
   private static final DefaultLogger LOGGER = new DefaultLogger(HdfsStore.class);
 
   private final HdfsStoreStructure hdfsStruct;
 
+  // The AM package only changes with the Launcher version, so it is uploaded once into the SharedPackage
+  // addressed by its PackageDigest, instead of uploading it for each Framework.
+  private String amPackageDigest = null;
+  private LocalResourceVisibility amPackageVisibility = null;
+
   public HdfsStore(String launcherRootPath) throws Exception {
     LOGGER.logInfo("Initializing HdfsStore: [LauncherRootPath] = [%s]", launcherRootPath);
     hdfsStruct = new HdfsStoreStructure(launcherRootPath);
@@ -46,7 +54,9 @@ protected void setupHDFSStructure() throws Exception {
   }
 
   public Set<String> getFrameworkNames() throws Exception {
-    return HadoopUtils.listDirInHdfs(hdfsStruct.getLauncherRootPath());
+    Set<String> frameworkNames = HadoopUtils.listDirInHdfs(hdfsStruct.getLauncherRootPath());
+    frameworkNames.remove(HdfsStoreStructure.SHARED_PACKAGE_ROOT_NAME);
+    return frameworkNames;
   }
 
   public void makeFrameworkRootDir(String frameworkName) throws Exception {
@@ -54,6 +64,7 @@ public void makeFrameworkRootDir(String frameworkName) throws Exception {
   }
 
   public void removeFrameworkRoot(String frameworkName) throws Exception {
+    removeSharedPackageReferences(frameworkName, null);
     HadoopUtils.removeDirInHdfs(hdfsStruct.getFrameworkRootPath(frameworkName));
   }
 
@@ -61,10 +72,89 @@ public void makeAMStoreRootDir(String frameworkName) throws Exception {
     HadoopUtils.makeDirInHdfs(hdfsStruct.getAMStoreRootPath(frameworkName));
   }
 
-  public String uploadAMPackageFile(String frameworkName) throws Exception {
-    String hdfsPath = hdfsStruct.getAMPackageFilePath(frameworkName);
-    HadoopUtils.uploadFileToHdfs(GlobalConstants.PACKAGE_APPLICATION_MASTER_FILE, hdfsPath);
-    return hdfsPath;
+  // Ensure the SharedAMPackage is uploaded and referenced by the Framework, and return its path.
+  // The previous Application of the Framework must be completed before a new one is set up, so the
+  // Framework no longer references the other SharedPackages.
+  public String referenceSharedAMPackageFile(String frameworkName) throws Exception {
+    String packageDigest = setupSharedAMPackage();
+    HadoopUtils.createEmptyFileInHdfs(hdfsStruct.getSharedPackageReferencePath(packageDigest, frameworkName));
+    removeSharedPackageReferences(frameworkName, packageDigest);
+    return hdfsStruct.getSharedAMPackageFilePath(packageDigest);
+  }
+
+  // The SharedAMPackage is immutable, so it can be localized by NodeManagers only once across Applications:
+  // PUBLIC if it is readable by all users, otherwise PRIVATE, i.e. only shared across the same user.
+  public synchronized LocalResourceVisibility getSharedAMPackageVisibility() throws Exception {
+    if (amPackageVisibility == null) {
+      setupSharedAMPackage();
+    }
+    return amPackageVisibility;
+  }
+
+  // GC the SharedPackages which are not referenced by any Framework, except for the current one.
+  public void gcSharedPackages(Set<String> frameworkNamesInStatus) throws Exception {
+    String currentPackageDigest = getAMPackageDigest();
+    for (String packageDigest : HadoopUtils.listChildrenInHdfs(hdfsStruct.getSharedPackageRootPath())) {
+      Set<String> referencedFrameworkNames = HadoopUtils.listDirInHdfs(
+          hdfsStruct.getSharedPackageReferenceRootPath(packageDigest));
+      for (String frameworkName : referencedFrameworkNames) {
+        if (!frameworkNamesInStatus.contains(frameworkName)) {
+          HadoopUtils.removeDirInHdfs(hdfsStruct.getSharedPackageReferencePath(packageDigest, frameworkName));
+        }
+      }
+      referencedFrameworkNames.retainAll(frameworkNamesInStatus);
+
+      if (referencedFrameworkNames.isEmpty() && !packageDigest.equals(currentPackageDigest)) {
+        LOGGER.logInfo("gcSharedPackages: Remove unreferenced SharedPackage [%s]", packageDigest);
+        HadoopUtils.removeDirInHdfs(hdfsStruct.getSharedPackageDirPath(packageDigest));
+      }
+    }
+  }
+
+  private synchronized String getAMPackageDigest() throws Exception {
+    if (amPackageDigest == null) {
+      amPackageDigest = CommonUtils.getFileDigest(GlobalConstants.PACKAGE_APPLICATION_MASTER_FILE);
+    }
+    return amPackageDigest;
+  }
+
+  private synchronized String setupSharedAMPackage() throws Exception {
+    String packageDigest = getAMPackageDigest();
+    String hdfsPath = hdfsStruct.getSharedAMPackageFilePath(packageDigest);
+    if (!HadoopUtils.existsInHdfs(hdfsPath)) {
+      HadoopUtils.makeDirInHdfs(hdfsStruct.getSharedPackageReferenceRootPath(packageDigest));
+      HadoopUtils.makePublicReadableInHdfs(hdfsStruct.getSharedPackageRootPath());
+      HadoopUtils.makePublicReadableInHdfs(hdfsStruct.getSharedPackageDirPath(packageDigest));
+
+      // Upload to a temp file and then rename it, so that a partially uploaded file is never referenced,
+      // even if multiple Launchers upload it concurrently.
+      String tempHdfsPath = hdfsPath + "." + UUID.randomUUID() + ".tmp";
+      HadoopUtils.uploadFileToHdfs(GlobalConstants.PACKAGE_APPLICATION_MASTER_FILE, tempHdfsPath);
+      HadoopUtils.makePublicReadableInHdfs(tempHdfsPath);
+      if (!HadoopUtils.renameInHdfs(tempHdfsPath, hdfsPath)) {
+        HadoopUtils.removeDirInHdfs(tempHdfsPath);
+      }
+      amPackageVisibility = null;
+    }
+
+    if (amPackageVisibility == null) {
+      amPackageVisibility = (HadoopUtils.isPublicReadableInHdfs(hdfsPath) ?
+          LocalResourceVisibility.PUBLIC : LocalResourceVisibility.PRIVATE);
+      LOGGER.logInfo("SharedAMPackage [%s] is set up with Visibility [%s]", hdfsPath, amPackageVisibility);
+    }
+    return packageDigest;
+  }
+
+  // Remove the Framework's references to all SharedPackages except for the exceptPackageDigest
+  private void removeSharedPackageReferences(String frameworkName, String exceptPackageDigest) throws Exception {
+    for (String packageDigest : HadoopUtils.listChildrenInHdfs(hdfsStruct.getSharedPackageRootPath())) {
+      if (!packageDigest.equals(exceptPackageDigest)) {
+        String referencePath = hdfsStruct.getSharedPackageReferencePath(packageDigest, frameworkName);
+        if (HadoopUtils.existsInHdfs(referencePath)) {
+          HadoopUtils.removeDirInHdfs(referencePath);
+        }
+      }
+    }
   }
 
   public String uploadAgentPackageFile(String frameworkName) throws Exception {
@@ -23,6 +23,11 @@
 
 // Define Launcher HdfsStoreStructure
 public class HdfsStoreStructure {
+  // The SharedPackage is content addressed by its PackageDigest, and shared by all Frameworks.
+  // Its root name is not a valid FrameworkName, so that it will never conflict with the FrameworkRoots.
+  public static final String SHARED_PACKAGE_ROOT_NAME = "@SharedPackages";
+  private static final String SHARED_PACKAGE_REFERENCE_ROOT_NAME = "References";
+
   private final String launcherRootPath;
 
   public HdfsStoreStructure(String launcherRootPath) {
@@ -37,11 +42,28 @@ public String getFrameworkRootPath(String frameworkName) {
     return HadoopUtils.getHdfsNodePath(launcherRootPath, frameworkName);
   }
 
-  public String getAMPackageFilePath(String frameworkName) {
-    return HadoopUtils.getHdfsNodePath(getFrameworkRootPath(frameworkName),
+  public String getSharedPackageRootPath() {
+    return HadoopUtils.getHdfsNodePath(launcherRootPath, SHARED_PACKAGE_ROOT_NAME);
+  }
+
+  public String getSharedPackageDirPath(String packageDigest) {
+    return HadoopUtils.getHdfsNodePath(getSharedPackageRootPath(), packageDigest);
+  }
+
+  public String getSharedAMPackageFilePath(String packageDigest) {
+    return HadoopUtils.getHdfsNodePath(getSharedPackageDirPath(packageDigest),
         FilenameUtils.getName(GlobalConstants.PACKAGE_APPLICATION_MASTER_FILE));
   }
 
+  // The Frameworks which may still localize the SharedPackage
+  public String getSharedPackageReferenceRootPath(String packageDigest) {
+    return HadoopUtils.getHdfsNodePath(getSharedPackageDirPath(packageDigest), SHARED_PACKAGE_REFERENCE_ROOT_NAME);
+  }
+
+  public String getSharedPackageReferencePath(String packageDigest, String frameworkName) {
+    return HadoopUtils.getHdfsNodePath(getSharedPackageReferenceRootPath(packageDigest), frameworkName);
+  }
+
   public String getAgentPackageFilePath(String frameworkName) {
     return HadoopUtils.getHdfsNodePath(getFrameworkRootPath(frameworkName),
         FilenameUtils.getName(GlobalConstants.PACKAGE_AGENT_FILE));
@@ -0,0 +1,110 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.service;
+
+import com.microsoft.frameworklauncher.common.model.ApplicationSubmissionStatus;
+import com.microsoft.frameworklauncher.common.model.FrameworkStatus;
+import com.microsoft.frameworklauncher.common.model.LauncherConfiguration;
+import com.microsoft.frameworklauncher.common.model.UserDescriptor;
+import com.microsoft.frameworklauncher.utils.DefaultLogger;
+import com.microsoft.frameworklauncher.utils.HadoopUtils;
+import com.microsoft.frameworklauncher.utils.RateLimiter;
+import com.microsoft.frameworklauncher.utils.SystemTaskQueue.VoidCallable;
+import org.apache.hadoop.yarn.api.records.ApplicationSubmissionContext;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// The bounded pipeline to setup and submit the created Applications:
+//  1. The ApplicationSubmissionContexts are setup concurrently by a fixed number of threads,
+//  so that a burst of new Frameworks will not hit HDFS all at once.
+//  2. The Applications are submitted concurrently by a fixed number of threads, and the RM QPS is limited.
+// The pending Applications are queued in the pipeline, and their count is exposed as the backpressure.
+public class ApplicationSubmitHandler { // THREAD SAFE
+  private static final DefaultLogger LOGGER = new DefaultLogger(ApplicationSubmitHandler.class);
+
+  private final Service service;
+  private final LauncherConfiguration conf;
+  private final ThreadPoolExecutor setupContextExecutor;
+  private final ThreadPoolExecutor submitExecutor;
+  private final RateLimiter submitRateLimiter;
+
+  public ApplicationSubmitHandler(Service service, LauncherConfiguration conf) {
+    this.service = service;
+    this.conf = conf;
+    this.setupContextExecutor = newFixedThreadPool(conf.getApplicationSetupContextThreadCount());
+    this.submitExecutor = newFixedThreadPool(conf.getApplicationSubmitThreadCount());
+    this.submitRateLimiter = new RateLimiter(conf.getApplicationSubmitMaxQps());
+  }
+
+  private static ThreadPoolExecutor newFixedThreadPool(int threadCount) {
+    threadCount = Math.max(threadCount, 1);
+    return new ThreadPoolExecutor(threadCount, threadCount,
+        0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+  }
+
+  // Number of the tasks which are queued or running in the executor
+  private static int getPendingTaskCount(ThreadPoolExecutor executor) {
+    return (int) (executor.getTaskCount() - executor.getCompletedTaskCount());
+  }
+
+  public ApplicationSubmissionStatus getApplicationSubmissionStatus() {
+    ApplicationSubmissionStatus applicationSubmissionStatus = new ApplicationSubmissionStatus();
+    applicationSubmissionStatus.setApplicationSetupContextQueueLength(getPendingTaskCount(setupContextExecutor));
+    applicationSubmissionStatus.setApplicationSubmitQueueLength(getPendingTaskCount(submitExecutor));
+    return applicationSubmissionStatus;
+  }
+
+  public void setupApplicationContextAsync(VoidCallable setupApplicationContext) {
+    setupContextExecutor.execute(() -> {
+      try {
+        setupApplicationContext.call();
+      } catch (Exception e) {
+        service.onExceptionOccurred(e);
+      }
+    });
+  }
+
+  public void submitApplicationAsync(
+      FrameworkStatus frameworkStatus, ApplicationSubmissionContext applicationContext, UserDescriptor user) {
+    submitExecutor.execute(() -> {
+      String logPrefix = String.format(
+          "[%s][%s][%s]: submitApplication: ",
+          frameworkStatus.getFrameworkName(), frameworkStatus.getFrameworkVersion(), frameworkStatus.getApplicationId());
+      Throwable submitException = null;
+
+      try {
+        submitRateLimiter.acquire();
+
+        LOGGER.logInfo(logPrefix + "ApplicationName: %s", applicationContext.getApplicationName());
+        LOGGER.logInfo(logPrefix + "ResourceRequest: %s", applicationContext.getAMContainerResourceRequest());
+        LOGGER.logInfo(logPrefix + "Queue: %s", applicationContext.getQueue());
+
+        HadoopUtils.submitApplication(applicationContext, user);
+
+        LOGGER.logInfo(logPrefix + "Succeeded");
+      } catch (Throwable e) {
+        LOGGER.logWarning(e, logPrefix + "Failed");
+        submitException = e;
+      }
+
+      service.onApplicationSubmitted(frameworkStatus, submitException);
+    });
+  }
+}
@@ -17,49 +17,205 @@
 
 package com.microsoft.frameworklauncher.service;
 
+import com.microsoft.frameworklauncher.common.model.DiagnosticsRetrieveStatus;
 import com.microsoft.frameworklauncher.common.model.LauncherConfiguration;
 import com.microsoft.frameworklauncher.utils.DefaultLogger;
 import com.microsoft.frameworklauncher.utils.DiagnosticsUtils;
-import com.microsoft.frameworklauncher.utils.RetryPolicy;
+import com.microsoft.frameworklauncher.utils.GlobalConstants;
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
+import org.apache.hadoop.yarn.api.records.YarnApplicationState;
 import org.apache.hadoop.yarn.client.api.YarnClient;
+import org.apache.hadoop.yarn.conf.YarnConfiguration;
 
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// The diagnostics of the completed Applications are retrieved by a bounded pool instead of one Thread
+// per Application, so that a mass failure will not spawn thousands of sleeping Threads:
+//  1. An Application is retrieved at most once at the same time, the duplicated retrievals are ignored.
+//  2. The due retrievals are checked every second, and if there are many due retrievals, such as after
+//  RM restarted, they are retrieved by a single batched GetApplications instead of one by one.
+//  However, the batched GetApplications lists all the completed Applications retained in RM, so it is
+//  only used if the due retrievals are not too few compared with them, see shouldRetrieveInBatch.
+//  3. The failed retrievals are retried after ApplicationRetrieveDiagnosticsIntervalSec without occupying
+//  any Thread.
 public class DiagnosticsRetrieveHandler { // THREAD SAFE
   private static final DefaultLogger LOGGER = new DefaultLogger(DiagnosticsRetrieveHandler.class);
+  // The batched GetApplications is only used if it lists at most this number of the completed Applications
+  // for each due retrieval, since listing an Application is much cheaper than a GetApplicationReport.
+  private static final int MAX_BATCH_LISTED_APPLICATION_COUNT_PER_RETRIEVAL = 100;
 
   private final Service service;
   private final LauncherConfiguration conf;
   private final YarnClient yarnClient;
+  // The max number of the completed Applications retained in RM, i.e. the max number of the Applications
+  // listed by the batched GetApplications.
+  private final int rmMaxCompletedApplicationCount;
+  private final ScheduledExecutorService retrieveExecutor;
+  // ApplicationId -> DiagnosticsRetrieval
+  private final Map<String, DiagnosticsRetrieval> retrievals = new HashMap<>();
+
+  private static class DiagnosticsRetrieval {
+    private final String applicationId;
+    private final String initDiagnostics;
+    private int retriedCount = 0;
+    private long nextRetrieveTimestamp = System.currentTimeMillis();
+    // Whether it is being retrieved by the retrieveExecutor
+    private boolean retrieving = false;
+
+    public DiagnosticsRetrieval(String applicationId, String initDiagnostics) {
+      this.applicationId = applicationId;
+      this.initDiagnostics = initDiagnostics;
+    }
+  }
 
   public DiagnosticsRetrieveHandler(Service service, LauncherConfiguration conf, YarnClient yarnClient) {
     this.service = service;
     this.conf = conf;
     this.yarnClient = yarnClient;
+    this.rmMaxCompletedApplicationCount = yarnClient.getConfig().getInt(
+        YarnConfiguration.RM_MAX_COMPLETED_APPLICATIONS,
+        YarnConfiguration.DEFAULT_RM_MAX_COMPLETED_APPLICATIONS);
+    this.retrieveExecutor = Executors.newScheduledThreadPool(
+        Math.max(conf.getApplicationRetrieveDiagnosticsThreadCount(), 1));
+    this.retrieveExecutor.scheduleWithFixedDelay(this::retrieveDueDiagnostics, 1, 1, TimeUnit.SECONDS);
   }
 
   public void retrieveDiagnosticsAsync(String applicationId, String initDiagnostics) {
-    new Thread(() -> {
-      String diagnostics = initDiagnostics;
+    if (!DiagnosticsUtils.isDiagnosticsEmpty(initDiagnostics)) {
+      retrieveExecutor.execute(() -> onDiagnosticsRetrieved(applicationId, initDiagnostics));
+      return;
+    }
 
-      try {
-        LOGGER.logInfo("%s: Start to retrieveDiagnostics", applicationId);
+    synchronized (this) {
+      if (retrievals.containsKey(applicationId)) {
+        LOGGER.logDebug("%s: Diagnostics is already being retrieved. Ignore it.", applicationId);
+        return;
+      }
+      retrievals.put(applicationId, new DiagnosticsRetrieval(applicationId, initDiagnostics));
+    }
+    LOGGER.logInfo("%s: Scheduled to retrieveDiagnostics", applicationId);
+  }
+
+  public synchronized DiagnosticsRetrieveStatus getDiagnosticsRetrieveStatus() {
+    int retryingApplicationCount = 0;
+    for (DiagnosticsRetrieval retrieval : retrievals.values()) {
+      if (retrieval.retriedCount > 0) {
+        retryingApplicationCount++;
+      }
+    }
 
-        if (DiagnosticsUtils.isDiagnosticsEmpty(diagnostics)) {
-          diagnostics = RetryPolicy.executeWithRetry(
-              () -> DiagnosticsUtils.retrieveDiagnostics(yarnClient, applicationId),
-              conf.getApplicationRetrieveDiagnosticsMaxRetryCount(),
-              conf.getApplicationRetrieveDiagnosticsIntervalSec(), null);
+    DiagnosticsRetrieveStatus diagnosticsRetrieveStatus = new DiagnosticsRetrieveStatus();
+    diagnosticsRetrieveStatus.setRetrievingApplicationCount(retrievals.size());
+    diagnosticsRetrieveStatus.setRetryingApplicationCount(retryingApplicationCount);
+    return diagnosticsRetrieveStatus;
+  }
+
+  private void retrieveDueDiagnostics() {
+    // Any Exception will suppress the subsequent executions of the scheduled task
+    try {
+      List<DiagnosticsRetrieval> dueRetrievals = new ArrayList<>();
+      synchronized (this) {
+        long currentTimestamp = System.currentTimeMillis();
+        for (DiagnosticsRetrieval retrieval : retrievals.values()) {
+          if (!retrieval.retrieving && retrieval.nextRetrieveTimestamp <= currentTimestamp) {
+            retrieval.retrieving = true;
+            dueRetrievals.add(retrieval);
+          }
         }
+      }
 
-        LOGGER.logInfo("%s: Succeeded to retrieveDiagnostics", applicationId);
-      } catch (Exception e) {
-        LOGGER.logError(e, "%s: Failed to retrieveDiagnostics", applicationId);
+      if (shouldRetrieveInBatch(dueRetrievals.size(),
+          conf.getApplicationRetrieveDiagnosticsBatchMinCount(), rmMaxCompletedApplicationCount)) {
+        retrieveDiagnosticsInBatch(dueRetrievals);
+      } else {
+        for (DiagnosticsRetrieval retrieval : dueRetrievals) {
+          retrieveExecutor.execute(() -> retrieveDiagnostics(retrieval));
+        }
+      }
+    } catch (Exception e) {
+      service.onExceptionOccurred(e);
+    }
+  }
+
+  // Package-private ONLY for testing
+  static boolean shouldRetrieveInBatch(int dueCount, int batchMinCount, int rmMaxCompletedApplicationCount) {
+    return dueCount >= batchMinCount &&
+        (long) dueCount * MAX_BATCH_LISTED_APPLICATION_COUNT_PER_RETRIEVAL >= rmMaxCompletedApplicationCount;
+  }
+
+  private void retrieveDiagnostics(DiagnosticsRetrieval retrieval) {
+    String diagnostics = null;
+    try {
+      diagnostics = DiagnosticsUtils.retrieveDiagnostics(yarnClient, retrieval.applicationId);
+    } catch (Exception e) {
+      LOGGER.logWarning(e, "%s: Failed to retrieveDiagnostics", retrieval.applicationId);
+    }
+    onRetrieveAttempted(retrieval, diagnostics);
+  }
+
+  private void retrieveDiagnosticsInBatch(List<DiagnosticsRetrieval> retrievals) {
+    LOGGER.logInfo("Start to retrieveDiagnostics in batch for %s Applications", retrievals.size());
+
+    // ApplicationId -> ApplicationReport
+    Map<String, ApplicationReport> reports = new HashMap<>();
+    try {
+      // Only the completed Applications have the final diagnostics, so the live ones are not listed
+      for (ApplicationReport report : yarnClient.getApplications(
+          new HashSet<>(Collections.singletonList(GlobalConstants.LAUNCHER_APPLICATION_TYPE)),
+          EnumSet.of(
+              YarnApplicationState.FINISHED,
+              YarnApplicationState.FAILED,
+              YarnApplicationState.KILLED))) {
+        reports.put(report.getApplicationId().toString(), report);
       }
+    } catch (Exception e) {
+      LOGGER.logWarning(e, "Failed to retrieveDiagnostics in batch");
+    }
+
+    for (DiagnosticsRetrieval retrieval : retrievals) {
+      ApplicationReport report = reports.get(retrieval.applicationId);
+      onRetrieveAttempted(retrieval, (report == null ? null : report.getDiagnostics()));
+    }
+  }
 
-      try {
-        service.onDiagnosticsRetrieved(applicationId, diagnostics);
-      } catch (Exception e) {
-        service.onExceptionOccurred(e);
+  private void onRetrieveAttempted(DiagnosticsRetrieval retrieval, String diagnostics) {
+    String applicationId = retrieval.applicationId;
+    int maxRetryCount = conf.getApplicationRetrieveDiagnosticsMaxRetryCount();
+    int retryIntervalSec = conf.getApplicationRetrieveDiagnosticsIntervalSec();
+
+    synchronized (this) {
+      retrieval.retrieving = false;
+      if (DiagnosticsUtils.isDiagnosticsEmpty(diagnostics)) {
+        if (maxRetryCount == GlobalConstants.USING_UNLIMITED_VALUE || retrieval.retriedCount < maxRetryCount) {
+          LOGGER.logWarning(
+              "%s: Retry [%s / %s]: Failed to retrieveDiagnostics. Scheduled to Retry after %ss.",
+              applicationId, retrieval.retriedCount, maxRetryCount, retryIntervalSec);
+          retrieval.retriedCount++;
+          retrieval.nextRetrieveTimestamp = System.currentTimeMillis() + retryIntervalSec * 1000L;
+          return;
+        }
+
+        LOGGER.logError(
+            "%s: Retry [%s / %s]: Failed to retrieveDiagnostics Finally.",
+            applicationId, retrieval.retriedCount, maxRetryCount);
+        diagnostics = retrieval.initDiagnostics;
+      } else {
+        LOGGER.logInfo("%s: Succeeded to retrieveDiagnostics", applicationId);
       }
-    }).start();
+      retrievals.remove(applicationId);
+    }
+
+    onDiagnosticsRetrieved(applicationId, diagnostics);
+  }
+
+  private void onDiagnosticsRetrieved(String applicationId, String diagnostics) {
+    try {
+      service.onDiagnosticsRetrieved(applicationId, diagnostics);
+    } catch (Exception e) {
+      service.onExceptionOccurred(e);
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.service;
+
+import com.microsoft.frameworklauncher.common.model.FrameworkRequest;
+
+import java.util.Map;
+import java.util.Set;
+
+// The changes of FrameworkRequests since the last notification, delivered from RequestManager to Service,
+// so that the reconciliation cost is proportional to the change count instead of the Framework count.
+// Note:
+//  The FullSnapshot contains all FrameworkRequests as added, so that the Frameworks only in Status
+//  can also be reconciled, and it is only delivered for the first time.
+public class FrameworkRequestChanges {
+  private final boolean fullSnapshot;
+  // FrameworkName -> FrameworkRequest
+  private final Map<String, FrameworkRequest> addedFrameworkRequests;
+  // FrameworkName -> FrameworkRequest, whose FrameworkRequestVersion is changed
+  private final Map<String, FrameworkRequest> changedFrameworkRequests;
+  private final Set<String> removedFrameworkNames;
+  // FrameworkName -> FrameworkRequestVersion, for the added and changed FrameworkRequests
+  private final Map<String, Long> frameworkRequestVersions;
+
+  public FrameworkRequestChanges(
+      boolean fullSnapshot,
+      Map<String, FrameworkRequest> addedFrameworkRequests,
+      Map<String, FrameworkRequest> changedFrameworkRequests,
+      Set<String> removedFrameworkNames,
+      Map<String, Long> frameworkRequestVersions) {
+    this.fullSnapshot = fullSnapshot;
+    this.addedFrameworkRequests = addedFrameworkRequests;
+    this.changedFrameworkRequests = changedFrameworkRequests;
+    this.removedFrameworkNames = removedFrameworkNames;
+    this.frameworkRequestVersions = frameworkRequestVersions;
+  }
+
+  public boolean isFullSnapshot() {
+    return fullSnapshot;
+  }
+
+  public Map<String, FrameworkRequest> getAddedFrameworkRequests() {
+    return addedFrameworkRequests;
+  }
+
+  public Map<String, FrameworkRequest> getChangedFrameworkRequests() {
+    return changedFrameworkRequests;
+  }
+
+  public Set<String> getRemovedFrameworkNames() {
+    return removedFrameworkNames;
+  }
+
+  public Map<String, Long> getFrameworkRequestVersions() {
+    return frameworkRequestVersions;
+  }
+
+  public boolean isEmpty() {
+    return !fullSnapshot &&
+        addedFrameworkRequests.isEmpty() &&
+        changedFrameworkRequests.isEmpty() &&
+        removedFrameworkNames.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("FullSnapshot: [%s], Added: [%s], Changed: [%s], Removed: [%s]",
+        fullSnapshot, addedFrameworkRequests.size(), changedFrameworkRequests.size(), removedFrameworkNames.size());
+  }
+}
@@ -18,15 +18,16 @@
 package com.microsoft.frameworklauncher.service;
 
 import com.microsoft.frameworklauncher.common.model.LauncherConfiguration;
+import com.microsoft.frameworklauncher.common.model.RMResyncStatus;
 import com.microsoft.frameworklauncher.utils.DefaultLogger;
 import com.microsoft.frameworklauncher.utils.GlobalConstants;
 import org.apache.hadoop.yarn.api.records.ApplicationReport;
+import org.apache.hadoop.yarn.api.records.YarnApplicationState;
 import org.apache.hadoop.yarn.client.api.YarnClient;
+import org.apache.hadoop.yarn.exceptions.ApplicationNotFoundException;
+import org.apache.hadoop.yarn.util.ConverterUtils;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
 
 public class RMResyncHandler { // THREAD SAFE
   private static final DefaultLogger LOGGER = new DefaultLogger(RMResyncHandler.class);
@@ -52,12 +53,17 @@ public void start() {
   }
 
   public void resyncWithRM() throws Exception {
+    long startTime = System.currentTimeMillis();
     List<ApplicationReport> reports = null;
 
     try {
       // Only Get LAUNCHER ApplicationReport
-      reports = yarnClient.getApplications(new HashSet<>(
-          Collections.singletonList(GlobalConstants.LAUNCHER_APPLICATION_TYPE)));
+      if (conf.getServiceRMResyncIncremental()) {
+        reports = getIncrementalApplicationReports();
+      } else {
+        reports = yarnClient.getApplications(new HashSet<>(
+            Collections.singletonList(GlobalConstants.LAUNCHER_APPLICATION_TYPE)));
+      }
     } catch (Exception e) {
       LOGGER.logWarning(e,
           "Exception occurred during GetApplications. It should be transient. " +
@@ -71,9 +77,54 @@ public void resyncWithRM() throws Exception {
         liveApplicationReports.put(report.getApplicationId().toString(), report);
       }
 
-      service.onLiveApplicationsUpdated(liveApplicationReports);
+      int changedReportCount = service.onLiveApplicationsUpdated(liveApplicationReports);
+
+      RMResyncStatus rmResyncStatus = new RMResyncStatus();
+      rmResyncStatus.setLastResyncReportCount(liveApplicationReports.size());
+      rmResyncStatus.setLastResyncChangedReportCount(changedReportCount);
+      LOGGER.logInfo(
+          "Resynced with RM: Incremental: [%s], DurationMs: [%s], Reports: [%s], ChangedReports: [%s]",
+          conf.getServiceRMResyncIncremental(), System.currentTimeMillis() - startTime,
+          rmResyncStatus.getLastResyncReportCount(), rmResyncStatus.getLastResyncChangedReportCount());
+      service.onRMResyncStatusUpdated(rmResyncStatus);
     }
 
     service.queueResyncWithRM(conf.getServiceRMResyncIntervalSec());
   }
+
+  // Get the ApplicationReports of the live Applications, and the ApplicationReports of the Applications
+  // associated with Frameworks which are no longer live.
+  // So, compared with getting all ApplicationReports, the completed Applications retained by RM, which are
+  // not associated with any Framework, are excluded, and the excluded Applications will not be judged as
+  // AM_RM_RESYNC_LOST by the Service.
+  private List<ApplicationReport> getIncrementalApplicationReports() throws Exception {
+    List<ApplicationReport> reports = new ArrayList<>(yarnClient.getApplications(
+        new HashSet<>(Collections.singletonList(GlobalConstants.LAUNCHER_APPLICATION_TYPE)),
+        EnumSet.of(
+            YarnApplicationState.NEW,
+            YarnApplicationState.NEW_SAVING,
+            YarnApplicationState.SUBMITTED,
+            YarnApplicationState.ACCEPTED,
+            YarnApplicationState.RUNNING)));
+
+    Set<String> liveApplicationIds = new HashSet<>();
+    for (ApplicationReport report : reports) {
+      liveApplicationIds.add(report.getApplicationId().toString());
+    }
+
+    // Usually, only the recently completed Applications need to be got one by one
+    for (String applicationId : service.getApplicationIdsToResync()) {
+      if (liveApplicationIds.contains(applicationId)) {
+        continue;
+      }
+
+      try {
+        reports.add(yarnClient.getApplicationReport(ConverterUtils.toApplicationId(applicationId)));
+      } catch (ApplicationNotFoundException e) {
+        LOGGER.logWarning("%s: Application not found in RM", applicationId);
+      }
+    }
+
+    return reports;
+  }
 }
\ No newline at end of file
@@ -20,13 +20,16 @@
 import com.microsoft.frameworklauncher.common.model.FrameworkRequest;
 import com.microsoft.frameworklauncher.common.model.LauncherConfiguration;
 import com.microsoft.frameworklauncher.utils.AbstractService;
-import com.microsoft.frameworklauncher.utils.CommonExtensions;
+import com.microsoft.frameworklauncher.utils.ChangeNotifier;
 import com.microsoft.frameworklauncher.utils.DefaultLogger;
-import com.microsoft.frameworklauncher.utils.YamlUtils;
 import com.microsoft.frameworklauncher.zookeeperstore.ZookeeperStore;
 import org.apache.zookeeper.KeeperException;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 // Manage the CURD to ZK Request
@@ -40,6 +43,7 @@ public class RequestManager extends AbstractService {  // THREAD SAFE
   private final Service service;
   private final LauncherConfiguration conf;
   private final ZookeeperStore zkStore;
+  private final ChangeNotifier requestChangeNotifier = new ChangeNotifier();
 
 
   /**
@@ -47,7 +51,16 @@ public class RequestManager extends AbstractService {  // THREAD SAFE
    */
   // Service only need to retrieve AllFrameworkRequests
   // FrameworkName -> FrameworkRequest
-  private Map<String, FrameworkRequest> frameworkRequests = null;
+  // It is updated in place by the pulling Thread, and null means it is not pulled yet.
+  private volatile Map<String, FrameworkRequest> frameworkRequests = null;
+
+
+  /**
+   * REGION RequestVersion
+   */
+  // Used to only refetch the changed FrameworkRequests from ZK, and it is only accessed by the pulling Thread.
+  // FrameworkName -> FrameworkRequestVersion
+  private final Map<String, Long> frameworkRequestVersions = new HashMap<>();
 
 
   /**
@@ -80,16 +93,27 @@ protected Boolean handleException(Exception e) {
   protected void run() throws Exception {
     super.run();
 
+    // Subscribe before the first pull, so that no change after it will be missed
+    zkStore.subscribeLauncherRequestChanges(requestChangeNotifier::notifyChanged);
+
     new Thread(() -> {
+      // Pull the changed Frameworks ASAP once they are notified, and
+      // still pull all Frameworks periodically as a resync in case any change is missed.
+      Set<String> changedFrameworkNames = null;
       while (true) {
         try {
-          pullRequest();
+          if (changedFrameworkNames == null || frameworkRequests == null) {
+            pullRequest();
+          } else {
+            pullRequest(changedFrameworkNames);
+          }
         } catch (Exception e) {
           // Directly throw TransientException to Service, since it may not be recovered or make progress any more
           handleException(e);
         } finally {
           try {
-            Thread.sleep(conf.getServiceRequestPullIntervalSec() * 1000);
+            changedFrameworkNames = requestChangeNotifier.awaitChanges(
+                conf.getServiceRequestPullIntervalSec() * 1000);
           } catch (InterruptedException e) {
             handleException(e);
           }
@@ -102,37 +126,96 @@ protected void run() throws Exception {
    * REGION InternalUtils
    */
   private void pullRequest() throws Exception {
-    Map<String, FrameworkRequest> newFrameworkRequests;
-    try {
-      LOGGER.logDebug("Pulling AllFrameworkRequests");
+    LOGGER.logDebug("Pulling AllFrameworkRequests");
 
-      newFrameworkRequests = zkStore.getAllFrameworkRequests();
-
-      LOGGER.logDebug("Pulled AllFrameworkRequests");
+    Set<String> frameworkNames;
+    try {
+      frameworkNames = new HashSet<>(zkStore.getRequestFrameworkNames());
     } catch (KeeperException.NoNodeException e) {
       LOGGER.logWarning(e,
-          "Failed to getAllFrameworkRequests, LauncherRequest is deleted on ZK");
+          "Failed to getRequestFrameworkNames, LauncherRequest is deleted on ZK");
       throw e;
     }
 
-    // newFrameworkRequests is always not null
-    updateFrameworkRequests(newFrameworkRequests);
+    // Also pull the previous Frameworks, so that the deleted ones are detected
+    if (frameworkRequests != null) {
+      frameworkNames.addAll(frameworkRequests.keySet());
+    }
+    pullFrameworkRequests(frameworkNames);
+
+    LOGGER.logDebug("Pulled AllFrameworkRequests");
   }
 
-  private void updateFrameworkRequests(Map<String, FrameworkRequest> newFrameworkRequests) {
-    if (YamlUtils.deepEquals(frameworkRequests, newFrameworkRequests)) {
-      return;
+  private void pullRequest(Set<String> changedFrameworkNames) throws Exception {
+    LOGGER.logDebug("Pulling FrameworkRequests for %s changed Frameworks", changedFrameworkNames.size());
+
+    pullFrameworkRequests(changedFrameworkNames);
+
+    LOGGER.logDebug("Pulled FrameworkRequests for %s changed Frameworks", changedFrameworkNames.size());
+  }
+
+  // Pull the FrameworkRequests of the given Frameworks, and only the FrameworkRequests whose
+  // FrameworkRequestVersion changed are refetched.
+  private void pullFrameworkRequests(Set<String> frameworkNames) throws Exception {
+    // Get FrameworkRequestVersions before FrameworkRequests, so that the got FrameworkRequests are
+    // not older than the recorded FrameworkRequestVersions
+    Map<String, Long> newFrameworkRequestVersions = zkStore.getFrameworkRequestVersions(frameworkNames);
+    Set<String> changedFrameworkNames = new HashSet<>();
+    for (Map.Entry<String, Long> newFrameworkRequestVersionKV : newFrameworkRequestVersions.entrySet()) {
+      String frameworkName = newFrameworkRequestVersionKV.getKey();
+      if (!newFrameworkRequestVersionKV.getValue().equals(frameworkRequestVersions.get(frameworkName))) {
+        changedFrameworkNames.add(frameworkName);
+      }
     }
+    Map<String, FrameworkRequest> changedFrameworkRequests = zkStore.getFrameworkRequests(changedFrameworkNames);
+
+    Map<String, FrameworkRequest> addedFrameworkRequests = new HashMap<>();
+    Map<String, FrameworkRequest> updatedFrameworkRequests = new HashMap<>();
+    Set<String> removedFrameworkNames = new HashSet<>();
+    Map<String, Long> changedFrameworkRequestVersions = new HashMap<>();
+    for (String frameworkName : frameworkNames) {
+      boolean existed = (frameworkRequests != null && frameworkRequests.containsKey(frameworkName));
+      FrameworkRequest frameworkRequest = changedFrameworkRequests.get(frameworkName);
+      if (frameworkRequest != null) {
+        if (existed) {
+          updatedFrameworkRequests.put(frameworkName, frameworkRequest);
+        } else {
+          addedFrameworkRequests.put(frameworkName, frameworkRequest);
+        }
+        frameworkRequestVersions.put(frameworkName, newFrameworkRequestVersions.get(frameworkName));
+        changedFrameworkRequestVersions.put(frameworkName, newFrameworkRequestVersions.get(frameworkName));
+      } else if (!newFrameworkRequestVersions.containsKey(frameworkName) ||
+          changedFrameworkNames.contains(frameworkName)) {
+        // The FrameworkRequest is deleted, maybe concurrently after its FrameworkRequestVersion is got
+        if (existed) {
+          removedFrameworkNames.add(frameworkName);
+        }
+        frameworkRequestVersions.remove(frameworkName);
+      }
+    }
+
+    updateFrameworkRequests(new FrameworkRequestChanges(
+        frameworkRequests == null,
+        addedFrameworkRequests, updatedFrameworkRequests, removedFrameworkNames, changedFrameworkRequestVersions));
+  }
 
-    // Backup old to detect changes
-    Map<String, FrameworkRequest> oldFrameworkRequests = frameworkRequests;
+  private void updateFrameworkRequests(FrameworkRequestChanges frameworkRequestChanges) {
+    if (frameworkRequestChanges.isEmpty()) {
+      return;
+    }
 
     // Update
-    frameworkRequests = CommonExtensions.asReadOnly(newFrameworkRequests);
+    Map<String, FrameworkRequest> newFrameworkRequests =
+        (frameworkRequests == null ? new ConcurrentHashMap<>() : frameworkRequests);
+    newFrameworkRequests.putAll(frameworkRequestChanges.getAddedFrameworkRequests());
+    newFrameworkRequests.putAll(frameworkRequestChanges.getChangedFrameworkRequests());
+    newFrameworkRequests.keySet().removeAll(frameworkRequestChanges.getRemovedFrameworkNames());
+
+    if (frameworkRequests == null) {
+      frameworkRequests = newFrameworkRequests;
 
-    if (oldFrameworkRequests == null) {
       // For the first time, send all Request to AM
-      service.onFrameworkRequestsUpdated(frameworkRequests);
+      service.onFrameworkRequestsUpdated(frameworkRequestChanges);
       {
         // Only start them for the first time
         service.onStartRMResyncHandler();
@@ -142,7 +225,7 @@ private void updateFrameworkRequests(Map<String, FrameworkRequest> newFrameworkR
       }
     } else {
       // For the other times, only send changed Request to AM
-      service.onFrameworkRequestsUpdated(frameworkRequests);
+      service.onFrameworkRequestsUpdated(frameworkRequestChanges);
     }
   }
 
@@ -43,6 +43,8 @@
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 // Maintains the life cycle for all Frameworks submitted to this Launcher.Service.
 // It is the engine to transition Status to satisfy Request eventually.
@@ -55,7 +57,11 @@ public class Service extends AbstractService {
 
   private YarnConfiguration yarnConf = new YarnConfiguration();
   private LauncherConfiguration conf;
-  private SystemTaskQueue transitionFrameworkStateQueue;
+  private PartitionedSystemTaskQueue transitionFrameworkStateQueue;
+  private final ScheduledExecutorService statusUpdateExecutor = Executors.newSingleThreadScheduledExecutor();
+  // Live ApplicationId -> The fingerprint of its ApplicationReport which is fed into the FrameworkStates
+  // at the last resyncFrameworksWithLiveApplications, it is only used by the incremental resync.
+  private final Map<String, List<Object>> resyncedApplicationReportFingerprints = new HashMap<>();
 
 
   /**
@@ -68,6 +74,7 @@ public class Service extends AbstractService {
   private RequestManager requestManager;
   private RMResyncHandler rmResyncHandler;
   private DiagnosticsRetrieveHandler diagnosticsRetrieveHandler;
+  private ApplicationSubmitHandler applicationSubmitHandler;
 
 
   /**
@@ -108,12 +115,15 @@ protected Boolean handleException(Exception e) {
   @Override
   protected void initialize() throws Exception {
     super.initialize();
-    transitionFrameworkStateQueue = new SystemTaskQueue(this::handleException);
 
     // Initialize LauncherConfiguration
     conf = YamlUtils.toObject(GlobalConstants.LAUNCHER_CONFIG_FILE, LauncherConfiguration.class);
     ModelValidation.validate(conf);
 
+    // The SystemTasks of different Frameworks are transitioned in parallel by different partitions
+    transitionFrameworkStateQueue = new PartitionedSystemTaskQueue(
+        this::handleException, conf.getServiceTransitionQueuePartitionCount());
+
     // Initialize SubServices
     yarnClient = YarnClient.createYarnClient();
     yarnClient.init(yarnConf);
@@ -121,11 +131,13 @@ protected void initialize() throws Exception {
 
     // Initialize Launcher Store
     zkStore = new ZookeeperStore(conf.getZkConnectString(), conf.getZkRootDir());
+    zkStore.setObjectFormat(conf.getZkObjectFormat());
     hdfsStore = new HdfsStore(conf.getHdfsRootDir());
 
     // Initialize other components
     rmResyncHandler = new RMResyncHandler(this, conf, yarnClient);
     diagnosticsRetrieveHandler = new DiagnosticsRetrieveHandler(this, conf, yarnClient);
+    applicationSubmitHandler = new ApplicationSubmitHandler(this, conf);
 
     // Initialize External Service
     webServer = new WebServer(conf, zkStore);
@@ -154,6 +166,7 @@ protected void run() throws Exception {
     // Start ExternalServices
     webServer.start();
     gcLeftoverFrameworks();
+    startStatusUpdate();
 
     // Run Service.RequestManager depend on WebServer and gcLeftoverFrameworks
     requestManager = new RequestManager(this, conf, zkStore);
@@ -182,6 +195,33 @@ public synchronized void stop(StopStatus stopStatus) {
   /**
    * REGION InternalUtils
    */
+  // Periodically update the Service's runtime Status, such as the backpressure of its SubServices,
+  // in LauncherStatus or its Metrics. It is not queued, since it does not change any FrameworkStatus.
+  private void startStatusUpdate() {
+    int intervalSec = Math.max(conf.getServiceStatusUpdateIntervalSec(), 1);
+    statusUpdateExecutor.scheduleWithFixedDelay(() -> {
+      try {
+        statusManager.updateApplicationSubmissionStatus(applicationSubmitHandler.getApplicationSubmissionStatus());
+        statusManager.updateTransitionQueueStatus(getTransitionQueueStatus());
+        statusManager.updateDiagnosticsRetrieveStatus(diagnosticsRetrieveHandler.getDiagnosticsRetrieveStatus());
+      } catch (Exception e) {
+        onExceptionOccurred(e);
+      }
+    }, 0, intervalSec, TimeUnit.SECONDS);
+  }
+
+  private TransitionQueueStatus getTransitionQueueStatus() {
+    TransitionQueueStatus transitionQueueStatus = new TransitionQueueStatus();
+    List<Integer> partitionLengths = transitionFrameworkStateQueue.getPartitionLengths();
+    int transitionQueueLength = 0;
+    for (Integer partitionLength : partitionLengths) {
+      transitionQueueLength += partitionLength;
+    }
+    transitionQueueStatus.setTransitionQueueLength(transitionQueueLength);
+    transitionQueueStatus.setTransitionQueuePartitionLengths(partitionLengths);
+    return transitionQueueStatus;
+  }
+
   // GC Framework level external resource [HDFS] for LeftoverFrameworks.
   // LeftoverFrameworks may be caused by HDFS down, race condition, etc.
   private void gcLeftoverFrameworks() throws Exception {
@@ -209,6 +249,13 @@ private void gcLeftoverFrameworks() throws Exception {
     }
     taskExecutor.invokeAll(tasks);
 
+    try {
+      hdfsStore.gcSharedPackages(frameworkNamesInStatus);
+    } catch (Exception e) {
+      // Best Effort to gcSharedPackages
+      LOGGER.logWarning(e, logPrefix + "Failed to GC SharedPackages, will GC them later");
+    }
+
     LOGGER.logInfo(logPrefix +
             "Succeeded: Frameworks in HDFS: [%s], Frameworks in Status: [%s]",
         frameworkNamesInHdfs.size() - tasks.size(), frameworkNamesInStatus.size());
@@ -246,7 +293,9 @@ private ContainerLaunchContext setupContainerLaunchContextForDefaultAM(
     // SetupLocalResources
     Map<String, LocalResource> localResources = new HashMap<>();
     hdfsStore.makeFrameworkRootDir(frameworkName);
-    HadoopUtils.addToLocalResources(localResources, hdfsStore.uploadAMPackageFile(frameworkName));
+    HadoopUtils.addToLocalResources(localResources,
+        hdfsStore.referenceSharedAMPackageFile(frameworkName),
+        hdfsStore.getSharedAMPackageVisibility());
 
     // SetupLocalEnvironment
     Map<String, String> localEnvs = new HashMap<>();
@@ -384,10 +433,9 @@ private void setupApplicationContext(
     applicationContext.setMaxAppAttempts(conf.getAmAttemptMaxCount());
     applicationContext.setAttemptFailuresValidityInterval(conf.getAmAttemptFailuresValidityIntervalSec() * 1000);
 
-    // Queue launchApplication to avoid race condition
-    transitionFrameworkStateQueue.queueSystemTask(() -> {
-      launchApplication(frameworkStatus, applicationContext);
-    });
+    // Submit the Application by the bounded pipeline, and its result will be queued to launchApplication
+    applicationSubmitHandler.submitApplicationAsync(
+        frameworkStatus, applicationContext, frameworkRequest.getFrameworkDescriptor().getUser());
   }
 
 
@@ -395,7 +443,7 @@ private void setupApplicationContext(
    * REGION FrameworkStateMachine
    */
   // Method which will cause transitionFrameworkState
-  // Note they should be called in single thread, such as from transitionFrameworkStateQueue
+  // Note they should be called in single thread for the same Framework, such as from transitionFrameworkStateQueue
 
   // Should be called after StatusManager recover completed
   private void reviseCorruptedFrameworkStates() throws Exception {
@@ -523,7 +571,7 @@ private void retrieveApplicationExitCode(String applicationId, String diagnostic
     completeApplication(frameworkStatus, exitCode, diagnostics);
   }
 
-  private void launchApplication(FrameworkStatus frameworkStatus, ApplicationSubmissionContext applicationContext) throws Exception {
+  private void launchApplication(FrameworkStatus frameworkStatus, Throwable submitException) throws Exception {
     String frameworkName = frameworkStatus.getFrameworkName();
     Integer frameworkVersion = frameworkStatus.getFrameworkVersion();
     String applicationId = frameworkStatus.getApplicationId();
@@ -534,27 +582,17 @@ private void launchApplication(FrameworkStatus frameworkStatus, ApplicationSubmi
     // Ensure FrameworkStatus is unchanged.
     if (!statusManager.containsFrameworkStatus(frameworkStatus)) {
       LOGGER.logWarning(logPrefix + "Framework not found in Status. Ignore it.");
-      return;
-    }
 
-    FrameworkRequest frameworkRequest = requestManager.tryGetFrameworkRequest(frameworkName, frameworkVersion);
-    if (frameworkRequest == null) {
-      LOGGER.logWarning(logPrefix + "Framework not found in Request. Ignore it.");
+      // The Application is submitted outside the queue, so it may be submitted after its Framework is removed
+      // and then it will never be killed by onFrameworkToRemove.
+      if (submitException == null && !statusManager.isApplicationIdAssociated(applicationId)) {
+        HadoopUtils.killApplication(applicationId);
+      }
       return;
     }
-    UserDescriptor user = frameworkRequest.getFrameworkDescriptor().getUser();
 
-    logPrefix += "SubmitApplication: ";
-    try {
-      LOGGER.logInfo(logPrefix + "ApplicationName: %s", applicationContext.getApplicationName());
-      LOGGER.logInfo(logPrefix + "ResourceRequest: %s", applicationContext.getAMContainerResourceRequest());
-      LOGGER.logInfo(logPrefix + "Queue: %s", applicationContext.getQueue());
-
-      HadoopUtils.submitApplication(applicationContext, user);
-
-      LOGGER.logInfo(logPrefix + "Succeeded");
-    } catch (Throwable e) {
-      LOGGER.logWarning(e, logPrefix + "Failed");
+    if (submitException != null) {
+      Throwable e = submitException;
       String eMsg = CommonUtils.toString(e);
 
       // YarnException indicates exceptions from yarn servers, and IOException indicates exceptions from RPC layer.
@@ -591,31 +629,43 @@ private void createApplication(FrameworkStatus frameworkStatus) throws Exception
     ApplicationSubmissionContext applicationContext = yarnClient.createApplication().getApplicationSubmissionContext();
     statusManager.transitionFrameworkState(frameworkName, FrameworkState.APPLICATION_CREATED, applicationContext);
 
-    // Concurrently setupApplicationContext
-    FrameworkStatus frameworkStatusSnapshot = YamlUtils.deepCopy(frameworkStatus, FrameworkStatus.class);
-    new Thread(() -> {
-      try {
-        // Always Setup a brand new ApplicationContext to tolerate ApplicationContext corruption,
-        // such as HDFS data lost.
-        // Retry to setupApplicationContext due to the race condition with onFrameworkToRemove.
-        RetryPolicy.executeWithRetry(() -> {
-              setupApplicationContext(frameworkStatusSnapshot, applicationContext);
-            },
-            conf.getApplicationSetupContextMaxRetryCount(),
-            conf.getApplicationSetupContextRetryIntervalSec(), null);
-      } catch (Exception e) {
-        onExceptionOccurred(e);
-      }
-    }).start();
+    // Concurrently setupApplicationContext by the bounded pipeline
+    FrameworkStatus frameworkStatusSnapshot = ModelUtils.deepCopy(frameworkStatus);
+    applicationSubmitHandler.setupApplicationContextAsync(() -> {
+      // Always Setup a brand new ApplicationContext to tolerate ApplicationContext corruption,
+      // such as HDFS data lost.
+      // Retry to setupApplicationContext due to the race condition with onFrameworkToRemove.
+      RetryPolicy.executeWithRetry(() -> {
+            setupApplicationContext(frameworkStatusSnapshot, applicationContext);
+          },
+          conf.getApplicationSetupContextMaxRetryCount(),
+          conf.getApplicationSetupContextRetryIntervalSec(), null);
+    });
   }
 
   private void createApplication() throws Exception {
     for (FrameworkStatus frameworkStatus : statusManager.getFrameworkStatus(
         new HashSet<>(Collections.singletonList(FrameworkState.FRAMEWORK_WAITING)))) {
-      createApplication(frameworkStatus);
+      // Create Applications in parallel, since RM createApplication may be slow
+      String frameworkName = frameworkStatus.getFrameworkName();
+      transitionFrameworkStateQueue.queueSystemTask(frameworkName, () -> {
+        createApplication(frameworkName);
+      });
     }
   }
 
+  private void createApplication(String frameworkName) throws Exception {
+    // Ensure the Framework is still FRAMEWORK_WAITING, since it may be queued multiple times
+    if (!statusManager.containsFrameworkStatus(frameworkName)) {
+      return;
+    }
+    FrameworkStatus frameworkStatus = statusManager.getFrameworkStatus(frameworkName);
+    if (frameworkStatus.getFrameworkState() != FrameworkState.FRAMEWORK_WAITING) {
+      return;
+    }
+    createApplication(frameworkStatus);
+  }
+
   private void completeFramework(FrameworkStatus frameworkStatus) throws Exception {
     String frameworkName = frameworkStatus.getFrameworkName();
 
@@ -653,7 +703,7 @@ private void attemptToRetry(FrameworkStatus frameworkStatus) throws Exception {
     Integer exitCode = frameworkStatus.getApplicationExitCode();
     ExitType exitType = frameworkStatus.getApplicationExitType();
     Integer retriedCount = frameworkStatus.getFrameworkRetryPolicyState().getRetriedCount();
-    RetryPolicyState newRetryPolicyState = YamlUtils.deepCopy(frameworkStatus.getFrameworkRetryPolicyState(), RetryPolicyState.class);
+    RetryPolicyState newRetryPolicyState = ModelUtils.deepCopy(frameworkStatus.getFrameworkRetryPolicyState());
     Integer transientConflictRetriedCount = frameworkStatus.getFrameworkRetryPolicyState().getTransientConflictRetriedCount();
     String logPrefix = String.format("[%s]: attemptToRetry: ", frameworkName);
 
@@ -710,8 +760,8 @@ private void attemptToRetry(FrameworkStatus frameworkStatus) throws Exception {
             "Will retryFramework with new Application after %ss. Reason: " +
             fancyRetryPolicyLogSuffix, delaySec);
 
-        FrameworkStatus frameworkStatusSnapshot = YamlUtils.deepCopy(frameworkStatus, FrameworkStatus.class);
-        transitionFrameworkStateQueue.queueSystemTaskDelayed(() -> {
+        FrameworkStatus frameworkStatusSnapshot = ModelUtils.deepCopy(frameworkStatus);
+        transitionFrameworkStateQueue.queueSystemTaskDelayed(frameworkName, () -> {
           retryFramework(frameworkStatusSnapshot, newRetryPolicyState);
         }, delaySec * 1000);
         return;
@@ -754,7 +804,18 @@ private void attemptToRetry() throws Exception {
     }
   }
 
-  private void resyncFrameworksWithLiveApplications(Map<String, ApplicationReport> liveApplicationReports) throws Exception {
+  // The fingerprint covers all the fields of the ApplicationReport which will be fed into the FrameworkStates
+  private static List<Object> getApplicationReportFingerprint(ApplicationReport applicationReport) {
+    return Arrays.asList(
+        applicationReport.getYarnApplicationState(),
+        applicationReport.getFinalApplicationStatus(),
+        applicationReport.getProgress(),
+        applicationReport.getTrackingUrl(),
+        applicationReport.getDiagnostics());
+  }
+
+  // Return the number of the ApplicationReports which are fed into the FrameworkStates
+  private int resyncFrameworksWithLiveApplications(Map<String, ApplicationReport> liveApplicationReports) throws Exception {
     // Since Application is persistent in ZK by RM, so liveApplicationReports will never incomplete.
     String logScope = "resyncFrameworksWithLiveApplications";
     CHANGE_AWARE_LOGGER.initializeScope(logScope, Level.INFO);
@@ -762,6 +823,12 @@ private void resyncFrameworksWithLiveApplications(Map<String, ApplicationReport>
         "Got %s live Applications from RM, start to resync them.",
         liveApplicationReports.size());
 
+    // The incremental resync only feeds the changed ApplicationReports, since feeding an unchanged
+    // ApplicationReport again will not change the FrameworkStates.
+    boolean incremental = conf.getServiceRMResyncIncremental();
+    resyncedApplicationReportFingerprints.keySet().retainAll(liveApplicationReports.keySet());
+    int changedReportCount = 0;
+
     for (ApplicationReport applicationReport : liveApplicationReports.values()) {
       String applicationId = applicationReport.getApplicationId().toString();
       YarnApplicationState applicationState = applicationReport.getYarnApplicationState();
@@ -773,9 +840,16 @@ private void resyncFrameworksWithLiveApplications(Map<String, ApplicationReport>
         String frameworkName = frameworkStatus.getFrameworkName();
         FrameworkState frameworkState = frameworkStatus.getFrameworkState();
         if (frameworkState == FrameworkState.APPLICATION_CREATED) {
-          return;
+          continue;
         }
 
+        List<Object> fingerprint = getApplicationReportFingerprint(applicationReport);
+        if (incremental && fingerprint.equals(resyncedApplicationReportFingerprints.get(applicationId))) {
+          continue;
+        }
+        resyncedApplicationReportFingerprints.put(applicationId, fingerprint);
+        changedReportCount++;
+
         // updateApplicationStatus
         statusManager.updateApplicationStatus(frameworkName, applicationReport);
 
@@ -824,7 +898,7 @@ private void resyncFrameworksWithLiveApplications(Map<String, ApplicationReport>
 
         // APPLICATION_CREATED Application is not in the liveApplicationReports, but it is indeed live in RM.
         if (frameworkState == FrameworkState.APPLICATION_CREATED) {
-          return;
+          continue;
         }
 
         LOGGER.logWarning(
@@ -839,6 +913,8 @@ private void resyncFrameworksWithLiveApplications(Map<String, ApplicationReport>
             false);
       }
     }
+
+    return changedReportCount;
   }
 
 
@@ -848,6 +924,8 @@ private void resyncFrameworksWithLiveApplications(Map<String, ApplicationReport>
   // Service integrate and process all Callbacks from all its SubServices
   // Note, if a Callback may change FrameworkState/FrameworkStatus, it should be queued in transitionFrameworkStateQueue
   // to let Callee(TaskQueue) to handle it in order.
+  // The SystemTask which only changes one Framework should be queued with the FrameworkName as its key,
+  // and the SystemTask which may change multiple Frameworks should be queued as a global SystemTask.
   // Note:
   //  1. Queued SystemTask need to double check whether the input param still valid at the time being Executed.
   //  2. For Status: Do not queue SystemTask with Status as the input param otherwise need to double check its
@@ -856,7 +934,8 @@ private void resyncFrameworksWithLiveApplications(Map<String, ApplicationReport>
   //  since RequestManager is not synchronized.
   // For Service:
   //  1. For Status: Queued Status is double checked.
-  //  2. For Request: Request is double checked, except for onFrameworkRequestsUpdated since we need a Request snapshot anyway.
+  //  2. For Request: Request is double checked, except for onFrameworkRequestsUpdated since the FrameworkRequestChanges
+  //  must be applied in order anyway.
 
   // Callbacks from SubServices
   public void onExceptionOccurred(Exception e) {
@@ -867,12 +946,11 @@ public void onExceptionOccurred(Exception e) {
   }
 
   // Callbacks from StatusManager and RequestManager
-  // FrameworkName -> FrameworkRequest
   // Service may need to double check whether FrameworkRequests is changed or not according to StatusManager
-  public void onFrameworkRequestsUpdated(Map<String, FrameworkRequest> frameworkRequests) {
-    LOGGER.logInfo("onFrameworkRequestsUpdated: FrameworkRequests: [%s]", frameworkRequests.size());
+  public void onFrameworkRequestsUpdated(FrameworkRequestChanges frameworkRequestChanges) {
+    LOGGER.logInfo("onFrameworkRequestsUpdated: %s", frameworkRequestChanges);
     transitionFrameworkStateQueue.queueSystemTask(() -> {
-      statusManager.updateFrameworkRequests(frameworkRequests);
+      statusManager.updateFrameworkRequests(frameworkRequestChanges);
       createApplication();
     });
   }
@@ -932,12 +1010,38 @@ public void queueResyncWithRM(int delaySec) {
   }
 
   // ApplicationId -> ApplicationReport
-  public void onLiveApplicationsUpdated(HashMap<String, ApplicationReport> liveApplicationReports) throws Exception {
+  // Return the number of the ApplicationReports which are fed into the FrameworkStates
+  public int onLiveApplicationsUpdated(HashMap<String, ApplicationReport> liveApplicationReports) throws Exception {
     LOGGER.logDebug("onLiveApplicationsUpdated: LiveApplications: [%s]", liveApplicationReports.size());
 
     // onLiveApplicationsUpdated is already in queue, so queue it again will disorder
     // the result of resyncWithRM and other SystemTasks
-    resyncFrameworksWithLiveApplications(liveApplicationReports);
+    return resyncFrameworksWithLiveApplications(liveApplicationReports);
+  }
+
+  // The live associated Applications which should be found in RM, i.e. excluding the APPLICATION_CREATED ones
+  public List<String> getApplicationIdsToResync() {
+    List<String> applicationIds = new ArrayList<>();
+    for (String applicationId : statusManager.getLiveAssociatedApplicationIds()) {
+      FrameworkStatus frameworkStatus = statusManager.getFrameworkStatusWithLiveAssociatedApplicationId(applicationId);
+      if (frameworkStatus.getFrameworkState() != FrameworkState.APPLICATION_CREATED) {
+        applicationIds.add(applicationId);
+      }
+    }
+    return applicationIds;
+  }
+
+  public void onRMResyncStatusUpdated(RMResyncStatus rmResyncStatus) throws Exception {
+    statusManager.updateRMResyncStatus(rmResyncStatus);
+  }
+
+
+  // Callbacks from ApplicationSubmitHandler
+  // submitException is null if the Application is submitted successfully
+  public void onApplicationSubmitted(FrameworkStatus frameworkStatus, Throwable submitException) {
+    transitionFrameworkStateQueue.queueSystemTask(frameworkStatus.getFrameworkName(), () -> {
+      launchApplication(frameworkStatus, submitException);
+    });
   }
 
 
@@ -950,8 +1054,16 @@ public void onDiagnosticsRetrieved(String applicationId, String diagnostics) {
     }
 
     String finalDiagnostics = diagnostics;
-    transitionFrameworkStateQueue.queueSystemTask(() -> {
-      retrieveApplicationExitCode(applicationId, finalDiagnostics);
-    });
+    if (statusManager.isApplicationIdAssociated(applicationId)) {
+      // The associated Framework of an Application never changes, so it can be used as the key
+      String frameworkName = statusManager.getFrameworkStatusWithAssociatedApplicationId(applicationId).getFrameworkName();
+      transitionFrameworkStateQueue.queueSystemTask(frameworkName, () -> {
+        retrieveApplicationExitCode(applicationId, finalDiagnostics);
+      });
+    } else {
+      transitionFrameworkStateQueue.queueSystemTask(() -> {
+        retrieveApplicationExitCode(applicationId, finalDiagnostics);
+      });
+    }
   }
 }
@@ -46,6 +46,11 @@ public class StatusManager extends AbstractService {  // THREAD SAFE
   private LauncherStatus launcherStatus = null;
   // FrameworkName -> FrameworkStatus
   private Map<String, FrameworkStatus> frameworkStatuses = null;
+  // The Metrics are the frequently changed parts of the LauncherStatus, which are set to their own ZK nodes
+  // instead of the LauncherStatus node, so that their changes never trigger a full pulling of the LauncherStatus.
+  private ApplicationSubmissionStatus applicationSubmissionStatus = null;
+  private TransitionQueueStatus transitionQueueStatus = null;
+  private DiagnosticsRetrieveStatus diagnosticsRetrieveStatus = null;
 
 
   /**
@@ -160,7 +165,7 @@ protected void recover() throws Exception {
    * REGION InternalUtils
    */
   private void updateLauncherStatus(LauncherStatus newLauncherStatus) throws Exception {
-    if (YamlUtils.deepEquals(launcherStatus, newLauncherStatus)) {
+    if (ModelUtils.deepEquals(launcherStatus, newLauncherStatus)) {
       return;
     }
 
@@ -315,7 +320,7 @@ public synchronized boolean containsFrameworkStatus(FrameworkStatus frameworkSta
     }
 
     FrameworkStatus thisFrameworkStatus = getFrameworkStatus(frameworkName);
-    if (!YamlUtils.deepEquals(thisFrameworkStatus, frameworkStatus)) {
+    if (!ModelUtils.deepEquals(thisFrameworkStatus, frameworkStatus)) {
       LOGGER.logSplittedLines(Level.DEBUG,
           "FrameworkStatus not found in Status. FrameworkStatus:\n%s\nCurrent FrameworkStatus in Status:\n%s",
           WebCommon.toJson(frameworkStatus), WebCommon.toJson(thisFrameworkStatus));
@@ -518,9 +523,67 @@ public synchronized void transitionFrameworkState(
     LOGGER.logInfo("Transitioned Framework [%s] from [%s] to [%s]", frameworkName, srcState, dstState);
   }
 
-  public synchronized void updateFrameworkRequests(Map<String, FrameworkRequest> frameworkRequests) throws Exception {
+  public synchronized void updateApplicationSubmissionStatus(
+      ApplicationSubmissionStatus applicationSubmissionStatus) throws Exception {
+    if (ModelUtils.deepEquals(this.applicationSubmissionStatus, applicationSubmissionStatus)) {
+      return;
+    }
+
+    // The queue lengths change almost every time, so only log them for debugging
+    LOGGER.logDebug(
+        "updateApplicationSubmissionStatus: Update to [%s]",
+        WebCommon.toJson(applicationSubmissionStatus));
+    this.applicationSubmissionStatus = applicationSubmissionStatus;
+    zkStore.setApplicationSubmissionStatus(applicationSubmissionStatus);
+  }
+
+  public synchronized void updateTransitionQueueStatus(
+      TransitionQueueStatus transitionQueueStatus) throws Exception {
+    if (ModelUtils.deepEquals(this.transitionQueueStatus, transitionQueueStatus)) {
+      return;
+    }
+
+    // The queue lengths change almost every time, so only log them for debugging
+    LOGGER.logDebug(
+        "updateTransitionQueueStatus: Update to [%s]",
+        WebCommon.toJson(transitionQueueStatus));
+    this.transitionQueueStatus = transitionQueueStatus;
+    zkStore.setTransitionQueueStatus(transitionQueueStatus);
+  }
+
+  public synchronized void updateDiagnosticsRetrieveStatus(
+      DiagnosticsRetrieveStatus diagnosticsRetrieveStatus) throws Exception {
+    if (ModelUtils.deepEquals(this.diagnosticsRetrieveStatus, diagnosticsRetrieveStatus)) {
+      return;
+    }
+
+    LOGGER.logDebug(
+        "updateDiagnosticsRetrieveStatus: Update to [%s]",
+        WebCommon.toJson(diagnosticsRetrieveStatus));
+    this.diagnosticsRetrieveStatus = diagnosticsRetrieveStatus;
+    zkStore.setDiagnosticsRetrieveStatus(diagnosticsRetrieveStatus);
+  }
+
+  public synchronized void updateRMResyncStatus(RMResyncStatus rmResyncStatus) throws Exception {
+    // Not to write ZK if the resync is not changed, since it is resynced frequently
+    if (ModelUtils.deepEquals(launcherStatus.getRmResyncStatus(), rmResyncStatus)) {
+      return;
+    }
+
+    LauncherStatus newLauncherStatus = ModelUtils.deepCopy(launcherStatus);
+    newLauncherStatus.setRmResyncStatus(rmResyncStatus);
+    launcherStatus = newLauncherStatus;
+    zkStore.setLauncherStatus(launcherStatus);
+  }
+
+  // Only the changed Frameworks are reconciled, except for the FullSnapshot
+  public synchronized void updateFrameworkRequests(FrameworkRequestChanges frameworkRequestChanges) throws Exception {
+    List<FrameworkRequest> updatedFrameworkRequests = new ArrayList<>();
+    updatedFrameworkRequests.addAll(frameworkRequestChanges.getAddedFrameworkRequests().values());
+    updatedFrameworkRequests.addAll(frameworkRequestChanges.getChangedFrameworkRequests().values());
+
     // Add/Update Framework
-    for (FrameworkRequest frameworkRequest : frameworkRequests.values()) {
+    for (FrameworkRequest frameworkRequest : updatedFrameworkRequests) {
       String frameworkName = frameworkRequest.getFrameworkName();
       Integer frameworkVersion = frameworkRequest.getFrameworkDescriptor().getVersion();
 
@@ -541,18 +604,26 @@ public synchronized void updateFrameworkRequests(Map<String, FrameworkRequest> f
     }
 
     // Remove Framework
-    for (FrameworkStatus frameworkStatus : new ArrayList<>(frameworkStatuses.values())) {
-      String frameworkName = frameworkStatus.getFrameworkName();
-      Integer frameworkVersion = frameworkStatus.getFrameworkVersion();
+    Set<String> removedFrameworkNames;
+    if (frameworkRequestChanges.isFullSnapshot()) {
+      removedFrameworkNames = new HashSet<>(frameworkStatuses.keySet());
+      removedFrameworkNames.removeAll(frameworkRequestChanges.getAddedFrameworkRequests().keySet());
+    } else {
+      removedFrameworkNames = frameworkRequestChanges.getRemovedFrameworkNames();
+    }
+
+    for (String frameworkName : removedFrameworkNames) {
+      if (!frameworkStatuses.containsKey(frameworkName)) {
+        continue;
+      }
+      Integer frameworkVersion = frameworkStatuses.get(frameworkName).getFrameworkVersion();
 
       String logPrefix = String.format(
           "[%s][%s]: updateFrameworkRequests: ",
           frameworkName, frameworkVersion);
 
-      if (!frameworkRequests.containsKey(frameworkName)) {
-        LOGGER.logDebug(logPrefix + "Remove Framework permanently");
-        removeFramework(frameworkName, false);
-      }
+      LOGGER.logDebug(logPrefix + "Remove Framework permanently");
+      removeFramework(frameworkName, false);
     }
   }
 
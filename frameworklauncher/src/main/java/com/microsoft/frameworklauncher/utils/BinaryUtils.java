@@ -0,0 +1,617 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.utils;
+
+import java.beans.BeanInfo;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.*;
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Compact binary serialization for the yaml objects, i.e. the Java Beans in common.model.
+// Compared with YamlUtils, it is much smaller and faster, but not human readable.
+//
+// Format:
+//  Each value is prefixed with a tag byte, so that the unknown property can be skipped and the
+//  numbers can be converted to the declared type like YamlUtils does.
+//  Each String, including the property name and the Enum name, is only written once, and then
+//  referred by its index, so the repeated names do not take space.
+//  Each bean is written as all its properties, including the null properties, so that
+//  a null property will not be overwritten by its default value after read back.
+public class BinaryUtils {
+  private static final byte TAG_NULL = 0;
+  private static final byte TAG_FALSE = 1;
+  private static final byte TAG_TRUE = 2;
+  private static final byte TAG_INT = 3;
+  private static final byte TAG_FLOAT = 4;
+  private static final byte TAG_DOUBLE = 5;
+  private static final byte TAG_STRING = 6;
+  private static final byte TAG_STRING_REF = 7;
+  private static final byte TAG_LIST = 8;
+  private static final byte TAG_MAP = 9;
+  private static final byte TAG_BEAN = 10;
+
+  private static final int STREAM_BUFFER_BYTES = 8192;
+
+  // Class -> Readable and writable bean properties of the Class
+  private static final Map<Class<?>, Map<String, BeanProperty>> BEAN_PROPERTIES = new ConcurrentHashMap<>();
+
+  // Bytes <-> Object
+  public static <T> byte[] toBytes(T object) {
+    Encoder encoder = new Encoder();
+    encoder.writeValue(object);
+    return encoder.toByteArray();
+  }
+
+  public static <T> T toObject(byte[] bytes, Class<T> classRef) {
+    Decoder decoder = new Decoder(bytes);
+    return classRef.cast(decoder.readValue(classRef));
+  }
+
+  // Stream <-> Object
+  // The stream is not closed.
+  public static <T> void toStream(T object, OutputStream outputStream) throws IOException {
+    Encoder encoder = new Encoder(outputStream);
+    try {
+      encoder.writeValue(object);
+      encoder.flush();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  public static <T> T toObject(InputStream inputStream, Class<T> classRef) throws IOException {
+    Decoder decoder = new Decoder(inputStream);
+    try {
+      return classRef.cast(decoder.readValue(classRef));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  // Compress <-> Decompress
+  public static byte[] compress(byte[] bytes) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4 + 16);
+    try (DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outputStream)) {
+      deflaterStream.write(bytes);
+    } catch (IOException e) {
+      // ByteArrayOutputStream never throws IOException
+      throw new IllegalStateException(e);
+    }
+    return outputStream.toByteArray();
+  }
+
+  public static byte[] decompress(byte[] bytes) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length * 4 + 16);
+    try (InflaterInputStream inflaterStream = new InflaterInputStream(new ByteArrayInputStream(bytes))) {
+      byte[] buffer = new byte[8192];
+      int readBytes;
+      while ((readBytes = inflaterStream.read(buffer)) > 0) {
+        outputStream.write(buffer, 0, readBytes);
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to decompress corrupted bytes", e);
+    }
+    return outputStream.toByteArray();
+  }
+
+  // The bean introspection is also shared with ModelUtils
+  static class BeanProperty {
+    final Method getter;
+    final Method setter;
+    final Type type;
+
+    public BeanProperty(PropertyDescriptor descriptor) {
+      getter = descriptor.getReadMethod();
+      setter = descriptor.getWriteMethod();
+      type = getter.getGenericReturnType();
+    }
+  }
+
+  static Map<String, BeanProperty> getBeanProperties(Class<?> classRef) {
+    return BEAN_PROPERTIES.computeIfAbsent(classRef, c -> {
+      try {
+        // Sorted by name, so that the same bean is always written in the same bytes
+        Map<String, BeanProperty> properties = new TreeMap<>();
+        BeanInfo beanInfo = Introspector.getBeanInfo(c, Object.class);
+        for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+          if (descriptor.getReadMethod() != null && descriptor.getWriteMethod() != null) {
+            properties.put(descriptor.getName(), new BeanProperty(descriptor));
+          }
+        }
+        return properties;
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Failed to introspect bean class " + c.getName(), e);
+      }
+    });
+  }
+
+  private static Class<?> getRawClass(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>) type;
+    } else if (type instanceof ParameterizedType) {
+      return (Class<?>) ((ParameterizedType) type).getRawType();
+    } else {
+      return Object.class;
+    }
+  }
+
+  private static Type getTypeArgument(Type type, int index) {
+    if (type instanceof ParameterizedType) {
+      return ((ParameterizedType) type).getActualTypeArguments()[index];
+    } else {
+      return Object.class;
+    }
+  }
+
+  private static class Encoder {
+    // The buffer is flushed to the outputStream once full, or grown if there is no outputStream
+    private final OutputStream outputStream;
+    private byte[] buffer;
+    private int size = 0;
+    // String -> Index of the String in the written order
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+
+    public Encoder() {
+      this.outputStream = null;
+      this.buffer = new byte[256];
+    }
+
+    public Encoder(OutputStream outputStream) {
+      this.outputStream = outputStream;
+      this.buffer = new byte[STREAM_BUFFER_BYTES];
+    }
+
+    public byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+
+    public void flush() {
+      if (outputStream != null && size > 0) {
+        try {
+          outputStream.write(buffer, 0, size);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        size = 0;
+      }
+    }
+
+    private void ensureCapacity(int extraBytes) {
+      if (size + extraBytes > buffer.length) {
+        flush();
+        if (size + extraBytes > buffer.length) {
+          buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extraBytes));
+        }
+      }
+    }
+
+    private void writeByte(int b) {
+      ensureCapacity(1);
+      buffer[size++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes) {
+      if (outputStream != null && bytes.length > buffer.length) {
+        // Write through instead of growing the buffer
+        flush();
+        try {
+          outputStream.write(bytes);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return;
+      }
+
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, size, bytes.length);
+      size += bytes.length;
+    }
+
+    private void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[size++] = (byte) value;
+    }
+
+    private void writeFixedLong(long value, int bytes) {
+      ensureCapacity(bytes);
+      for (int i = 0; i < bytes; i++) {
+        buffer[size++] = (byte) (value >>> (i * 8));
+      }
+    }
+
+    private void writeString(String value) {
+      Integer index = stringIndexes.get(value);
+      if (index != null) {
+        writeByte(TAG_STRING_REF);
+        writeVarLong(index);
+      } else {
+        stringIndexes.put(value, stringIndexes.size());
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeByte(TAG_STRING);
+        writeVarLong(bytes.length);
+        writeBytes(bytes);
+      }
+    }
+
+    public void writeValue(Object value) {
+      if (value == null) {
+        writeByte(TAG_NULL);
+      } else if (value instanceof Boolean) {
+        writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+      } else if (value instanceof Integer || value instanceof Long ||
+          value instanceof Short || value instanceof Byte) {
+        long longValue = ((Number) value).longValue();
+        writeByte(TAG_INT);
+        // ZigZag encoding, so that the small negative numbers are also small
+        writeVarLong((longValue << 1) ^ (longValue >> 63));
+      } else if (value instanceof Float) {
+        writeByte(TAG_FLOAT);
+        writeFixedLong(Float.floatToIntBits((Float) value), 4);
+      } else if (value instanceof Double) {
+        writeByte(TAG_DOUBLE);
+        writeFixedLong(Double.doubleToLongBits((Double) value), 8);
+      } else if (value instanceof String) {
+        writeString((String) value);
+      } else if (value instanceof Enum) {
+        writeString(((Enum<?>) value).name());
+      } else if (value instanceof BigDecimal || value instanceof BigInteger || value instanceof Character) {
+        writeString(value.toString());
+      } else if (value instanceof Collection) {
+        Collection<?> collection = (Collection<?>) value;
+        writeByte(TAG_LIST);
+        writeVarLong(collection.size());
+        for (Object element : collection) {
+          writeValue(element);
+        }
+      } else if (value instanceof Map) {
+        Map<?, ?> map = (Map<?, ?>) value;
+        writeByte(TAG_MAP);
+        writeVarLong(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          writeValue(entry.getKey());
+          writeValue(entry.getValue());
+        }
+      } else {
+        Map<String, BeanProperty> properties = getBeanProperties(value.getClass());
+        writeByte(TAG_BEAN);
+        writeVarLong(properties.size());
+        for (Map.Entry<String, BeanProperty> propertyKV : properties.entrySet()) {
+          writeString(propertyKV.getKey());
+          try {
+            writeValue(propertyKV.getValue().getter.invoke(value));
+          } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException(String.format(
+                "Failed to get property %s of %s", propertyKV.getKey(), value.getClass().getName()), e);
+          }
+        }
+      }
+    }
+  }
+
+  private static class Decoder {
+    // The buffer is refilled from the inputStream once consumed, or it is the whole bytes if there is no inputStream
+    private final InputStream inputStream;
+    private final byte[] buffer;
+    private int limit;
+    private int position = 0;
+    // The number of bytes consumed before the buffer, only for error messages
+    private long bufferOffset = 0;
+    // Index -> String in the read order
+    private final List<String> strings = new ArrayList<>();
+
+    public Decoder(byte[] buffer) {
+      this.inputStream = null;
+      this.buffer = buffer;
+      this.limit = buffer.length;
+    }
+
+    public Decoder(InputStream inputStream) {
+      this.inputStream = inputStream;
+      this.buffer = new byte[STREAM_BUFFER_BYTES];
+      this.limit = 0;
+    }
+
+    private long getPosition() {
+      return bufferOffset + position;
+    }
+
+    // Return false if there is no more bytes
+    private boolean fill() {
+      if (inputStream == null) {
+        return false;
+      }
+
+      try {
+        int readBytes = inputStream.read(buffer, 0, buffer.length);
+        if (readBytes <= 0) {
+          return false;
+        }
+        bufferOffset += limit;
+        limit = readBytes;
+        position = 0;
+        return true;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private byte readByte() {
+      if (position >= limit && !fill()) {
+        throw new IllegalArgumentException("Unexpected end of bytes at position " + getPosition());
+      }
+      return buffer[position++];
+    }
+
+    private byte[] readBytes(int length) {
+      byte[] bytes = new byte[length];
+      int readLength = 0;
+      while (readLength < length) {
+        if (position >= limit && !fill()) {
+          throw new IllegalArgumentException("Unexpected end of bytes at position " + getPosition());
+        }
+        int copyLength = Math.min(length - readLength, limit - position);
+        System.arraycopy(buffer, position, bytes, readLength, copyLength);
+        position += copyLength;
+        readLength += copyLength;
+      }
+      return bytes;
+    }
+
+    private long readVarLong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Malformed varint at position " + getPosition());
+    }
+
+    private int readLength() {
+      long length = readVarLong();
+      if (length < 0 || length > Integer.MAX_VALUE || (inputStream == null && length > limit - position)) {
+        throw new IllegalArgumentException("Malformed length " + length + " at position " + getPosition());
+      }
+      return (int) length;
+    }
+
+    private long readFixedLong(int bytes) {
+      long value = 0;
+      for (int i = 0; i < bytes; i++) {
+        value |= (long) (readByte() & 0xFF) << (i * 8);
+      }
+      return value;
+    }
+
+    private String readString(byte tag) {
+      if (tag == TAG_STRING) {
+        int length = readLength();
+        String value;
+        if (length <= limit - position) {
+          value = new String(buffer, position, length, StandardCharsets.UTF_8);
+          position += length;
+        } else {
+          value = new String(readBytes(length), StandardCharsets.UTF_8);
+        }
+        strings.add(value);
+        return value;
+      } else if (tag == TAG_STRING_REF) {
+        long index = readVarLong();
+        if (index < 0 || index >= strings.size()) {
+          throw new IllegalArgumentException("Malformed string reference " + index + " at position " + getPosition());
+        }
+        return strings.get((int) index);
+      } else {
+        throw new IllegalArgumentException("Expect a string but got tag " + tag + " at position " + getPosition());
+      }
+    }
+
+    // Read the next value and convert it to the given declared type
+    @SuppressWarnings("unchecked")
+    public Object readValue(Type type) {
+      Class<?> rawClass = getRawClass(type);
+      byte tag = readByte();
+      switch (tag) {
+        case TAG_NULL:
+          return null;
+        case TAG_FALSE:
+          return false;
+        case TAG_TRUE:
+          return true;
+        case TAG_INT: {
+          long zigZagValue = readVarLong();
+          return toNumber((zigZagValue >>> 1) ^ -(zigZagValue & 1), rawClass);
+        }
+        case TAG_FLOAT:
+          return toNumber(Float.intBitsToFloat((int) readFixedLong(4)), rawClass);
+        case TAG_DOUBLE:
+          return toNumber(Double.longBitsToDouble(readFixedLong(8)), rawClass);
+        case TAG_STRING:
+        case TAG_STRING_REF: {
+          String value = readString(tag);
+          if (rawClass.isEnum()) {
+            return Enum.valueOf(rawClass.asSubclass(Enum.class), value);
+          } else if (rawClass == BigDecimal.class) {
+            return new BigDecimal(value);
+          } else if (rawClass == BigInteger.class) {
+            return new BigInteger(value);
+          } else if (rawClass == Character.class || rawClass == char.class) {
+            return value.charAt(0);
+          }
+          return value;
+        }
+        case TAG_LIST: {
+          int count = readLength();
+          Collection<Object> collection = (Set.class.isAssignableFrom(rawClass) ?
+              new HashSet<>() : new ArrayList<>(count));
+          Type elementType = getTypeArgument(type, 0);
+          for (int i = 0; i < count; i++) {
+            collection.add(readValue(elementType));
+          }
+          return collection;
+        }
+        case TAG_MAP: {
+          int count = readLength();
+          Map<Object, Object> map = newMap(rawClass);
+          Type keyType = getTypeArgument(type, 0);
+          Type valueType = getTypeArgument(type, 1);
+          for (int i = 0; i < count; i++) {
+            Object key = readValue(keyType);
+            map.put(key, readValue(valueType));
+          }
+          return map;
+        }
+        case TAG_BEAN:
+          return readBean(rawClass);
+        default:
+          throw new IllegalArgumentException("Unknown tag " + tag + " at position " + getPosition());
+      }
+    }
+
+    private Object readBean(Class<?> classRef) {
+      if (classRef == Object.class || classRef.isInterface() || Modifier.isAbstract(classRef.getModifiers())) {
+        throw new IllegalArgumentException("Cannot read bean into non concrete class " + classRef.getName());
+      }
+
+      Object bean;
+      try {
+        bean = classRef.getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalArgumentException("Failed to instantiate bean class " + classRef.getName(), e);
+      }
+
+      Map<String, BeanProperty> properties = getBeanProperties(classRef);
+      int count = readLength();
+      for (int i = 0; i < count; i++) {
+        String name = readString(readByte());
+        BeanProperty property = properties.get(name);
+        if (property == null) {
+          // Skip missing properties like YamlUtils
+          skipValue();
+          continue;
+        }
+
+        Object value = readValue(property.type);
+        if (value == null && property.setter.getParameterTypes()[0].isPrimitive()) {
+          continue;
+        }
+        try {
+          property.setter.invoke(bean, value);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+          throw new IllegalArgumentException(String.format(
+              "Failed to set property %s of %s", name, classRef.getName()), e);
+        }
+      }
+      return bean;
+    }
+
+    private void skipValue() {
+      byte tag = readByte();
+      switch (tag) {
+        case TAG_NULL:
+        case TAG_FALSE:
+        case TAG_TRUE:
+          break;
+        case TAG_INT:
+          readVarLong();
+          break;
+        case TAG_FLOAT:
+          readFixedLong(4);
+          break;
+        case TAG_DOUBLE:
+          readFixedLong(8);
+          break;
+        case TAG_STRING:
+        case TAG_STRING_REF:
+          // Still need to record the skipped String, since it may be referred later
+          readString(tag);
+          break;
+        case TAG_LIST: {
+          int count = readLength();
+          for (int i = 0; i < count; i++) {
+            skipValue();
+          }
+          break;
+        }
+        case TAG_MAP: {
+          int count = readLength();
+          for (int i = 0; i < count * 2; i++) {
+            skipValue();
+          }
+          break;
+        }
+        case TAG_BEAN: {
+          int count = readLength();
+          for (int i = 0; i < count; i++) {
+            readString(readByte());
+            skipValue();
+          }
+          break;
+        }
+        default:
+          throw new IllegalArgumentException("Unknown tag " + tag + " at position " + getPosition());
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> newMap(Class<?> classRef) {
+      if (!classRef.isInterface() && !Modifier.isAbstract(classRef.getModifiers()) &&
+          Map.class.isAssignableFrom(classRef)) {
+        try {
+          return (Map<Object, Object>) classRef.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException ignored) {
+        }
+      }
+      return new LinkedHashMap<>();
+    }
+
+    private static Object toNumber(Number value, Class<?> classRef) {
+      if (classRef == Integer.class || classRef == int.class) {
+        return value.intValue();
+      } else if (classRef == Long.class || classRef == long.class) {
+        return value.longValue();
+      } else if (classRef == Float.class || classRef == float.class) {
+        return value.floatValue();
+      } else if (classRef == Double.class || classRef == double.class) {
+        return value.doubleValue();
+      } else if (classRef == Short.class || classRef == short.class) {
+        return value.shortValue();
+      } else if (classRef == Byte.class || classRef == byte.class) {
+        return value.byteValue();
+      } else if (classRef == BigDecimal.class) {
+        return new BigDecimal(value.toString());
+      } else {
+        return value;
+      }
+    }
+  }
+}
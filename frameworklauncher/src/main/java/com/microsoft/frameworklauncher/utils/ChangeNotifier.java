@@ -0,0 +1,62 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Coalesce the change notifications for a puller, so that it can pull the changed keys ASAP
+// once they are notified, and still resync all keys periodically in case any notification is lost.
+public class ChangeNotifier { // THREAD SAFE
+  private final Set<String> changedKeys = new HashSet<>();
+  private boolean allChanged = false;
+  private long lastResyncTimestamp = System.currentTimeMillis();
+
+  // Notify the given key is changed, null key means all keys may be changed.
+  public synchronized void notifyChanged(String key) {
+    if (key == null) {
+      allChanged = true;
+    } else {
+      changedKeys.add(key);
+    }
+    notifyAll();
+  }
+
+  // Wait until any key is notified or resyncIntervalMs elapsed since last resync.
+  // Return the changed keys, or null if all keys should be resynced.
+  public synchronized Set<String> awaitChanges(long resyncIntervalMs) throws InterruptedException {
+    while (true) {
+      long currentTimestamp = System.currentTimeMillis();
+      long resyncRemainingMs = lastResyncTimestamp + resyncIntervalMs - currentTimestamp;
+      if (allChanged || resyncRemainingMs <= 0) {
+        allChanged = false;
+        changedKeys.clear();
+        lastResyncTimestamp = currentTimestamp;
+        return null;
+      }
+
+      if (!changedKeys.isEmpty()) {
+        Set<String> keys = new HashSet<>(changedKeys);
+        changedKeys.clear();
+        return keys;
+      }
+
+      wait(resyncRemainingMs);
+    }
+  }
+}
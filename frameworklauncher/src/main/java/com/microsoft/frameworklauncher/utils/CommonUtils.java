@@ -23,6 +23,9 @@
 import org.apache.hadoop.util.StringUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -111,6 +114,19 @@ public static String readFile(String filePath) throws Exception {
     return FileUtils.readFileToString(new File(filePath));
   }
 
+  // Return the hex SHA-256 digest of the file content
+  public static String getFileDigest(String filePath) throws Exception {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    try (InputStream in = new FileInputStream(filePath)) {
+      byte[] buffer = new byte[64 * 1024];
+      int len;
+      while ((len = in.read(buffer)) != -1) {
+        digest.update(buffer, 0, len);
+      }
+    }
+    return StringUtils.byteToHexString(digest.digest());
+  }
+
   public static byte[] subArray(byte[] array, int startIndex, int length) {
     return Arrays.copyOfRange(array, startIndex, startIndex + length);
   }
@@ -79,6 +79,14 @@ public static Boolean equals(Resource res, Resource otherRes) throws Exception {
     return equal;
   }
 
+  // The Key to match an Allocated Container with its ContainerRequest, which is consistent with
+  // equals(Resource, Resource) and equals(Priority, Priority) except for the GpuAttribute.
+  public static String toRequestKey(Resource res, Priority priority) throws Exception {
+    ResourceDescriptor normRes = normalize(ResourceDescriptor.fromResource(res));
+    return String.format("%s:%s:%s:%s",
+        toString(priority), normRes.getMemoryMB(), normRes.getCpuNumber(), normRes.getGpuNumber());
+  }
+
   public static Priority toPriority(Integer priority) {
     return Priority.newInstance(priority);
   }
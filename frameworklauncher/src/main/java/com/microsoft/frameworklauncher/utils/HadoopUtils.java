@@ -24,6 +24,8 @@
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.*;
+import org.apache.hadoop.fs.permission.FsAction;
+import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.util.Shell;
 import org.apache.hadoop.yarn.api.records.*;
@@ -125,6 +127,72 @@ public static Set<String> listDirInHdfs(String hdfsPath) throws Exception {
     return nodeNames;
   }
 
+  // Should always success, and both the child files and directories are listed
+  public static Set<String> listChildrenInHdfs(String hdfsPath) throws Exception {
+    Set<String> nodeNames = new HashSet<>();
+    try {
+      FileSystem fs = FileSystem.get(conf);
+      LOGGER.logInfo("[hadoop fs -ls %s]", hdfsPath);
+      for (FileStatus fileStatus : fs.listStatus(new Path(hdfsPath))) {
+        nodeNames.add(fileStatus.getPath().getName());
+      }
+    } catch (FileNotFoundException ignored) {
+    }
+    return nodeNames;
+  }
+
+  // Should always success
+  public static boolean existsInHdfs(String hdfsPath) throws Exception {
+    FileSystem fs = FileSystem.get(conf);
+    LOGGER.logDebug("[hadoop fs -test -e %s]", hdfsPath);
+    return fs.exists(new Path(hdfsPath));
+  }
+
+  // Should success when the hdfsPath's parent paths are exists directories
+  // Note the existing file will be overwritten
+  public static void createEmptyFileInHdfs(String hdfsPath) throws Exception {
+    FileSystem fs = FileSystem.get(conf);
+    LOGGER.logInfo("[hadoop fs -touchz %s]", hdfsPath);
+    fs.create(new Path(hdfsPath), true).close();
+  }
+
+  // Return false if the dstHdfsPath already exists
+  public static boolean renameInHdfs(String srcHdfsPath, String dstHdfsPath) throws Exception {
+    FileSystem fs = FileSystem.get(conf);
+    LOGGER.logInfo("[hadoop fs -mv %s %s]", srcHdfsPath, dstHdfsPath);
+    return fs.rename(new Path(srcHdfsPath), new Path(dstHdfsPath));
+  }
+
+  // Make the hdfsPath readable by all users, and its directory also listable if it is a directory
+  public static void makePublicReadableInHdfs(String hdfsPath) throws Exception {
+    FileSystem fs = FileSystem.get(conf);
+    Path path = new Path(hdfsPath);
+    LOGGER.logInfo("[hadoop fs -chmod a+rX %s]", hdfsPath);
+    FsPermission permission = fs.getFileStatus(path).getPermission();
+    FsAction otherAction = permission.getOtherAction().or(FsAction.READ);
+    if (fs.isDirectory(path)) {
+      otherAction = otherAction.or(FsAction.EXECUTE);
+    }
+    fs.setPermission(path, new FsPermission(
+        permission.getUserAction(), permission.getGroupAction().or(otherAction), otherAction));
+  }
+
+  // Whether the hdfsPath can be localized as a PUBLIC LocalResource, i.e. it is readable by all users
+  // and all its ancestor directories are executable by all users.
+  public static boolean isPublicReadableInHdfs(String hdfsPath) throws Exception {
+    FileSystem fs = FileSystem.get(conf);
+    Path path = new Path(hdfsPath);
+    if (!fs.getFileStatus(path).getPermission().getOtherAction().implies(FsAction.READ)) {
+      return false;
+    }
+    for (Path parent = path.getParent(); parent != null; parent = parent.getParent()) {
+      if (!fs.getFileStatus(parent).getPermission().getOtherAction().implies(FsAction.EXECUTE)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   // Should success when the hdfsPath exists
   private static FileStatus getFileStatusInHdfsInternal(String hdfsPath) throws Exception {
     try {
@@ -227,9 +295,12 @@ public static List<String> getCurrentAccessibleHostNames(YarnClient yarnClient)
   }
 
   public static List<String> getCurrentAccessibleHostNames(YarnClient yarnClient, String effectiveRequestNodeLabel) throws Exception {
+    return getAccessibleHostNames(yarnClient.getNodeReports(NodeState.RUNNING), effectiveRequestNodeLabel);
+  }
+
+  public static List<String> getAccessibleHostNames(List<NodeReport> clusterNodeReports, String effectiveRequestNodeLabel) {
     ArrayList<String> accessibleNodeHostNames = new ArrayList<>();
 
-    List<NodeReport> clusterNodeReports = yarnClient.getNodeReports(NodeState.RUNNING);
     for (NodeReport node : clusterNodeReports) {
       String hostName = node.getNodeId().getHost();
       Set<String> nodeLabels = node.getNodeLabels();
@@ -385,6 +456,13 @@ private static LocalResource convertToLocalResource(String hdfsPath, LocalResour
   // By default, addToLocalResources is cached, need to use invalidateLocalResourcesCache to explicitly
   // invalidate out-of-date cache.
   public static void addToLocalResources(Map<String, LocalResource> localResources, String hdfsPath) throws Exception {
+    addToLocalResources(localResources, hdfsPath, LocalResourceVisibility.APPLICATION);
+  }
+
+  // Only the immutable resource shared by multiple Applications should be added with non APPLICATION
+  // LocalResourceVisibility, so that NodeManagers can reuse the localized resource across Applications.
+  public static void addToLocalResources(
+      Map<String, LocalResource> localResources, String hdfsPath, LocalResourceVisibility visibility) throws Exception {
     hdfsPath = hdfsPath.trim();
     String localNodeName = getHdfsNodeName(hdfsPath);
     if (localResources.containsKey(localNodeName)) {
@@ -396,7 +474,7 @@ public static void addToLocalResources(Map<String, LocalResource> localResources
 
     localResources.put(
         localNodeName,
-        convertToLocalResource(hdfsPath, LocalResourceVisibility.APPLICATION));
+        convertToLocalResource(hdfsPath, visibility));
   }
 
   public static void invalidateLocalResourcesCache() {
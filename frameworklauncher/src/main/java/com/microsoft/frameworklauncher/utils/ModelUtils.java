@@ -0,0 +1,251 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.utils;
+
+import com.microsoft.frameworklauncher.utils.BinaryUtils.BeanProperty;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Supplier;
+
+// Structural deepEquals, deepHashCode and deepCopy for the yaml objects, i.e. the Java Beans in common.model.
+// Compared with the YamlUtils ones, they walk the same bean properties directly instead of serializing
+// the objects, so they are much faster and allocate nothing, except for the copy itself.
+// Note:
+//  The beans do not override equals and hashCode, since they are mutable and usually mutated in place.
+public class ModelUtils {
+  public static boolean deepEquals(Object object, Object otherObject) {
+    if (object == otherObject) {
+      return true;
+    }
+    if (object == null || otherObject == null) {
+      return false;
+    }
+
+    if (isImmutable(object) || isImmutable(otherObject)) {
+      return object.equals(otherObject);
+    }
+    if (object instanceof List && otherObject instanceof List) {
+      List<?> list = (List<?>) object;
+      List<?> otherList = (List<?>) otherObject;
+      if (list.size() != otherList.size()) {
+        return false;
+      }
+      Iterator<?> iterator = list.iterator();
+      Iterator<?> otherIterator = otherList.iterator();
+      while (iterator.hasNext()) {
+        if (!deepEquals(iterator.next(), otherIterator.next())) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (object instanceof Set && otherObject instanceof Set) {
+      Set<?> set = (Set<?>) object;
+      Set<?> otherSet = (Set<?>) otherObject;
+      if (set.size() != otherSet.size()) {
+        return false;
+      }
+      for (Object element : set) {
+        if (!containsDeepEquals(otherSet, element)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (object instanceof Map && otherObject instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) object;
+      Map<?, ?> otherMap = (Map<?, ?>) otherObject;
+      if (map.size() != otherMap.size()) {
+        return false;
+      }
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        // The Map key is always immutable in yaml objects
+        if (!otherMap.containsKey(entry.getKey()) ||
+            !deepEquals(entry.getValue(), otherMap.get(entry.getKey()))) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (object.getClass().isArray() && otherObject.getClass().isArray()) {
+      int length = Array.getLength(object);
+      if (length != Array.getLength(otherObject)) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (!deepEquals(Array.get(object, i), Array.get(otherObject, i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (object.getClass() != otherObject.getClass()) {
+      return false;
+    }
+
+    for (BeanProperty property : BinaryUtils.getBeanProperties(object.getClass()).values()) {
+      if (!deepEquals(getProperty(object, property), getProperty(otherObject, property))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Consistent with deepEquals
+  public static int deepHashCode(Object object) {
+    if (object == null) {
+      return 0;
+    }
+
+    if (isImmutable(object)) {
+      return object.hashCode();
+    }
+    if (object instanceof List) {
+      int hashCode = 1;
+      for (Object element : (List<?>) object) {
+        hashCode = 31 * hashCode + deepHashCode(element);
+      }
+      return hashCode;
+    }
+    if (object instanceof Set) {
+      int hashCode = 0;
+      for (Object element : (Set<?>) object) {
+        hashCode += deepHashCode(element);
+      }
+      return hashCode;
+    }
+    if (object instanceof Map) {
+      int hashCode = 0;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+        hashCode += deepHashCode(entry.getKey()) ^ deepHashCode(entry.getValue());
+      }
+      return hashCode;
+    }
+    if (object.getClass().isArray()) {
+      int hashCode = 1;
+      for (int i = 0; i < Array.getLength(object); i++) {
+        hashCode = 31 * hashCode + deepHashCode(Array.get(object, i));
+      }
+      return hashCode;
+    }
+
+    int hashCode = object.getClass().hashCode();
+    for (BeanProperty property : BinaryUtils.getBeanProperties(object.getClass()).values()) {
+      hashCode = 31 * hashCode + deepHashCode(getProperty(object, property));
+    }
+    return hashCode;
+  }
+
+  // The copy is deepEquals to the object, and it shares nothing mutable with the object.
+  @SuppressWarnings("unchecked")
+  public static <T> T deepCopy(T object) {
+    if (object == null || isImmutable(object)) {
+      return object;
+    }
+
+    if (object instanceof List) {
+      List<Object> list = newInstance(object.getClass(), ArrayList::new);
+      for (Object element : (List<?>) object) {
+        list.add(deepCopy(element));
+      }
+      return (T) list;
+    }
+    if (object instanceof Set) {
+      Set<Object> set = newInstance(object.getClass(), LinkedHashSet::new);
+      for (Object element : (Set<?>) object) {
+        set.add(deepCopy(element));
+      }
+      return (T) set;
+    }
+    if (object instanceof Map) {
+      Map<Object, Object> map = newInstance(object.getClass(), LinkedHashMap::new);
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+        map.put(entry.getKey(), deepCopy(entry.getValue()));
+      }
+      return (T) map;
+    }
+    if (object.getClass().isArray()) {
+      int length = Array.getLength(object);
+      Object array = Array.newInstance(object.getClass().getComponentType(), length);
+      for (int i = 0; i < length; i++) {
+        Array.set(array, i, deepCopy(Array.get(object, i)));
+      }
+      return (T) array;
+    }
+
+    Object bean = newInstance(object.getClass(), () -> {
+      throw new IllegalArgumentException("Failed to instantiate bean class " + object.getClass().getName());
+    });
+    for (BeanProperty property : BinaryUtils.getBeanProperties(object.getClass()).values()) {
+      Object value = getProperty(object, property);
+      if (value == null && property.setter.getParameterTypes()[0].isPrimitive()) {
+        continue;
+      }
+      try {
+        property.setter.invoke(bean, deepCopy(value));
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        throw new IllegalArgumentException(String.format(
+            "Failed to set property %s of %s", property.setter.getName(), object.getClass().getName()), e);
+      }
+    }
+    return (T) bean;
+  }
+
+  private static boolean isImmutable(Object object) {
+    return object instanceof String ||
+        object instanceof Number ||
+        object instanceof Boolean ||
+        object instanceof Character ||
+        object instanceof Enum;
+  }
+
+  private static boolean containsDeepEquals(Collection<?> collection, Object object) {
+    for (Object element : collection) {
+      if (deepEquals(element, object)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Object getProperty(Object bean, BeanProperty property) {
+    try {
+      return property.getter.invoke(bean);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalArgumentException(String.format(
+          "Failed to get property %s of %s", property.getter.getName(), bean.getClass().getName()), e);
+    }
+  }
+
+  // Instantiate the same class as the original one if possible, such as HashMap,
+  // otherwise, such as the unmodifiable collections, use the defaultSupplier.
+  @SuppressWarnings("unchecked")
+  private static <T> T newInstance(Class<?> classRef, Supplier<T> defaultSupplier) {
+    if (!classRef.isInterface() && !Modifier.isAbstract(classRef.getModifiers()) &&
+        Modifier.isPublic(classRef.getModifiers())) {
+      try {
+        return (T) classRef.getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException ignored) {
+      }
+    }
+    return defaultSupplier.get();
+  }
+}
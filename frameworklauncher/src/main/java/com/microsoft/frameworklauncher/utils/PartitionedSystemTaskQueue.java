@@ -0,0 +1,126 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.utils;
+
+import com.microsoft.frameworklauncher.utils.SystemTaskQueue.VoidCallable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// A SystemTaskQueue partitioned by the task key:
+//  1. The keyed tasks with the same key are executed in the queued order by the same partition,
+//  and the keyed tasks with different keys may be executed in parallel by different partitions.
+//  2. The global task is executed exclusively, i.e. after all previous queued tasks are completed
+//  and before any later queued task is started.
+// So, a slow keyed task will only block the later tasks in its partition until a global task is queued.
+public class PartitionedSystemTaskQueue { // THREAD SAFE
+  private static final DefaultLogger LOGGER = new DefaultLogger(PartitionedSystemTaskQueue.class);
+
+  private final List<SystemTaskQueue> partitions = new ArrayList<>();
+  // Held across queueing a GlobalTask into all partitions, so that all partitions see the GlobalTasks in
+  // the same order, otherwise each partition may wait for the GlobalTask queued later in the others forever.
+  private final Object globalTaskLock = new Object();
+
+  public PartitionedSystemTaskQueue(Function<Exception, Boolean> handler, int partitionCount) {
+    for (int i = 0; i < Math.max(partitionCount, 1); i++) {
+      partitions.add(new SystemTaskQueue(handler));
+    }
+  }
+
+  public void start() {
+    for (SystemTaskQueue partition : partitions) {
+      partition.start();
+    }
+    LOGGER.logInfo("Running PartitionedSystemTaskQueue. Current Partition Lengths %s.",
+        CommonExtensions.toString(getPartitionLengths()));
+  }
+
+  public int length() {
+    int len = 0;
+    for (SystemTaskQueue partition : partitions) {
+      len += partition.length();
+    }
+    return len;
+  }
+
+  // PartitionIndex -> PartitionLength
+  public List<Integer> getPartitionLengths() {
+    List<Integer> partitionLengths = new ArrayList<>();
+    for (SystemTaskQueue partition : partitions) {
+      partitionLengths.add(partition.length());
+    }
+    return partitionLengths;
+  }
+
+  private SystemTaskQueue getPartition(String key) {
+    return partitions.get(Math.floorMod(key.hashCode(), partitions.size()));
+  }
+
+  public void queueSystemTask(String key, VoidCallable task) {
+    getPartition(key).queueSystemTask(task);
+  }
+
+  public void queueSystemTaskDelayed(String key, VoidCallable task, long milliseconds) {
+    getPartition(key).queueSystemTaskDelayed(task, milliseconds);
+  }
+
+  public void queueSystemTask(VoidCallable task) {
+    GlobalTask globalTask = new GlobalTask(task, partitions.size());
+    synchronized (globalTaskLock) {
+      for (SystemTaskQueue partition : partitions) {
+        partition.queueSystemTask(globalTask::arrive);
+      }
+    }
+  }
+
+  public void queueSystemTaskDelayed(VoidCallable task, long milliseconds) {
+    // Only queue the GlobalTask after the delay, so that it will not block any partition during the delay
+    partitions.get(0).queueSystemTaskDelayed(() -> queueSystemTask(task), milliseconds);
+  }
+
+  // The GlobalTask is queued into all partitions, and it is executed by the last arrived partition
+  // while the other partitions are waiting for it.
+  private static class GlobalTask {
+    private final VoidCallable task;
+    private final int partitionCount;
+    private int arrivedPartitionCount = 0;
+    private boolean completed = false;
+
+    public GlobalTask(VoidCallable task, int partitionCount) {
+      this.task = task;
+      this.partitionCount = partitionCount;
+    }
+
+    public synchronized void arrive() throws Exception {
+      arrivedPartitionCount++;
+      if (arrivedPartitionCount == partitionCount) {
+        try {
+          task.call();
+        } finally {
+          completed = true;
+          notifyAll();
+        }
+      } else {
+        while (!completed) {
+          wait();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,51 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.utils;
+
+// Limit the rate of the calls to at most maxQps, by spacing them evenly.
+// So, the calls from multiple threads will be blocked in turn instead of bursting.
+// Note:
+//  Non-positive maxQps means no limit.
+public class RateLimiter { // THREAD SAFE
+  private final long intervalNanos;
+  private long nextFreeNanos = System.nanoTime();
+
+  public RateLimiter(int maxQps) {
+    intervalNanos = (maxQps > 0 ? 1000000000L / maxQps : 0);
+  }
+
+  public void acquire() throws InterruptedException {
+    if (intervalNanos == 0) {
+      return;
+    }
+
+    long waitNanos;
+    synchronized (this) {
+      long nowNanos = System.nanoTime();
+      if (nextFreeNanos - nowNanos < 0) {
+        nextFreeNanos = nowNanos;
+      }
+      waitNanos = nextFreeNanos - nowNanos;
+      nextFreeNanos += intervalNanos;
+    }
+
+    if (waitNanos > 0) {
+      Thread.sleep(waitNanos / 1000000, (int) (waitNanos % 1000000));
+    }
+  }
+}
@@ -71,6 +71,33 @@ public static <T> T executeWithRetry(
     }
   }
 
+  // Exponential backoff: the delay starts from minDelaySec and is doubled for each consecutive retry up to maxDelaySec.
+  // lastDelaySec is 0 for the first retry.
+  public static int calcExponentialBackoffDelay(int lastDelaySec, int minDelaySec, int maxDelaySec) {
+    if (lastDelaySec <= 0) {
+      return Math.min(minDelaySec, maxDelaySec);
+    }
+    return (int) Math.min((long) lastDelaySec * 2, Math.max(minDelaySec, maxDelaySec));
+  }
+
+  // Same as above, except that the backoff is reset if the last run has lasted longer than maxDelaySec,
+  // i.e. it is not crash looping. The Timestamps are null if the last run is unknown.
+  public static int calcExponentialBackoffDelay(
+      int lastDelaySec, Long lastRunStartTimestamp, Long lastRunEndTimestamp,
+      int minDelaySec, int maxDelaySec) {
+    if (lastRunStartTimestamp != null && lastRunEndTimestamp != null &&
+        lastRunEndTimestamp - lastRunStartTimestamp > Math.max(minDelaySec, maxDelaySec) * 1000L) {
+      lastDelaySec = 0;
+    }
+    return calcExponentialBackoffDelay(lastDelaySec, minDelaySec, maxDelaySec);
+  }
+
+  // Equal jitter: the random delay is in [delaySec / 2, delaySec], so that the retries failed together
+  // are spread out, while the delay is still not less than half of the backoff.
+  public static int calcRandomJitterDelay(int delaySec) {
+    return CommonUtils.getRandomNumber(delaySec / 2, delaySec);
+  }
+
   public static int calcRandomBackoffDelay(int retriedCount, int minDelaySec, int maxDelaySec) {
     LOGGER.logInfo(
         "calcRandomBackoffDelay: RetriedCount: %s, MinDelaySec: %s, MaxDelaySec: %s",
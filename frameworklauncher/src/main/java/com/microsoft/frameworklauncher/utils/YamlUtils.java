@@ -21,10 +21,7 @@
 import org.yaml.snakeyaml.constructor.Constructor;
 import org.yaml.snakeyaml.representer.Representer;
 
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
 import java.util.Arrays;
 import java.util.Map;
 
@@ -54,6 +51,22 @@ public static <T> void toFile(T yamlObject, String fileName) throws IOException
     yaml.dump(yamlObject, new FileWriter(fileName));
   }
 
+  // Stream <-> Yaml
+  // The stream is in the default charset, the same as Bytes, and it is not closed.
+  public static <T> T toObject(InputStream inputStream, Class<T> classRef) {
+    Representer representer = new Representer();
+    representer.getPropertyUtils().setSkipMissingProperties(true);
+    Yaml yaml = new Yaml(new Constructor(classRef), representer);
+    return yaml.loadAs(new InputStreamReader(inputStream), classRef);
+  }
+
+  public static <T> void toStream(T yamlObject, OutputStream outputStream) throws IOException {
+    Yaml yaml = new Yaml();
+    Writer writer = new OutputStreamWriter(outputStream);
+    yaml.dump(yamlObject, writer);
+    writer.flush();
+  }
+
   public static <T> T deepCopy(T yamlObject, Class<T> classRef) throws Exception {
     return toObject(toBytes(yamlObject), classRef);
   }
@@ -0,0 +1,146 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.webserver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microsoft.frameworklauncher.common.model.FrameworkState;
+import com.microsoft.frameworklauncher.common.model.FrameworkStatus;
+import com.microsoft.frameworklauncher.common.model.RequestedFrameworkNames;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+
+// The secondary index of the readonly FrameworkStatuses to serve the FrameworkStatus and FrameworkName list GETs,
+// see WebStructure.FRAMEWORK_STATUSES_PATH and WebStructure.FRAMEWORK_ROOT_PATH.
+// It is rebuilt after each pulling, and the FrameworkStatus JSON tree is reused as long as its FrameworkStatus
+// is reused, so that the unchanged FrameworkStatus is never re-serialized.
+public class FrameworkStatusIndex { // THREAD SAFE
+  private static final ObjectMapper OBJECT_MAPPER = JacksonObjectMapperProvider.createDefaultMapper();
+  // All the fields which can be projected
+  public static final Set<String> FRAMEWORK_STATUS_FIELDS = getFieldNames(
+      OBJECT_MAPPER.valueToTree(new FrameworkStatus()));
+
+  // FrameworkName -> FrameworkStatus, sorted by FrameworkName to paginate
+  private final NavigableMap<String, FrameworkStatus> frameworkStatuses = new TreeMap<>();
+  // FrameworkName -> FrameworkStatus JSON tree, which should never be modified after put
+  private final Map<String, ObjectNode> frameworkStatusNodes = new HashMap<>();
+  // FrameworkState -> FrameworkNames, sorted by FrameworkName to paginate
+  private final Map<FrameworkState, NavigableSet<String>> frameworkStateIndex = new EnumMap<>(FrameworkState.class);
+
+  public FrameworkStatusIndex() {
+  }
+
+  public FrameworkStatusIndex(Map<String, FrameworkStatus> newFrameworkStatuses, FrameworkStatusIndex oldIndex) {
+    for (Map.Entry<String, FrameworkStatus> frameworkStatusKV : newFrameworkStatuses.entrySet()) {
+      String frameworkName = frameworkStatusKV.getKey();
+      FrameworkStatus frameworkStatus = frameworkStatusKV.getValue();
+
+      ObjectNode frameworkStatusNode;
+      if (oldIndex.frameworkStatuses.get(frameworkName) == frameworkStatus) {
+        frameworkStatusNode = oldIndex.frameworkStatusNodes.get(frameworkName);
+      } else {
+        frameworkStatusNode = OBJECT_MAPPER.valueToTree(frameworkStatus);
+      }
+
+      frameworkStatuses.put(frameworkName, frameworkStatus);
+      frameworkStatusNodes.put(frameworkName, frameworkStatusNode);
+      frameworkStateIndex.computeIfAbsent(frameworkStatus.getFrameworkState(), k -> new TreeSet<>())
+          .add(frameworkName);
+    }
+  }
+
+  private static Set<String> getFieldNames(ObjectNode node) {
+    Set<String> fieldNames = new HashSet<>();
+    Iterator<String> fieldNameIterator = node.fieldNames();
+    while (fieldNameIterator.hasNext()) {
+      fieldNames.add(fieldNameIterator.next());
+    }
+    return Collections.unmodifiableSet(fieldNames);
+  }
+
+  // List at most limit FrameworkStatuses after the startAfter in the FrameworkName order, which are matched with
+  // the given frameworkState and in the given frameworkNames, the null filter matches all.
+  // Only the given fields of each FrameworkStatus are returned, and all fields are returned if fields is null.
+  // The returned JSON is the same as FrameworkStatusPage.
+  public byte[] list(
+      FrameworkState frameworkState, Set<String> frameworkNames,
+      String startAfter, int limit, Set<String> fields) throws IOException {
+    ObjectNode pageNode = OBJECT_MAPPER.createObjectNode();
+    ArrayNode frameworkStatusesNode = pageNode.putArray("frameworkStatuses");
+    String nextStartAfter = listPage(frameworkState, frameworkNames, startAfter, limit, (frameworkName) -> {
+      ObjectNode frameworkStatusNode = frameworkStatusNodes.get(frameworkName);
+      if (fields == null) {
+        frameworkStatusesNode.add(frameworkStatusNode);
+      } else {
+        // Share the field values instead of copying them, since they are never modified
+        ObjectNode projectedNode = frameworkStatusesNode.addObject();
+        for (String field : fields) {
+          projectedNode.set(field, frameworkStatusNode.get(field));
+        }
+      }
+    });
+    pageNode.put("nextStartAfter", nextStartAfter);
+
+    return OBJECT_MAPPER.writeValueAsBytes(pageNode);
+  }
+
+  // List the FrameworkNames in the same way as list, but without their FrameworkStatuses.
+  public RequestedFrameworkNames listFrameworkNames(
+      FrameworkState frameworkState, Set<String> frameworkNames, String startAfter, int limit) {
+    List<String> pageFrameworkNames = new ArrayList<>();
+    RequestedFrameworkNames page = new RequestedFrameworkNames();
+    page.setNextStartAfter(listPage(frameworkState, frameworkNames, startAfter, limit, pageFrameworkNames::add));
+    page.setFrameworkNames(pageFrameworkNames);
+    return page;
+  }
+
+  // Visit at most limit matched FrameworkNames after the startAfter in the FrameworkName order, and return
+  // the last visited one as the nextStartAfter if there are more matched ones, otherwise null.
+  private String listPage(
+      FrameworkState frameworkState, Set<String> frameworkNames,
+      String startAfter, int limit, Consumer<String> frameworkNameVisitor) {
+    NavigableSet<String> candidateFrameworkNames;
+    if (frameworkState == null) {
+      candidateFrameworkNames = frameworkStatuses.navigableKeySet();
+    } else {
+      candidateFrameworkNames = frameworkStateIndex.getOrDefault(frameworkState, Collections.emptyNavigableSet());
+    }
+    if (startAfter != null) {
+      candidateFrameworkNames = candidateFrameworkNames.tailSet(startAfter, false);
+    }
+
+    int visitedCount = 0;
+    String lastFrameworkName = null;
+    for (String frameworkName : candidateFrameworkNames) {
+      if (frameworkNames != null && !frameworkNames.contains(frameworkName)) {
+        continue;
+      }
+      if (visitedCount >= limit) {
+        return lastFrameworkName;
+      }
+
+      frameworkNameVisitor.accept(frameworkName);
+      visitedCount++;
+      lastFrameworkName = frameworkName;
+    }
+    return null;
+  }
+}
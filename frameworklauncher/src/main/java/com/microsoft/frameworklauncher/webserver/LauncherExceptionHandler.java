@@ -57,6 +57,7 @@ public Response toResponse(Exception e) {
     // Map response status
     String logPrefix = "Http request failed due to: ";
     final int statusCode;
+    Integer retryAfterSec = null;
     if (e instanceof NotFoundException) {
       LOGGER.logInfo(e, logPrefix + "Not Found");
       statusCode = HttpStatus.SC_NOT_FOUND;
@@ -68,6 +69,7 @@ public Response toResponse(Exception e) {
     } else if (e instanceof ThrottledRequestException) {
       LOGGER.logInfo(e, logPrefix + "Throttled Request");
       statusCode = WebCommon.SC_TOO_MANY_REQUESTS;
+      retryAfterSec = ((ThrottledRequestException) e).getRetryAfterSec();
     } else {
       LOGGER.logWarning(e, logPrefix + "Service Unavailable");
       statusCode = HttpStatus.SC_SERVICE_UNAVAILABLE;
@@ -79,7 +81,10 @@ public Response toResponse(Exception e) {
         StringUtils.stringifyException(e),
         e.getClass().getName());
 
-    return Response.status(statusCode).entity(exception)
-        .build();
+    Response.ResponseBuilder responseBuilder = Response.status(statusCode).entity(exception);
+    if (retryAfterSec != null) {
+      responseBuilder.header(WebCommon.RETRY_AFTER_HEADER, retryAfterSec);
+    }
+    return responseBuilder.build();
   }
 }
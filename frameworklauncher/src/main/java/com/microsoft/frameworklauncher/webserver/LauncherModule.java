@@ -23,6 +23,7 @@
 import com.microsoft.frameworklauncher.common.WebStructure;
 import com.microsoft.frameworklauncher.common.exceptions.BadRequestException;
 import com.microsoft.frameworklauncher.common.exceptions.NotFoundException;
+import com.microsoft.frameworklauncher.common.exceptions.ThrottledRequestException;
 import com.microsoft.frameworklauncher.common.model.*;
 import com.microsoft.frameworklauncher.utils.DefaultLogger;
 import com.microsoft.frameworklauncher.utils.GlobalConstants;
@@ -31,9 +32,8 @@
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.*;
-import javax.ws.rs.core.Context;
-import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
+import javax.ws.rs.core.*;
+import java.util.*;
 import java.util.concurrent.Callable;
 
 @Path("/")
@@ -69,6 +69,28 @@ private static LaunchClientType getLaunchClientType(Callable<String> ResolveLaun
     }
   }
 
+  private static FrameworkState getFrameworkState(String frameworkStateStr) throws BadRequestException {
+    if (frameworkStateStr == null) {
+      return null;
+    }
+
+    try {
+      return FrameworkState.valueOf(frameworkStateStr);
+    } catch (Exception e) {
+      throw new BadRequestException(String.format(
+          "Failed to ParseFrameworkStateStr: [%s]",
+          frameworkStateStr), e);
+    }
+  }
+
+  private static BatchFrameworkResult toBatchFrameworkResult(String frameworkName, int statusCode, Exception e) {
+    BatchFrameworkResult result = new BatchFrameworkResult();
+    result.setFrameworkName(frameworkName);
+    result.setStatusCode(statusCode);
+    result.setMessage(e == null ? null : e.getMessage());
+    return result;
+  }
+
   @GET
   @Path(WebStructure.ROOT_PATH)
   @Produces({MediaType.TEXT_PLAIN})
@@ -90,6 +112,13 @@ public LauncherStatus getLauncherStatus() {
     return statusManager.getLauncherStatus();
   }
 
+  @GET
+  @Path(WebStructure.WEB_SERVER_STATUS_PATH)
+  @Produces({MediaType.APPLICATION_JSON})
+  public WebServerStatus getWebServerStatus() {
+    return statusManager.getWebServerStatus();
+  }
+
   @GET
   @Path(WebStructure.LAUNCHER_REQUEST_PATH)
   @Produces({MediaType.APPLICATION_JSON})
@@ -119,9 +148,29 @@ public Response putDataDeploymentVersion(
   @GET
   @Path(WebStructure.FRAMEWORK_ROOT_PATH)
   @Produces({MediaType.APPLICATION_JSON})
-  public RequestedFrameworkNames getFrameworks(@Context HttpServletRequest hsr) throws Exception {
+  public RequestedFrameworkNames getFrameworks(
+      @Context HttpServletRequest hsr,
+      @QueryParam(WebCommon.FRAMEWORK_STATE_QUERY_PARAM) String frameworkStateStr,
+      @QueryParam(WebCommon.USER_NAME_QUERY_PARAM) String userName,
+      @QueryParam(WebCommon.START_AFTER_QUERY_PARAM) String startAfter,
+      @QueryParam(WebCommon.LIMIT_QUERY_PARAM) Integer limit) throws Exception {
     LaunchClientType clientType = getLaunchClientType(() -> hsr.getParameter(WebCommon.LAUNCH_CLIENT_TYPE_REQUEST_HEADER));
-    return requestManager.getFrameworkNames(clientType);
+    FrameworkState frameworkState = getFrameworkState(frameworkStateStr);
+    if (frameworkState == null && userName == null && startAfter == null && limit == null) {
+      return requestManager.getFrameworkNames(clientType);
+    }
+    if (limit != null && limit <= 0) {
+      throw new BadRequestException(String.format(
+          "Limit [%s] should be positive", limit));
+    }
+
+    // Paginate and filter by FrameworkState from the FrameworkStatusIndex, like listFrameworkStatuses, so the
+    // Frameworks are listed once their FrameworkStatuses are initialized.
+    // The Request side filters are resolved from the RequestManager indexes, which also exclude the Frameworks
+    // whose FrameworkRequests are deleted but FrameworkStatuses are not yet.
+    return statusManager.listFrameworkNames(
+        frameworkState, requestManager.getFrameworkNames(clientType, userName),
+        startAfter, (limit == null ? Integer.MAX_VALUE : limit));
   }
 
   @PUT
@@ -138,6 +187,63 @@ public Response putFramework(
     ModelValidation.validate(frameworkName);
     ModelValidation.validate(frameworkDescriptor);
 
+    FrameworkRequest frameworkRequest = toFrameworkRequest(hsr, frameworkName, frameworkDescriptor);
+    requestManager.setFrameworkRequest(frameworkRequest.getFrameworkName(), frameworkRequest);
+    return Response
+        .status(HttpStatus.SC_ACCEPTED)
+        .header("Location", hsr.getRequestURL())
+        .build();
+  }
+
+  @PUT
+  @Path(WebStructure.BATCH_FRAMEWORKS_PATH)
+  @Consumes({MediaType.APPLICATION_JSON})
+  @Produces({MediaType.APPLICATION_JSON})
+  public BatchFrameworkResults putFrameworks(
+      @Context HttpServletRequest hsr,
+      BatchFrameworkDescriptors batchFrameworkDescriptors) throws Exception {
+    ModelValidation.validate(batchFrameworkDescriptors);
+
+    Map<String, FrameworkDescriptor> frameworkDescriptors = batchFrameworkDescriptors.getFrameworkDescriptors();
+    LOGGER.logInfo("PutFrameworksFromJson: %s Frameworks: %s",
+        frameworkDescriptors.size(), frameworkDescriptors.keySet());
+
+    // Validate each Framework separately, and then set all the valid ones together
+    Map<String, BatchFrameworkResult> results = new LinkedHashMap<>();
+    List<FrameworkRequest> frameworkRequests = new ArrayList<>();
+    for (Map.Entry<String, FrameworkDescriptor> frameworkDescriptorKV : frameworkDescriptors.entrySet()) {
+      String frameworkName = frameworkDescriptorKV.getKey();
+      FrameworkDescriptor frameworkDescriptor = frameworkDescriptorKV.getValue();
+      try {
+        ModelValidation.validate(frameworkName);
+        ModelValidation.validate(frameworkDescriptor);
+        frameworkRequests.add(toFrameworkRequest(hsr, frameworkName, frameworkDescriptor));
+        results.put(frameworkName, toBatchFrameworkResult(frameworkName, HttpStatus.SC_ACCEPTED, null));
+      } catch (BadRequestException e) {
+        LOGGER.logInfo(e, "[%s]: PutFrameworksFromJson: Bad Request", frameworkName);
+        results.put(frameworkName, toBatchFrameworkResult(frameworkName, HttpStatus.SC_BAD_REQUEST, e));
+      }
+    }
+
+    Map<String, Exception> rejectedFrameworkRequests = requestManager.setFrameworkRequests(frameworkRequests);
+    for (Map.Entry<String, Exception> rejectedKV : rejectedFrameworkRequests.entrySet()) {
+      String frameworkName = rejectedKV.getKey();
+      Exception e = rejectedKV.getValue();
+      int statusCode = (e instanceof ThrottledRequestException ?
+          WebCommon.SC_TOO_MANY_REQUESTS : HttpStatus.SC_BAD_REQUEST);
+      LOGGER.logInfo(e, "[%s]: PutFrameworksFromJson: Rejected", frameworkName);
+      results.put(frameworkName, toBatchFrameworkResult(frameworkName, statusCode, e));
+    }
+
+    BatchFrameworkResults batchFrameworkResults = new BatchFrameworkResults();
+    batchFrameworkResults.setResults(new ArrayList<>(results.values()));
+    return batchFrameworkResults;
+  }
+
+  private FrameworkRequest toFrameworkRequest(
+      HttpServletRequest hsr, String frameworkName, FrameworkDescriptor frameworkDescriptor) throws Exception {
+    String logPrefix = String.format("[%s]: PutFrameworkFromJson: ", frameworkName);
+
     // Get LaunchClientType
     LaunchClientType clientType = getLaunchClientType(() -> hsr.getHeader(WebCommon.LAUNCH_CLIENT_TYPE_REQUEST_HEADER));
     if (clientType == null) {
@@ -172,12 +278,7 @@ public Response putFramework(
     frameworkRequest.setLaunchClientType(clientType);
     frameworkRequest.setLaunchClientHostName(clientHostName);
     frameworkRequest.setLaunchClientUserName(clientUserName);
-
-    requestManager.setFrameworkRequest(frameworkRequest.getFrameworkName(), frameworkRequest);
-    return Response
-        .status(HttpStatus.SC_ACCEPTED)
-        .header("Location", hsr.getRequestURL())
-        .build();
+    return frameworkRequest;
   }
 
   @PUT
@@ -271,51 +372,177 @@ public Response deleteMigrateTask(
         .build();
   }
 
+  // The Status GETs are served from the pre-serialized StatusJson with its ETag,
+  // and 304 is returned if the client already has the same version, i.e. the If-None-Match matches.
+  static Response toStatusResponse(StatusJson statusJson, String ifNoneMatch) throws Exception {
+    EntityTag eTag = new EntityTag(statusJson.getETag());
+    if (statusJson.matches(ifNoneMatch)) {
+      return Response.notModified(eTag).build();
+    }
+    return Response.ok(statusJson.getJson(), MediaType.APPLICATION_JSON).tag(eTag).build();
+  }
+
   @GET
   @Path(WebStructure.FRAMEWORK_PATH)
   @Produces({MediaType.APPLICATION_JSON})
-  public AggregatedFrameworkStatus getFramework(
-      @PathParam(WebStructure.FRAMEWORK_NAME_PATH_PARAM) String frameworkName)
-      throws NotFoundException {
-    return getAggregatedFrameworkStatus(frameworkName);
+  public Response getFramework(
+      @PathParam(WebStructure.FRAMEWORK_NAME_PATH_PARAM) String frameworkName,
+      @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch)
+      throws Exception {
+    return getAggregatedFrameworkStatus(frameworkName, ifNoneMatch);
   }
 
   @GET
   @Path(WebStructure.AGGREGATED_FRAMEWORK_STATUS_PATH)
   @Produces({MediaType.APPLICATION_JSON})
-  public AggregatedFrameworkStatus getAggregatedFrameworkStatus(
-      @PathParam(WebStructure.FRAMEWORK_NAME_PATH_PARAM) String frameworkName)
-      throws NotFoundException {
-    return statusManager.getAggregatedFrameworkStatus(frameworkName);
+  public Response getAggregatedFrameworkStatus(
+      @PathParam(WebStructure.FRAMEWORK_NAME_PATH_PARAM) String frameworkName,
+      @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch)
+      throws Exception {
+    return toStatusResponse(statusManager.getAggregatedFrameworkStatusJson(frameworkName), ifNoneMatch);
   }
 
   @GET
   @Path(WebStructure.FRAMEWORK_STATUS_PATH)
   @Produces({MediaType.APPLICATION_JSON})
-  public FrameworkStatus getFrameworkStatus(
-      @PathParam(WebStructure.FRAMEWORK_NAME_PATH_PARAM) String frameworkName)
-      throws NotFoundException {
-    return statusManager.getFrameworkStatus(frameworkName);
+  public Response getFrameworkStatus(
+      @PathParam(WebStructure.FRAMEWORK_NAME_PATH_PARAM) String frameworkName,
+      @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch)
+      throws Exception {
+    return toStatusResponse(statusManager.getFrameworkStatusJson(frameworkName), ifNoneMatch);
+  }
+
+  // List the FrameworkStatuses in pages from the FrameworkStatusIndex, so that the clients can get all the
+  // FrameworkStatuses by several requests, instead of one request per Framework.
+  @GET
+  @Path(WebStructure.FRAMEWORK_STATUSES_PATH)
+  @Produces({MediaType.APPLICATION_JSON})
+  public Response listFrameworkStatuses(
+      @Context HttpServletRequest hsr,
+      @QueryParam(WebCommon.FRAMEWORK_STATE_QUERY_PARAM) String frameworkStateStr,
+      @QueryParam(WebCommon.USER_NAME_QUERY_PARAM) String userName,
+      @QueryParam(WebCommon.START_AFTER_QUERY_PARAM) String startAfter,
+      @QueryParam(WebCommon.LIMIT_QUERY_PARAM) Integer limit,
+      @QueryParam(WebCommon.FIELDS_QUERY_PARAM) String fieldsStr) throws Exception {
+    LaunchClientType clientType = getLaunchClientType(() -> hsr.getParameter(WebCommon.LAUNCH_CLIENT_TYPE_REQUEST_HEADER));
+    FrameworkState frameworkState = getFrameworkState(frameworkStateStr);
+    if (limit == null) {
+      limit = WebCommon.MAX_FRAMEWORK_STATUS_LIST_LIMIT;
+    } else if (limit <= 0 || limit > WebCommon.MAX_FRAMEWORK_STATUS_LIST_LIMIT) {
+      throw new BadRequestException(String.format(
+          "Limit [%s] should be in [1, %s]", limit, WebCommon.MAX_FRAMEWORK_STATUS_LIST_LIMIT));
+    }
+
+    Set<String> fields = null;
+    if (fieldsStr != null) {
+      fields = new LinkedHashSet<>();
+      for (String field : fieldsStr.split(",")) {
+        field = field.trim();
+        if (!FrameworkStatusIndex.FRAMEWORK_STATUS_FIELDS.contains(field)) {
+          throw new BadRequestException(String.format(
+              "Field [%s] is not one of the FrameworkStatus fields %s",
+              field, FrameworkStatusIndex.FRAMEWORK_STATUS_FIELDS));
+        }
+        fields.add(field);
+      }
+    }
+
+    // The Request side filters are resolved from the RequestManager indexes
+    Set<String> frameworkNames = null;
+    if (clientType != null || userName != null) {
+      frameworkNames = requestManager.getFrameworkNames(clientType, userName);
+    }
+
+    return Response.ok(
+        statusManager.listFrameworkStatusesJson(frameworkState, frameworkNames, startAfter, limit, fields),
+        MediaType.APPLICATION_JSON).build();
+  }
+
+  // Get the FrameworkStatuses together, and the not found ones are returned in the results instead of thrown.
+  @POST
+  @Path(WebStructure.BATCH_FRAMEWORK_STATUSES_PATH)
+  @Consumes({MediaType.APPLICATION_JSON})
+  @Produces({MediaType.APPLICATION_JSON})
+  public BatchFrameworkStatuses getFrameworkStatuses(
+      RequestedFrameworkNames requestedFrameworkNames)
+      throws Exception {
+    if (requestedFrameworkNames == null || requestedFrameworkNames.getFrameworkNames() == null) {
+      throw new BadRequestException("FrameworkNames is null");
+    }
+    List<String> frameworkNames = requestedFrameworkNames.getFrameworkNames();
+    if (frameworkNames.size() > WebCommon.MAX_BATCH_FRAMEWORK_NUMBER) {
+      throw new BadRequestException(String.format(
+          "FrameworkNames count %s exceeds the Max Batch Framework Number %s",
+          frameworkNames.size(), WebCommon.MAX_BATCH_FRAMEWORK_NUMBER));
+    }
+
+    List<BatchFrameworkResult> results = new ArrayList<>();
+    Map<String, FrameworkStatus> frameworkStatuses = new HashMap<>();
+    for (String frameworkName : frameworkNames) {
+      try {
+        frameworkStatuses.put(frameworkName, statusManager.getFrameworkStatus(frameworkName));
+        results.add(toBatchFrameworkResult(frameworkName, HttpStatus.SC_OK, null));
+      } catch (NotFoundException e) {
+        results.add(toBatchFrameworkResult(frameworkName, HttpStatus.SC_NOT_FOUND, e));
+      }
+    }
+
+    BatchFrameworkStatuses batchFrameworkStatuses = new BatchFrameworkStatuses();
+    batchFrameworkStatuses.setResults(results);
+    batchFrameworkStatuses.setFrameworkStatuses(frameworkStatuses);
+    return batchFrameworkStatuses;
   }
 
   @GET
   @Path(WebStructure.TASK_ROLE_STATUS_PATH)
   @Produces({MediaType.APPLICATION_JSON})
-  public TaskRoleStatus getTaskRoleStatus(
+  public Response getTaskRoleStatus(
       @PathParam(WebStructure.FRAMEWORK_NAME_PATH_PARAM) String frameworkName,
-      @PathParam(WebStructure.TASK_ROLE_NAME_PATH_PARAM) String taskRoleName)
-      throws NotFoundException {
-    return statusManager.getTaskRoleStatus(frameworkName, taskRoleName);
+      @PathParam(WebStructure.TASK_ROLE_NAME_PATH_PARAM) String taskRoleName,
+      @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch)
+      throws Exception {
+    return toStatusResponse(statusManager.getTaskRoleStatusJson(frameworkName, taskRoleName), ifNoneMatch);
   }
 
   @GET
   @Path(WebStructure.TASK_STATUSES_PATH)
   @Produces({MediaType.APPLICATION_JSON})
-  public TaskStatuses getTaskStatuses(
+  public Response getTaskStatuses(
       @PathParam(WebStructure.FRAMEWORK_NAME_PATH_PARAM) String frameworkName,
-      @PathParam(WebStructure.TASK_ROLE_NAME_PATH_PARAM) String taskRoleName)
-      throws NotFoundException {
-    return statusManager.getTaskStatuses(frameworkName, taskRoleName);
+      @PathParam(WebStructure.TASK_ROLE_NAME_PATH_PARAM) String taskRoleName,
+      @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch)
+      throws Exception {
+    return toStatusResponse(statusManager.getTaskStatusesJson(frameworkName, taskRoleName), ifNoneMatch);
+  }
+
+  // The Watch GETs are long polls: they are blocked until the given Version is outdated or the TimeoutSec
+  // elapsed, so the clients can get the Status change ASAP without polling it frequently.
+  private static long getWatchTimeoutMs(Integer timeoutSec) {
+    if (timeoutSec == null || timeoutSec > WebCommon.MAX_WATCH_TIMEOUT_SEC) {
+      timeoutSec = WebCommon.MAX_WATCH_TIMEOUT_SEC;
+    }
+    return Math.max(timeoutSec, 0) * 1000L;
+  }
+
+  @GET
+  @Path(WebStructure.FRAMEWORK_WATCH_PATH)
+  @Produces({MediaType.APPLICATION_JSON})
+  public WatchedFrameworkStatus watchFrameworkStatus(
+      @PathParam(WebStructure.FRAMEWORK_NAME_PATH_PARAM) String frameworkName,
+      @QueryParam(WebCommon.WATCH_VERSION_QUERY_PARAM) Long frameworkStatusVersion,
+      @QueryParam(WebCommon.WATCH_TIMEOUT_SEC_QUERY_PARAM) Integer timeoutSec)
+      throws Exception {
+    return statusManager.watchFrameworkStatus(frameworkName, frameworkStatusVersion, getWatchTimeoutMs(timeoutSec));
+  }
+
+  @GET
+  @Path(WebStructure.WATCH_PATH)
+  @Produces({MediaType.APPLICATION_JSON})
+  public WatchedFrameworkStatusVersions watchFrameworkStatusVersions(
+      @QueryParam(WebCommon.WATCH_VERSION_QUERY_PARAM) Long watchVersion,
+      @QueryParam(WebCommon.WATCH_TIMEOUT_SEC_QUERY_PARAM) Integer timeoutSec)
+      throws Exception {
+    return statusManager.watchFrameworkStatusVersions(watchVersion, getWatchTimeoutMs(timeoutSec));
   }
 
   @GET
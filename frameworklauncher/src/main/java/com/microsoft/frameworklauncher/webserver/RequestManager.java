@@ -22,23 +22,30 @@
 import com.microsoft.frameworklauncher.common.model.*;
 import com.microsoft.frameworklauncher.utils.AbstractService;
 import com.microsoft.frameworklauncher.utils.DefaultLogger;
-import com.microsoft.frameworklauncher.utils.YamlUtils;
+import com.microsoft.frameworklauncher.utils.ModelUtils;
+import com.microsoft.frameworklauncher.zookeeperstore.ZkGroupCommitter;
+import com.microsoft.frameworklauncher.zookeeperstore.ZkWriteBatch;
 import com.microsoft.frameworklauncher.zookeeperstore.ZookeeperStore;
 import org.apache.zookeeper.KeeperException;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.Future;
 
 import static com.microsoft.frameworklauncher.utils.CommonUtils.checkExist;
 
 // Manage the CURD to ZK Request
+// Each Modify is validated and applied to Mem Request under the lock, and its ZK writes are added into the
+// ZkGroupCommitter under the same lock, so that they are committed to ZK in the same order as applied.
+// Then it waits for the ZK writes to be committed outside the lock, so the concurrent Modifies are committed
+// together in one ZK multi, and it only returns after its ZK writes are durable.
+// If the commit failed, the WebServer will be restarted to recover Mem Request from ZK Request.
 public class RequestManager extends AbstractService {  // THREAD SAFE
   private static final DefaultLogger LOGGER = new DefaultLogger(RequestManager.class);
 
   private final WebServer webServer;
   private final LauncherConfiguration conf;
   private final ZookeeperStore zkStore;
+  private final ZkGroupCommitter zkCommitter;
 
 
   /**
@@ -55,6 +62,11 @@ public class RequestManager extends AbstractService {  // THREAD SAFE
    * ExtensionRequest should be always CONSISTENT with BaseRequest
    */
   private int totalTaskNumber = 0;
+  // Secondary indexes to filter FrameworkNames
+  // LaunchClientType -> FrameworkNames
+  private final Map<LaunchClientType, Set<String>> clientTypeFrameworkNames = new HashMap<>();
+  // UserName -> FrameworkNames
+  private final Map<String, Set<String>> userFrameworkNames = new HashMap<>();
 
 
   /**
@@ -65,6 +77,7 @@ public RequestManager(WebServer webServer, LauncherConfiguration conf, Zookeeper
     this.webServer = webServer;
     this.conf = conf;
     this.zkStore = zkStore;
+    this.zkCommitter = new ZkGroupCommitter(zkStore);
   }
 
   @Override
@@ -92,6 +105,9 @@ protected void recover() throws Exception {
       launcherRequest = aggLauncherRequest.getLauncherRequest();
       aggFrameworkRequests = aggLauncherRequest.getAggregatedFrameworkRequests();
       totalTaskNumber = getTotalTaskNumber();
+      for (AggregatedFrameworkRequest aggFrameworkRequest : aggFrameworkRequests.values()) {
+        addFrameworkIndexes(aggFrameworkRequest.getFrameworkRequest());
+      }
 
       LOGGER.logDebug("Total TaskNumber: %s", totalTaskNumber);
     } catch (KeeperException.NoNodeException e) {
@@ -102,7 +118,9 @@ protected void recover() throws Exception {
     }
 
     // Continue previous deleteOrphanFrameworks to provide Atomic deleteFrameworkRequest
-    deleteOrphanFrameworks();
+    ZkWriteBatch batch = new ZkWriteBatch();
+    deleteOrphanFrameworks(batch);
+    zkStore.commitBatch(batch);
 
     LOGGER.logInfo("Succeeded to recover %s.", serviceName);
   }
@@ -111,9 +129,32 @@ protected void recover() throws Exception {
   /**
    * REGION InternalUtils
    */
-  private boolean deleteFrameworkRequestInternal(String frameworkName) throws Exception {
+  private interface Modification {
+    void apply(ZkWriteBatch batch) throws Exception;
+  }
+
+  // Apply the Modification to Mem Request and add its ZK writes under the lock,
+  // and then wait for its ZK writes to be committed outside the lock.
+  private void modify(Modification modification) throws Exception {
+    Future<Void> commitFuture;
+    synchronized (this) {
+      ZkWriteBatch batch = new ZkWriteBatch();
+      modification.apply(batch);
+      commitFuture = zkCommitter.add(batch);
+    }
+
+    try {
+      zkCommitter.await(commitFuture);
+    } catch (Exception e) {
+      // Mem Request may be inconsistent with ZK Request now
+      handleException(e);
+      throw e;
+    }
+  }
+
+  private boolean deleteFrameworkRequestInternal(ZkWriteBatch batch, String frameworkName) throws Exception {
     // Should success even if frameworkName does not exist
-    zkStore.deleteFrameworkRequest(frameworkName);
+    zkStore.deleteFrameworkRequest(batch, frameworkName);
 
     if (aggFrameworkRequests.containsKey(frameworkName)) {
       AggregatedFrameworkRequest aggFrameworkRequest = aggFrameworkRequests.get(frameworkName);
@@ -125,13 +166,42 @@ private boolean deleteFrameworkRequestInternal(String frameworkName) throws Exce
           "[%s]: deleteFrameworkRequestInternal: " +
               "New Total TaskNumber: %s, Old Total TaskNumber: %s, Framework TaskNumber: %s",
           frameworkName, totalTaskNumber, oldTotalTaskNumber, frameworkTaskNumber);
+      removeFrameworkIndexes(aggFrameworkRequest.getFrameworkRequest());
     }
     return aggFrameworkRequests.remove(frameworkName) == null;
   }
 
+  private void addFrameworkIndexes(FrameworkRequest frameworkRequest) {
+    String frameworkName = frameworkRequest.getFrameworkName();
+    clientTypeFrameworkNames.computeIfAbsent(
+        frameworkRequest.getLaunchClientType(), k -> new HashSet<>()).add(frameworkName);
+    userFrameworkNames.computeIfAbsent(
+        getUserName(frameworkRequest), k -> new HashSet<>()).add(frameworkName);
+  }
+
+  private void removeFrameworkIndexes(FrameworkRequest frameworkRequest) {
+    String frameworkName = frameworkRequest.getFrameworkName();
+    removeFrameworkIndex(clientTypeFrameworkNames, frameworkRequest.getLaunchClientType(), frameworkName);
+    removeFrameworkIndex(userFrameworkNames, getUserName(frameworkRequest), frameworkName);
+  }
+
+  private static <T> void removeFrameworkIndex(Map<T, Set<String>> index, T key, String frameworkName) {
+    Set<String> frameworkNames = index.get(key);
+    if (frameworkNames != null) {
+      frameworkNames.remove(frameworkName);
+      if (frameworkNames.isEmpty()) {
+        index.remove(key);
+      }
+    }
+  }
+
+  private static String getUserName(FrameworkRequest frameworkRequest) {
+    return frameworkRequest.getFrameworkDescriptor().getUser().getName();
+  }
+
   // deleteOrphanFrameworks need to be handled in WebServer side instead of AM side,
   // since AM is not always running, such as when the FrameworkState is not APPLICATION_RUNNING.
-  private void deleteOrphanFrameworks() throws Exception {
+  private void deleteOrphanFrameworks(ZkWriteBatch batch) throws Exception {
     // A Framework is Orphan, if and only if its ParentFramework is not null and Deleted.
     // Orphan Framework will be Deleted here, if its DeleteOnParentDeleted enabled.
     boolean frameworkDeletedInThisPass;
@@ -153,7 +223,7 @@ private void deleteOrphanFrameworks() throws Exception {
                     "Since its DeleteOnParentDeleted enabled and its ParentFramework [%s] Deleted",
                 frameworkName, parentFrameworkName);
 
-            deleteFrameworkRequestInternal(frameworkName);
+            deleteFrameworkRequestInternal(batch, frameworkName);
             frameworkDeletedInThisPass = true;
           }
         }
@@ -161,7 +231,8 @@ private void deleteOrphanFrameworks() throws Exception {
     } while (frameworkDeletedInThisPass);
   }
 
-  private void gcCompletedFrameworks(Map<String, FrameworkStatus> completedFrameworkStatuses) throws Exception {
+  private void gcCompletedFrameworks(
+      ZkWriteBatch batch, Map<String, FrameworkStatus> completedFrameworkStatuses) throws Exception {
     Long currentTimestamp = System.currentTimeMillis();
     for (FrameworkStatus completedFrameworkStatus : completedFrameworkStatuses.values()) {
       String frameworkName = completedFrameworkStatus.getFrameworkName();
@@ -201,7 +272,7 @@ private void gcCompletedFrameworks(Map<String, FrameworkStatus> completedFramewo
           conf.getFrameworkCompletedRetainSec(),
           currentTimestamp);
 
-      deleteFrameworkRequest(frameworkName);
+      deleteFrameworkRequest(batch, frameworkName);
     }
   }
 
@@ -226,40 +297,116 @@ private int getTotalTaskNumber() {
    * REGION ReadInterface
    */
   public synchronized LauncherRequest getLauncherRequest() throws Exception {
-    return YamlUtils.deepCopy(launcherRequest, LauncherRequest.class);
+    return ModelUtils.deepCopy(launcherRequest);
   }
 
   public synchronized RequestedFrameworkNames getFrameworkNames(LaunchClientType clientType) {
-    ArrayList<String> frameworkNames = new ArrayList<>();
+    RequestedFrameworkNames requestedFrameworkNames = new RequestedFrameworkNames();
+    requestedFrameworkNames.setFrameworkNames(new ArrayList<>(getFrameworkNames(clientType, null)));
+    return requestedFrameworkNames;
+  }
 
-    for (AggregatedFrameworkRequest aggFrameworkRequest : aggFrameworkRequests.values()) {
-      if (clientType == null ||
-          clientType == aggFrameworkRequest.getFrameworkRequest().getLaunchClientType()) {
-        frameworkNames.add(aggFrameworkRequest.getFrameworkRequest().getFrameworkName());
+  // Get the FrameworkNames matched with all the given filters from the secondary indexes,
+  // the null filter matches all.
+  public synchronized Set<String> getFrameworkNames(LaunchClientType clientType, String userName) {
+    Set<String> frameworkNames = null;
+    if (clientType != null) {
+      frameworkNames = new HashSet<>(clientTypeFrameworkNames.getOrDefault(clientType, Collections.emptySet()));
+    }
+    if (userName != null) {
+      Set<String> frameworkNamesOfUser = userFrameworkNames.getOrDefault(userName, Collections.emptySet());
+      if (frameworkNames == null) {
+        frameworkNames = new HashSet<>(frameworkNamesOfUser);
+      } else {
+        frameworkNames.retainAll(frameworkNamesOfUser);
       }
     }
-
-    RequestedFrameworkNames requestedFrameworkNames = new RequestedFrameworkNames();
-    requestedFrameworkNames.setFrameworkNames(frameworkNames);
-    return requestedFrameworkNames;
+    if (frameworkNames == null) {
+      frameworkNames = new HashSet<>(aggFrameworkRequests.keySet());
+    }
+    return frameworkNames;
   }
 
   public synchronized AggregatedFrameworkRequest getAggregatedFrameworkRequest(String frameworkName) throws Exception {
-    return YamlUtils.deepCopy(checkExist(aggFrameworkRequests.get(frameworkName)), AggregatedFrameworkRequest.class);
+    return ModelUtils.deepCopy(checkExist(aggFrameworkRequests.get(frameworkName)));
   }
 
   public synchronized FrameworkRequest getFrameworkRequest(String frameworkName) throws Exception {
-    return YamlUtils.deepCopy(checkExist(aggFrameworkRequests.get(frameworkName)).getFrameworkRequest(), FrameworkRequest.class);
+    return ModelUtils.deepCopy(checkExist(aggFrameworkRequests.get(frameworkName)).getFrameworkRequest());
   }
 
 
   /**
    * REGION ModifyInterface
    */
-  // Note to avoid update partially modified Request on ZK
-  public synchronized void setFrameworkRequest(
+  public void setFrameworkRequest(
       String frameworkName, FrameworkRequest frameworkRequest)
       throws Exception {
+    modify(batch -> setFrameworkRequest(batch, frameworkName, frameworkRequest));
+  }
+
+  // Set the FrameworkRequests in one ZK commit, and return the rejected ones with their rejected reasons,
+  // so that a rejected one does not reject the others.
+  public Map<String, Exception> setFrameworkRequests(
+      List<FrameworkRequest> frameworkRequests)
+      throws Exception {
+    Map<String, Exception> rejectedFrameworkRequests = new HashMap<>();
+    modify(batch -> {
+      for (FrameworkRequest frameworkRequest : frameworkRequests) {
+        String frameworkName = frameworkRequest.getFrameworkName();
+        try {
+          setFrameworkRequest(batch, frameworkName, frameworkRequest);
+        } catch (BadRequestException | ThrottledRequestException e) {
+          rejectedFrameworkRequests.put(frameworkName, e);
+        }
+      }
+    });
+    return rejectedFrameworkRequests;
+  }
+
+  public void deleteFrameworkRequest(
+      String frameworkName)
+      throws Exception {
+    modify(batch -> deleteFrameworkRequest(batch, frameworkName));
+  }
+
+  public void deleteMigrateTaskRequest(
+      String frameworkName, String containerId)
+      throws Exception {
+    modify(batch -> deleteMigrateTaskRequest(batch, frameworkName, containerId));
+  }
+
+  public void updateTaskNumber(
+      String frameworkName, String taskRoleName, UpdateTaskNumberRequest updateTaskNumberRequest)
+      throws Exception {
+    modify(batch -> updateTaskNumber(batch, frameworkName, taskRoleName, updateTaskNumberRequest));
+  }
+
+  public void updateMigrateTask(
+      String frameworkName, String containerId, MigrateTaskRequest migrateTaskRequest)
+      throws Exception {
+    modify(batch -> updateMigrateTask(batch, frameworkName, containerId, migrateTaskRequest));
+  }
+
+  public void updateApplicationProgress(
+      String frameworkName, OverrideApplicationProgressRequest overrideApplicationProgressRequest)
+      throws Exception {
+    modify(batch -> updateApplicationProgress(batch, frameworkName, overrideApplicationProgressRequest));
+  }
+
+  public void updateDataDeploymentVersion(UpdateDataDeploymentVersionRequest updateDataDeploymentVersionRequest) throws Exception {
+    modify(batch -> updateDataDeploymentVersion(batch, updateDataDeploymentVersionRequest));
+  }
+
+
+  /**
+   * REGION InternalModifyInterface
+   * Should be called under the lock, and only add the ZK writes into the batch.
+   */
+  // Note to avoid update partially modified Request on ZK
+  private void setFrameworkRequest(
+      ZkWriteBatch batch, String frameworkName, FrameworkRequest frameworkRequest)
+      throws Exception {
     ParentFrameworkDescriptor parentFramework = frameworkRequest.getFrameworkDescriptor().getParentFramework();
     if (parentFramework != null) {
       String parentFrameworkName = parentFramework.getParentFrameworkName();
@@ -287,7 +434,7 @@ public synchronized void setFrameworkRequest(
               "Since the New Total TaskNumber %s will exceed the Max Total TaskNumber %s",
           frameworkName, newTotalTaskNumber, conf.getMaxTotalTaskNumber()));
     } else {
-      zkStore.setFrameworkRequest(frameworkName, frameworkRequest);
+      zkStore.setFrameworkRequest(batch, frameworkName, frameworkRequest);
 
       LOGGER.logDebug("[%s]: setFrameworkRequest: " +
               "New Total TaskNumber: %s, Old Total TaskNumber: %s, Framework TaskNumber: %s",
@@ -297,82 +444,86 @@ public synchronized void setFrameworkRequest(
 
     if (!aggFrameworkRequests.containsKey(frameworkName)) {
       aggFrameworkRequests.put(frameworkName, new AggregatedFrameworkRequest());
+    } else {
+      removeFrameworkIndexes(aggFrameworkRequests.get(frameworkName).getFrameworkRequest());
     }
     aggFrameworkRequests.get(frameworkName).setFrameworkRequest(frameworkRequest);
+    addFrameworkIndexes(frameworkRequest);
   }
 
-  public synchronized void deleteFrameworkRequest(
-      String frameworkName)
+  private void deleteFrameworkRequest(
+      ZkWriteBatch batch, String frameworkName)
       throws Exception {
     // Should success even if frameworkName does not exist
-    if (deleteFrameworkRequestInternal(frameworkName)) {
+    if (deleteFrameworkRequestInternal(batch, frameworkName)) {
       // Delete existing child Frameworks
-      deleteOrphanFrameworks();
+      deleteOrphanFrameworks(batch);
     }
   }
 
-  public synchronized void deleteMigrateTaskRequest(
-      String frameworkName, String containerId)
+  private void deleteMigrateTaskRequest(
+      ZkWriteBatch batch, String frameworkName, String containerId)
       throws Exception {
     // Should success even if frameworkName and containerId does not exist
-    zkStore.deleteMigrateTaskRequest(frameworkName, containerId);
+    zkStore.deleteMigrateTaskRequest(batch, frameworkName, containerId);
     try {
       aggFrameworkRequests.get(frameworkName).getMigrateTaskRequests().remove(containerId);
     } catch (Exception ignored) {
     }
   }
 
-  public synchronized void updateTaskNumber(
-      String frameworkName, String taskRoleName, UpdateTaskNumberRequest updateTaskNumberRequest)
+  private void updateTaskNumber(
+      ZkWriteBatch batch, String frameworkName, String taskRoleName, UpdateTaskNumberRequest updateTaskNumberRequest)
       throws Exception {
-    FrameworkRequest frameworkRequest = YamlUtils.deepCopy(
-        checkExist(aggFrameworkRequests.get(frameworkName)).getFrameworkRequest(), FrameworkRequest.class);
+    FrameworkRequest frameworkRequest = ModelUtils.deepCopy(
+        checkExist(aggFrameworkRequests.get(frameworkName)).getFrameworkRequest());
     Map<String, TaskRoleDescriptor> taskRoles = frameworkRequest.getFrameworkDescriptor().getTaskRoles();
     TaskRoleDescriptor taskRole = checkExist(taskRoles.get(taskRoleName));
     taskRole.setTaskNumber(updateTaskNumberRequest.getTaskNumber());
-    setFrameworkRequest(frameworkName, frameworkRequest);
+    setFrameworkRequest(batch, frameworkName, frameworkRequest);
   }
 
-  public synchronized void updateMigrateTask(
-      String frameworkName, String containerId, MigrateTaskRequest migrateTaskRequest)
+  private void updateMigrateTask(
+      ZkWriteBatch batch, String frameworkName, String containerId, MigrateTaskRequest migrateTaskRequest)
       throws Exception {
     // Check whether frameworkName exists first
     AggregatedFrameworkRequest aggFrameworkRequest = checkExist(aggFrameworkRequests.get(frameworkName));
-    zkStore.setMigrateTaskRequest(frameworkName, containerId, migrateTaskRequest);
+    zkStore.setMigrateTaskRequest(batch, frameworkName, containerId, migrateTaskRequest);
     if (aggFrameworkRequest.getMigrateTaskRequests() == null) {
       aggFrameworkRequest.setMigrateTaskRequests(new HashMap<>());
     }
     aggFrameworkRequest.getMigrateTaskRequests().put(containerId, migrateTaskRequest);
   }
 
-  public synchronized void updateApplicationProgress(
-      String frameworkName, OverrideApplicationProgressRequest overrideApplicationProgressRequest)
+  private void updateApplicationProgress(
+      ZkWriteBatch batch, String frameworkName, OverrideApplicationProgressRequest overrideApplicationProgressRequest)
       throws Exception {
     // Check whether frameworkName exists first
     AggregatedFrameworkRequest aggFrameworkRequest = checkExist(aggFrameworkRequests.get(frameworkName));
-    zkStore.setOverrideApplicationProgressRequest(frameworkName, overrideApplicationProgressRequest);
+    zkStore.setOverrideApplicationProgressRequest(batch, frameworkName, overrideApplicationProgressRequest);
     aggFrameworkRequest.setOverrideApplicationProgressRequest(overrideApplicationProgressRequest);
   }
 
-  public synchronized void updateDataDeploymentVersion(UpdateDataDeploymentVersionRequest updateDataDeploymentVersionRequest) throws Exception {
-    LauncherRequest newLauncherRequest = YamlUtils.deepCopy(launcherRequest, LauncherRequest.class);
+  private void updateDataDeploymentVersion(
+      ZkWriteBatch batch, UpdateDataDeploymentVersionRequest updateDataDeploymentVersionRequest) throws Exception {
+    LauncherRequest newLauncherRequest = ModelUtils.deepCopy(launcherRequest);
     if (updateDataDeploymentVersionRequest.getDataDeploymentVersionType() == DataDeploymentVersionType.LAUNCHING) {
       newLauncherRequest.setLaunchingDataDeploymentVersion(updateDataDeploymentVersionRequest.getDataDeploymentVersion());
     } else if (updateDataDeploymentVersionRequest.getDataDeploymentVersionType() == DataDeploymentVersionType.LAUNCHED) {
       newLauncherRequest.setLaunchedDataDeploymentVersion(updateDataDeploymentVersionRequest.getDataDeploymentVersion());
     }
-    zkStore.setLauncherRequest(newLauncherRequest);
+    zkStore.setLauncherRequest(batch, newLauncherRequest);
     launcherRequest = newLauncherRequest;
   }
 
   /**
    * REGION Callbacks
    */
-  public synchronized void onCompletedFrameworkStatusesUpdated(
+  public void onCompletedFrameworkStatusesUpdated(
       Map<String, FrameworkStatus> completedFrameworkStatuses)
       throws Exception {
     if (completedFrameworkStatuses.size() > 0) {
-      gcCompletedFrameworks(completedFrameworkStatuses);
+      modify(batch -> gcCompletedFrameworks(batch, completedFrameworkStatuses));
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.webserver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+// The JSON of a readonly Status object, which is serialized at most once and then served directly,
+// together with its ETag derived from the Status ZK node versions.
+public class StatusJson { // THREAD SAFE
+  private static final ObjectMapper OBJECT_MAPPER = JacksonObjectMapperProvider.createDefaultMapper();
+
+  private final Object status;
+  private final String eTag;
+  private volatile byte[] json;
+
+  public StatusJson(Object status, String eTag) {
+    this.status = status;
+    this.eTag = eTag;
+  }
+
+  public Object getStatus() {
+    return status;
+  }
+
+  // Unquoted entity tag
+  public String getETag() {
+    return eTag;
+  }
+
+  public byte[] getJson() throws IOException {
+    // Concurrent first calls may serialize more than once, but they get the same JSON
+    if (json == null) {
+      json = OBJECT_MAPPER.writeValueAsBytes(status);
+    }
+    return json;
+  }
+
+  // Whether the given If-None-Match header value matches the ETag
+  public Boolean matches(String ifNoneMatch) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+
+    for (String tag : ifNoneMatch.split(",")) {
+      tag = tag.trim();
+      if (tag.equals("*")) {
+        return true;
+      }
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+        tag = tag.substring(1, tag.length() - 1);
+      }
+      if (tag.equals(eTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
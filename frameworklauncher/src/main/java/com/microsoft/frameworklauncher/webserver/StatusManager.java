@@ -17,16 +17,23 @@
 
 package com.microsoft.frameworklauncher.webserver;
 
+import com.microsoft.frameworklauncher.common.WebCommon;
 import com.microsoft.frameworklauncher.common.exceptions.NonTransientException;
 import com.microsoft.frameworklauncher.common.exceptions.NotFoundException;
+import com.microsoft.frameworklauncher.common.exceptions.ThrottledRequestException;
 import com.microsoft.frameworklauncher.common.model.*;
 import com.microsoft.frameworklauncher.utils.AbstractService;
+import com.microsoft.frameworklauncher.utils.ChangeNotifier;
 import com.microsoft.frameworklauncher.utils.CommonExtensions;
 import com.microsoft.frameworklauncher.utils.DefaultLogger;
 import com.microsoft.frameworklauncher.zookeeperstore.ZookeeperStore;
+import org.apache.zookeeper.KeeperException;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static com.microsoft.frameworklauncher.utils.CommonUtils.checkExist;
 
@@ -37,6 +44,7 @@ public class StatusManager extends AbstractService { // THREAD SAFE
   private final WebServer webServer;
   private final LauncherConfiguration conf;
   private final ZookeeperStore zkStore;
+  private final ChangeNotifier statusChangeNotifier = new ChangeNotifier();
 
   /**
    * REGION BaseStatus
@@ -47,6 +55,61 @@ public class StatusManager extends AbstractService { // THREAD SAFE
   private Map<String, AggregatedFrameworkStatus> aggFrameworkStatuses;
 
 
+  /**
+   * REGION StatusVersion
+   */
+  // Used to only refetch the changed Status from ZK, and they are only accessed by the pulling Thread.
+  // FrameworkName -> FrameworkStatusVersion
+  private final Map<String, Long> frameworkStatusVersions = new HashMap<>();
+  // FrameworkName -> TaskRoleName -> AggregatedTaskRoleStatusVersion
+  // Null AggregatedTaskRoleStatusVersion means the AggregatedTaskRoleStatus is not available yet.
+  private final Map<String, Map<String, Long>> taskRoleStatusVersions = new HashMap<>();
+  // The number of Status nodes refetched in current pulling
+  private int refetchedNodeCount = 0;
+
+
+  /**
+   * REGION StatusJson
+   */
+  // The Status GETs are served from the StatusJsons, so that the unchanged Status is never re-serialized
+  // for the polling clients, and the clients can skip the unchanged Status by the ETag.
+  // It is replaced as a whole after each pulling, and the StatusJson is reused as long as its Status is reused.
+  private static final String AGGREGATED_FRAMEWORK_STATUS_JSON_TYPE = "AggregatedFrameworkStatus";
+  private static final String FRAMEWORK_STATUS_JSON_TYPE = "FrameworkStatus";
+  private static final String TASK_ROLE_STATUS_JSON_TYPE = "TaskRoleStatus";
+  private static final String TASK_STATUSES_JSON_TYPE = "TaskStatuses";
+  // StatusJsonKey -> StatusJson
+  private volatile Map<String, StatusJson> statusJsons = new HashMap<>();
+
+
+  /**
+   * REGION FrameworkStatusIndex
+   */
+  // The FrameworkStatus list GETs are served from it, and it is replaced as a whole after each pulling.
+  private volatile FrameworkStatusIndex frameworkStatusIndex = new FrameworkStatusIndex();
+
+
+  /**
+   * REGION StatusWatch
+   */
+  // The watchers wait on it, and they are notified after each pulling.
+  // The WatchedStatuses are only replaced while holding it, so the watchers never miss the notification.
+  private final Object statusWatchLock = new Object();
+  // FrameworkName -> WatchedFrameworkStatus
+  private Map<String, WatchedFrameworkStatus> watchedFrameworkStatuses = new HashMap<>();
+  private WatchedFrameworkStatusVersions watchedFrameworkStatusVersions = newWatchedFrameworkStatusVersions(
+      0L, new HashMap<>());
+  // The number of watchers currently blocked, bounded by webServerMaxActiveWatchCount,
+  // so that the long polls cannot exhaust the WebServer Threads.
+  private final AtomicInteger activeWatchCount = new AtomicInteger(0);
+
+
+  /**
+   * REGION WebServerStatus
+   */
+  private volatile WebServerStatus webServerStatus = new WebServerStatus();
+
+
   /**
    * REGION AbstractService
    */
@@ -76,6 +139,8 @@ protected Boolean handleException(Exception e) {
   protected void recover() throws Exception {
     super.recover();
 
+    // Subscribe before the first pull, so that no change after it will be missed
+    zkStore.subscribeLauncherStatusChanges(statusChangeNotifier::notifyChanged);
     pullStatus();
 
     LOGGER.logInfo("Succeeded to recover %s.", serviceName);
@@ -88,14 +153,22 @@ protected void run() throws Exception {
 
     new Thread(() -> {
       while (true) {
+        // Pull the changed Frameworks ASAP once they are notified, and
+        // still pull all Frameworks periodically as a resync in case any change is missed.
+        Set<String> changedFrameworkNames = null;
         try {
-          Thread.sleep(conf.getWebServerStatusPullIntervalSec() * 1000);
+          changedFrameworkNames = statusChangeNotifier.awaitChanges(
+              conf.getWebServerStatusPullIntervalSec() * 1000);
         } catch (InterruptedException e) {
           handleException(e);
         }
 
         try {
-          pullStatus();
+          if (changedFrameworkNames == null) {
+            pullStatus();
+          } else {
+            pullStatus(changedFrameworkNames);
+          }
         } catch (Exception e) {
           // Directly throw TransientException to WebServer, since it may not be recovered or make progress any more
           handleException(e);
@@ -110,12 +183,206 @@ protected void run() throws Exception {
   private void pullStatus() throws Exception {
     LOGGER.logDebug("Pulling AggregatedLauncherStatus");
 
-    AggregatedLauncherStatus aggLauncherStatus = zkStore.getAggregatedLauncherStatus();
-    launcherStatus = aggLauncherStatus.getLauncherStatus();
-    aggFrameworkStatuses = CommonExtensions.asReadOnly(aggLauncherStatus.getAggregatedFrameworkStatuses());
+    long startTimestamp = System.currentTimeMillis();
+    refetchedNodeCount = 0;
+
+    launcherStatus = pullLauncherMetrics(zkStore.getLauncherStatus());
+    Set<String> frameworkNames = new HashSet<>(zkStore.getStatusFrameworkNames());
+
+    // Forget the StatusVersions of the deleted Frameworks
+    frameworkStatusVersions.keySet().retainAll(frameworkNames);
+    taskRoleStatusVersions.keySet().retainAll(frameworkNames);
+
+    Map<String, AggregatedFrameworkStatus> newAggFrameworkStatuses = new HashMap<>();
+    pullFrameworks(frameworkNames, newAggFrameworkStatuses);
 
     LOGGER.logDebug("Pulled AggregatedLauncherStatus");
 
+    updateAggregatedFrameworkStatuses(newAggFrameworkStatuses, startTimestamp);
+  }
+
+  // The Metrics changes are not notified, so they are only pulled with the whole LauncherStatus,
+  // i.e. at least once per WebServerStatusPullIntervalSec.
+  private LauncherStatus pullLauncherMetrics(LauncherStatus launcherStatus) throws Exception {
+    pullLauncherMetrics(zkStore::getTransitionQueueStatus, launcherStatus::setTransitionQueueStatus);
+    pullLauncherMetrics(zkStore::getApplicationSubmissionStatus, launcherStatus::setApplicationSubmissionStatus);
+    pullLauncherMetrics(zkStore::getDiagnosticsRetrieveStatus, launcherStatus::setDiagnosticsRetrieveStatus);
+    return launcherStatus;
+  }
+
+  private static <T> void pullLauncherMetrics(Callable<T> metricsGetter, Consumer<T> metricsSetter) throws Exception {
+    try {
+      metricsSetter.accept(metricsGetter.call());
+    } catch (KeeperException.NoNodeException ignored) {
+      // Not set by the Service yet, or it is still in the LauncherStatus set by a legacy Service
+    }
+  }
+
+  private void pullStatus(Set<String> changedFrameworkNames) throws Exception {
+    LOGGER.logDebug("Pulling AggregatedFrameworkStatuses for %s changed Frameworks", changedFrameworkNames.size());
+
+    long startTimestamp = System.currentTimeMillis();
+    refetchedNodeCount = 0;
+
+    Map<String, AggregatedFrameworkStatus> newAggFrameworkStatuses = new HashMap<>(aggFrameworkStatuses);
+    pullFrameworks(changedFrameworkNames, newAggFrameworkStatuses);
+
+    LOGGER.logDebug("Pulled AggregatedFrameworkStatuses for %s changed Frameworks", changedFrameworkNames.size());
+
+    updateAggregatedFrameworkStatuses(newAggFrameworkStatuses, startTimestamp);
+  }
+
+  // Pull the AggregatedFrameworkStatuses of the given Frameworks into newAggFrameworkStatuses.
+  // Only the Status nodes whose StatusVersion changed are refetched, and the others are reused from
+  // aggFrameworkStatuses. All ZK reads are batched, so the pulling latency is not proportional to the
+  // number of Frameworks.
+  private void pullFrameworks(
+      Set<String> frameworkNames, Map<String, AggregatedFrameworkStatus> newAggFrameworkStatuses) throws Exception {
+    // Get StatusVersions before Statuses, so that the got Statuses are not older than the recorded StatusVersions
+    Map<String, Long> newFrameworkStatusVersions = zkStore.getFrameworkStatusVersions(frameworkNames);
+
+    // Refetch the changed FrameworkStatuses and their TaskRoleNames
+    Set<String> changedFrameworkNames = new HashSet<>();
+    for (String frameworkName : newFrameworkStatusVersions.keySet()) {
+      if (getOldAggFrameworkStatus(frameworkName) == null ||
+          !newFrameworkStatusVersions.get(frameworkName).equals(frameworkStatusVersions.get(frameworkName))) {
+        changedFrameworkNames.add(frameworkName);
+      }
+    }
+    Map<String, FrameworkStatus> changedFrameworkStatuses = zkStore.getFrameworkStatuses(changedFrameworkNames);
+    Map<String, List<String>> changedTaskRoleNames = zkStore.getStatusTaskRoleNames(changedFrameworkNames);
+    refetchedNodeCount += changedFrameworkStatuses.size();
+
+    // FrameworkName -> TaskRoleNames
+    Map<String, Collection<String>> taskRoleNames = new HashMap<>();
+    for (String frameworkName : newFrameworkStatusVersions.keySet()) {
+      if (!changedFrameworkNames.contains(frameworkName)) {
+        taskRoleNames.put(frameworkName, taskRoleStatusVersions.get(frameworkName).keySet());
+      } else if (changedFrameworkStatuses.get(frameworkName) != null &&
+          changedTaskRoleNames.containsKey(frameworkName)) {
+        taskRoleNames.put(frameworkName, changedTaskRoleNames.get(frameworkName));
+      }
+    }
+    Map<String, Map<String, Long>> newTaskRoleStatusVersionses =
+        zkStore.getAggregatedTaskRoleStatusVersions(taskRoleNames);
+
+    // Refetch the changed AggregatedTaskRoleStatuses
+    Map<String, List<String>> changedTaskRoleNamesToRefetch = new HashMap<>();
+    for (Map.Entry<String, Map<String, Long>> newTaskRoleStatusVersionsKV : newTaskRoleStatusVersionses.entrySet()) {
+      String frameworkName = newTaskRoleStatusVersionsKV.getKey();
+      for (Map.Entry<String, Long> newTaskRoleStatusVersionKV : newTaskRoleStatusVersionsKV.getValue().entrySet()) {
+        String taskRoleName = newTaskRoleStatusVersionKV.getKey();
+        Long newTaskRoleStatusVersion = newTaskRoleStatusVersionKV.getValue();
+        if (newTaskRoleStatusVersion != null &&
+            (getOldAggTaskRoleStatus(frameworkName, taskRoleName) == null ||
+                !newTaskRoleStatusVersion.equals(taskRoleStatusVersions.get(frameworkName).get(taskRoleName)))) {
+          changedTaskRoleNamesToRefetch.computeIfAbsent(frameworkName, k -> new ArrayList<>()).add(taskRoleName);
+        }
+      }
+    }
+    Map<String, Map<String, AggregatedTaskRoleStatus>> changedAggTaskRoleStatuseses =
+        zkStore.getAggregatedTaskRoleStatuses(changedTaskRoleNamesToRefetch);
+
+    // Merge the refetched and reused Statuses
+    for (String frameworkName : frameworkNames) {
+      if (!taskRoleNames.containsKey(frameworkName)) {
+        if (changedFrameworkStatuses.containsKey(frameworkName) && changedTaskRoleNames.containsKey(frameworkName)) {
+          LOGGER.logWarning("[%s]: pullFrameworks: Got corrupted data", frameworkName);
+          newAggFrameworkStatuses.put(frameworkName, null);
+        } else {
+          newAggFrameworkStatuses.remove(frameworkName);
+        }
+        frameworkStatusVersions.remove(frameworkName);
+        taskRoleStatusVersions.remove(frameworkName);
+        continue;
+      }
+
+      Map<String, AggregatedTaskRoleStatus> changedAggTaskRoleStatuses = null;
+      if (changedAggTaskRoleStatuseses.containsKey(frameworkName)) {
+        changedAggTaskRoleStatuses = changedAggTaskRoleStatuseses.get(frameworkName);
+        if (changedAggTaskRoleStatuses == null) {
+          LOGGER.logWarning("[%s]: pullFrameworks: Got corrupted data", frameworkName);
+          newAggFrameworkStatuses.put(frameworkName, null);
+          frameworkStatusVersions.remove(frameworkName);
+          taskRoleStatusVersions.remove(frameworkName);
+          continue;
+        }
+      }
+
+      Boolean changed = changedFrameworkNames.contains(frameworkName);
+      FrameworkStatus frameworkStatus = (changed ?
+          changedFrameworkStatuses.get(frameworkName) :
+          getOldAggFrameworkStatus(frameworkName).getFrameworkStatus());
+
+      Map<String, Long> newTaskRoleStatusVersions = newTaskRoleStatusVersionses.get(frameworkName);
+      Map<String, AggregatedTaskRoleStatus> aggTaskRoleStatuses = new HashMap<>();
+      for (String taskRoleName : taskRoleNames.get(frameworkName)) {
+        if (newTaskRoleStatusVersions.get(taskRoleName) == null) {
+          // The AggregatedTaskRoleStatus is not available yet, so check it again in next pulling
+          changed = true;
+        } else if (changedAggTaskRoleStatuses != null &&
+            changedTaskRoleNamesToRefetch.get(frameworkName).contains(taskRoleName)) {
+          AggregatedTaskRoleStatus aggTaskRoleStatus = changedAggTaskRoleStatuses.get(taskRoleName);
+          if (aggTaskRoleStatus == null) {
+            // The AggregatedTaskRoleStatus is deleted concurrently
+            newTaskRoleStatusVersions.put(taskRoleName, null);
+          } else {
+            aggTaskRoleStatuses.put(taskRoleName, aggTaskRoleStatus);
+            refetchedNodeCount += 2;
+          }
+          changed = true;
+        } else {
+          aggTaskRoleStatuses.put(taskRoleName, getOldAggTaskRoleStatus(frameworkName, taskRoleName));
+        }
+      }
+
+      // Only record the StatusVersions after the whole AggregatedFrameworkStatus is got
+      frameworkStatusVersions.put(frameworkName, newFrameworkStatusVersions.get(frameworkName));
+      taskRoleStatusVersions.put(frameworkName, newTaskRoleStatusVersions);
+
+      if (changed) {
+        AggregatedFrameworkStatus aggFrameworkStatus = new AggregatedFrameworkStatus();
+        aggFrameworkStatus.setFrameworkStatus(frameworkStatus);
+        aggFrameworkStatus.setAggregatedTaskRoleStatuses(aggTaskRoleStatuses);
+        newAggFrameworkStatuses.put(frameworkName, aggFrameworkStatus);
+      } else {
+        newAggFrameworkStatuses.put(frameworkName, getOldAggFrameworkStatus(frameworkName));
+      }
+    }
+  }
+
+  // Return null if the AggregatedFrameworkStatus cannot be reused
+  private AggregatedFrameworkStatus getOldAggFrameworkStatus(String frameworkName) {
+    if (aggFrameworkStatuses == null || !taskRoleStatusVersions.containsKey(frameworkName)) {
+      return null;
+    }
+    return aggFrameworkStatuses.get(frameworkName);
+  }
+
+  // Return null if the AggregatedTaskRoleStatus cannot be reused
+  private AggregatedTaskRoleStatus getOldAggTaskRoleStatus(String frameworkName, String taskRoleName) {
+    AggregatedFrameworkStatus oldAggFrameworkStatus = getOldAggFrameworkStatus(frameworkName);
+    if (oldAggFrameworkStatus == null) {
+      return null;
+    }
+    return oldAggFrameworkStatus.getAggregatedTaskRoleStatuses().get(taskRoleName);
+  }
+
+  private void updateAggregatedFrameworkStatuses(
+      Map<String, AggregatedFrameworkStatus> newAggFrameworkStatuses, long pullStartTimestamp) throws Exception {
+    aggFrameworkStatuses = CommonExtensions.asReadOnly(newAggFrameworkStatuses);
+
+    long currentTimestamp = System.currentTimeMillis();
+    WebServerStatus newWebServerStatus = new WebServerStatus();
+    newWebServerStatus.setLastStatusPullTimestamp(currentTimestamp);
+    newWebServerStatus.setLastStatusPullDurationMs(currentTimestamp - pullStartTimestamp);
+    newWebServerStatus.setLastStatusPullRefetchedNodeCount(refetchedNodeCount);
+    webServerStatus = newWebServerStatus;
+
+    LOGGER.logDebug(
+        "Updated AggregatedFrameworkStatuses: PullDurationMs: [%s], RefetchedNodeCount: [%s]",
+        newWebServerStatus.getLastStatusPullDurationMs(), refetchedNodeCount);
+
     // Detect the corrupted AggregatedFrameworkStatus and lead Service.StatusManager.recover to clean
     for (Map.Entry<String, AggregatedFrameworkStatus> aggFrameworkStatusKV : aggFrameworkStatuses.entrySet()) {
       String frameworkName = aggFrameworkStatusKV.getKey();
@@ -127,9 +394,123 @@ private void pullStatus() throws Exception {
       }
     }
 
+    updateStatusJsons();
+    updateFrameworkStatusIndex();
+    updateWatchedStatuses(aggFrameworkStatuses, frameworkStatusVersions);
     updateCompletedFrameworkStatuses();
   }
 
+  private void updateStatusJsons() {
+    Map<String, StatusJson> oldStatusJsons = statusJsons;
+    Map<String, StatusJson> newStatusJsons = new HashMap<>();
+    for (Map.Entry<String, AggregatedFrameworkStatus> aggFrameworkStatusKV : aggFrameworkStatuses.entrySet()) {
+      String frameworkName = aggFrameworkStatusKV.getKey();
+      AggregatedFrameworkStatus aggFrameworkStatus = aggFrameworkStatusKV.getValue();
+      Map<String, Long> aggTaskRoleStatusVersions = taskRoleStatusVersions.get(frameworkName);
+      String frameworkStatusETag = String.valueOf(frameworkStatusVersions.get(frameworkName));
+
+      // The StatusVersion is the ZK zxid which always increases once any node is changed,
+      // so the max one changes once any AggregatedTaskRoleStatus is changed or added, and
+      // the count changes once any AggregatedTaskRoleStatus is removed.
+      long maxAggTaskRoleStatusVersion = 0;
+      for (Map.Entry<String, AggregatedTaskRoleStatus> aggTaskRoleStatusKV :
+          aggFrameworkStatus.getAggregatedTaskRoleStatuses().entrySet()) {
+        String taskRoleName = aggTaskRoleStatusKV.getKey();
+        AggregatedTaskRoleStatus aggTaskRoleStatus = aggTaskRoleStatusKV.getValue();
+        Long aggTaskRoleStatusVersion = aggTaskRoleStatusVersions.get(taskRoleName);
+        String aggTaskRoleStatusETag = String.valueOf(aggTaskRoleStatusVersion);
+        if (aggTaskRoleStatusVersion != null) {
+          maxAggTaskRoleStatusVersion = Math.max(maxAggTaskRoleStatusVersion, aggTaskRoleStatusVersion);
+        }
+
+        putStatusJson(oldStatusJsons, newStatusJsons,
+            getStatusJsonKey(TASK_ROLE_STATUS_JSON_TYPE, frameworkName, taskRoleName),
+            aggTaskRoleStatus.getTaskRoleStatus(), aggTaskRoleStatusETag);
+        putStatusJson(oldStatusJsons, newStatusJsons,
+            getStatusJsonKey(TASK_STATUSES_JSON_TYPE, frameworkName, taskRoleName),
+            aggTaskRoleStatus.getTaskStatuses(), aggTaskRoleStatusETag);
+      }
+
+      putStatusJson(oldStatusJsons, newStatusJsons,
+          getStatusJsonKey(FRAMEWORK_STATUS_JSON_TYPE, frameworkName, null),
+          aggFrameworkStatus.getFrameworkStatus(), frameworkStatusETag);
+      putStatusJson(oldStatusJsons, newStatusJsons,
+          getStatusJsonKey(AGGREGATED_FRAMEWORK_STATUS_JSON_TYPE, frameworkName, null),
+          aggFrameworkStatus, String.format("%s-%s-%s", frameworkStatusETag, maxAggTaskRoleStatusVersion,
+              aggFrameworkStatus.getAggregatedTaskRoleStatuses().size()));
+    }
+    statusJsons = CommonExtensions.asReadOnly(newStatusJsons);
+  }
+
+  private static void putStatusJson(
+      Map<String, StatusJson> oldStatusJsons, Map<String, StatusJson> newStatusJsons,
+      String statusJsonKey, Object status, String eTag) {
+    StatusJson oldStatusJson = oldStatusJsons.get(statusJsonKey);
+    if (oldStatusJson != null && oldStatusJson.getStatus() == status && oldStatusJson.getETag().equals(eTag)) {
+      newStatusJsons.put(statusJsonKey, oldStatusJson);
+    } else {
+      newStatusJsons.put(statusJsonKey, new StatusJson(status, eTag));
+    }
+  }
+
+  private static String getStatusJsonKey(String statusJsonType, String frameworkName, String taskRoleName) {
+    return statusJsonType + "/" + frameworkName + (taskRoleName == null ? "" : "/" + taskRoleName);
+  }
+
+  private void updateFrameworkStatusIndex() {
+    Map<String, FrameworkStatus> frameworkStatuses = new HashMap<>();
+    for (Map.Entry<String, AggregatedFrameworkStatus> aggFrameworkStatusKV : aggFrameworkStatuses.entrySet()) {
+      frameworkStatuses.put(aggFrameworkStatusKV.getKey(), aggFrameworkStatusKV.getValue().getFrameworkStatus());
+    }
+    updateFrameworkStatusIndex(frameworkStatuses);
+  }
+
+  // Package-private ONLY for testing
+  void updateFrameworkStatusIndex(Map<String, FrameworkStatus> frameworkStatuses) {
+    frameworkStatusIndex = new FrameworkStatusIndex(frameworkStatuses, frameworkStatusIndex);
+  }
+
+  // Package-private ONLY for testing
+  void updateWatchedStatuses(
+      Map<String, AggregatedFrameworkStatus> aggFrameworkStatuses, Map<String, Long> frameworkStatusVersions) {
+    Map<String, WatchedFrameworkStatus> oldWatchedFrameworkStatuses = watchedFrameworkStatuses;
+    Map<String, WatchedFrameworkStatus> newWatchedFrameworkStatuses = new HashMap<>();
+    Map<String, Long> newFrameworkStatusVersions = new HashMap<>();
+    for (Map.Entry<String, AggregatedFrameworkStatus> aggFrameworkStatusKV : aggFrameworkStatuses.entrySet()) {
+      String frameworkName = aggFrameworkStatusKV.getKey();
+      FrameworkStatus frameworkStatus = aggFrameworkStatusKV.getValue().getFrameworkStatus();
+      Long frameworkStatusVersion = frameworkStatusVersions.get(frameworkName);
+
+      WatchedFrameworkStatus watchedFrameworkStatus = oldWatchedFrameworkStatuses.get(frameworkName);
+      if (watchedFrameworkStatus == null ||
+          watchedFrameworkStatus.getFrameworkStatus() != frameworkStatus ||
+          !watchedFrameworkStatus.getFrameworkStatusVersion().equals(frameworkStatusVersion)) {
+        watchedFrameworkStatus = new WatchedFrameworkStatus();
+        watchedFrameworkStatus.setFrameworkStatusVersion(frameworkStatusVersion);
+        watchedFrameworkStatus.setFrameworkStatus(frameworkStatus);
+      }
+      newWatchedFrameworkStatuses.put(frameworkName, watchedFrameworkStatus);
+      newFrameworkStatusVersions.put(frameworkName, frameworkStatusVersion);
+    }
+
+    synchronized (statusWatchLock) {
+      watchedFrameworkStatuses = CommonExtensions.asReadOnly(newWatchedFrameworkStatuses);
+      if (!newFrameworkStatusVersions.equals(watchedFrameworkStatusVersions.getFrameworkStatusVersions())) {
+        watchedFrameworkStatusVersions = newWatchedFrameworkStatusVersions(
+            watchedFrameworkStatusVersions.getWatchVersion() + 1, newFrameworkStatusVersions);
+      }
+      statusWatchLock.notifyAll();
+    }
+  }
+
+  private static WatchedFrameworkStatusVersions newWatchedFrameworkStatusVersions(
+      Long watchVersion, Map<String, Long> frameworkStatusVersions) {
+    WatchedFrameworkStatusVersions watchedFrameworkStatusVersions = new WatchedFrameworkStatusVersions();
+    watchedFrameworkStatusVersions.setWatchVersion(watchVersion);
+    watchedFrameworkStatusVersions.setFrameworkStatusVersions(CommonExtensions.asReadOnly(frameworkStatusVersions));
+    return watchedFrameworkStatusVersions;
+  }
+
   private void updateCompletedFrameworkStatuses() throws Exception {
     Map<String, FrameworkStatus> completedFrameworkStatuses = new HashMap<>();
     for (Map.Entry<String, AggregatedFrameworkStatus> aggFrameworkStatusKV : aggFrameworkStatuses.entrySet()) {
@@ -155,6 +536,10 @@ public LauncherStatus getLauncherStatus() {
     return launcherStatus;
   }
 
+  public WebServerStatus getWebServerStatus() {
+    return webServerStatus;
+  }
+
   public AggregatedFrameworkStatus getAggregatedFrameworkStatus(String frameworkName) throws NotFoundException {
     return checkExist(aggFrameworkStatuses.get(frameworkName));
   }
@@ -173,4 +558,127 @@ public TaskStatuses getTaskStatuses(String frameworkName, String taskRoleName) t
     return checkExist(checkExist(aggFrameworkStatuses.get(frameworkName))
         .getAggregatedTaskRoleStatuses().get(taskRoleName)).getTaskStatuses();
   }
-}
\ No newline at end of file
+
+  // Returned StatusJson is readonly, caller should not modify it
+  public StatusJson getAggregatedFrameworkStatusJson(String frameworkName) throws NotFoundException {
+    return checkExist(statusJsons.get(
+        getStatusJsonKey(AGGREGATED_FRAMEWORK_STATUS_JSON_TYPE, frameworkName, null)));
+  }
+
+  public StatusJson getFrameworkStatusJson(String frameworkName) throws NotFoundException {
+    return checkExist(statusJsons.get(
+        getStatusJsonKey(FRAMEWORK_STATUS_JSON_TYPE, frameworkName, null)));
+  }
+
+  public StatusJson getTaskRoleStatusJson(String frameworkName, String taskRoleName) throws NotFoundException {
+    return checkExist(statusJsons.get(
+        getStatusJsonKey(TASK_ROLE_STATUS_JSON_TYPE, frameworkName, taskRoleName)));
+  }
+
+  public StatusJson getTaskStatusesJson(String frameworkName, String taskRoleName) throws NotFoundException {
+    return checkExist(statusJsons.get(
+        getStatusJsonKey(TASK_STATUSES_JSON_TYPE, frameworkName, taskRoleName)));
+  }
+
+  // List a page of the FrameworkStatuses from the FrameworkStatusIndex, see FrameworkStatusIndex.list
+  public byte[] listFrameworkStatusesJson(
+      FrameworkState frameworkState, Set<String> frameworkNames,
+      String startAfter, int limit, Set<String> fields) throws IOException {
+    return frameworkStatusIndex.list(frameworkState, frameworkNames, startAfter, limit, fields);
+  }
+
+  // List a page of the FrameworkNames from the FrameworkStatusIndex, see FrameworkStatusIndex.listFrameworkNames
+  public RequestedFrameworkNames listFrameworkNames(
+      FrameworkState frameworkState, Set<String> frameworkNames, String startAfter, int limit) {
+    return frameworkStatusIndex.listFrameworkNames(frameworkState, frameworkNames, startAfter, limit);
+  }
+
+  // Block until the FrameworkStatusVersion is larger than the given frameworkStatusVersion or the timeoutMs elapsed,
+  // and then return the current WatchedFrameworkStatus.
+  // Null frameworkStatusVersion means return immediately.
+  public WatchedFrameworkStatus watchFrameworkStatus(
+      String frameworkName, Long frameworkStatusVersion, long timeoutMs)
+      throws NotFoundException, ThrottledRequestException, InterruptedException {
+    if (frameworkStatusVersion == null) {
+      synchronized (statusWatchLock) {
+        return checkExist(watchedFrameworkStatuses.get(frameworkName));
+      }
+    }
+
+    acquireWatch();
+    try {
+      return waitFrameworkStatus(frameworkName, frameworkStatusVersion, timeoutMs);
+    } finally {
+      activeWatchCount.decrementAndGet();
+    }
+  }
+
+  private WatchedFrameworkStatus waitFrameworkStatus(
+      String frameworkName, long frameworkStatusVersion, long timeoutMs)
+      throws NotFoundException, InterruptedException {
+    long deadlineTimestamp = System.currentTimeMillis() + timeoutMs;
+    synchronized (statusWatchLock) {
+      while (true) {
+        WatchedFrameworkStatus watchedFrameworkStatus = checkExist(watchedFrameworkStatuses.get(frameworkName));
+        long remainingMs = deadlineTimestamp - System.currentTimeMillis();
+        if (watchedFrameworkStatus.getFrameworkStatusVersion() > frameworkStatusVersion ||
+            remainingMs <= 0) {
+          return watchedFrameworkStatus;
+        }
+        statusWatchLock.wait(remainingMs);
+      }
+    }
+  }
+
+  // Block until the WatchVersion is different from the given watchVersion or the timeoutMs elapsed,
+  // and then return the current WatchedFrameworkStatusVersions.
+  // Null watchVersion means return immediately.
+  public WatchedFrameworkStatusVersions watchFrameworkStatusVersions(Long watchVersion, long timeoutMs)
+      throws ThrottledRequestException, InterruptedException {
+    if (watchVersion == null) {
+      synchronized (statusWatchLock) {
+        return watchedFrameworkStatusVersions;
+      }
+    }
+
+    acquireWatch();
+    try {
+      return waitFrameworkStatusVersions(watchVersion, timeoutMs);
+    } finally {
+      activeWatchCount.decrementAndGet();
+    }
+  }
+
+  private WatchedFrameworkStatusVersions waitFrameworkStatusVersions(long watchVersion, long timeoutMs)
+      throws InterruptedException {
+    long deadlineTimestamp = System.currentTimeMillis() + timeoutMs;
+    synchronized (statusWatchLock) {
+      while (true) {
+        long remainingMs = deadlineTimestamp - System.currentTimeMillis();
+        if (watchVersion != watchedFrameworkStatusVersions.getWatchVersion() ||
+            remainingMs <= 0) {
+          return watchedFrameworkStatusVersions;
+        }
+        statusWatchLock.wait(remainingMs);
+      }
+    }
+  }
+
+  // Reserve an active watch, or reject the watch if there are already webServerMaxActiveWatchCount watchers,
+  // so that the rejected clients back off by the Retry-After instead of polling the current status frequently.
+  // The reserved active watch should be released by decrementing activeWatchCount.
+  private void acquireWatch() throws ThrottledRequestException {
+    if (activeWatchCount.incrementAndGet() > conf.getWebServerMaxActiveWatchCount()) {
+      activeWatchCount.decrementAndGet();
+      throw new ThrottledRequestException(String.format(
+          "Too many active watches, MaxActiveWatchCount: %s. Retry after %ss.",
+          conf.getWebServerMaxActiveWatchCount(), WebCommon.WATCH_RETRY_AFTER_SEC),
+          WebCommon.WATCH_RETRY_AFTER_SEC);
+    }
+  }
+
+  // ONLY for testing
+  int getActiveWatchCount() {
+    return activeWatchCount.get();
+  }
+}
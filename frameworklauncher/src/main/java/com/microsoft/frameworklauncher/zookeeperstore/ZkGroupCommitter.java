@@ -0,0 +1,167 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.zookeeperstore;
+
+import com.microsoft.frameworklauncher.utils.DefaultLogger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+// Group commit the ZkWriteBatches added by concurrent writers:
+//  1. The batches are added into the pending group in the added order, and the added order should be
+//  the same as the order the writers apply their changes in memory, such as under the same lock.
+//  2. The writers wait for their batches to be committed outside the lock. One of them commits all the
+//  pending groups in order, and each group by one ZookeeperStore.commitBatch, while the others wait.
+//  So the batches added during a commit are committed together by the next one.
+//  3. Each batch is still committed atomically, but a group may be committed in multiple transactions
+//  between its batches if they cannot fit in one transaction together. So if one of the transactions fails,
+//  only the batches which are not committed by the previous transactions of the group fail.
+// A deleteRecursively cannot be grouped after a write under its subtree, since the subtree is listed
+// before the commit, so the group is sealed before such a batch and a new group is started.
+public class ZkGroupCommitter { // THREAD SAFE
+  private static final DefaultLogger LOGGER = new DefaultLogger(ZkGroupCommitter.class);
+
+  private static class Group {
+    private final ZkWriteBatch batch = new ZkWriteBatch();
+    private final Set<String> writtenPaths = new HashSet<>();
+    // The commitFuture and the transaction unit count of each added batch, in the added order
+    private final List<CompletableFuture<Void>> commitFutures = new ArrayList<>();
+    private final List<Integer> unitCounts = new ArrayList<>();
+    // The transaction units committed in order, see ZooKeeperClient.commitBatch
+    private int committedUnitCount = 0;
+  }
+
+  private final ZookeeperStore zkStore;
+
+  // Groups which are not committed yet, in the added order
+  private final LinkedList<Group> pendingGroups = new LinkedList<>();
+  // Only one thread commits at a time, so that the groups are committed in order
+  private final Object commitLock = new Object();
+
+  public ZkGroupCommitter(ZookeeperStore zkStore) {
+    this.zkStore = zkStore;
+  }
+
+  // Add the batch to be committed, and return the Future which is done once it is committed.
+  public synchronized Future<Void> add(ZkWriteBatch batch) {
+    if (batch.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    Group group = pendingGroups.peekLast();
+    if (group == null || conflictsWith(group, batch)) {
+      group = new Group();
+      pendingGroups.addLast(group);
+    }
+
+    // The units of the group are the units of its batches in order, since each batch starts a new unit
+    CompletableFuture<Void> commitFuture = new CompletableFuture<>();
+    group.batch.addTransactionBoundary().addAll(batch);
+    group.commitFutures.add(commitFuture);
+    group.unitCounts.add(batch.getTransactionUnits().size());
+    for (ZkWriteBatch.WriteOp op : batch.getOps()) {
+      if (op.getType() != ZkWriteBatch.OpType.DELETE_RECURSIVELY) {
+        group.writtenPaths.add(op.getPath());
+      }
+    }
+    return commitFuture;
+  }
+
+  private static Boolean conflictsWith(Group group, ZkWriteBatch batch) {
+    for (ZkWriteBatch.WriteOp op : batch.getOps()) {
+      if (op.getType() == ZkWriteBatch.OpType.DELETE_RECURSIVELY) {
+        String deletePath = op.getPath();
+        for (String writtenPath : group.writtenPaths) {
+          if (writtenPath.equals(deletePath) || writtenPath.startsWith(deletePath + "/")) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  private synchronized List<Group> pollPendingGroups() {
+    List<Group> groups = new ArrayList<>(pendingGroups);
+    pendingGroups.clear();
+    return groups;
+  }
+
+  // Complete the batches whose units are all committed, and fail the others by the Exception if any.
+  private static void completeCommitFutures(Group group, Exception e) {
+    int unitCount = 0;
+    for (int i = 0; i < group.commitFutures.size(); i++) {
+      unitCount += group.unitCounts.get(i);
+      if (e == null || unitCount <= group.committedUnitCount) {
+        group.commitFutures.get(i).complete(null);
+      } else {
+        group.commitFutures.get(i).completeExceptionally(e);
+      }
+    }
+  }
+
+  private static int getCommittedBatchCount(Group group) {
+    int committedBatchCount = 0;
+    for (CompletableFuture<Void> commitFuture : group.commitFutures) {
+      if (!commitFuture.isCompletedExceptionally()) {
+        committedBatchCount++;
+      }
+    }
+    return committedBatchCount;
+  }
+
+  // Wait until the batch of the Future is committed, and commit the pending groups if no one else is committing.
+  // Throw the Exception occurred when committing the batch.
+  public void await(Future<Void> commitFuture) throws Exception {
+    while (!commitFuture.isDone()) {
+      synchronized (commitLock) {
+        if (commitFuture.isDone()) {
+          break;
+        }
+
+        for (Group group : pollPendingGroups()) {
+          long startTimestamp = System.currentTimeMillis();
+          try {
+            zkStore.commitBatch(group.batch, unitCount -> group.committedUnitCount += unitCount);
+            completeCommitFutures(group, null);
+          } catch (Exception e) {
+            completeCommitFutures(group, e);
+          }
+          LOGGER.logDebug("Committed %s of %s batches in %sms",
+              getCommittedBatchCount(group), group.commitFutures.size(),
+              System.currentTimeMillis() - startTimestamp);
+        }
+      }
+    }
+
+    try {
+      commitFuture.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
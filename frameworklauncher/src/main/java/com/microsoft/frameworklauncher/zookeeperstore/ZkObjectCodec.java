@@ -0,0 +1,200 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.zookeeperstore;
+
+import com.microsoft.frameworklauncher.common.model.ZkObjectFormat;
+import com.microsoft.frameworklauncher.utils.BinaryUtils;
+import com.microsoft.frameworklauncher.utils.YamlUtils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Encode/Decode the yaml objects stored in ZK nodes.
+// The bytes of a non-YAML format is prefixed with a header byte to identify its format, and the bytes
+// without a known header byte is treated as YAML, which is written without header for the compatibility
+// with the legacy Launcher. So, a rolling migration to a new format can be done by:
+//  1. Upgrade all Launcher components, with ZkObjectFormat still configured as YAML.
+//  2. Configure the new ZkObjectFormat, then the existing nodes will be migrated once they are rewritten.
+public class ZkObjectCodec {
+  // The header bytes should never be the first byte of a YAML document,
+  // which is always a printable character or whitespace.
+  private static final byte BINARY_HEADER = 0x01;
+  private static final byte COMPRESSED_BINARY_HEADER = 0x02;
+
+  public static <T> byte[] toBytes(T yamlObject, ZkObjectFormat format) {
+    switch (format) {
+      case BINARY:
+        return withHeader(BINARY_HEADER, BinaryUtils.toBytes(yamlObject));
+      case COMPRESSED_BINARY:
+        return withHeader(COMPRESSED_BINARY_HEADER, BinaryUtils.compress(BinaryUtils.toBytes(yamlObject)));
+      default:
+        return YamlUtils.toBytes(yamlObject);
+    }
+  }
+
+  public static <T> T toObject(byte[] bytes, Class<T> classRef) {
+    switch (getFormat(bytes)) {
+      case BINARY:
+        return BinaryUtils.toObject(withoutHeader(bytes), classRef);
+      case COMPRESSED_BINARY:
+        return BinaryUtils.toObject(BinaryUtils.decompress(withoutHeader(bytes)), classRef);
+      default:
+        return YamlUtils.toObject(bytes, classRef);
+    }
+  }
+
+  // Encode the yaml object directly into the parts each of which has at most maxPartBytes,
+  // so that the large encoded bytes are never copied as a whole to be split.
+  // The empty encoded bytes has no part.
+  public static <T> List<byte[]> toParts(T yamlObject, ZkObjectFormat format, int maxPartBytes) {
+    PartsOutputStream outputStream = new PartsOutputStream(maxPartBytes);
+    try {
+      switch (format) {
+        case BINARY:
+          outputStream.write(BINARY_HEADER);
+          BinaryUtils.toStream(yamlObject, outputStream);
+          break;
+        case COMPRESSED_BINARY:
+          outputStream.write(COMPRESSED_BINARY_HEADER);
+          // Close it to finish and release its native Deflater, which is not reclaimed until finalization.
+          try (DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outputStream)) {
+            BinaryUtils.toStream(yamlObject, deflaterStream);
+          }
+          break;
+        default:
+          YamlUtils.toStream(yamlObject, outputStream);
+          break;
+      }
+    } catch (IOException e) {
+      // PartsOutputStream never throws IOException
+      throw new IllegalStateException(e);
+    }
+    return outputStream.getParts();
+  }
+
+  // Decode the yaml object from the parts in order, by streaming them into the decoder
+  // without concatenating them.
+  public static <T> T toObject(List<byte[]> parts, Class<T> classRef) {
+    List<InputStream> partStreams = new ArrayList<>();
+    for (byte[] part : parts) {
+      partStreams.add(new ByteArrayInputStream(part));
+    }
+    InputStream inputStream = new SequenceInputStream(Collections.enumeration(partStreams));
+
+    try {
+      ZkObjectFormat format = getFormat(parts.isEmpty() ? null : parts.get(0));
+      switch (format) {
+        case BINARY:
+          inputStream.read();
+          return BinaryUtils.toObject(inputStream, classRef);
+        case COMPRESSED_BINARY:
+          inputStream.read();
+          // Close it to release its native Inflater, like the Deflater in toParts.
+          try (InflaterInputStream inflaterStream = new InflaterInputStream(inputStream)) {
+            return BinaryUtils.toObject(inflaterStream, classRef);
+          }
+        default:
+          return YamlUtils.toObject(inputStream, classRef);
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to decode corrupted parts", e);
+    }
+  }
+
+  public static ZkObjectFormat getFormat(byte[] bytes) {
+    if (bytes != null && bytes.length > 0) {
+      if (bytes[0] == BINARY_HEADER) {
+        return ZkObjectFormat.BINARY;
+      } else if (bytes[0] == COMPRESSED_BINARY_HEADER) {
+        return ZkObjectFormat.COMPRESSED_BINARY;
+      }
+    }
+    return ZkObjectFormat.YAML;
+  }
+
+  private static byte[] withHeader(byte header, byte[] bytes) {
+    byte[] headerBytes = new byte[bytes.length + 1];
+    headerBytes[0] = header;
+    System.arraycopy(bytes, 0, headerBytes, 1, bytes.length);
+    return headerBytes;
+  }
+
+  private static byte[] withoutHeader(byte[] bytes) {
+    return Arrays.copyOfRange(bytes, 1, bytes.length);
+  }
+
+  // Write into the parts directly, and a new part is started once the current part reaches maxPartBytes.
+  private static class PartsOutputStream extends OutputStream {
+    private static final int INITIAL_PART_BYTES = 4096;
+    private final int maxPartBytes;
+    private final List<byte[]> parts = new ArrayList<>();
+    private byte[] part;
+    private int partSize = 0;
+
+    public PartsOutputStream(int maxPartBytes) {
+      this.maxPartBytes = maxPartBytes;
+      this.part = new byte[Math.min(INITIAL_PART_BYTES, maxPartBytes)];
+    }
+
+    @Override
+    public void write(int b) {
+      ensurePartCapacity();
+      part[partSize++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+      while (length > 0) {
+        ensurePartCapacity();
+        int copyLength = Math.min(length, part.length - partSize);
+        System.arraycopy(bytes, offset, part, partSize, copyLength);
+        partSize += copyLength;
+        offset += copyLength;
+        length -= copyLength;
+      }
+    }
+
+    // Only the first part is grown, since a small object should not allocate a full part
+    private void ensurePartCapacity() {
+      if (partSize < part.length) {
+        return;
+      }
+
+      if (part.length < maxPartBytes) {
+        part = Arrays.copyOf(part, (int) Math.min((long) part.length * 2, maxPartBytes));
+      } else {
+        parts.add(part);
+        part = new byte[maxPartBytes];
+        partSize = 0;
+      }
+    }
+
+    public List<byte[]> getParts() {
+      List<byte[]> result = new ArrayList<>(parts);
+      if (partSize > 0) {
+        result.add(partSize == part.length ? part : Arrays.copyOf(part, partSize));
+      }
+      return result;
+    }
+  }
+}
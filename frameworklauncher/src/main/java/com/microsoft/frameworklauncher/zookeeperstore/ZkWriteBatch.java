@@ -0,0 +1,156 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.zookeeperstore;
+
+import com.microsoft.frameworklauncher.common.model.ZkObjectFormat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+// A batch of write operations, which is committed by ZooKeeperClient.commitBatch in the added order.
+// Each operation has the same semantics as its non batch version in ZooKeeperClient.
+// The whole batch is committed atomically in one transaction, unless transaction boundaries are added into it,
+// see addTransactionBoundary.
+// NOT THREAD SAFE
+public class ZkWriteBatch {
+  enum OpType {
+    SET_SMALL_YAML_OBJECT,
+    // Set as small yaml object if its size fits, otherwise as large yaml object, see ZooKeeperClient.setYamlObject
+    SET_YAML_OBJECT,
+    // Always set as large yaml object, whose payload is staged before the transaction and made ready in it,
+    // see ZooKeeperClient.setLargeYamlObject
+    SET_LARGE_YAML_OBJECT,
+    SET_DATA,
+    CREATE_PATH,
+    DELETE_RECURSIVELY
+  }
+
+  static class WriteOp {
+    private final OpType type;
+    private final String path;
+    private final Object yamlObject;
+    private final ZkObjectFormat format;
+    private final byte[] data;
+
+    private WriteOp(OpType type, String path, Object yamlObject, ZkObjectFormat format, byte[] data) {
+      this.type = type;
+      this.path = path;
+      this.yamlObject = yamlObject;
+      this.format = format;
+      this.data = data;
+    }
+
+    public OpType getType() {
+      return type;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public Object getYamlObject() {
+      return yamlObject;
+    }
+
+    public ZkObjectFormat getFormat() {
+      return format;
+    }
+
+    public byte[] getData() {
+      return data;
+    }
+  }
+
+  private final List<WriteOp> ops = new ArrayList<>();
+  // The indexes of the ops before which a transaction boundary is added
+  private final TreeSet<Integer> boundaryIndexes = new TreeSet<>();
+
+  public <T> ZkWriteBatch setSmallYamlObject(String path, T yamlObject, ZkObjectFormat format) {
+    ops.add(new WriteOp(OpType.SET_SMALL_YAML_OBJECT, path, yamlObject, format, null));
+    return this;
+  }
+
+  public <T> ZkWriteBatch setYamlObject(String path, T yamlObject, ZkObjectFormat format) {
+    ops.add(new WriteOp(OpType.SET_YAML_OBJECT, path, yamlObject, format, null));
+    return this;
+  }
+
+  public <T> ZkWriteBatch setLargeYamlObject(String path, T yamlObject, ZkObjectFormat format) {
+    ops.add(new WriteOp(OpType.SET_LARGE_YAML_OBJECT, path, yamlObject, format, null));
+    return this;
+  }
+
+  public ZkWriteBatch createPath(String path) {
+    ops.add(new WriteOp(OpType.CREATE_PATH, path, null, null, null));
+    return this;
+  }
+
+  public ZkWriteBatch deleteRecursively(String path) {
+    ops.add(new WriteOp(OpType.DELETE_RECURSIVELY, path, null, null, null));
+    return this;
+  }
+
+  // The operations added before and after the boundary may be committed in different transactions, but still
+  // in the added order. So it should only be added where the partially committed batch can be got consistently.
+  public ZkWriteBatch addTransactionBoundary() {
+    if (!ops.isEmpty()) {
+      boundaryIndexes.add(ops.size());
+    }
+    return this;
+  }
+
+  public ZkWriteBatch addAll(ZkWriteBatch batch) {
+    for (Integer boundaryIndex : batch.boundaryIndexes) {
+      boundaryIndexes.add(ops.size() + boundaryIndex);
+    }
+    ops.addAll(batch.ops);
+    return this;
+  }
+
+  public Boolean isEmpty() {
+    return ops.isEmpty();
+  }
+
+  // Set the raw data, which is only used by ZooKeeperClient internally
+  ZkWriteBatch setData(String path, byte[] data) {
+    ops.add(new WriteOp(OpType.SET_DATA, path, null, null, data));
+    return this;
+  }
+
+  List<WriteOp> getOps() {
+    return Collections.unmodifiableList(ops);
+  }
+
+  // The ops between each two adjacent transaction boundaries, which should be committed atomically
+  List<List<WriteOp>> getTransactionUnits() {
+    List<List<WriteOp>> units = new ArrayList<>();
+    int startIndex = 0;
+    for (Integer boundaryIndex : boundaryIndexes) {
+      if (boundaryIndex > startIndex) {
+        units.add(Collections.unmodifiableList(ops.subList(startIndex, boundaryIndex)));
+        startIndex = boundaryIndex;
+      }
+    }
+    if (startIndex < ops.size()) {
+      units.add(Collections.unmodifiableList(ops.subList(startIndex, ops.size())));
+    }
+    return units;
+  }
+}
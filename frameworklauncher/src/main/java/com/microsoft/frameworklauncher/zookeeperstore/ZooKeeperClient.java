@@ -19,17 +19,26 @@
 
 import com.microsoft.frameworklauncher.common.exceptions.NonTransientException;
 import com.microsoft.frameworklauncher.common.exceptions.TransientException;
-import com.microsoft.frameworklauncher.utils.CommonUtils;
+import com.microsoft.frameworklauncher.common.model.ZkObjectFormat;
 import com.microsoft.frameworklauncher.utils.DefaultLogger;
-import com.microsoft.frameworklauncher.utils.YamlUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.zookeeper.*;
+import org.apache.zookeeper.AsyncCallback.ChildrenCallback;
+import org.apache.zookeeper.AsyncCallback.DataCallback;
+import org.apache.zookeeper.AsyncCallback.StatCallback;
 import org.apache.zookeeper.ZooDefs.Ids;
+import org.apache.zookeeper.data.Stat;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 // TODO: This is an incomplete porting, replace it with Apache Curator
 public class ZooKeeperClient implements Watcher {
@@ -39,26 +48,86 @@ public class ZooKeeperClient implements Watcher {
   // Len error 1048695 (org.apache.zookeeper.server.NIOServerCnxn)
   private static final int ZK_MAX_NODE_BYTES = 768 * 1024;
   private static final String READY_PAYLOAD_VERSIONS_NODE_NAME = "ReadyPayloadVersions";
+  // The whole multi() request is limited by jute.maxbuffer of the ZK server, so leave room for the request header.
+  // It is not read from jute.maxbuffer of this client, which may be different from the ZK server's.
+  // Note the PayloadParts of the large yaml objects are not written in the transaction, so they are not limited by it.
+  private static final int ZK_MAX_TRANSACTION_BYTES = 1024 * 1024 - 128 * 1024;
+  private static final int ZK_TRANSACTION_OP_OVERHEAD_BYTES = 64;
+  // Max number of pipelined asynchronous requests which are sent but not responded,
+  // to bound the memory usage of both the client and the server.
+  private static final int MAX_IN_FLIGHT_ASYNC_REQUEST_COUNT = 1000;
+  private static final int ZK_SESSION_TIMEOUT_MS = 10000;
   private final CountDownLatch connectedSignal = new CountDownLatch(1);
-  private final ZooKeeper zk;
+  private final String zkServers;
+  private volatile ZooKeeper zk;
+  // Whether the connection is lost after connected, then the watches should be resynced once it is reconnected
+  private volatile boolean connectionLost = false;
+  private final List<SubtreeWatcher> subtreeWatchers = new CopyOnWriteArrayList<>();
+  // The watches of SubtreeWatchers are registered and notified in this single thread instead of the ZK EventThread,
+  // since they are registered by the batch reads, which wait for their callbacks in the ZK EventThread.
+  // And it will not block the other watches and callbacks during a long resync.
+  private final ExecutorService subtreeWatchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "ZooKeeperClient-SubtreeWatcher");
+    thread.setDaemon(true);
+    return thread;
+  });
 
   public ZooKeeperClient(String zkServers) throws IOException, InterruptedException {
-    zk = new ZooKeeper(zkServers, 10000, this);
+    this.zkServers = zkServers;
+    zk = new ZooKeeper(zkServers, ZK_SESSION_TIMEOUT_MS, this);
     connectedSignal.await();
   }
 
   // ONLY for testing
   protected ZooKeeperClient() {
+    zkServers = null;
     zk = null;
   }
 
+  // Called in ZK EventThread
   @Override
   public void process(WatchedEvent event) {
-    if (event.getState() == Event.KeeperState.SyncConnected) {
-      connectedSignal.countDown();
+    if (event.getType() != Event.EventType.None) {
+      return;
+    }
+
+    switch (event.getState()) {
+      case SyncConnected:
+        connectedSignal.countDown();
+        if (connectionLost) {
+          connectionLost = false;
+          LOGGER.logInfo("ZK session is reconnected, resync all the watches");
+          for (SubtreeWatcher subtreeWatcher : subtreeWatchers) {
+            subtreeWatchExecutor.submit(subtreeWatcher::resync);
+          }
+        }
+        break;
+      case Disconnected:
+        connectionLost = true;
+        break;
+      case Expired:
+        // All the watches are lost with the session, and the ZooKeeper handle cannot be used any more
+        connectionLost = true;
+        LOGGER.logWarning("ZK session is expired, renew it");
+        try {
+          renewSession();
+        } catch (Exception e) {
+          LOGGER.logError(e, "Failed to renew ZK session");
+        }
+        break;
+      default:
+        break;
     }
   }
 
+  // The new session will be notified by SyncConnected once it is connected.
+  // No ephemeral node is used, so nothing needs to be recreated for the new session.
+  protected void renewSession() throws Exception {
+    ZooKeeper expiredZk = zk;
+    zk = new ZooKeeper(zkServers, ZK_SESSION_TIMEOUT_MS, this);
+    expiredZk.close();
+  }
+
   private String create(String path, byte[] data, CreateMode mode) throws Exception {
     return zk.create(path, data, Ids.OPEN_ACL_UNSAFE, mode);
   }
@@ -71,6 +140,11 @@ public List<String> getChildren(String path) throws Exception {
     return zk.getChildren(path, false);
   }
 
+  // Return null if the node of the given path does not exist
+  public Stat getStat(String path) throws Exception {
+    return zk.exists(path, false);
+  }
+
   private byte[] getData(String path) throws Exception {
     return zk.getData(path, true, null);
   }
@@ -140,121 +214,346 @@ public void deleteRecursively(String path, Boolean childrenOnly) throws Exceptio
     }
   }
 
+  // Watch all nodes under the given rootPath whose depth <= maxDepth (the depth of rootPath is 0),
+  // and notify changedPathListener with the changed node path once any node is created, deleted or
+  // its data changed.
+  // If the children of a node whose depth < maxDepth changed, only the created children paths are notified,
+  // since the deleted children will be notified by themselves. Otherwise, the node path itself is notified.
+  // Once the ZK session is reconnected or renewed after the connection is lost, all the watches are registered
+  // again, and changedPathListener is notified with null path, since any change in between may be missed.
+  // Note changedPathListener is called in the single thread shared by all SubtreeWatchers, so it should return ASAP.
+  // It returns after the watches are registered, so it should not be called in ZK EventThread.
+  public void watchSubtree(String rootPath, int maxDepth, Consumer<String> changedPathListener) throws Exception {
+    SubtreeWatcher subtreeWatcher = new SubtreeWatcher(rootPath, maxDepth, changedPathListener);
+    subtreeWatchers.add(subtreeWatcher);
+    subtreeWatchExecutor.submit(() -> subtreeWatcher.watchNode(subtreeWatcher.rootPath)).get();
+  }
+
+  // ONLY for testing: Wait until all the watches queued before are registered and notified
+  void waitSubtreeWatches() throws Exception {
+    subtreeWatchExecutor.submit(() -> {
+    }).get();
+  }
+
+  // The watch versions of getStatBatch and getChildrenBatch, which are only used by SubtreeWatcher.
+  // They are protected ONLY for testing.
+  protected Map<String, Stat> getStatBatch(Collection<String> paths, Watcher watcher) throws Exception {
+    return new AsyncReadBatch<Stat>().execute(paths, (path, batch) ->
+        zk.exists(path, watcher, (StatCallback) (rc, p, ctx, stat) ->
+            batch.complete(rc, p, stat), null));
+  }
+
+  protected Map<String, List<String>> getChildrenBatch(Collection<String> paths, Watcher watcher) throws Exception {
+    return new AsyncReadBatch<List<String>>().execute(paths, (path, batch) ->
+        zk.getChildren(path, watcher, (ChildrenCallback) (rc, p, ctx, children) ->
+            batch.complete(rc, p, children), null));
+  }
+
+  // ZK only supports one-time triggered watch, so the persistent watch is emulated by
+  // re-registering the watch on the node each time after its watch is triggered.
+  private class SubtreeWatcher implements Watcher {
+    private final String rootPath;
+    private final int maxDepth;
+    private final Consumer<String> changedPathListener;
+    // Paths whose data and children watches have been registered
+    private final Set<String> watchedPaths = ConcurrentHashMap.newKeySet();
+
+    public SubtreeWatcher(String rootPath, int maxDepth, Consumer<String> changedPathListener) {
+      this.rootPath = StringUtils.stripEnd(rootPath, "/");
+      this.maxDepth = maxDepth;
+      this.changedPathListener = changedPathListener;
+    }
+
+    private int getDepth(String path) {
+      return StringUtils.countMatches(path.substring(rootPath.length()), "/");
+    }
+
+    // Register watches on the given node and all its unwatched descendants level by level, and the watches
+    // of each level are registered by pipelined asynchronous requests, so that the latency is not N * RTT.
+    // Return the newly watched children paths.
+    private List<String> watchNode(String path) {
+      List<String> newChildPaths = new ArrayList<>();
+      List<String> levelPaths = Collections.singletonList(path);
+      while (!levelPaths.isEmpty()) {
+        Map<String, Stat> stats;
+        Map<String, List<String>> levelChildren;
+        try {
+          // The data watch will also be triggered when the node is created or deleted
+          stats = getStatBatch(levelPaths, this);
+          levelChildren = getChildrenBatch(stats.keySet(), this);
+        } catch (Exception e) {
+          LOGGER.logWarning(e,
+              "Failed to watch nodes under %s, the changes under them will be delayed until next resync", path);
+          break;
+        }
+
+        List<String> nextLevelPaths = new ArrayList<>();
+        for (String levelPath : levelPaths) {
+          List<String> children = levelChildren.get(levelPath);
+          if (children == null) {
+            // The node does not exist or is deleted concurrently, and it will be notified by its NodeCreated or
+            // NodeDeleted event
+            watchedPaths.remove(levelPath);
+            continue;
+          }
+
+          watchedPaths.add(levelPath);
+          if (getDepth(levelPath) < maxDepth) {
+            for (String child : children) {
+              String childPath = ZookeeperStoreStructure.getNodePath(levelPath, child);
+              if (!watchedPaths.contains(childPath)) {
+                nextLevelPaths.add(childPath);
+                if (levelPath.equals(path)) {
+                  newChildPaths.add(childPath);
+                }
+              }
+            }
+          }
+        }
+        levelPaths = nextLevelPaths;
+      }
+      return newChildPaths;
+    }
+
+    private void watchData(String path) {
+      try {
+        getStatBatch(Collections.singletonList(path), this);
+      } catch (Exception e) {
+        LOGGER.logWarning(e,
+            "Failed to watch data of node %s, the changes of it will be delayed until next resync", path);
+      }
+    }
+
+    // Register all the watches again, since they may be lost with the expired session, or failed to
+    // register when the connection is lost.
+    public void resync() {
+      watchedPaths.clear();
+      watchNode(rootPath);
+      notifyChanged(null);
+    }
+
+    private void notifyChanged(String path) {
+      try {
+        changedPathListener.accept(path);
+      } catch (Exception e) {
+        LOGGER.logWarning(e, "Failed to notify the change of node %s", path);
+      }
+    }
+
+    // Called in ZK EventThread
+    @Override
+    public void process(WatchedEvent event) {
+      String path = event.getPath();
+      if (event.getType() == Event.EventType.None || path == null) {
+        // The connection state changes are handled by ZooKeeperClient.process for all SubtreeWatchers
+        return;
+      }
+
+      subtreeWatchExecutor.submit(() -> processNodeEvent(event.getType(), path));
+    }
+
+    private void processNodeEvent(Event.EventType type, String path) {
+      switch (type) {
+        case NodeDeleted:
+          watchedPaths.remove(path);
+          notifyChanged(path);
+          break;
+        case NodeChildrenChanged:
+          List<String> newChildPaths = watchNode(path);
+          if (getDepth(path) < maxDepth) {
+            for (String newChildPath : newChildPaths) {
+              notifyChanged(newChildPath);
+            }
+          } else {
+            notifyChanged(path);
+          }
+          break;
+        case NodeDataChanged:
+          watchData(path);
+          notifyChanged(path);
+          break;
+        default:
+          // NodeCreated
+          watchNode(path);
+          notifyChanged(path);
+          break;
+      }
+    }
+  }
+
   // Set/Get small size (<= ZK_MAX_NODE_BYTES) yaml object to the node of the given path, no matter the given path exist or not.
+  // The yaml object is set in the given ZkObjectFormat, and can be got no matter which ZkObjectFormat it was set in.
   // DISTRIBUTED THREAD SAFE
   public <T> void setSmallYamlObject(String path, T yamlObject) throws Exception {
-    createNode(path, YamlUtils.toBytes(yamlObject));
+    setSmallYamlObject(path, yamlObject, ZkObjectFormat.YAML);
+  }
+
+  public <T> void setSmallYamlObject(String path, T yamlObject, ZkObjectFormat format) throws Exception {
+    createNode(path, ZkObjectCodec.toBytes(yamlObject, format));
   }
 
   // DISTRIBUTED THREAD SAFE
   public <T> T getSmallYamlObject(String path, Class<T> classRef) throws Exception {
-    return YamlUtils.toObject(getData(path), classRef);
+    return ZkObjectCodec.toObject(getData(path), classRef);
   }
 
   // Set/Get large size (> ZK_MAX_NODE_BYTES) yaml object to the node of the given path, no matter the given path exist or not.
   // Note the node of the given path can only be leaf node.
   // DISTRIBUTED THREAD SAFE and Atomic like getSmallYamlObject
   public <T> void setLargeYamlObject(String path, T yamlObject) throws Exception {
-    byte[] payload = YamlUtils.toBytes(yamlObject);
+    setLargeYamlObject(path, yamlObject, ZkObjectFormat.YAML);
+  }
+
+  public <T> void setLargeYamlObject(String path, T yamlObject, ZkObjectFormat format) throws Exception {
+    commitBatch(new ZkWriteBatch().setLargeYamlObject(path, yamlObject, format));
+  }
 
-    // Prepare internal ZookeeperStoreStructure for LargeYamlObject
-    if (!exists(path)) {
-      createPath(path);
+  // Set/Get yaml object whose size is unknown in advance to the node of the given path, no matter the given path exist or not.
+  // It is set as small yaml object if its size fits, otherwise as large yaml object whose node data is empty.
+  // Note the node of the given path can only be leaf node.
+  // DISTRIBUTED THREAD SAFE and Atomic like getSmallYamlObject
+  public <T> void setYamlObject(String path, T yamlObject, ZkObjectFormat format) throws Exception {
+    commitBatch(new ZkWriteBatch().setYamlObject(path, yamlObject, format));
+  }
+
+  // DISTRIBUTED THREAD SAFE
+  public <T> T getYamlObject(String path, Class<T> classRef) throws Exception {
+    byte[] bytes = getData(path);
+    if (bytes != null && bytes.length > 0) {
+      return ZkObjectCodec.toObject(bytes, classRef);
+    } else {
+      return getLargeYamlObject(path, classRef);
     }
+  }
 
-    // ReadyPayloadVersionsRootPath is used to store ReadyPayloadVersions whose Payload has been Set, i.e. Path/ReadyPayloadVersions
-    // At any time, we can guarantee that:
-    //  The Payload of the latest ReadyPayloadVersion is complete.
-    // Note:
-    //  The Payload of not the latest ReadyPayloadVersion may be incomplete.
-    //  Such as in case that new Payload GC old Payload before the old PayloadVersion add under ReadyPayloadVersionsRootPath.
-    String readyPayloadVersionsRootPath = ZookeeperStoreStructure.getNodePath(path, READY_PAYLOAD_VERSIONS_NODE_NAME);
-    if (!exists(readyPayloadVersionsRootPath)) {
-      createPath(readyPayloadVersionsRootPath);
+  // Set the PayloadParts of the large payload under a new PayloadVersion before the transaction, each in its
+  // own request, so that the Payload of any size can be set, and the transaction only needs to make the
+  // PayloadVersion ready, see addLargePayloadWrites.
+  // The Payload is already split into PayloadParts by ZK_MAX_NODE_BYTES when it is encoded.
+  private void stageLargePayload(EncodedOp op) throws Exception {
+    if (op.payloadVersion != null) {
+      return;
     }
 
-    // Generate new PayloadVersion for this Payload
-    String payloadVersion = createSequentialPath(path);
+    // The node data is not changed, so that it can still be got as before until the transaction is committed
+    String path = op.op.getPath();
+    try {
+      create(path, new byte[0], CreateMode.PERSISTENT);
+    } catch (KeeperException.NodeExistsException ignored) {
+    }
 
-    // PayloadRootPath is already cleaned and created in createSequentialPath, i.e. Path/{PayloadVersion}
+    // Generate new PayloadVersion for this Payload, which is newer than all the existing PayloadVersions,
+    // including the ones set by the legacy Launcher.
+    // PayloadRootPath is created in createSequentialPath, i.e. Path/{PayloadVersion}
+    String payloadVersion = createSequentialPath(path);
     String payloadRootPath = ZookeeperStoreStructure.getNodePath(path, payloadVersion);
+    op.payloadVersion = payloadVersion;
 
-    // Split and Set Payload
+    // Set each PayloadParts into corresponding PayloadPartPath, i.e. Path/{PayloadVersion}/{PayLoadPartIndex}
     try {
-      for (int partStartOffset = 0; partStartOffset < payload.length; partStartOffset += ZK_MAX_NODE_BYTES) {
-        // Split Payload by ZK_MAX_NODE_BYTES to PayloadParts
-        // PayloadPart: {partIndex : [partStartOffset, partEndOffset)}
-        int partEndOffset = Math.min(payload.length, partStartOffset + ZK_MAX_NODE_BYTES);
-        int partBytes = partEndOffset - partStartOffset;
-        byte[] payloadPart = CommonUtils.subArray(payload, partStartOffset, partBytes);
-
-        // Set each PayloadParts into corresponding PayloadPartPath, i.e. Path/{PayloadVersion}/{PayLoadPartIndex}
-        Integer partIndex = partStartOffset / ZK_MAX_NODE_BYTES;
-        String partIndexStr = partIndex.toString();
-        String partIndexPath = ZookeeperStoreStructure.getNodePath(payloadRootPath, partIndexStr);
-        createNode(partIndexPath, payloadPart);
+      for (Integer partIndex = 0; partIndex < op.parts.size(); partIndex++) {
+        String partIndexPath = ZookeeperStoreStructure.getNodePath(payloadRootPath, partIndex.toString());
+        create(partIndexPath, op.parts.get(partIndex), CreateMode.PERSISTENT);
       }
     } catch (KeeperException.NoNodeException e) {
+      // It will be skipped by the transaction, since the PayloadRootPath no longer exists
       LOGGER.logWarning(e,
           "Failed to Set PayloadParts under Path %s due to NoNode ZkException. " +
               "There should be a newer version Payload, so give up here",
           payloadRootPath);
-      return;
     }
+  }
 
-    // Add PayloadVersion under ReadyPayloadVersionsRootPath, i.e. Path/ReadyPayloadVersions/{PayloadVersion}
-    addNewVersion(readyPayloadVersionsRootPath, payloadVersion);
+  // Try best to delete the staged Payload which is not ready, such as the transaction failed.
+  // Otherwise, it will be GC'd by the next Payload set into the same path.
+  private void unstageLargePayload(EncodedOp op) {
+    if (op.payloadVersion == null || op.payloadReady) {
+      return;
+    }
 
-    // First GC old PayloadVersion under ReadyPayloadVersionsRootPath, then GC old Payload under Path
-    gcOldVersions(readyPayloadVersionsRootPath, payloadVersion, null);
-    gcOldVersions(path, payloadVersion, new HashSet<>(Collections.singletonList(READY_PAYLOAD_VERSIONS_NODE_NAME)));
+    String payloadRootPath = ZookeeperStoreStructure.getNodePath(op.op.getPath(), op.payloadVersion);
+    op.payloadVersion = null;
+    try {
+      deleteRecursively(payloadRootPath);
+    } catch (Exception e) {
+      LOGGER.logDebug(e, "Failed to Delete staged Payload under Path %s", payloadRootPath);
+    }
   }
 
-  private void addNewVersion(String versionsRootPath, String newVersion) throws Exception {
-    createPath(ZookeeperStoreStructure.getNodePath(versionsRootPath, newVersion));
-  }
+  // Add the writes to make the staged large payload ready into the writes of a transaction, so that the
+  // PayloadVersion and the GC of the old PayloadVersions are committed atomically with the other writes.
+  // The payloadVersion should be newer than all the PayloadVersions in gcPaths.
+  private static void addLargePayloadWrites(
+      List<NodeWrite> writes, String path, String payloadVersion,
+      List<String> gcPaths, Map<String, List<String>> subtreeChildren) {
+    // ReadyPayloadVersionsRootPath is used to store ReadyPayloadVersions whose Payload has been Set, i.e. Path/ReadyPayloadVersions
+    // At any time, we can guarantee that:
+    //  The Payload of the latest ReadyPayloadVersion is complete.
+    // Since a PayloadVersion is only added under ReadyPayloadVersionsRootPath after all its PayloadParts are set,
+    // and in the same transaction in which its PayloadRootPath is checked to be not GC'd by a newer PayloadVersion,
+    // and the old PayloadVersions are GC'd.
+    String readyPayloadVersionsRootPath = ZookeeperStoreStructure.getNodePath(path, READY_PAYLOAD_VERSIONS_NODE_NAME);
+    String payloadRootPath = ZookeeperStoreStructure.getNodePath(path, payloadVersion);
 
-  // Try best to GC old version nodes under versionsRootPath and return the failed GC Versions
-  private void gcOldVersions(
-      String versionsRootPath,
-      String currentVersion,
-      HashSet<String> excludeNodeNames) throws Exception {
-    Long currentVersionInt = Long.parseLong(currentVersion);
-    for (String version : getChildren(versionsRootPath)) {
-      if (excludeNodeNames != null && excludeNodeNames.contains(version)) {
-        continue;
-      }
+    // The node data is empty, so that it will not be got as a small yaml object any more
+    writes.add(new NodeWrite(path, new byte[0], NodeWriteMode.SET));
+    writes.add(new NodeWrite(readyPayloadVersionsRootPath, new byte[0], NodeWriteMode.CREATE_IF_ABSENT));
+    writes.add(new NodeWrite(payloadRootPath, null, NodeWriteMode.CHECK));
 
-      String versionPath = ZookeeperStoreStructure.getNodePath(versionsRootPath, version);
+    // Add PayloadVersion under ReadyPayloadVersionsRootPath, i.e. Path/ReadyPayloadVersions/{PayloadVersion}
+    writes.add(new NodeWrite(
+        ZookeeperStoreStructure.getNodePath(readyPayloadVersionsRootPath, payloadVersion),
+        new byte[0], NodeWriteMode.CREATE));
 
-      // Judge whether should GC versionPath
-      Boolean shouldGC = false;
-      try {
-        Long versionInt = Long.parseLong(version);
-        if (versionInt < currentVersionInt) {
-          shouldGC = true;
-        }
-      } catch (Exception e) {
-        LOGGER.logDebug(e, "Failed to Parse version at VersionPath %s, it should be a garbage node to GC", versionPath);
-        shouldGC = true;
-      }
+    // GC old PayloadVersions under ReadyPayloadVersionsRootPath and old Payloads under Path
+    for (String gcPath : gcPaths) {
+      addSubtreeDeletes(writes, gcPath, subtreeChildren);
+    }
+  }
 
-      if (shouldGC) {
-        try {
-          deleteRecursively(versionPath);
-        } catch (KeeperException.NoNodeException ignored) {
-        } catch (Exception e) {
-          LOGGER.logDebug(e, "Failed to Delete old version node under VersionPath %s", versionPath);
-        }
+  // The paths of all the existing PayloadVersions, which are older than the given PayloadVersion,
+  // and garbage nodes, such as the Payloads left by the legacy Launcher without PayloadVersion.
+  // The newer PayloadVersions are kept, since they may be being staged concurrently.
+  private static List<String> getOldVersionPaths(
+      String path, String payloadVersion, Map<String, List<String>> versionsRootChildren) {
+    String readyPayloadVersionsRootPath = ZookeeperStoreStructure.getNodePath(path, READY_PAYLOAD_VERSIONS_NODE_NAME);
+    List<String> oldVersionPaths = new ArrayList<>();
+    // First GC old PayloadVersion under ReadyPayloadVersionsRootPath, then GC old Payload under Path
+    for (String version : versionsRootChildren.getOrDefault(readyPayloadVersionsRootPath, new ArrayList<>())) {
+      if (isOldVersion(version, payloadVersion)) {
+        oldVersionPaths.add(ZookeeperStoreStructure.getNodePath(readyPayloadVersionsRootPath, version));
       }
     }
+    for (String version : versionsRootChildren.getOrDefault(path, new ArrayList<>())) {
+      if (!version.equals(READY_PAYLOAD_VERSIONS_NODE_NAME) && isOldVersion(version, payloadVersion)) {
+        oldVersionPaths.add(ZookeeperStoreStructure.getNodePath(path, version));
+      }
+    }
+    return oldVersionPaths;
+  }
+
+  private static Boolean isOldVersion(String version, String currentVersion) {
+    try {
+      return Long.parseLong(version) < Long.parseLong(currentVersion);
+    } catch (Exception e) {
+      // It should be a garbage node to GC
+      return true;
+    }
   }
 
   private static String getLatestVersion(ZooKeeperClient zkClient, String versionsRootPath) {
+    try {
+      return getLatestVersion(zkClient.getChildren(versionsRootPath));
+    } catch (Exception ignored) {
+      return null;
+    }
+  }
+
+  private static String getLatestVersion(List<String> versions) {
     String latestVersion = null;
     Long latestVersionInt = 0L;
     try {
-      for (String version : zkClient.getChildren(versionsRootPath)) {
+      for (String version : versions) {
         Long versionInt = Long.parseLong(version);
         if (versionInt >= latestVersionInt) {
           latestVersionInt = versionInt;
@@ -271,6 +570,7 @@ private static String getLatestVersion(ZooKeeperClient zkClient, String versions
   // DISTRIBUTED THREAD SAFE and Atomic like getSmallYamlObject
   public <T> T getLargeYamlObject(String path, Class<T> classRef) throws Exception {
     // Get the Payload of the latest ReadyPayloadVersion which is complete.
+    // It may still be GC'd during get it, by a newer Payload set concurrently, so retry with the newer one.
     while (true) {
       try {
         return getLargeYamlObjectInternal(this, path, classRef);
@@ -294,7 +594,7 @@ private static <T> T getLargeYamlObjectInternal(ZooKeeperClient zkClient, String
 
     // Get PayloadParts from all child nodes under Path/{PayloadRootPath}/
     String payloadRootPath = ZookeeperStoreStructure.getNodePath(path, completePayloadVersion);
-    byte[] payload = new byte[0];
+    List<byte[]> payloadParts = new ArrayList<>();
     Boolean isCorrupt = false;
     try {
       List<String> partIndexStrs = zkClient.getChildren(payloadRootPath);
@@ -307,8 +607,7 @@ private static <T> T getLargeYamlObjectInternal(ZooKeeperClient zkClient, String
         }
 
         String partIndexPath = ZookeeperStoreStructure.getNodePath(payloadRootPath, partIndexStr);
-        byte[] payloadPart = zkClient.getData(partIndexPath);
-        payload = CommonUtils.concatArrays(payload, payloadPart);
+        payloadParts.add(zkClient.getData(partIndexPath));
       }
     } catch (KeeperException.NoNodeException e) {
       LOGGER.logWarning(e,
@@ -324,7 +623,7 @@ private static <T> T getLargeYamlObjectInternal(ZooKeeperClient zkClient, String
       // And the changes can not always happen, so we can always retry like CAS.
       throw new TransientException(
           String.format("The CompletePayloadVersion %s changed to %s after Get PayloadParts. " +
-                  "There may be incomplete PayloadParts under Path %s.",
+                  "The PayloadParts under Path %s may have been GC'd.",
               completePayloadVersion,
               completePayloadVersionAfterGet,
               payloadRootPath));
@@ -337,6 +636,594 @@ private static <T> T getLargeYamlObjectInternal(ZooKeeperClient zkClient, String
               payloadRootPath));
     }
 
-    return YamlUtils.toObject(payload, classRef);
+    return ZkObjectCodec.toObject(payloadParts, classRef);
+  }
+
+
+  /**
+   * REGION BatchRead
+   */
+  // Batch read nodes by pipelined asynchronous requests, so that the latency is not N * RTT.
+  // The node which does not exist is absent in the returned Map, and other failures will be thrown
+  // after all requests completed.
+  // Note they should not be called in ZK EventThread, otherwise it will be deadlocked.
+  // DISTRIBUTED THREAD SAFE
+  public Map<String, byte[]> getDataBatch(Collection<String> paths) throws Exception {
+    return new AsyncReadBatch<byte[]>().execute(paths, (path, batch) ->
+        zk.getData(path, false, (DataCallback) (rc, p, ctx, data, stat) ->
+            batch.complete(rc, p, data), null));
+  }
+
+  // DISTRIBUTED THREAD SAFE
+  public Map<String, List<String>> getChildrenBatch(Collection<String> paths) throws Exception {
+    return new AsyncReadBatch<List<String>>().execute(paths, (path, batch) ->
+        zk.getChildren(path, false, (ChildrenCallback) (rc, p, ctx, children) ->
+            batch.complete(rc, p, children), null));
+  }
+
+  // DISTRIBUTED THREAD SAFE
+  public Map<String, Stat> getStatBatch(Collection<String> paths) throws Exception {
+    return new AsyncReadBatch<Stat>().execute(paths, (path, batch) ->
+        zk.exists(path, false, (StatCallback) (rc, p, ctx, stat) ->
+            batch.complete(rc, p, stat), null));
+  }
+
+  // The object which is failed to deserialize is null in the returned Map.
+  // DISTRIBUTED THREAD SAFE
+  public <T> Map<String, T> getSmallYamlObjectBatch(Collection<String> paths, Class<T> classRef) throws Exception {
+    Map<String, T> yamlObjects = new HashMap<>();
+    for (Map.Entry<String, byte[]> dataKV : getDataBatch(paths).entrySet()) {
+      yamlObjects.put(dataKV.getKey(), toYamlObject(dataKV.getKey(), dataKV.getValue(), classRef));
+    }
+    return yamlObjects;
+  }
+
+  // Only the object which is got completely and consistently is present in the returned Map,
+  // the others, such as not exist, being set concurrently or corrupt, are absent in the returned Map,
+  // and the caller should fall back to getLargeYamlObject for them.
+  // The object which is failed to deserialize is null in the returned Map.
+  // DISTRIBUTED THREAD SAFE
+  public <T> Map<String, T> getLargeYamlObjectBatch(Collection<String> paths, Class<T> classRef) throws Exception {
+    // Get the latest ReadyPayloadVersion as CompletePayloadVersion
+    // Path -> ReadyPayloadVersionsRootPath
+    Map<String, String> readyPayloadVersionsRootPaths = new HashMap<>();
+    for (String path : paths) {
+      readyPayloadVersionsRootPaths.put(path, ZookeeperStoreStructure.getNodePath(path, READY_PAYLOAD_VERSIONS_NODE_NAME));
+    }
+    Map<String, List<String>> readyPayloadVersions = getChildrenBatch(readyPayloadVersionsRootPaths.values());
+
+    // Path -> CompletePayloadVersion
+    Map<String, String> completePayloadVersions = new HashMap<>();
+    // Path -> PayloadRootPath, i.e. Path/{CompletePayloadVersion}
+    Map<String, String> payloadRootPaths = new HashMap<>();
+    for (String path : paths) {
+      List<String> versions = readyPayloadVersions.get(readyPayloadVersionsRootPaths.get(path));
+      String completePayloadVersion = (versions == null ? null : getLatestVersion(versions));
+      if (completePayloadVersion != null) {
+        completePayloadVersions.put(path, completePayloadVersion);
+        payloadRootPaths.put(path, ZookeeperStoreStructure.getNodePath(path, completePayloadVersion));
+      }
+    }
+
+    // Get PayloadParts from all child nodes under PayloadRootPath
+    Map<String, List<String>> partIndexStrs = getChildrenBatch(payloadRootPaths.values());
+    List<String> partIndexPaths = new ArrayList<>();
+    for (Map.Entry<String, List<String>> partIndexStrsKV : partIndexStrs.entrySet()) {
+      for (String partIndexStr : partIndexStrsKV.getValue()) {
+        partIndexPaths.add(ZookeeperStoreStructure.getNodePath(partIndexStrsKV.getKey(), partIndexStr));
+      }
+    }
+    Map<String, byte[]> payloadParts = getDataBatch(partIndexPaths);
+
+    // Check whether the CompletePayloadVersion is changed during Get PayloadParts.
+    Map<String, List<String>> readyPayloadVersionsAfterGet = getChildrenBatch(readyPayloadVersionsRootPaths.values());
+
+    Map<String, T> yamlObjects = new HashMap<>();
+    for (Map.Entry<String, String> payloadRootPathKV : payloadRootPaths.entrySet()) {
+      String path = payloadRootPathKV.getKey();
+      String payloadRootPath = payloadRootPathKV.getValue();
+      List<String> versionsAfterGet = readyPayloadVersionsAfterGet.get(readyPayloadVersionsRootPaths.get(path));
+      String completePayloadVersionAfterGet = (versionsAfterGet == null ? null : getLatestVersion(versionsAfterGet));
+      if (!completePayloadVersions.get(path).equals(completePayloadVersionAfterGet) ||
+          !partIndexStrs.containsKey(payloadRootPath)) {
+        continue;
+      }
+
+      List<byte[]> payload = new ArrayList<>();
+      Boolean isComplete = true;
+      for (Integer partIndex = 0; partIndex < partIndexStrs.get(payloadRootPath).size(); partIndex++) {
+        byte[] payloadPart = payloadParts.get(ZookeeperStoreStructure.getNodePath(payloadRootPath, partIndex.toString()));
+        if (payloadPart == null) {
+          isComplete = false;
+          break;
+        }
+        payload.add(payloadPart);
+      }
+
+      if (isComplete) {
+        yamlObjects.put(path, toYamlObject(path, payload, classRef));
+      }
+    }
+
+    return yamlObjects;
+  }
+
+  // Batch version of getLargeYamlObjectVersion.
+  // The large yaml object which does not exist is absent in the returned Map.
+  // DISTRIBUTED THREAD SAFE
+  public Map<String, Long> getLargeYamlObjectVersionBatch(Collection<String> paths) throws Exception {
+    // Path -> ReadyPayloadVersionsRootPath
+    Map<String, String> readyPayloadVersionsRootPaths = new HashMap<>();
+    for (String path : paths) {
+      readyPayloadVersionsRootPaths.put(path, ZookeeperStoreStructure.getNodePath(path, READY_PAYLOAD_VERSIONS_NODE_NAME));
+    }
+    Map<String, Stat> stats = getStatBatch(readyPayloadVersionsRootPaths.values());
+
+    Map<String, Long> versions = new HashMap<>();
+    for (String path : paths) {
+      Stat stat = stats.get(readyPayloadVersionsRootPaths.get(path));
+      if (stat != null && stat.getNumChildren() > 0) {
+        versions.put(path, stat.getPzxid());
+      }
+    }
+    return versions;
+  }
+
+  private static <T> T toYamlObject(String path, byte[] bytes, Class<T> classRef) {
+    try {
+      return ZkObjectCodec.toObject(bytes, classRef);
+    } catch (Exception e) {
+      LOGGER.logWarning(e, "Failed to deserialize the yaml object in path %s", path);
+      return null;
+    }
+  }
+
+  private static <T> T toYamlObject(String path, List<byte[]> payloadParts, Class<T> classRef) {
+    try {
+      return ZkObjectCodec.toObject(payloadParts, classRef);
+    } catch (Exception e) {
+      LOGGER.logWarning(e, "Failed to deserialize the yaml object in path %s", path);
+      return null;
+    }
+  }
+
+  private interface AsyncReadIssuer<R> {
+    void issue(String path, AsyncReadBatch<R> batch);
+  }
+
+  private class AsyncReadBatch<R> {
+    private final Semaphore inFlightPermits = new Semaphore(MAX_IN_FLIGHT_ASYNC_REQUEST_COUNT);
+    private final Map<String, R> results = new HashMap<>();
+    private Exception firstException = null;
+    private CountDownLatch completedSignal;
+
+    public Map<String, R> execute(Collection<String> paths, AsyncReadIssuer<R> issuer) throws Exception {
+      completedSignal = new CountDownLatch(paths.size());
+      for (String path : paths) {
+        inFlightPermits.acquire();
+        try {
+          issuer.issue(path, this);
+        } catch (Exception e) {
+          // The callback will never be called if the request is failed to be issued, such as the session is closed
+          fail(path, e);
+        }
+      }
+      completedSignal.await();
+
+      synchronized (this) {
+        if (firstException != null) {
+          throw firstException;
+        }
+        return results;
+      }
+    }
+
+    // Called in ZK EventThread
+    public void complete(int rc, String path, R result) {
+      try {
+        synchronized (this) {
+          KeeperException.Code code = KeeperException.Code.get(rc);
+          if (code == KeeperException.Code.OK) {
+            results.put(path, result);
+          } else if (code != KeeperException.Code.NONODE && firstException == null) {
+            firstException = KeeperException.create(code, path);
+          }
+        }
+      } finally {
+        inFlightPermits.release();
+        completedSignal.countDown();
+      }
+    }
+
+    private void fail(String path, Exception e) {
+      LOGGER.logWarning(e, "Failed to issue the asynchronous read of node %s", path);
+      try {
+        synchronized (this) {
+          if (firstException == null) {
+            firstException = e;
+          }
+        }
+      } finally {
+        inFlightPermits.release();
+        completedSignal.countDown();
+      }
+    }
+  }
+
+
+  /**
+   * REGION BatchWrite
+   */
+  // Commit the ZkWriteBatch by ZK multi() transactions.
+  // The operations between two adjacent transaction boundaries of the batch, see ZkWriteBatch.addTransactionBoundary,
+  // are always committed atomically in one transaction, including the PayloadVersions and the GC of the large
+  // yaml objects set by them, whose PayloadParts are staged before the transaction, see stageLargePayload.
+  // And as many adjacent ones as fit ZK_MAX_TRANSACTION_BYTES are committed together in one round-trip,
+  // and the others are committed in the following transactions in order.
+  // NonTransientException is thrown if the operations between two adjacent boundaries cannot fit in one
+  // transaction, and then none of them is committed.
+  // The subtree of deleteRecursively is listed before commit, so it should not be changed concurrently.
+  // DISTRIBUTED THREAD SAFE
+  public void commitBatch(ZkWriteBatch batch) throws Exception {
+    commitBatch(batch, committedUnitCount -> {
+    });
+  }
+
+  // The committedUnitsListener is called with the count of the transaction units committed by each transaction,
+  // in the order of ZkWriteBatch.getTransactionUnits, so the caller can know which units are already committed
+  // if the Exception is thrown by a later transaction.
+  public void commitBatch(ZkWriteBatch batch, IntConsumer committedUnitsListener) throws Exception {
+    List<List<EncodedOp>> transactionUnits = new ArrayList<>();
+    int transactionBytes = 0;
+    for (List<ZkWriteBatch.WriteOp> unitOps : batch.getTransactionUnits()) {
+      List<EncodedOp> unit = new ArrayList<>();
+      int unitBytes = 0;
+      for (ZkWriteBatch.WriteOp op : unitOps) {
+        EncodedOp encodedOp = new EncodedOp(op);
+        unit.add(encodedOp);
+        unitBytes += encodedOp.getBytes();
+      }
+
+      if (!transactionUnits.isEmpty() && transactionBytes + unitBytes > ZK_MAX_TRANSACTION_BYTES) {
+        commitTransaction(transactionUnits, committedUnitsListener);
+        transactionUnits = new ArrayList<>();
+        transactionBytes = 0;
+      }
+      transactionUnits.add(unit);
+      transactionBytes += unitBytes;
+    }
+
+    if (!transactionUnits.isEmpty()) {
+      commitTransaction(transactionUnits, committedUnitsListener);
+    }
+  }
+
+  // The WriteOp with its yaml object encoded, so that it is only encoded once even if the transaction is retried
+  private static class EncodedOp {
+    private final ZkWriteBatch.WriteOp op;
+    // The PayloadParts of the yaml object, or the raw data
+    private final List<byte[]> parts;
+    // The PayloadVersion under which the PayloadParts of the large payload are staged
+    private String payloadVersion = null;
+    // Whether the staged PayloadVersion is committed as ready
+    private Boolean payloadReady = false;
+
+    public EncodedOp(ZkWriteBatch.WriteOp op) {
+      this.op = op;
+      switch (op.getType()) {
+        case SET_SMALL_YAML_OBJECT:
+          parts = Collections.singletonList(ZkObjectCodec.toBytes(op.getYamlObject(), op.getFormat()));
+          break;
+        case SET_YAML_OBJECT:
+        case SET_LARGE_YAML_OBJECT:
+          parts = ZkObjectCodec.toParts(op.getYamlObject(), op.getFormat(), ZK_MAX_NODE_BYTES);
+          break;
+        case SET_DATA:
+          parts = Collections.singletonList(op.getData());
+          break;
+        default:
+          parts = new ArrayList<>();
+          break;
+      }
+    }
+
+    public Boolean isLargePayload() {
+      return op.getType() == ZkWriteBatch.OpType.SET_LARGE_YAML_OBJECT ||
+          (op.getType() == ZkWriteBatch.OpType.SET_YAML_OBJECT && parts.size() != 1);
+    }
+
+    // The estimated bytes in the transaction, excluding the deletes which are unknown before the subtree is listed
+    public int getBytes() {
+      int bytes = op.getPath().length() + ZK_TRANSACTION_OP_OVERHEAD_BYTES;
+      if (isLargePayload()) {
+        // The PayloadParts are staged before the transaction, see addLargePayloadWrites
+        return bytes * 4;
+      }
+      for (byte[] part : parts) {
+        bytes += part.length + op.getPath().length() + ZK_TRANSACTION_OP_OVERHEAD_BYTES;
+      }
+      return bytes;
+    }
+  }
+
+  private enum NodeWriteMode {
+    // Create or set the node no matter it exists or not, like createNode
+    SET,
+    // Create the node, and the transaction fails with NodeExists if it exists
+    CREATE,
+    // Create the node if it does not exist
+    CREATE_IF_ABSENT,
+    // Check the node exists, and the transaction fails with NoNode if it does not exist
+    CHECK,
+    // Delete the node if it exists
+    DELETE
+  }
+
+  private static class NodeWrite {
+    private final String path;
+    private final byte[] data;
+    private final NodeWriteMode mode;
+
+    public NodeWrite(String path, byte[] data, NodeWriteMode mode) {
+      this.path = path;
+      this.data = data;
+      this.mode = mode;
+    }
+
+    public int getBytes() {
+      return (data == null ? 0 : data.length) + path.length() + ZK_TRANSACTION_OP_OVERHEAD_BYTES;
+    }
+  }
+
+  // Commit all the units in one transaction, or each unit in its own transaction if they cannot fit together.
+  private void commitTransaction(
+      List<List<EncodedOp>> units, IntConsumer committedUnitsListener) throws Exception {
+    List<EncodedOp> ops = new ArrayList<>();
+    for (List<EncodedOp> unit : units) {
+      ops.addAll(unit);
+    }
+
+    Collection<EncodedOp> lastLargePayloadOps = getLastLargePayloadOps(ops).values();
+    try {
+      for (EncodedOp op : lastLargePayloadOps) {
+        stageLargePayload(op);
+      }
+
+      // Exception can not always happen, so we can always retry like CAS.
+      while (true) {
+        List<NodeWrite> writes = toNodeWrites(ops);
+        int transactionBytes = 0;
+        for (NodeWrite write : writes) {
+          transactionBytes += write.getBytes();
+        }
+
+        if (transactionBytes > ZK_MAX_TRANSACTION_BYTES) {
+          if (units.size() > 1) {
+            // The estimated bytes before the subtrees are listed fits, but the deletes make it not fit.
+            // The payloads are staged again by each unit in order, so that the PayloadVersions set into
+            // the same path are still increasing in the committed order.
+            for (EncodedOp op : lastLargePayloadOps) {
+              unstageLargePayload(op);
+            }
+            for (List<EncodedOp> unit : units) {
+              commitTransaction(Collections.singletonList(unit), committedUnitsListener);
+            }
+            return;
+          }
+
+          throw new NonTransientException(String.format(
+              "The %s bytes of writes starting at Path %s cannot be committed in one ZK transaction, " +
+                  "whose max bytes is %s. Either make the writes smaller, or add transaction boundaries " +
+                  "between them.",
+              transactionBytes, ops.get(0).op.getPath(), ZK_MAX_TRANSACTION_BYTES));
+        }
+
+        if (tryCommitTransaction(writes)) {
+          for (EncodedOp op : lastLargePayloadOps) {
+            op.payloadReady = true;
+          }
+          committedUnitsListener.accept(units.size());
+          return;
+        }
+      }
+    } catch (Exception e) {
+      for (EncodedOp op : lastLargePayloadOps) {
+        unstageLargePayload(op);
+      }
+      throw e;
+    }
+  }
+
+  // Only the last large payload set into a path needs to be set, since the others
+  // in the same transaction will never be got.
+  // Path -> EncodedOp
+  private static Map<String, EncodedOp> getLastLargePayloadOps(List<EncodedOp> ops) {
+    Map<String, EncodedOp> lastLargePayloadOps = new HashMap<>();
+    for (EncodedOp op : ops) {
+      if (op.isLargePayload()) {
+        lastLargePayloadOps.put(op.op.getPath(), op);
+      }
+    }
+    return lastLargePayloadOps;
+  }
+
+  private List<NodeWrite> toNodeWrites(List<EncodedOp> ops) throws Exception {
+    Map<String, EncodedOp> lastLargePayloadOps = getLastLargePayloadOps(ops);
+
+    // Skip the staged PayloadVersions which have been GC'd by a newer PayloadVersion set concurrently,
+    // and list the old ones to be GC'd by the others
+    // Path -> OldVersionPaths
+    Map<String, List<String>> oldVersionPaths = new HashMap<>();
+    if (!lastLargePayloadOps.isEmpty()) {
+      List<String> payloadRootPaths = new ArrayList<>();
+      List<String> versionsRootPaths = new ArrayList<>();
+      for (Map.Entry<String, EncodedOp> opKV : lastLargePayloadOps.entrySet()) {
+        String path = opKV.getKey();
+        payloadRootPaths.add(ZookeeperStoreStructure.getNodePath(path, opKV.getValue().payloadVersion));
+        versionsRootPaths.add(path);
+        versionsRootPaths.add(ZookeeperStoreStructure.getNodePath(path, READY_PAYLOAD_VERSIONS_NODE_NAME));
+      }
+
+      Map<String, Stat> payloadRootStats = getStatBatch(payloadRootPaths);
+      Map<String, List<String>> versionsRootChildren = getChildrenBatch(versionsRootPaths);
+      for (Map.Entry<String, EncodedOp> opKV : lastLargePayloadOps.entrySet()) {
+        String path = opKV.getKey();
+        String payloadVersion = opKV.getValue().payloadVersion;
+        if (!payloadRootStats.containsKey(ZookeeperStoreStructure.getNodePath(path, payloadVersion))) {
+          LOGGER.logInfo(
+              "The staged PayloadVersion %s under Path %s has been GC'd by a newer one, so give up here",
+              payloadVersion, path);
+          continue;
+        }
+        oldVersionPaths.put(path, getOldVersionPaths(path, payloadVersion, versionsRootChildren));
+      }
+    }
+
+    // List all the subtrees to be deleted level by level
+    // Path -> ChildNames
+    Map<String, List<String>> subtreeChildren = new HashMap<>();
+    List<String> levelPaths = new ArrayList<>();
+    for (EncodedOp op : ops) {
+      if (op.op.getType() == ZkWriteBatch.OpType.DELETE_RECURSIVELY) {
+        levelPaths.add(op.op.getPath());
+      }
+    }
+    for (List<String> paths : oldVersionPaths.values()) {
+      levelPaths.addAll(paths);
+    }
+    while (!levelPaths.isEmpty()) {
+      Map<String, List<String>> levelChildren = getChildrenBatch(levelPaths);
+      subtreeChildren.putAll(levelChildren);
+      levelPaths = new ArrayList<>();
+      for (Map.Entry<String, List<String>> childrenKV : levelChildren.entrySet()) {
+        for (String child : childrenKV.getValue()) {
+          levelPaths.add(ZookeeperStoreStructure.getNodePath(childrenKV.getKey(), child));
+        }
+      }
+    }
+
+    List<NodeWrite> writes = new ArrayList<>();
+    for (EncodedOp op : ops) {
+      String path = op.op.getPath();
+      if (op.isLargePayload()) {
+        if (lastLargePayloadOps.get(path) == op && oldVersionPaths.containsKey(path)) {
+          addLargePayloadWrites(writes, path,
+              op.payloadVersion, oldVersionPaths.get(path), subtreeChildren);
+        }
+        continue;
+      }
+
+      switch (op.op.getType()) {
+        case SET_SMALL_YAML_OBJECT:
+        case SET_YAML_OBJECT:
+        case SET_DATA:
+          // The previous large payload is left until the node is deleted, since it will not be got any more
+          writes.add(new NodeWrite(path, op.parts.get(0), NodeWriteMode.SET));
+          break;
+        case CREATE_PATH:
+          writes.add(new NodeWrite(path, new byte[0], NodeWriteMode.SET));
+          break;
+        default:
+          // DELETE_RECURSIVELY
+          addSubtreeDeletes(writes, path, subtreeChildren);
+          break;
+      }
+    }
+    return writes;
+  }
+
+  // Delete the children before the node itself
+  private static void addSubtreeDeletes(List<NodeWrite> writes, String path, Map<String, List<String>> subtreeChildren) {
+    List<String> children = subtreeChildren.get(path);
+    if (children == null) {
+      // The node does not exist
+      return;
+    }
+
+    for (String child : children) {
+      addSubtreeDeletes(writes, ZookeeperStoreStructure.getNodePath(path, child), subtreeChildren);
+    }
+    writes.add(new NodeWrite(path, null, NodeWriteMode.DELETE));
+  }
+
+  // Commit the writes in one transaction, and return false if it failed since the existence of a node is
+  // changed concurrently, then the writes should be generated again.
+  private Boolean tryCommitTransaction(List<NodeWrite> writes) throws Exception {
+    Set<String> paths = new HashSet<>();
+    for (NodeWrite write : writes) {
+      if (write.mode != NodeWriteMode.CREATE) {
+        paths.add(write.path);
+      }
+    }
+
+    Set<String> existingPaths = new HashSet<>(getStatBatch(paths).keySet());
+    List<Op> ops = new ArrayList<>();
+    for (NodeWrite write : writes) {
+      switch (write.mode) {
+        case SET:
+          if (existingPaths.contains(write.path)) {
+            ops.add(Op.setData(write.path, write.data, -1));
+            break;
+          }
+          // Fall through to create it
+        case CREATE:
+          ops.add(Op.create(write.path, write.data, Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT));
+          existingPaths.add(write.path);
+          break;
+        case CREATE_IF_ABSENT:
+          if (existingPaths.add(write.path)) {
+            ops.add(Op.create(write.path, write.data, Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT));
+          }
+          break;
+        case CHECK:
+          ops.add(Op.check(write.path, -1));
+          break;
+        default:
+          // DELETE
+          if (existingPaths.remove(write.path)) {
+            ops.add(Op.delete(write.path, -1));
+          }
+          break;
+      }
+    }
+
+    if (ops.isEmpty()) {
+      return true;
+    }
+
+    try {
+      zk.multi(ops);
+      return true;
+    } catch (KeeperException e) {
+      if (!isConcurrentlyCreatedOrDeleted(e, ops)) {
+        throw e;
+      }
+      return false;
+    }
+  }
+
+  // Whether the transaction failed since the existence of a node is changed after it is checked
+  private static Boolean isConcurrentlyCreatedOrDeleted(KeeperException e, List<Op> ops) {
+    List<OpResult> results = e.getResults();
+    if (results == null) {
+      return false;
+    }
+
+    for (int i = 0; i < results.size() && i < ops.size(); i++) {
+      if (!(results.get(i) instanceof OpResult.ErrorResult)) {
+        continue;
+      }
+
+      KeeperException.Code code = KeeperException.Code.get(((OpResult.ErrorResult) results.get(i)).getErr());
+      if (code == KeeperException.Code.OK || code == KeeperException.Code.RUNTIMEINCONSISTENCY) {
+        continue;
+      }
+
+      // The failed operation
+      Boolean isCreate = (ops.get(i).getType() == ZooDefs.OpCode.create);
+      return (isCreate && code == KeeperException.Code.NODEEXISTS) ||
+          (!isCreate && code == KeeperException.Code.NONODE);
+    }
+    return false;
   }
 }
@@ -17,17 +17,40 @@
 
 package com.microsoft.frameworklauncher.zookeeperstore;
 
+import com.microsoft.frameworklauncher.common.exceptions.NonTransientException;
+import com.microsoft.frameworklauncher.common.exceptions.TransientException;
 import com.microsoft.frameworklauncher.common.model.*;
 import com.microsoft.frameworklauncher.utils.DefaultLogger;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
 
-import java.util.HashMap;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 
 public class ZookeeperStore {
   private static final DefaultLogger LOGGER = new DefaultLogger(ZookeeperStore.class);
+  // The deepest node to watch under LauncherRequest is Requests/{FrameworkName}/MigrateTaskRequests/{ContainerId}
+  private static final int LAUNCHER_REQUEST_WATCH_DEPTH = 3;
+  // The deepest node to watch under FrameworkRequest is {FrameworkName}/MigrateTaskRequests/{ContainerId}
+  private static final int FRAMEWORK_REQUEST_WATCH_DEPTH = 2;
+  // The deepest node to watch under LauncherStatus is Statuses/{FrameworkName}/{TaskRoleName}/TaskStatuses,
+  // whose data is changed each time the TaskStatuses is set.
+  private static final int LAUNCHER_STATUS_WATCH_DEPTH = 3;
+  // The TaskStatuses is stored in shards of TASK_STATUSES_SHARD_TASK_NUMBER TaskStatus, so that only the
+  // changed shards need to be set. It is small enough to make a shard fit in one ZK node in most cases.
+  private static final int TASK_STATUSES_SHARD_TASK_NUMBER = 50;
+  private static final int TASK_STATUSES_GET_MAX_RETRY_COUNT = 5;
 
   protected final ZooKeeperClient zkClient;
   protected final ZookeeperStoreStructure zkStruct;
+  // The ZkObjectFormat to set the frequently changed and large objects, i.e. FrameworkRequest,
+  // FrameworkStatus and TaskStatuses. Others are always set in YAML for readability.
+  private volatile ZkObjectFormat objectFormat = ZkObjectFormat.YAML;
+  // Whether to set the TaskStatuses in the sharded layout, otherwise in the legacy layout which can also be got
+  // by the legacy Launcher components, see setTaskStatuses.
+  private volatile Boolean taskStatusesSharded = false;
 
   public ZookeeperStore(String connectString, String launcherRootPath) throws Exception {
     LOGGER.logInfo(
@@ -46,11 +69,34 @@ protected ZookeeperStore(ZooKeeperClient zkClient, ZookeeperStoreStructure zkStr
     this.zkStruct = zkStruct;
   }
 
+  public void setObjectFormat(ZkObjectFormat objectFormat) {
+    LOGGER.logInfo("Set ZkObjectFormat to [%s]", objectFormat);
+    this.objectFormat = objectFormat;
+  }
+
+  public void setTaskStatusesSharded(Boolean taskStatusesSharded) {
+    LOGGER.logInfo("Set TaskStatusesSharded to [%s]", taskStatusesSharded);
+    this.taskStatusesSharded = taskStatusesSharded;
+  }
+
   // Setup Basic ZookeeperStoreStructure
   private void setupZKStructure() throws Exception {
     if (!zkClient.exists(zkStruct.getLauncherRootPath())) {
       zkClient.createPath(zkStruct.getLauncherRootPath());
     }
+    if (!zkClient.exists(zkStruct.getLauncherMetricsPath())) {
+      zkClient.createPath(zkStruct.getLauncherMetricsPath());
+    }
+  }
+
+  // Commit the writes added into the batch by the batch versions of the set methods,
+  // in as few ZK transactions as possible, see ZooKeeperClient.commitBatch.
+  public void commitBatch(ZkWriteBatch batch) throws Exception {
+    zkClient.commitBatch(batch);
+  }
+
+  public void commitBatch(ZkWriteBatch batch, IntConsumer committedUnitsListener) throws Exception {
+    zkClient.commitBatch(batch, committedUnitsListener);
   }
 
   // Requests
@@ -60,8 +106,12 @@ public LauncherRequest getLauncherRequest() throws Exception {
   }
 
   public void setLauncherRequest(LauncherRequest yamlObject) throws Exception {
-    zkClient.setSmallYamlObject(
-        zkStruct.getLauncherRequestPath(), yamlObject);
+    zkClient.commitBatch(setLauncherRequest(new ZkWriteBatch(), yamlObject));
+  }
+
+  public ZkWriteBatch setLauncherRequest(ZkWriteBatch batch, LauncherRequest yamlObject) {
+    return batch.setSmallYamlObject(
+        zkStruct.getLauncherRequestPath(), yamlObject, ZkObjectFormat.YAML);
   }
 
   public FrameworkRequest getFrameworkRequest(String frameworkName) throws Exception {
@@ -70,12 +120,14 @@ public FrameworkRequest getFrameworkRequest(String frameworkName) throws Excepti
   }
 
   public void setFrameworkRequest(String frameworkName, FrameworkRequest yamlObject) throws Exception {
-    zkClient.setSmallYamlObject(
-        zkStruct.getFrameworkRequestPath(frameworkName), yamlObject);
+    zkClient.commitBatch(setFrameworkRequest(new ZkWriteBatch(), frameworkName, yamlObject));
+  }
 
-    // Also prepare the dummy request node for its future child nodes
-    zkClient.createPath(
-        zkStruct.getMigrateTaskRequestsPath(frameworkName));
+  public ZkWriteBatch setFrameworkRequest(ZkWriteBatch batch, String frameworkName, FrameworkRequest yamlObject) {
+    return batch
+        .setSmallYamlObject(zkStruct.getFrameworkRequestPath(frameworkName), yamlObject, objectFormat)
+        // Also prepare the dummy request node for its future child nodes
+        .createPath(zkStruct.getMigrateTaskRequestsPath(frameworkName));
   }
 
   public void deleteFrameworkRequest(String frameworkName) throws Exception {
@@ -87,14 +139,23 @@ public void deleteFrameworkRequest(String frameworkName, Boolean childrenOnly) t
         zkStruct.getFrameworkRequestPath(frameworkName), childrenOnly);
   }
 
+  public ZkWriteBatch deleteFrameworkRequest(ZkWriteBatch batch, String frameworkName) {
+    return batch.deleteRecursively(zkStruct.getFrameworkRequestPath(frameworkName));
+  }
+
   public OverrideApplicationProgressRequest getOverrideApplicationProgressRequest(String frameworkName) throws Exception {
     return zkClient.getSmallYamlObject(
         zkStruct.getOverrideApplicationProgressRequestPath(frameworkName), OverrideApplicationProgressRequest.class);
   }
 
   public void setOverrideApplicationProgressRequest(String frameworkName, OverrideApplicationProgressRequest yamlObject) throws Exception {
-    zkClient.setSmallYamlObject(
-        zkStruct.getOverrideApplicationProgressRequestPath(frameworkName), yamlObject);
+    zkClient.commitBatch(setOverrideApplicationProgressRequest(new ZkWriteBatch(), frameworkName, yamlObject));
+  }
+
+  public ZkWriteBatch setOverrideApplicationProgressRequest(
+      ZkWriteBatch batch, String frameworkName, OverrideApplicationProgressRequest yamlObject) {
+    return batch.setSmallYamlObject(
+        zkStruct.getOverrideApplicationProgressRequestPath(frameworkName), yamlObject, ZkObjectFormat.YAML);
   }
 
   public MigrateTaskRequest getMigrateTaskRequest(String frameworkName, String containerId) throws Exception {
@@ -103,8 +164,13 @@ public MigrateTaskRequest getMigrateTaskRequest(String frameworkName, String con
   }
 
   public void setMigrateTaskRequest(String frameworkName, String containerId, MigrateTaskRequest yamlObject) throws Exception {
-    zkClient.setSmallYamlObject(
-        zkStruct.getMigrateTaskRequestPath(frameworkName, containerId), yamlObject);
+    zkClient.commitBatch(setMigrateTaskRequest(new ZkWriteBatch(), frameworkName, containerId, yamlObject));
+  }
+
+  public ZkWriteBatch setMigrateTaskRequest(
+      ZkWriteBatch batch, String frameworkName, String containerId, MigrateTaskRequest yamlObject) {
+    return batch.setSmallYamlObject(
+        zkStruct.getMigrateTaskRequestPath(frameworkName, containerId), yamlObject, ZkObjectFormat.YAML);
   }
 
   public void deleteMigrateTaskRequest(String frameworkName, String containerId) throws Exception {
@@ -112,6 +178,10 @@ public void deleteMigrateTaskRequest(String frameworkName, String containerId) t
         zkStruct.getMigrateTaskRequestPath(frameworkName, containerId));
   }
 
+  public ZkWriteBatch deleteMigrateTaskRequest(ZkWriteBatch batch, String frameworkName, String containerId) {
+    return batch.deleteRecursively(zkStruct.getMigrateTaskRequestPath(frameworkName, containerId));
+  }
+
   // Statuses
   public LauncherStatus getLauncherStatus() throws Exception {
     return zkClient.getSmallYamlObject(
@@ -123,6 +193,37 @@ public void setLauncherStatus(LauncherStatus yamlObject) throws Exception {
         zkStruct.getLauncherStatusPath(), yamlObject);
   }
 
+  // The Metrics are parts of the LauncherStatus which are set separately, see ZookeeperStoreStructure
+  public TransitionQueueStatus getTransitionQueueStatus() throws Exception {
+    return zkClient.getSmallYamlObject(
+        zkStruct.getTransitionQueueStatusPath(), TransitionQueueStatus.class);
+  }
+
+  public void setTransitionQueueStatus(TransitionQueueStatus yamlObject) throws Exception {
+    zkClient.setSmallYamlObject(
+        zkStruct.getTransitionQueueStatusPath(), yamlObject);
+  }
+
+  public ApplicationSubmissionStatus getApplicationSubmissionStatus() throws Exception {
+    return zkClient.getSmallYamlObject(
+        zkStruct.getApplicationSubmissionStatusPath(), ApplicationSubmissionStatus.class);
+  }
+
+  public void setApplicationSubmissionStatus(ApplicationSubmissionStatus yamlObject) throws Exception {
+    zkClient.setSmallYamlObject(
+        zkStruct.getApplicationSubmissionStatusPath(), yamlObject);
+  }
+
+  public DiagnosticsRetrieveStatus getDiagnosticsRetrieveStatus() throws Exception {
+    return zkClient.getSmallYamlObject(
+        zkStruct.getDiagnosticsRetrieveStatusPath(), DiagnosticsRetrieveStatus.class);
+  }
+
+  public void setDiagnosticsRetrieveStatus(DiagnosticsRetrieveStatus yamlObject) throws Exception {
+    zkClient.setSmallYamlObject(
+        zkStruct.getDiagnosticsRetrieveStatusPath(), yamlObject);
+  }
+
   public FrameworkStatus getFrameworkStatus(String frameworkName) throws Exception {
     return zkClient.getSmallYamlObject(
         zkStruct.getFrameworkStatusPath(frameworkName), FrameworkStatus.class);
@@ -130,7 +231,7 @@ public FrameworkStatus getFrameworkStatus(String frameworkName) throws Exception
 
   public void setFrameworkStatus(String frameworkName, FrameworkStatus yamlObject) throws Exception {
     zkClient.setSmallYamlObject(
-        zkStruct.getFrameworkStatusPath(frameworkName), yamlObject);
+        zkStruct.getFrameworkStatusPath(frameworkName), yamlObject, objectFormat);
   }
 
   public void deleteFrameworkStatus(String frameworkName) throws Exception {
@@ -152,16 +253,224 @@ public void setTaskRoleStatus(String frameworkName, String taskRoleName, TaskRol
         zkStruct.getTaskRoleStatusPath(frameworkName, taskRoleName), yamlObject);
   }
 
+  public void setTaskRoleStatus(
+      ZkWriteBatch batch, String frameworkName, String taskRoleName, TaskRoleStatus yamlObject) {
+    batch.setSmallYamlObject(
+        zkStruct.getTaskRoleStatusPath(frameworkName, taskRoleName), yamlObject, ZkObjectFormat.YAML);
+  }
+
+  // Get the TaskStatuses set in the sharded layout or the legacy layout, i.e. as large yaml object.
+  // It is Atomic for each TaskStatus, and the TaskStatus got is not older than the TaskStatusesManifest.
   public TaskStatuses getTaskStatuses(String frameworkName, String taskRoleName) throws Exception {
-    return zkClient.getLargeYamlObject(
-        zkStruct.getTaskStatusesPath(frameworkName, taskRoleName), TaskStatuses.class);
+    String path = zkStruct.getTaskStatusesPath(frameworkName, taskRoleName);
+    for (int retriedCount = 0; ; retriedCount++) {
+      Stat stat = zkClient.getStat(path);
+      if (stat == null) {
+        throw new KeeperException.NoNodeException(path);
+      }
+      if (stat.getDataLength() == 0) {
+        return zkClient.getLargeYamlObject(path, TaskStatuses.class);
+      }
+
+      TaskStatusesManifest manifest = zkClient.getSmallYamlObject(path, TaskStatusesManifest.class);
+      Map<Integer, TaskStatuses> shards = new HashMap<>();
+      for (int shardIndex = 0; shardIndex < getShardNumber(manifest); shardIndex++) {
+        try {
+          shards.put(shardIndex, zkClient.getYamlObject(
+              ZookeeperStoreStructure.getTaskStatusesShardPath(path, shardIndex), TaskStatuses.class));
+        } catch (KeeperException.NoNodeException ignored) {
+        }
+      }
+      TaskStatuses taskStatuses = assembleTaskStatuses(manifest, shards);
+
+      // Check whether the TaskStatusesManifest is changed during get shards.
+      Stat statAfterGet = zkClient.getStat(path);
+      if (statAfterGet != null && statAfterGet.getMzxid() == stat.getMzxid()) {
+        if (taskStatuses == null) {
+          throw new NonTransientException(String.format(
+              "Got incomplete TaskStatuses shards under Path %s, " +
+                  "but the TaskStatusesManifest is not changed after get shards, it should be corrupt permanently.",
+              path));
+        }
+        return taskStatuses;
+      }
+
+      if (retriedCount >= TASK_STATUSES_GET_MAX_RETRY_COUNT) {
+        throw new TransientException(String.format(
+            "The TaskStatusesManifest under Path %s is always changed during get shards", path));
+      }
+    }
   }
 
   public void setTaskStatuses(String frameworkName, String taskRoleName, TaskStatuses yamlObject) throws Exception {
-    zkClient.setLargeYamlObject(
-        zkStruct.getTaskStatusesPath(frameworkName, taskRoleName), yamlObject);
+    setTaskStatuses(frameworkName, taskRoleName, yamlObject, null);
+  }
+
+  // Set the TaskStatuses in the sharded layout if TaskStatusesSharded, otherwise in the legacy layout,
+  // i.e. as large yaml object, which is the only layout can be got by the legacy Launcher components.
+  // So, a rolling migration to the sharded layout can be done like ZkObjectFormat:
+  //  1. Upgrade all Launcher components, with TaskStatusesSharded still configured as false.
+  //  2. Configure TaskStatusesSharded, then the existing TaskStatuses will be migrated once they are set.
+  //
+  // In the sharded layout, only the shards of the given changedTaskIndexes are set, including the removed ones.
+  // All shards are set if changedTaskIndexes is null.
+  // The TaskStatuses node data is the TaskStatusesManifest, and each shard is the TaskStatuses of a slice of
+  // the TaskStatusArray, i.e. TaskStatuses/Shards/{ShardIndex}.
+  // To ensure the complete TaskStatuses can always be got under any TaskStatusesManifest, the shards are set
+  // before the TaskStatusesManifest if the TaskNumber is not decreased, otherwise after it.
+  // And the TaskStatusesManifest is always changed after all the shards are set, so its zxid can be used as the
+  // TaskStatusesVersion.
+  // Note it can only be called by the single writer of the TaskStatuses, i.e. the AM.
+  public void setTaskStatuses(
+      String frameworkName, String taskRoleName, TaskStatuses yamlObject,
+      Set<Integer> changedTaskIndexes) throws Exception {
+    ZkWriteBatch batch = new ZkWriteBatch();
+    setTaskStatuses(batch, frameworkName, taskRoleName, yamlObject, changedTaskIndexes);
+    zkClient.commitBatch(batch);
+  }
+
+  // Add the setTaskStatuses into the batch, and the batch should be committed before next setTaskStatuses.
+  public void setTaskStatuses(
+      ZkWriteBatch batch, String frameworkName, String taskRoleName, TaskStatuses yamlObject,
+      Set<Integer> changedTaskIndexes) throws Exception {
+    String path = zkStruct.getTaskStatusesPath(frameworkName, taskRoleName);
+    // It does not need to be committed atomically with the other writes in the batch
+    batch.addTransactionBoundary();
+    if (!taskStatusesSharded) {
+      batch.setLargeYamlObject(path, yamlObject, objectFormat);
+      return;
+    }
+
+    List<TaskStatus> taskStatusArray = yamlObject.getTaskStatusArray();
+    // The node data of the legacy layout is empty
+    Stat stat = zkClient.getStat(path);
+    TaskStatusesManifest oldManifest = null;
+    if (stat != null && stat.getDataLength() > 0) {
+      oldManifest = zkClient.getSmallYamlObject(path, TaskStatusesManifest.class);
+    }
+
+    // The shard layout is never changed once set, otherwise the shards cannot be got under the old manifest
+    TaskStatusesManifest manifest = new TaskStatusesManifest();
+    manifest.setTaskRoleName(yamlObject.getTaskRoleName());
+    manifest.setFrameworkVersion(yamlObject.getFrameworkVersion());
+    manifest.setTaskNumber(taskStatusArray.size());
+    manifest.setShardTaskNumber(oldManifest == null ?
+        TASK_STATUSES_SHARD_TASK_NUMBER : oldManifest.getShardTaskNumber());
+
+    if (stat == null) {
+      // The shards can only be created under an existing node, so create it with an empty manifest first,
+      // under which the complete TaskStatuses can also be got, i.e. no TaskStatus.
+      TaskStatusesManifest emptyManifest = new TaskStatusesManifest();
+      emptyManifest.setTaskRoleName(manifest.getTaskRoleName());
+      emptyManifest.setFrameworkVersion(manifest.getFrameworkVersion());
+      emptyManifest.setTaskNumber(0);
+      emptyManifest.setShardTaskNumber(manifest.getShardTaskNumber());
+      batch.setSmallYamlObject(path, emptyManifest, objectFormat);
+    }
+
+    Set<Integer> shardIndexes = new TreeSet<>();
+    if (oldManifest == null || changedTaskIndexes == null) {
+      int shardNumber = Math.max(getShardNumber(manifest), oldManifest == null ? 0 : getShardNumber(oldManifest));
+      for (int shardIndex = 0; shardIndex < shardNumber; shardIndex++) {
+        shardIndexes.add(shardIndex);
+      }
+      batch.createPath(ZookeeperStoreStructure.getTaskStatusesShardsPath(path));
+    } else {
+      for (Integer taskIndex : changedTaskIndexes) {
+        shardIndexes.add(taskIndex / manifest.getShardTaskNumber());
+      }
+    }
+
+    int oldTaskNumber = (oldManifest == null ? 0 : oldManifest.getTaskNumber());
+    // Each shard and the TaskStatusesManifest are separated by transaction boundaries, so that a large
+    // TaskStatuses can still be committed in multiple transactions, where the order matters.
+    if (manifest.getTaskNumber() >= oldTaskNumber) {
+      setTaskStatusesShards(batch, path, manifest, taskStatusArray, shardIndexes);
+      batch.addTransactionBoundary().setSmallYamlObject(path, manifest, objectFormat);
+    } else {
+      batch.addTransactionBoundary().setSmallYamlObject(path, manifest, objectFormat);
+      setTaskStatusesShards(batch, path, manifest, taskStatusArray, shardIndexes);
+      // Set it again, so that the TaskStatusesManifest is always changed after all the shards are set
+      batch.addTransactionBoundary().setSmallYamlObject(path, manifest, objectFormat);
+    }
+
+    if (stat != null && oldManifest == null) {
+      // Clean the TaskStatuses set in the legacy layout, which will not be got any more
+      String shardsNodeName = ZookeeperStoreStructure.getNodeName(
+          ZookeeperStoreStructure.getTaskStatusesShardsPath(path));
+      for (String child : zkClient.getChildren(path)) {
+        if (!child.equals(shardsNodeName)) {
+          batch.deleteRecursively(ZookeeperStoreStructure.getNodePath(path, child));
+        }
+      }
+    }
   }
 
+  private void setTaskStatusesShards(
+      ZkWriteBatch batch, String path, TaskStatusesManifest manifest, List<TaskStatus> taskStatusArray,
+      Set<Integer> shardIndexes) {
+    int shardTaskNumber = manifest.getShardTaskNumber();
+    for (Integer shardIndex : shardIndexes) {
+      String shardPath = ZookeeperStoreStructure.getTaskStatusesShardPath(path, shardIndex);
+      int startTaskIndex = shardIndex * shardTaskNumber;
+      batch.addTransactionBoundary();
+      if (startTaskIndex >= taskStatusArray.size()) {
+        batch.deleteRecursively(shardPath);
+        continue;
+      }
+
+      TaskStatuses shard = new TaskStatuses();
+      shard.setTaskRoleName(manifest.getTaskRoleName());
+      shard.setFrameworkVersion(manifest.getFrameworkVersion());
+      shard.setTaskStatusArray(new ArrayList<>(taskStatusArray.subList(
+          startTaskIndex, Math.min(taskStatusArray.size(), startTaskIndex + shardTaskNumber))));
+      batch.setYamlObject(shardPath, shard, objectFormat);
+    }
+  }
+
+  private static int getShardNumber(TaskStatusesManifest manifest) {
+    return (manifest.getTaskNumber() + manifest.getShardTaskNumber() - 1) / manifest.getShardTaskNumber();
+  }
+
+  // ShardIndex -> Shard
+  // Return null if the shards are incomplete for the TaskStatusesManifest.
+  private static TaskStatuses assembleTaskStatuses(TaskStatusesManifest manifest, Map<Integer, TaskStatuses> shards) {
+    List<TaskStatus> taskStatusArray = new ArrayList<>(manifest.getTaskNumber());
+    for (int shardIndex = 0; shardIndex < getShardNumber(manifest); shardIndex++) {
+      TaskStatuses shard = shards.get(shardIndex);
+      if (shard == null || shard.getTaskStatusArray() == null) {
+        return null;
+      }
+
+      int endTaskIndex = Math.min(manifest.getTaskNumber(), (shardIndex + 1) * manifest.getShardTaskNumber());
+      for (TaskStatus taskStatus : shard.getTaskStatusArray()) {
+        if (taskStatusArray.size() >= endTaskIndex) {
+          break;
+        }
+        if (taskStatus.getTaskIndex() == null || taskStatus.getTaskIndex() != taskStatusArray.size()) {
+          return null;
+        }
+        taskStatusArray.add(taskStatus);
+      }
+      if (taskStatusArray.size() < endTaskIndex) {
+        return null;
+      }
+    }
+
+    TaskStatuses taskStatuses = new TaskStatuses();
+    taskStatuses.setTaskRoleName(manifest.getTaskRoleName());
+    taskStatuses.setFrameworkVersion(manifest.getFrameworkVersion());
+    taskStatuses.setTaskStatusArray(taskStatusArray);
+    return taskStatuses;
+  }
+
+  public List<String> getStatusFrameworkNames() throws Exception {
+    return zkClient.getChildren(zkStruct.getLauncherStatusPath());
+  }
+
+  public List<String> getRequestFrameworkNames() throws Exception {
+    return zkClient.getChildren(zkStruct.getLauncherRequestPath());
+  }
 
   // AggregatedRequests
   public AggregatedFrameworkRequest getAggregatedFrameworkRequest(String frameworkName) throws Exception {
@@ -194,27 +503,15 @@ public AggregatedLauncherRequest getAggregatedLauncherRequest() throws Exception
     AggregatedLauncherRequest aggregatedLauncherRequest = new AggregatedLauncherRequest();
 
     aggregatedLauncherRequest.setLauncherRequest(getLauncherRequest());
-    aggregatedLauncherRequest.setAggregatedFrameworkRequests(new HashMap<>());
-    for (String frameworkName : zkClient.getChildren(zkStruct.getLauncherRequestPath())) {
-      try {
-        aggregatedLauncherRequest.getAggregatedFrameworkRequests().put(frameworkName, getAggregatedFrameworkRequest(frameworkName));
-      } catch (KeeperException.NoNodeException ignored) {
-      }
-    }
+    aggregatedLauncherRequest.setAggregatedFrameworkRequests(new HashMap<>(
+        getAggregatedFrameworkRequests(zkClient.getChildren(zkStruct.getLauncherRequestPath()))));
 
     return aggregatedLauncherRequest;
   }
 
   // Specialization for performance
   public HashMap<String, FrameworkRequest> getAllFrameworkRequests() throws Exception {
-    HashMap<String, FrameworkRequest> allFrameworkRequests = new HashMap<>();
-    for (String frameworkName : zkClient.getChildren(zkStruct.getLauncherRequestPath())) {
-      try {
-        allFrameworkRequests.put(frameworkName, getFrameworkRequest(frameworkName));
-      } catch (KeeperException.NoNodeException ignored) {
-      }
-    }
-    return allFrameworkRequests;
+    return new HashMap<>(getFrameworkRequests(zkClient.getChildren(zkStruct.getLauncherRequestPath())));
   }
 
   // AggregatedStatuses
@@ -242,39 +539,395 @@ public AggregatedFrameworkStatus getAggregatedFrameworkStatus(String frameworkNa
   public AggregatedLauncherStatus getAggregatedLauncherStatus() throws Exception {
     AggregatedLauncherStatus aggregatedLauncherStatus = new AggregatedLauncherStatus();
     aggregatedLauncherStatus.setLauncherStatus(getLauncherStatus());
-    aggregatedLauncherStatus.setAggregatedFrameworkStatuses(new HashMap<>());
-    for (String frameworkName : zkClient.getChildren(zkStruct.getLauncherStatusPath())) {
-      try {
-        aggregatedLauncherStatus.getAggregatedFrameworkStatuses().put(frameworkName, getAggregatedFrameworkStatus(frameworkName));
-      } catch (KeeperException.NoNodeException ignored) {
-      } catch (KeeperException e) {
-        throw e;
-      } catch (Exception e) {
-        LOGGER.logWarning(e,
-            "[%s]: getAggregatedLauncherStatus: Got corrupted data",
-            frameworkName);
-        aggregatedLauncherStatus.getAggregatedFrameworkStatuses().put(frameworkName, null);
-      }
-    }
+    aggregatedLauncherStatus.setAggregatedFrameworkStatuses(new HashMap<>(
+        getAggregatedFrameworkStatuses(getStatusFrameworkNames())));
     return aggregatedLauncherStatus;
   }
 
   // Specialization for performance
   public HashMap<String, FrameworkStatus> getAllFrameworkStatuses() throws Exception {
-    HashMap<String, FrameworkStatus> allFrameworkStatuses = new HashMap<>();
-    for (String frameworkName : zkClient.getChildren(zkStruct.getLauncherStatusPath())) {
-      try {
-        allFrameworkStatuses.put(frameworkName, getFrameworkStatus(frameworkName));
-      } catch (KeeperException.NoNodeException ignored) {
-      } catch (KeeperException e) {
-        throw e;
-      } catch (Exception e) {
-        LOGGER.logWarning(e,
-            "[%s]: getAllFrameworkStatuses: Got corrupted data",
+    return new HashMap<>(getFrameworkStatuses(getStatusFrameworkNames()));
+  }
+
+  // BatchRequests
+  // Batch version of the Request getters by pipelined asynchronous reads, for large number of Frameworks.
+  // The Framework which does not exist is absent in the returned Map.
+  public Map<String, FrameworkRequest> getFrameworkRequests(Collection<String> frameworkNames) throws Exception {
+    Map<String, FrameworkRequest> frameworkRequests = getSmallYamlObjectBatch(
+        frameworkNames, zkStruct::getFrameworkRequestPath, FrameworkRequest.class);
+
+    for (String frameworkName : frameworkNames) {
+      if (frameworkRequests.containsKey(frameworkName) && frameworkRequests.get(frameworkName) == null) {
+        // Get it again to throw the same Exception as getFrameworkRequest
+        try {
+          frameworkRequests.put(frameworkName, getFrameworkRequest(frameworkName));
+        } catch (KeeperException.NoNodeException e) {
+          frameworkRequests.remove(frameworkName);
+        }
+      }
+    }
+    return frameworkRequests;
+  }
+
+  public Map<String, AggregatedFrameworkRequest> getAggregatedFrameworkRequests(Collection<String> frameworkNames) throws Exception {
+    Map<String, FrameworkRequest> frameworkRequests = getFrameworkRequests(frameworkNames);
+    Set<String> existingFrameworkNames = frameworkRequests.keySet();
+    Map<String, OverrideApplicationProgressRequest> overrideApplicationProgressRequests = getSmallYamlObjectBatch(
+        existingFrameworkNames, zkStruct::getOverrideApplicationProgressRequestPath, OverrideApplicationProgressRequest.class);
+    Map<String, List<String>> migrateTaskRequestContainerIds = getChildrenBatch(
+        existingFrameworkNames, zkStruct::getMigrateTaskRequestsPath);
+
+    List<String> migrateTaskRequestPaths = new ArrayList<>();
+    for (Map.Entry<String, List<String>> containerIdsKV : migrateTaskRequestContainerIds.entrySet()) {
+      for (String containerId : containerIdsKV.getValue()) {
+        migrateTaskRequestPaths.add(zkStruct.getMigrateTaskRequestPath(containerIdsKV.getKey(), containerId));
+      }
+    }
+    Map<String, MigrateTaskRequest> migrateTaskRequests =
+        zkClient.getSmallYamlObjectBatch(migrateTaskRequestPaths, MigrateTaskRequest.class);
+
+    Map<String, AggregatedFrameworkRequest> aggregatedFrameworkRequests = new HashMap<>();
+    for (String frameworkName : existingFrameworkNames) {
+      AggregatedFrameworkRequest aggregatedFrameworkRequest = new AggregatedFrameworkRequest();
+      aggregatedFrameworkRequest.setFrameworkRequest(frameworkRequests.get(frameworkName));
+      aggregatedFrameworkRequest.setOverrideApplicationProgressRequest(overrideApplicationProgressRequests.get(frameworkName));
+      Boolean isCorrupt = (overrideApplicationProgressRequests.containsKey(frameworkName) &&
+          overrideApplicationProgressRequests.get(frameworkName) == null);
+
+      List<String> containerIds = migrateTaskRequestContainerIds.get(frameworkName);
+      if (containerIds == null) {
+        aggregatedFrameworkRequest.setMigrateTaskRequests(null);
+      } else {
+        aggregatedFrameworkRequest.setMigrateTaskRequests(new HashMap<>());
+        for (String containerId : containerIds) {
+          String migrateTaskRequestPath = zkStruct.getMigrateTaskRequestPath(frameworkName, containerId);
+          if (migrateTaskRequests.containsKey(migrateTaskRequestPath)) {
+            MigrateTaskRequest migrateTaskRequest = migrateTaskRequests.get(migrateTaskRequestPath);
+            if (migrateTaskRequest == null) {
+              isCorrupt = true;
+            } else {
+              aggregatedFrameworkRequest.getMigrateTaskRequests().put(containerId, migrateTaskRequest);
+            }
+          }
+        }
+      }
+
+      if (isCorrupt) {
+        // Get it again to throw the same Exception as getAggregatedFrameworkRequest
+        try {
+          aggregatedFrameworkRequest = getAggregatedFrameworkRequest(frameworkName);
+        } catch (KeeperException.NoNodeException e) {
+          continue;
+        }
+      }
+      aggregatedFrameworkRequests.put(frameworkName, aggregatedFrameworkRequest);
+    }
+    return aggregatedFrameworkRequests;
+  }
+
+  // BatchStatuses
+  // Batch version of the Status getters by pipelined asynchronous reads, for large number of Frameworks.
+  // The Framework which does not exist is absent in the returned Map.
+  // The Framework which has corrupted data is null in the returned Map.
+  public Map<String, FrameworkStatus> getFrameworkStatuses(Collection<String> frameworkNames) throws Exception {
+    return getSmallYamlObjectBatch(frameworkNames, zkStruct::getFrameworkStatusPath, FrameworkStatus.class);
+  }
+
+  public Map<String, List<String>> getStatusTaskRoleNames(Collection<String> frameworkNames) throws Exception {
+    return getChildrenBatch(frameworkNames, zkStruct::getFrameworkStatusPath);
+  }
+
+  // FrameworkName -> TaskRoleName -> AggregatedTaskRoleStatus
+  // The TaskRole which does not exist is absent in the returned Map.
+  public Map<String, Map<String, AggregatedTaskRoleStatus>> getAggregatedTaskRoleStatuses(
+      Map<String, ? extends Collection<String>> taskRoleNames) throws Exception {
+    List<String> taskRoleStatusPaths = new ArrayList<>();
+    List<String> taskStatusesPaths = new ArrayList<>();
+    for (Map.Entry<String, ? extends Collection<String>> taskRoleNamesKV : taskRoleNames.entrySet()) {
+      for (String taskRoleName : taskRoleNamesKV.getValue()) {
+        taskRoleStatusPaths.add(zkStruct.getTaskRoleStatusPath(taskRoleNamesKV.getKey(), taskRoleName));
+        taskStatusesPaths.add(zkStruct.getTaskStatusesPath(taskRoleNamesKV.getKey(), taskRoleName));
+      }
+    }
+    Map<String, TaskRoleStatus> taskRoleStatuses =
+        zkClient.getSmallYamlObjectBatch(taskRoleStatusPaths, TaskRoleStatus.class);
+    Map<String, TaskStatuses> taskStatuseses = getTaskStatusesBatch(taskStatusesPaths);
+
+    Map<String, Map<String, AggregatedTaskRoleStatus>> aggregatedTaskRoleStatuseses = new HashMap<>();
+    for (Map.Entry<String, ? extends Collection<String>> taskRoleNamesKV : taskRoleNames.entrySet()) {
+      String frameworkName = taskRoleNamesKV.getKey();
+      Map<String, AggregatedTaskRoleStatus> aggregatedTaskRoleStatuses = new HashMap<>();
+      for (String taskRoleName : taskRoleNamesKV.getValue()) {
+        String taskRoleStatusPath = zkStruct.getTaskRoleStatusPath(frameworkName, taskRoleName);
+        String taskStatusesPath = zkStruct.getTaskStatusesPath(frameworkName, taskRoleName);
+        if (!taskRoleStatuses.containsKey(taskRoleStatusPath)) {
+          continue;
+        }
+
+        TaskStatuses taskStatuses;
+        if (taskStatuseses.containsKey(taskStatusesPath)) {
+          taskStatuses = taskStatuseses.get(taskStatusesPath);
+        } else {
+          // Fall back to get it one by one, see getTaskStatusesBatch
+          try {
+            taskStatuses = getTaskStatuses(frameworkName, taskRoleName);
+          } catch (KeeperException.NoNodeException e) {
+            continue;
+          } catch (KeeperException | TransientException e) {
+            throw e;
+          } catch (Exception e) {
+            LOGGER.logWarning(e,
+                "[%s][%s]: getAggregatedTaskRoleStatuses: Got corrupted data",
+                frameworkName, taskRoleName);
+            taskStatuses = null;
+          }
+        }
+
+        TaskRoleStatus taskRoleStatus = taskRoleStatuses.get(taskRoleStatusPath);
+        if (taskRoleStatus == null || taskStatuses == null) {
+          aggregatedTaskRoleStatuses = null;
+          break;
+        }
+
+        AggregatedTaskRoleStatus aggregatedTaskRoleStatus = new AggregatedTaskRoleStatus();
+        aggregatedTaskRoleStatus.setTaskRoleStatus(taskRoleStatus);
+        aggregatedTaskRoleStatus.setTaskStatuses(taskStatuses);
+        aggregatedTaskRoleStatuses.put(taskRoleName, aggregatedTaskRoleStatus);
+      }
+      aggregatedTaskRoleStatuseses.put(frameworkName, aggregatedTaskRoleStatuses);
+    }
+    return aggregatedTaskRoleStatuseses;
+  }
+
+  public Map<String, AggregatedFrameworkStatus> getAggregatedFrameworkStatuses(Collection<String> frameworkNames) throws Exception {
+    Map<String, FrameworkStatus> frameworkStatuses = getFrameworkStatuses(frameworkNames);
+    Map<String, List<String>> taskRoleNames = getStatusTaskRoleNames(frameworkStatuses.keySet());
+    Map<String, Map<String, AggregatedTaskRoleStatus>> aggregatedTaskRoleStatuseses = getAggregatedTaskRoleStatuses(taskRoleNames);
+
+    Map<String, AggregatedFrameworkStatus> aggregatedFrameworkStatuses = new HashMap<>();
+    for (String frameworkName : taskRoleNames.keySet()) {
+      FrameworkStatus frameworkStatus = frameworkStatuses.get(frameworkName);
+      Map<String, AggregatedTaskRoleStatus> aggregatedTaskRoleStatuses = aggregatedTaskRoleStatuseses.get(frameworkName);
+      if (frameworkStatus == null || aggregatedTaskRoleStatuses == null) {
+        LOGGER.logWarning(
+            "[%s]: getAggregatedFrameworkStatuses: Got corrupted data",
             frameworkName);
-        allFrameworkStatuses.put(frameworkName, null);
+        aggregatedFrameworkStatuses.put(frameworkName, null);
+        continue;
+      }
+
+      AggregatedFrameworkStatus aggregatedFrameworkStatus = new AggregatedFrameworkStatus();
+      aggregatedFrameworkStatus.setFrameworkStatus(frameworkStatus);
+      aggregatedFrameworkStatus.setAggregatedTaskRoleStatuses(aggregatedTaskRoleStatuses);
+      aggregatedFrameworkStatuses.put(frameworkName, aggregatedFrameworkStatus);
+    }
+    return aggregatedFrameworkStatuses;
+  }
+
+  // BatchRequestVersions
+  // The FrameworkRequestVersion is the zxid which last changed the FrameworkRequest, so the caller can
+  // skip getting the unchanged FrameworkRequest.
+  // Note the FrameworkRequestVersion should be got before the FrameworkRequest, so that the FrameworkRequest
+  // is not older than it.
+  // The Framework which does not exist is absent in the returned Map.
+  public Map<String, Long> getFrameworkRequestVersions(Collection<String> frameworkNames) throws Exception {
+    Map<String, String> frameworkRequestPaths = getPaths(frameworkNames, zkStruct::getFrameworkRequestPath);
+    Map<String, Stat> stats = zkClient.getStatBatch(frameworkRequestPaths.values());
+
+    Map<String, Long> frameworkRequestVersions = new HashMap<>();
+    for (Map.Entry<String, String> frameworkRequestPathKV : frameworkRequestPaths.entrySet()) {
+      Stat stat = stats.get(frameworkRequestPathKV.getValue());
+      if (stat != null) {
+        frameworkRequestVersions.put(frameworkRequestPathKV.getKey(), stat.getMzxid());
+      }
+    }
+    return frameworkRequestVersions;
+  }
+
+  // BatchStatusVersions
+  // The StatusVersion is changed once the corresponding Status is changed, so that the caller can
+  // skip getting the unchanged Status. It is the latest zxid which changed the Status, so
+  // it is comparable across different Statuses.
+  // Note the StatusVersion should be got before the Status, so that the Status is not older than it.
+
+  // Changed once the FrameworkStatus or its TaskRoleNames changed.
+  // The Framework which does not exist is absent in the returned Map.
+  public Map<String, Long> getFrameworkStatusVersions(Collection<String> frameworkNames) throws Exception {
+    Map<String, String> frameworkStatusPaths = getPaths(frameworkNames, zkStruct::getFrameworkStatusPath);
+    Map<String, Stat> stats = zkClient.getStatBatch(frameworkStatusPaths.values());
+
+    Map<String, Long> frameworkStatusVersions = new HashMap<>();
+    for (Map.Entry<String, String> frameworkStatusPathKV : frameworkStatusPaths.entrySet()) {
+      Stat stat = stats.get(frameworkStatusPathKV.getValue());
+      if (stat != null) {
+        frameworkStatusVersions.put(frameworkStatusPathKV.getKey(), Math.max(stat.getMzxid(), stat.getPzxid()));
+      }
+    }
+    return frameworkStatusVersions;
+  }
+
+  // Changed once the TaskRoleStatus or TaskStatuses changed.
+  // FrameworkName -> TaskRoleName -> AggregatedTaskRoleStatusVersion
+  // The AggregatedTaskRoleStatusVersion is null if the AggregatedTaskRoleStatus is not available.
+  public Map<String, Map<String, Long>> getAggregatedTaskRoleStatusVersions(
+      Map<String, ? extends Collection<String>> taskRoleNames) throws Exception {
+    List<String> taskRoleStatusPaths = new ArrayList<>();
+    List<String> taskStatusesPaths = new ArrayList<>();
+    for (Map.Entry<String, ? extends Collection<String>> taskRoleNamesKV : taskRoleNames.entrySet()) {
+      for (String taskRoleName : taskRoleNamesKV.getValue()) {
+        taskRoleStatusPaths.add(zkStruct.getTaskRoleStatusPath(taskRoleNamesKV.getKey(), taskRoleName));
+        taskStatusesPaths.add(zkStruct.getTaskStatusesPath(taskRoleNamesKV.getKey(), taskRoleName));
+      }
+    }
+    Map<String, Stat> taskRoleStatusStats = zkClient.getStatBatch(taskRoleStatusPaths);
+    Map<String, Long> taskStatusesVersions = getTaskStatusesVersionBatch(taskStatusesPaths);
+
+    Map<String, Map<String, Long>> aggregatedTaskRoleStatusVersionses = new HashMap<>();
+    for (Map.Entry<String, ? extends Collection<String>> taskRoleNamesKV : taskRoleNames.entrySet()) {
+      String frameworkName = taskRoleNamesKV.getKey();
+      Map<String, Long> aggregatedTaskRoleStatusVersions = new HashMap<>();
+      for (String taskRoleName : taskRoleNamesKV.getValue()) {
+        Stat taskRoleStatusStat = taskRoleStatusStats.get(zkStruct.getTaskRoleStatusPath(frameworkName, taskRoleName));
+        Long taskStatusesVersion = taskStatusesVersions.get(zkStruct.getTaskStatusesPath(frameworkName, taskRoleName));
+        if (taskRoleStatusStat == null || taskStatusesVersion == null) {
+          aggregatedTaskRoleStatusVersions.put(taskRoleName, null);
+        } else {
+          aggregatedTaskRoleStatusVersions.put(taskRoleName, Math.max(taskRoleStatusStat.getMzxid(), taskStatusesVersion));
+        }
+      }
+      aggregatedTaskRoleStatusVersionses.put(frameworkName, aggregatedTaskRoleStatusVersions);
+    }
+    return aggregatedTaskRoleStatusVersionses;
+  }
+
+  // Path -> TaskStatuses
+  // Only the TaskStatuses which is got completely and consistently is present in the returned Map,
+  // and the caller should fall back to getTaskStatuses for the others.
+  private Map<String, TaskStatuses> getTaskStatusesBatch(Collection<String> paths) throws Exception {
+    Map<String, Stat> stats = zkClient.getStatBatch(paths);
+    List<String> legacyPaths = new ArrayList<>();
+    List<String> shardedPaths = new ArrayList<>();
+    for (Map.Entry<String, Stat> statKV : stats.entrySet()) {
+      if (statKV.getValue().getDataLength() == 0) {
+        legacyPaths.add(statKV.getKey());
+      } else {
+        shardedPaths.add(statKV.getKey());
+      }
+    }
+
+    Map<String, TaskStatusesManifest> manifests =
+        zkClient.getSmallYamlObjectBatch(shardedPaths, TaskStatusesManifest.class);
+    List<String> shardPaths = new ArrayList<>();
+    for (Map.Entry<String, TaskStatusesManifest> manifestKV : manifests.entrySet()) {
+      if (manifestKV.getValue() != null) {
+        for (int shardIndex = 0; shardIndex < getShardNumber(manifestKV.getValue()); shardIndex++) {
+          shardPaths.add(ZookeeperStoreStructure.getTaskStatusesShardPath(manifestKV.getKey(), shardIndex));
+        }
+      }
+    }
+    Map<String, TaskStatuses> shards = zkClient.getSmallYamlObjectBatch(shardPaths, TaskStatuses.class);
+    Map<String, Stat> statsAfterGet = zkClient.getStatBatch(manifests.keySet());
+
+    Map<String, TaskStatuses> taskStatuseses = new HashMap<>(
+        zkClient.getLargeYamlObjectBatch(legacyPaths, TaskStatuses.class));
+    for (Map.Entry<String, TaskStatusesManifest> manifestKV : manifests.entrySet()) {
+      String path = manifestKV.getKey();
+      TaskStatusesManifest manifest = manifestKV.getValue();
+      Stat statAfterGet = statsAfterGet.get(path);
+      if (manifest == null || statAfterGet == null || statAfterGet.getMzxid() != stats.get(path).getMzxid()) {
+        continue;
+      }
+
+      Map<Integer, TaskStatuses> manifestShards = new HashMap<>();
+      for (int shardIndex = 0; shardIndex < getShardNumber(manifest); shardIndex++) {
+        manifestShards.put(shardIndex, shards.get(ZookeeperStoreStructure.getTaskStatusesShardPath(path, shardIndex)));
+      }
+      TaskStatuses taskStatuses = assembleTaskStatuses(manifest, manifestShards);
+      if (taskStatuses != null) {
+        taskStatuseses.put(path, taskStatuses);
       }
     }
-    return allFrameworkStatuses;
+    return taskStatuseses;
+  }
+
+  // Path -> TaskStatusesVersion
+  // The TaskStatuses which does not exist is absent in the returned Map.
+  private Map<String, Long> getTaskStatusesVersionBatch(Collection<String> paths) throws Exception {
+    Map<String, Stat> stats = zkClient.getStatBatch(paths);
+    List<String> legacyPaths = new ArrayList<>();
+    Map<String, Long> versions = new HashMap<>();
+    for (Map.Entry<String, Stat> statKV : stats.entrySet()) {
+      if (statKV.getValue().getDataLength() == 0) {
+        legacyPaths.add(statKV.getKey());
+      } else {
+        versions.put(statKV.getKey(), statKV.getValue().getMzxid());
+      }
+    }
+    versions.putAll(zkClient.getLargeYamlObjectVersionBatch(legacyPaths));
+    return versions;
+  }
+
+  // Name -> Path
+  private Map<String, String> getPaths(Collection<String> names, Function<String, String> pathResolver) {
+    Map<String, String> paths = new HashMap<>();
+    for (String name : names) {
+      paths.put(name, pathResolver.apply(name));
+    }
+    return paths;
+  }
+
+  private <T> Map<String, T> getSmallYamlObjectBatch(
+      Collection<String> names, Function<String, String> pathResolver, Class<T> classRef) throws Exception {
+    Map<String, String> paths = getPaths(names, pathResolver);
+    Map<String, T> pathObjects = zkClient.getSmallYamlObjectBatch(paths.values(), classRef);
+
+    Map<String, T> nameObjects = new HashMap<>();
+    for (Map.Entry<String, String> pathKV : paths.entrySet()) {
+      if (pathObjects.containsKey(pathKV.getValue())) {
+        nameObjects.put(pathKV.getKey(), pathObjects.get(pathKV.getValue()));
+      }
+    }
+    return nameObjects;
+  }
+
+  private Map<String, List<String>> getChildrenBatch(
+      Collection<String> names, Function<String, String> pathResolver) throws Exception {
+    Map<String, String> paths = getPaths(names, pathResolver);
+    Map<String, List<String>> pathChildren = zkClient.getChildrenBatch(paths.values());
+
+    Map<String, List<String>> nameChildren = new HashMap<>();
+    for (Map.Entry<String, String> pathKV : paths.entrySet()) {
+      if (pathChildren.containsKey(pathKV.getValue())) {
+        nameChildren.put(pathKV.getKey(), pathChildren.get(pathKV.getValue()));
+      }
+    }
+    return nameChildren;
+  }
+
+  // Subscriptions
+  // The listener will be notified with the changed FrameworkName, or null if the LauncherRequest itself is changed
+  // or all the Frameworks may be changed, such as the watches are resynced, see ZooKeeperClient.watchSubtree.
+  public void subscribeLauncherRequestChanges(Consumer<String> frameworkNameListener) throws Exception {
+    String rootPath = zkStruct.getLauncherRequestPath();
+    zkClient.watchSubtree(rootPath, LAUNCHER_REQUEST_WATCH_DEPTH, (path) ->
+        frameworkNameListener.accept(getChangedFrameworkName(rootPath, path)));
+  }
+
+  // The listener will be notified once the AggregatedFrameworkRequest is changed.
+  public void subscribeFrameworkRequestChanges(String frameworkName, Runnable listener) throws Exception {
+    zkClient.watchSubtree(
+        zkStruct.getFrameworkRequestPath(frameworkName), FRAMEWORK_REQUEST_WATCH_DEPTH, (path) -> listener.run());
+  }
+
+  // The listener will be notified with the changed FrameworkName, or null if the LauncherStatus itself is changed
+  // or all the Frameworks may be changed, like subscribeLauncherRequestChanges.
+  public void subscribeLauncherStatusChanges(Consumer<String> frameworkNameListener) throws Exception {
+    String rootPath = zkStruct.getLauncherStatusPath();
+    zkClient.watchSubtree(rootPath, LAUNCHER_STATUS_WATCH_DEPTH, (path) ->
+        frameworkNameListener.accept(getChangedFrameworkName(rootPath, path)));
+  }
+
+  private static String getChangedFrameworkName(String rootPath, String changedPath) {
+    return (changedPath == null ? null : ZookeeperStoreStructure.getChildNodeName(rootPath, changedPath));
   }
 }
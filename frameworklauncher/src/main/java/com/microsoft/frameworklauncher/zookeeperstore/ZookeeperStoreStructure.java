@@ -24,11 +24,13 @@ public class ZookeeperStoreStructure {
   private final String launcherRootPath;
   private final String launcherRequestPath;
   private final String launcherStatusPath;
+  private final String launcherMetricsPath;
 
   public ZookeeperStoreStructure(String launcherRootPath) {
     this.launcherRootPath = launcherRootPath;
     launcherRequestPath = getNodePath(this.launcherRootPath, "Requests");
     launcherStatusPath = getNodePath(this.launcherRootPath, "Statuses");
+    launcherMetricsPath = getNodePath(this.launcherRootPath, "Metrics");
   }
 
   public static String getNodePath(String parentNodePath, String nodeName) {
@@ -45,6 +47,20 @@ public static String getNodeName(String path) {
     return path.substring(s, t + 1);
   }
 
+  // Get the name of the child node of parentPath which is on the path from parentPath to the given path,
+  // such as the FrameworkName of a path under LauncherRequestPath or LauncherStatusPath.
+  // Return null if the given path is parentPath itself.
+  public static String getChildNodeName(String parentPath, String path) {
+    String relativePath = StringUtils.stripStart(
+        path.substring(StringUtils.stripEnd(parentPath, PATH_SEPARATOR).length()), PATH_SEPARATOR);
+    if (relativePath.isEmpty()) {
+      return null;
+    }
+
+    int e = relativePath.indexOf(PATH_SEPARATOR);
+    return (e < 0 ? relativePath : relativePath.substring(0, e));
+  }
+
   public String getLauncherRootPath() {
     return launcherRootPath;
   }
@@ -86,4 +102,31 @@ public String getTaskRoleStatusPath(String frameworkName, String taskRoleName) {
   public String getTaskStatusesPath(String frameworkName, String taskRoleName) {
     return getNodePath(getTaskRoleStatusPath(frameworkName, taskRoleName), "TaskStatuses");
   }
+
+  public static String getTaskStatusesShardsPath(String taskStatusesPath) {
+    return getNodePath(taskStatusesPath, "Shards");
+  }
+
+  public static String getTaskStatusesShardPath(String taskStatusesPath, int shardIndex) {
+    return getNodePath(getTaskStatusesShardsPath(taskStatusesPath), String.valueOf(shardIndex));
+  }
+
+  // Metrics
+  // The frequently changed runtime Status of the Service, which is kept out of the LauncherStatus
+  // subtree, so that its changes never notify the LauncherStatus watchers.
+  public String getLauncherMetricsPath() {
+    return launcherMetricsPath;
+  }
+
+  public String getTransitionQueueStatusPath() {
+    return getNodePath(getLauncherMetricsPath(), "TransitionQueueStatus");
+  }
+
+  public String getApplicationSubmissionStatusPath() {
+    return getNodePath(getLauncherMetricsPath(), "ApplicationSubmissionStatus");
+  }
+
+  public String getDiagnosticsRetrieveStatusPath() {
+    return getNodePath(getLauncherMetricsPath(), "DiagnosticsRetrieveStatus");
+  }
 }
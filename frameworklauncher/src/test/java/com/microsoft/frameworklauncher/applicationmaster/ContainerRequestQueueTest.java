@@ -0,0 +1,85 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.applicationmaster;
+
+import org.apache.hadoop.yarn.api.records.Priority;
+import org.apache.hadoop.yarn.api.records.Resource;
+import org.apache.hadoop.yarn.client.api.AMRMClient.ContainerRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ContainerRequestQueueTest {
+  private static ContainerRequest newContainerRequest(int priority) {
+    return new ContainerRequest(
+        Resource.newInstance(1, 1), new String[]{}, new String[]{}, Priority.newInstance(priority));
+  }
+
+  @Test
+  public void testCoalescedContainerRequests() {
+    ContainerRequestQueue queue = new ContainerRequestQueue(1, 0);
+
+    // The coalesced ContainerRequest is shared by all Tasks of the TaskRole, but it is still
+    // queued once per Task, so that RM is asked for one Container per Task.
+    ContainerRequest coalescedRequest = newContainerRequest(1);
+    ContainerRequest otherRequest = newContainerRequest(2);
+    for (int i = 0; i < 3; i++) {
+      queue.add(coalescedRequest);
+    }
+    queue.add(otherRequest);
+    Assert.assertEquals(4, queue.size());
+
+    List<ContainerRequest> requests = queue.poll();
+    Assert.assertEquals(4, requests.size());
+    Assert.assertSame(coalescedRequest, requests.get(0));
+    Assert.assertSame(coalescedRequest, requests.get(2));
+    Assert.assertSame(otherRequest, requests.get(3));
+    Assert.assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testBatchedContainerRequests() throws Exception {
+    ContainerRequestQueue queue = new ContainerRequestQueue(1, 2);
+    Assert.assertEquals(1000, queue.getHeartbeatIntervalMs());
+
+    for (int i = 0; i < 5; i++) {
+      queue.add(newContainerRequest(i));
+    }
+
+    // Only maxCountPerHeartbeat ContainerRequests can be polled in one heartbeat, in FIFO order
+    List<ContainerRequest> requests = queue.poll();
+    Assert.assertEquals(2, requests.size());
+    Assert.assertEquals(0, requests.get(0).getPriority().getPriority());
+    Assert.assertEquals(1, requests.get(1).getPriority().getPriority());
+    Assert.assertEquals(0, queue.poll().size());
+    Assert.assertEquals(3, queue.size());
+
+    // The remaining ones are polled in the following heartbeats
+    Thread.sleep(queue.getHeartbeatIntervalMs());
+    requests = queue.poll();
+    Assert.assertEquals(2, requests.size());
+    Assert.assertEquals(2, requests.get(0).getPriority().getPriority());
+
+    Thread.sleep(queue.getHeartbeatIntervalMs());
+    requests = queue.poll();
+    Assert.assertEquals(1, requests.size());
+    Assert.assertEquals(4, requests.get(0).getPriority().getPriority());
+    Assert.assertEquals(0, queue.size());
+  }
+}
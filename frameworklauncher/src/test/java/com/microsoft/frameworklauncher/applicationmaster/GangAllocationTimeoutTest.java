@@ -0,0 +1,234 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.applicationmaster;
+
+import com.microsoft.frameworklauncher.common.exceptions.AggregateException;
+import com.microsoft.frameworklauncher.common.model.*;
+import com.microsoft.frameworklauncher.utils.*;
+import com.microsoft.frameworklauncher.zookeeperstore.MockZookeeperStore;
+import com.microsoft.frameworklauncher.zookeeperstore.ZookeeperStore;
+import org.apache.hadoop.yarn.api.records.*;
+import org.apache.hadoop.yarn.client.api.AMRMClient;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class GangAllocationTimeoutTest {
+  private static final DefaultLogger LOG = new DefaultLogger(GangAllocationTimeoutTest.class);
+
+  private String frameworkName = "TestGangAllocationTimeout";
+  private int taskNum;
+
+  private MockResourceManager mockResourceManager;
+  private ZookeeperStore zkStore;
+
+  // The Containers released by the AM
+  private final Set<String> releasedContainerIds = Collections.synchronizedSet(new HashSet<>());
+  // The outstanding ContainerRequests removed by the AM
+  private final List<AMRMClient.ContainerRequest> removedRequests = Collections.synchronizedList(new ArrayList<>());
+  // The Containers of the Tasks which are launched together
+  private final Set<String> launchedContainerIds = new HashSet<>();
+
+  private int exitCode;
+
+  @Test
+  public void testGangAllocationTimeout() throws Exception {
+    LOG.logInfo("GangAllocationTimeoutTest start!");
+    init();
+
+    CountDownLatch signal = new CountDownLatch(1);
+    ApplicationMaster am = new AMForTest(signal);
+    Thread amThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          am.start();
+        } catch (Exception e) {
+          am.handleException(e);
+        }
+      }
+    });
+
+    amThread.start();
+    amThread.join();
+
+    Assert.assertTrue("ApplicationMaster didn't stop",
+        signal.getCount() == 0);
+    Assert.assertTrue(String.format("Wrong exitCode : %s", exitCode),
+        exitCode == ExitStatusKey.SUCCEEDED.toInt());
+
+    // The partial round held all Tasks except the last one, and they are released after the timeout
+    Assert.assertEquals(taskNum - 1, releasedContainerIds.size());
+    // The outstanding ContainerRequest of the last one is removed after the timeout
+    Assert.assertEquals(1, removedRequests.size());
+
+    // All Tasks are allocated and launched together in the retry round, with new Containers
+    Assert.assertEquals(taskNum, launchedContainerIds.size());
+    for (String containerId : launchedContainerIds) {
+      Assert.assertFalse(releasedContainerIds.contains(containerId));
+    }
+  }
+
+  private void init() throws Exception {
+    String frameworkFile = Thread.currentThread().getContextClassLoader()
+        .getResource("TestGangAllocationTimeout.json").getPath().toString();
+    FrameworkRequest frameworkRequest = FeatureTestUtils
+        .getFrameworkRequestFromJson(frameworkName, frameworkFile,
+            GlobalConstants.LOCAL_HOST_NAME, "user");
+    FrameworkStatus frameworkStatus = FeatureTestUtils.getFrameworkStatusFromRequest(frameworkRequest);
+
+    for (Map.Entry<String, TaskRoleDescriptor> entry :
+        frameworkRequest.getFrameworkDescriptor().getTaskRoles().entrySet()) {
+      TaskRoleDescriptor taskRoleDescriptor = entry.getValue();
+      taskNum = taskRoleDescriptor.getTaskNumber();
+
+      List<String> sourceLocations = taskRoleDescriptor.getTaskService().getSourceLocations();
+      String sourceLocation = FeatureTestUtils.HDFS_BASE_DIR + "/" + getClass().getSimpleName();
+      new File(sourceLocation).mkdir();
+      sourceLocations.add(sourceLocation);
+    }
+
+    FeatureTestUtils.setEnvsVariables(frameworkName, frameworkStatus);
+
+    // Initialize zookeeper
+    zkStore = MockZookeeperStore.newInstanceWithClean(FeatureTestUtils.ZK_BASE_DIR);
+    FeatureTestUtils.initZK(zkStore, frameworkRequest, frameworkStatus);
+
+    mockResourceManager = MockResourceManager.newInstance(taskNum,
+        Resource.newInstance(4, 4));
+  }
+
+  // Satisfy each ContainerRequest by exactly one Container, except the last one of the first round,
+  // so that the first GangAllocation round can only be partial and will be timeout.
+  // The withheld ContainerRequest is pending in RM until it is removed by the AM after the timeout.
+  private class PartialAMRMClient extends MockAMRMClient {
+    private int requestCount = 0;
+    private AMRMClient.ContainerRequest withheldRequest = null;
+
+    public PartialAMRMClient(ApplicationAttemptId attemptId, MockResourceManager mockResourceManager,
+                             int intervalMs, CallbackHandler callbackHandler) {
+      super(attemptId, mockResourceManager, intervalMs, callbackHandler);
+    }
+
+    @Override
+    public synchronized void addContainerRequest(AMRMClient.ContainerRequest req) {
+      requestCount++;
+      if (requestCount == taskNum) {
+        withheldRequest = req;
+        return;
+      }
+
+      NodeId nodeId = mockResourceManager.getNodeReportList().get(0).getNodeId();
+      List<Container> containers = allocateContainersOnSameNode(
+          1, nodeId, req.getCapability(), req.getPriority());
+      new Thread(() -> handler.onContainersAllocated(containers)).start();
+    }
+
+    // The ContainerRequests removed for the allocated Containers are not the added ones
+    @Override
+    public synchronized void removeContainerRequest(AMRMClient.ContainerRequest req) {
+      if (req == withheldRequest) {
+        removedRequests.add(req);
+        withheldRequest = null;
+      }
+    }
+
+    @Override
+    public void releaseAssignedContainer(ContainerId containerId) {
+      releasedContainerIds.add(containerId.toString());
+    }
+  }
+
+  private class AMForTest extends MockApplicationMaster {
+    private final DefaultLogger LOGGER = new DefaultLogger(AMForTest.class);
+    private CountDownLatch signal;
+
+    public AMForTest(CountDownLatch signal) {
+      this.signal = signal;
+    }
+
+    @Override
+    protected void initialize() throws Exception {
+      super.initialize();
+
+      rmClient = new PartialAMRMClient(FeatureTestUtils.newApplicationAttemptId(),
+          mockResourceManager, 60 * 1000,
+          new RMClientCallbackHandler(this));
+
+      yarnClient = new MockYarnClient(mockResourceManager);
+    }
+
+    @Override
+    protected void run() throws Exception {
+      super.run();
+      waitForLaunchedTogether();
+      stop(new StopStatus(ExitStatusKey.SUCCEEDED.toInt(), true, null));
+
+      signal.await(20, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void stop(StopStatus stopStatus) {
+      // Best Effort to stop Gracefully
+      AggregateException ae = new AggregateException();
+
+      try {
+        if (statusManager != null) {
+          statusManager.stop(stopStatus);
+        }
+      } catch (Exception e) {
+        ae.addException(e);
+      }
+
+      try {
+        if (requestManager != null) {
+          requestManager.stop(stopStatus);
+        }
+      } catch (Exception e) {
+        ae.addException(e);
+      }
+
+      if (ae.getExceptions().size() > 0) {
+        LOGGER.logWarning(ae, "Failed to stop %s gracefully", serviceName);
+      }
+
+      LOGGER.logInfo("%s stopped", serviceName);
+      exitCode = stopStatus.getCode();
+      signal.countDown();
+    }
+
+    private void waitForLaunchedTogether() throws InterruptedException {
+      List<TaskState> stateList = Arrays.asList(new TaskState[]{
+          TaskState.CONTAINER_LAUNCHED, TaskState.CONTAINER_RUNNING});
+      List<TaskStatus> list = statusManager.getTaskStatus(new HashSet<>(stateList));
+      long deadline = System.currentTimeMillis() + 20 * 1000;
+      while (list.size() < taskNum && System.currentTimeMillis() < deadline) {
+        Thread.sleep(500);
+        list = statusManager.getTaskStatus(new HashSet<>(stateList));
+      }
+
+      for (TaskStatus taskStatus : list) {
+        launchedContainerIds.add(taskStatus.getContainerId());
+      }
+    }
+  }
+}
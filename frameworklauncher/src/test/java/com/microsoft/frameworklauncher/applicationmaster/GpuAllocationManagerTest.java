@@ -26,6 +26,7 @@
 import org.junit.Test;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.Set;
 
 public class GpuAllocationManagerTest {
@@ -130,4 +131,78 @@ public void testGpuAllocationManager() {
     result = gpuMgr.allocateCandidateRequestNode(ResourceDescriptor.newInstance(1, 1, 1, 0L), null);
     Assert.assertEquals(null, result);
   }
+
+  @Test
+  public void testGpuAllocationBestFit() {
+    Set<String> tag = Collections.singleton("tag");
+
+    Node node1 = new Node("node1", null, ResourceDescriptor.newInstance(2, 2, 8, 0xFFL), ResourceDescriptor.newInstance(0, 0, 2, 0x3L));
+    Node node2 = new Node("node2", null, ResourceDescriptor.newInstance(2, 2, 8, 0xFFL), ResourceDescriptor.newInstance(0, 0, 4, 0xFL));
+    Node node3 = new Node("node3", tag, ResourceDescriptor.newInstance(2, 2, 8, 0xFFL), ResourceDescriptor.newInstance(0, 0, 2, 0x30L));
+
+    GpuAllocationManager gpuMgr = new GpuAllocationManager();
+
+    // Keep the whole free group 0-3, and select the group whose enclosing group is already used
+    long candidateGPU = gpuMgr.selectCandidateGPU(node3, 2);
+    Assert.assertEquals(0xC0L, candidateGPU);
+    candidateGPU = gpuMgr.selectCandidateGPU(node3, 4);
+    Assert.assertEquals(0xFL, candidateGPU);
+    candidateGPU = gpuMgr.selectCandidateGPU(node3, 3);
+    Assert.assertEquals(0x7L, candidateGPU);
+
+    gpuMgr.addCandidateRequestNode(node1);
+    gpuMgr.addCandidateRequestNode(node2);
+    gpuMgr.addCandidateRequestNode(node3);
+
+    // The node with the least enough free GPUs is selected
+    Node result = gpuMgr.allocateCandidateRequestNode(ResourceDescriptor.newInstance(1, 1, 4, 0L), null);
+    Assert.assertEquals("node2", result.getHostName());
+    Assert.assertEquals(0xF0L, result.getSelectedGpuBitmap());
+
+    result = gpuMgr.allocateCandidateRequestNode(ResourceDescriptor.newInstance(1, 1, 2, 0L), "tag");
+    Assert.assertEquals("node3", result.getHostName());
+    Assert.assertEquals(0xC0L, result.getSelectedGpuBitmap());
+
+    result = gpuMgr.allocateCandidateRequestNode(ResourceDescriptor.newInstance(1, 1, 1, 0L), "otherTag");
+    Assert.assertEquals(null, result);
+
+    // node3 has 4 free GPUs now, and node1 has 6
+    result = gpuMgr.allocateCandidateRequestNode(ResourceDescriptor.newInstance(1, 1, 4, 0L), null);
+    Assert.assertEquals("node3", result.getHostName());
+    Assert.assertEquals(0xFL, result.getSelectedGpuBitmap());
+
+    result = gpuMgr.allocateCandidateRequestNode(ResourceDescriptor.newInstance(1, 1, 4, 0L), null);
+    Assert.assertEquals("node1", result.getHostName());
+    Assert.assertEquals(0xF0L, result.getSelectedGpuBitmap());
+  }
+
+  @Test
+  public void testGpuAllocationRelease() {
+    Node node1 = new Node("node1", null, ResourceDescriptor.newInstance(4, 4, 4, 0xFL), ResourceDescriptor.newInstance(0, 0, 0, 0L));
+
+    GpuAllocationManager gpuMgr = new GpuAllocationManager();
+    gpuMgr.addCandidateRequestNode(node1);
+
+    ResourceDescriptor request = ResourceDescriptor.newInstance(2, 2, 4, 0L);
+    Node result = gpuMgr.allocateCandidateRequestNode(request, null);
+    Assert.assertEquals("node1", result.getHostName());
+    Assert.assertEquals(0xFL, result.getSelectedGpuBitmap());
+    Assert.assertEquals(null, gpuMgr.allocateCandidateRequestNode(request, null));
+
+    // The released resources can be allocated again without refreshing the Node
+    gpuMgr.releaseCandidateRequestNodeResource("node1", request, 0xFL);
+    Assert.assertEquals(4, node1.getAvailableNumGpus());
+    Assert.assertEquals(4, node1.getAvailableMemory());
+    Assert.assertEquals(4, node1.getAvailableCpu());
+
+    result = gpuMgr.allocateCandidateRequestNode(request, null);
+    Assert.assertEquals("node1", result.getHostName());
+
+    // Refreshing the Node keeps the resources allocated by this AM
+    gpuMgr.addCandidateRequestNode(new Node("node1", null, ResourceDescriptor.newInstance(4, 4, 4, 0xFL), ResourceDescriptor.newInstance(0, 0, 0, 0L)));
+    Assert.assertEquals(0, node1.getAvailableNumGpus());
+
+    // Unknown Node is ignored
+    gpuMgr.releaseCandidateRequestNodeResource("node2", request, 0xFL);
+  }
 }
@@ -127,7 +127,7 @@ private List<Container> addRelaxLocalityContainerRequest(AMRMClient.ContainerReq
     return allocateList;
   }
 
-  private List<Container> allocateContainersOnSameNode(
+  protected List<Container> allocateContainersOnSameNode(
       int containerNum, NodeId nodeId, Resource capability, Priority priority) {
     List<Container> containerList = new ArrayList<>();
 
@@ -47,6 +47,12 @@ protected void initialize() throws Exception {
     hdfsStore = new MockHdfsStore(conf.getLauncherConfig().getHdfsRootDir());
     hdfsStore.makeFrameworkRootDir(conf.getFrameworkName());
     hdfsStore.makeAMStoreRootDir(conf.getFrameworkName());
+
+    gpuAllocationManager = new GpuAllocationManager();
+    nodeInventory = new NodeInventory(conf.getLauncherConfig().getAmNodeInventoryRefreshIntervalSec());
+    containerRequestQueue = new ContainerRequestQueue(
+        conf.getLauncherConfig().getAmRmHeartbeatIntervalSec(),
+        conf.getLauncherConfig().getAmContainerRequestMaxCountPerHeartbeat());
   }
 
   @Override
@@ -57,7 +57,7 @@ private void initNodeIds(int nodeNums, int containerNums, Resource resource) {
       int port = 1024 + portRandom.nextInt(65535 - 1024 + 1);
       StringBuilder hostStr = new StringBuilder();
       for (int j = 0; j < 4; j++) {
-        hostStr.append(".").append(1 + ipRandom.nextInt(256));
+        hostStr.append(".").append(1 + ipRandom.nextInt(254));
       }
       NodeId nodeId = NodeId.newInstance(hostStr.substring(1), port);
       nodeReport.setNodeId(nodeId);
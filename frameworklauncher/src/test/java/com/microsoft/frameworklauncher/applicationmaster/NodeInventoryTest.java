@@ -0,0 +1,74 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.applicationmaster;
+
+import org.apache.hadoop.yarn.api.records.NodeId;
+import org.apache.hadoop.yarn.api.records.NodeReport;
+import org.apache.hadoop.yarn.api.records.NodeState;
+import org.apache.hadoop.yarn.api.records.Resource;
+import org.apache.hadoop.yarn.util.Records;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class NodeInventoryTest {
+  private static NodeReport newNodeReport(String hostName, NodeState state) {
+    NodeReport nodeReport = Records.newRecord(NodeReport.class);
+    nodeReport.setNodeId(NodeId.newInstance(hostName, 8041));
+    nodeReport.setNodeState(state);
+    nodeReport.setNodeLabels(new HashSet<>());
+    nodeReport.setCapability(Resource.newInstance(4, 4));
+    nodeReport.setUsed(Resource.newInstance(0, 0));
+    return nodeReport;
+  }
+
+  @Test
+  public void testNodeInventory() {
+    NodeInventory nodeInventory = new NodeInventory(3600);
+    Assert.assertTrue(nodeInventory.isRefreshDue());
+    Assert.assertFalse(nodeInventory.isRefreshed());
+
+    List<NodeReport> removedNodeReports = nodeInventory.refresh(Arrays.asList(
+        newNodeReport("node1", NodeState.RUNNING),
+        newNodeReport("node2", NodeState.RUNNING),
+        newNodeReport("node3", NodeState.UNHEALTHY)));
+    Assert.assertFalse(nodeInventory.isRefreshDue());
+    Assert.assertTrue(nodeInventory.isRefreshed());
+    Assert.assertEquals(0, removedNodeReports.size());
+    Assert.assertEquals(2, nodeInventory.getNodeReports().size());
+
+    // Apply deltas
+    nodeInventory.update(Arrays.asList(
+        newNodeReport("node2", NodeState.LOST),
+        newNodeReport("node4", NodeState.NEW)));
+    Assert.assertEquals(2, nodeInventory.getNodeReports().size());
+    Assert.assertFalse(nodeInventory.getNodeReports().stream().anyMatch(
+        nodeReport -> nodeReport.getNodeId().getHost().equals("node2")));
+
+    // Full refresh reports the Nodes which disappeared
+    removedNodeReports = nodeInventory.refresh(Collections.singletonList(
+        newNodeReport("node1", NodeState.RUNNING)));
+    Assert.assertEquals(1, removedNodeReports.size());
+    Assert.assertEquals("node4", removedNodeReports.get(0).getNodeId().getHost());
+    Assert.assertEquals(1, nodeInventory.getNodeReports().size());
+  }
+}
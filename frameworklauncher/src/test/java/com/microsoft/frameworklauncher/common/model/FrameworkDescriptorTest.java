@@ -50,7 +50,7 @@ public void testFrameworkDescriptor() throws Exception {
 
   @Test
   public void testWrongFrameworkDescriptor() throws Exception {
-    List<String> configFileNames = Arrays.asList("WrongFrameworkDescription");
+    List<String> configFileNames = Arrays.asList("WrongFrameworkDescription", "WrongGangAllocationFrameworkDescription");
     for (String configFileName : configFileNames) {
       String inputJsonFilePath = INPUTS_DIR + configFileName + ".json";
 
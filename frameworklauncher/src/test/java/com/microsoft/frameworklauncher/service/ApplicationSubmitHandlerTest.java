@@ -0,0 +1,94 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.service;
+
+import com.microsoft.frameworklauncher.common.model.ApplicationSubmissionStatus;
+import com.microsoft.frameworklauncher.common.model.LauncherConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ApplicationSubmitHandlerTest {
+  private static void waitSetupContextQueueLength(
+      ApplicationSubmitHandler handler, int queueLength) throws Exception {
+    long deadlineTimestamp = System.currentTimeMillis() + 10000;
+    while (handler.getApplicationSubmissionStatus().getApplicationSetupContextQueueLength() != queueLength) {
+      Assert.assertTrue(System.currentTimeMillis() < deadlineTimestamp);
+      Thread.sleep(10);
+    }
+  }
+
+  private static void waitCount(AtomicInteger count, int expectedCount) throws Exception {
+    long deadlineTimestamp = System.currentTimeMillis() + 10000;
+    while (count.get() != expectedCount) {
+      Assert.assertTrue(System.currentTimeMillis() < deadlineTimestamp);
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void testSetupContextConcurrency() throws Exception {
+    LauncherConfiguration conf = new LauncherConfiguration();
+    conf.setApplicationSetupContextThreadCount(2);
+    ApplicationSubmitHandler handler = new ApplicationSubmitHandler(null, conf);
+
+    CountDownLatch releaseLatch = new CountDownLatch(1);
+    AtomicInteger runningCount = new AtomicInteger(0);
+    AtomicInteger maxRunningCount = new AtomicInteger(0);
+    AtomicInteger completedCount = new AtomicInteger(0);
+    for (int i = 0; i < 5; i++) {
+      handler.setupApplicationContextAsync(() -> {
+        maxRunningCount.accumulateAndGet(runningCount.incrementAndGet(), Math::max);
+        releaseLatch.await();
+        runningCount.decrementAndGet();
+        completedCount.incrementAndGet();
+      });
+    }
+
+    // Only ApplicationSetupContextThreadCount setups are running, and the others are queued
+    waitCount(runningCount, 2);
+    Thread.sleep(100);
+    Assert.assertEquals(2, runningCount.get());
+    ApplicationSubmissionStatus status = handler.getApplicationSubmissionStatus();
+    Assert.assertEquals(5, status.getApplicationSetupContextQueueLength().intValue());
+    Assert.assertEquals(0, status.getApplicationSubmitQueueLength().intValue());
+
+    // The queued setups are run once the running ones are completed
+    releaseLatch.countDown();
+    waitCount(completedCount, 5);
+    waitSetupContextQueueLength(handler, 0);
+    Assert.assertEquals(2, maxRunningCount.get());
+  }
+
+  @Test
+  public void testNonPositiveThreadCount() throws Exception {
+    LauncherConfiguration conf = new LauncherConfiguration();
+    conf.setApplicationSetupContextThreadCount(0);
+    ApplicationSubmitHandler handler = new ApplicationSubmitHandler(null, conf);
+
+    // At least one thread is used, so the setups are still run one by one
+    AtomicInteger completedCount = new AtomicInteger(0);
+    for (int i = 0; i < 3; i++) {
+      handler.setupApplicationContextAsync(completedCount::incrementAndGet);
+    }
+    waitCount(completedCount, 3);
+    waitSetupContextQueueLength(handler, 0);
+  }
+}
@@ -0,0 +1,214 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.service;
+
+import com.microsoft.frameworklauncher.applicationmaster.MockYarnClient;
+import com.microsoft.frameworklauncher.common.model.DiagnosticsRetrieveStatus;
+import com.microsoft.frameworklauncher.common.model.LauncherConfiguration;
+import org.apache.hadoop.yarn.api.records.ApplicationId;
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
+import org.apache.hadoop.yarn.api.records.YarnApplicationState;
+import org.apache.hadoop.yarn.conf.YarnConfiguration;
+import org.apache.hadoop.yarn.util.ConverterUtils;
+import org.apache.hadoop.yarn.util.Records;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DiagnosticsRetrieveHandlerTest {
+  private static final String DIAGNOSTICS = "Application Failed";
+
+  private static String getApplicationId(int id) {
+    return ApplicationId.newInstance(1000, id).toString();
+  }
+
+  // Return the non-empty diagnostics once an Application has been reported for the given times
+  private static class DiagnosticsYarnClient extends MockYarnClient {
+    private final int emptyReportCount;
+    private final Map<String, AtomicInteger> reportCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger getApplicationReportCount = new AtomicInteger(0);
+    private final AtomicInteger getApplicationsCount = new AtomicInteger(0);
+    private final Set<String> completedApplicationIds = ConcurrentHashMap.newKeySet();
+
+    public DiagnosticsYarnClient(int emptyReportCount, int rmMaxCompletedApplicationCount) {
+      super(null);
+      this.emptyReportCount = emptyReportCount;
+      YarnConfiguration yarnConf = new YarnConfiguration();
+      yarnConf.setInt(YarnConfiguration.RM_MAX_COMPLETED_APPLICATIONS, rmMaxCompletedApplicationCount);
+      init(yarnConf);
+    }
+
+    public void completeApplication(String applicationId) {
+      completedApplicationIds.add(applicationId);
+    }
+
+    private ApplicationReport newReport(String applicationId) {
+      ApplicationReport report = Records.newRecord(ApplicationReport.class);
+      report.setApplicationId(ConverterUtils.toApplicationId(applicationId));
+      int reportCount = reportCounts.computeIfAbsent(applicationId, k -> new AtomicInteger(0)).incrementAndGet();
+      report.setDiagnostics(reportCount > emptyReportCount ? DIAGNOSTICS : "");
+      return report;
+    }
+
+    @Override
+    public ApplicationReport getApplicationReport(ApplicationId appId) {
+      getApplicationReportCount.incrementAndGet();
+      return newReport(appId.toString());
+    }
+
+    @Override
+    public List<ApplicationReport> getApplications(
+        Set<String> applicationTypes, EnumSet<YarnApplicationState> applicationStates) {
+      getApplicationsCount.incrementAndGet();
+      List<ApplicationReport> reports = new ArrayList<>();
+      for (String applicationId : completedApplicationIds) {
+        reports.add(newReport(applicationId));
+      }
+      return reports;
+    }
+  }
+
+  // Record the retrieved diagnostics instead of feeding them into the FrameworkStates
+  private static class DiagnosticsRecordingService extends Service {
+    // ApplicationId -> Retrieved Diagnostics
+    private final Map<String, List<String>> retrievedDiagnostics = new ConcurrentHashMap<>();
+
+    @Override
+    public void onDiagnosticsRetrieved(String applicationId, String diagnostics) {
+      retrievedDiagnostics.computeIfAbsent(applicationId, k -> Collections.synchronizedList(new ArrayList<>()))
+          .add(diagnostics);
+    }
+
+    @Override
+    public void onExceptionOccurred(Exception e) {
+      throw new AssertionError(e);
+    }
+
+    public void waitRetrievedApplicationCount(int applicationCount) throws Exception {
+      long deadlineTimestamp = System.currentTimeMillis() + 30000;
+      while (retrievedDiagnostics.size() < applicationCount) {
+        Assert.assertTrue(System.currentTimeMillis() < deadlineTimestamp);
+        Thread.sleep(10);
+      }
+    }
+  }
+
+  private static LauncherConfiguration newConf(int maxRetryCount) {
+    LauncherConfiguration conf = new LauncherConfiguration();
+    conf.setApplicationRetrieveDiagnosticsIntervalSec(0);
+    conf.setApplicationRetrieveDiagnosticsMaxRetryCount(maxRetryCount);
+    conf.setApplicationRetrieveDiagnosticsBatchMinCount(3);
+    return conf;
+  }
+
+  @Test
+  public void testDuplicatedRetrieval() throws Exception {
+    DiagnosticsRecordingService service = new DiagnosticsRecordingService();
+    DiagnosticsYarnClient yarnClient = new DiagnosticsYarnClient(0, 10000);
+    DiagnosticsRetrieveHandler handler = new DiagnosticsRetrieveHandler(service, newConf(1), yarnClient);
+
+    String applicationId = getApplicationId(1);
+    handler.retrieveDiagnosticsAsync(applicationId, null);
+    handler.retrieveDiagnosticsAsync(applicationId, "");
+    DiagnosticsRetrieveStatus status = handler.getDiagnosticsRetrieveStatus();
+    Assert.assertEquals(1, status.getRetrievingApplicationCount().intValue());
+
+    service.waitRetrievedApplicationCount(1);
+    Thread.sleep(1500);
+    Assert.assertEquals(Collections.singletonList(DIAGNOSTICS), service.retrievedDiagnostics.get(applicationId));
+    Assert.assertEquals(1, yarnClient.getApplicationReportCount.get());
+    Assert.assertEquals(0, handler.getDiagnosticsRetrieveStatus().getRetrievingApplicationCount().intValue());
+
+    // The non-empty initial diagnostics is used directly
+    String otherApplicationId = getApplicationId(2);
+    handler.retrieveDiagnosticsAsync(otherApplicationId, "Init Diagnostics");
+    service.waitRetrievedApplicationCount(2);
+    Assert.assertEquals(Collections.singletonList("Init Diagnostics"),
+        service.retrievedDiagnostics.get(otherApplicationId));
+    Assert.assertEquals(1, yarnClient.getApplicationReportCount.get());
+  }
+
+  @Test
+  public void testRetryAfterFailure() throws Exception {
+    DiagnosticsRecordingService service = new DiagnosticsRecordingService();
+    DiagnosticsYarnClient yarnClient = new DiagnosticsYarnClient(2, 10000);
+    DiagnosticsRetrieveHandler handler = new DiagnosticsRetrieveHandler(service, newConf(5), yarnClient);
+
+    // The diagnostics is retrieved once it is not empty
+    String applicationId = getApplicationId(1);
+    handler.retrieveDiagnosticsAsync(applicationId, null);
+    service.waitRetrievedApplicationCount(1);
+    Assert.assertEquals(Collections.singletonList(DIAGNOSTICS), service.retrievedDiagnostics.get(applicationId));
+    Assert.assertEquals(3, yarnClient.getApplicationReportCount.get());
+  }
+
+  @Test
+  public void testRetryExhausted() throws Exception {
+    DiagnosticsRecordingService service = new DiagnosticsRecordingService();
+    DiagnosticsYarnClient yarnClient = new DiagnosticsYarnClient(Integer.MAX_VALUE, 10000);
+    DiagnosticsRetrieveHandler handler = new DiagnosticsRetrieveHandler(service, newConf(1), yarnClient);
+
+    // The initial diagnostics is used once the retries are exhausted
+    String applicationId = getApplicationId(1);
+    handler.retrieveDiagnosticsAsync(applicationId, null);
+    service.waitRetrievedApplicationCount(1);
+    Assert.assertEquals(Collections.singletonList((String) null), service.retrievedDiagnostics.get(applicationId));
+    Assert.assertEquals(2, yarnClient.getApplicationReportCount.get());
+  }
+
+  @Test
+  public void testShouldRetrieveInBatch() {
+    // Too few due retrievals
+    Assert.assertFalse(DiagnosticsRetrieveHandler.shouldRetrieveInBatch(19, 20, 100));
+    Assert.assertTrue(DiagnosticsRetrieveHandler.shouldRetrieveInBatch(20, 20, 100));
+
+    // Too few due retrievals compared with the completed Applications retained in RM
+    Assert.assertFalse(DiagnosticsRetrieveHandler.shouldRetrieveInBatch(20, 20, 100000));
+    Assert.assertTrue(DiagnosticsRetrieveHandler.shouldRetrieveInBatch(1000, 20, 100000));
+  }
+
+  private static void testRetrieveDueDiagnostics(
+      int rmMaxCompletedApplicationCount, int expectedGetApplicationsCount, int expectedGetApplicationReportCount)
+      throws Exception {
+    DiagnosticsRecordingService service = new DiagnosticsRecordingService();
+    DiagnosticsYarnClient yarnClient = new DiagnosticsYarnClient(0, rmMaxCompletedApplicationCount);
+    DiagnosticsRetrieveHandler handler = new DiagnosticsRetrieveHandler(service, newConf(5), yarnClient);
+
+    for (int i = 1; i <= 3; i++) {
+      String applicationId = getApplicationId(i);
+      yarnClient.completeApplication(applicationId);
+      handler.retrieveDiagnosticsAsync(applicationId, null);
+    }
+    service.waitRetrievedApplicationCount(3);
+    Assert.assertEquals(expectedGetApplicationsCount, yarnClient.getApplicationsCount.get());
+    Assert.assertEquals(expectedGetApplicationReportCount, yarnClient.getApplicationReportCount.get());
+  }
+
+  @Test
+  public void testRetrieveDueDiagnosticsInBatch() throws Exception {
+    testRetrieveDueDiagnostics(100, 1, 0);
+  }
+
+  @Test
+  public void testRetrieveDueDiagnosticsOneByOne() throws Exception {
+    testRetrieveDueDiagnostics(100000, 0, 3);
+  }
+}
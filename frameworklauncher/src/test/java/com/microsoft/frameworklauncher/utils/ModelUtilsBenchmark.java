@@ -0,0 +1,82 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.utils;
+
+import com.microsoft.frameworklauncher.common.model.TaskStatuses;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+// Manual benchmarks which are excluded from the unit tests, run them by: mvn test -P benchmark
+public class ModelUtilsBenchmark {
+  private static final DefaultLogger LOGGER = new DefaultLogger(ModelUtilsBenchmark.class);
+
+  // Compare the time and bytes allocated by the structural deepEquals and deepCopy with the YAML ones,
+  // which serialize the whole object for each call.
+  // The result is only logged, since the timing and allocation are not stable across JVMs.
+  @Test
+  public void testCompareWithYaml() throws Exception {
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    TaskStatuses taskStatuses = ModelUtilsTest.newTaskStatuses(5000);
+    TaskStatuses otherTaskStatuses = ModelUtilsTest.newTaskStatuses(5000);
+
+    // Warm up
+    YamlUtils.deepEquals(taskStatuses, otherTaskStatuses);
+    ModelUtils.deepEquals(taskStatuses, otherTaskStatuses);
+    ModelUtils.deepCopy(taskStatuses);
+
+    // YAML
+    long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+    long startTime = System.nanoTime();
+    Assert.assertTrue(YamlUtils.deepEquals(taskStatuses, otherTaskStatuses));
+    long yamlEqualsMs = (System.nanoTime() - startTime) / 1000000;
+    long yamlEqualsBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+    startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+    startTime = System.nanoTime();
+    TaskStatuses yamlCopy = YamlUtils.deepCopy(taskStatuses, TaskStatuses.class);
+    long yamlCopyMs = (System.nanoTime() - startTime) / 1000000;
+    long yamlCopyBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+    // Structural
+    startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+    startTime = System.nanoTime();
+    Assert.assertTrue(ModelUtils.deepEquals(taskStatuses, otherTaskStatuses));
+    long equalsMs = (System.nanoTime() - startTime) / 1000000;
+    long equalsBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+    startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+    startTime = System.nanoTime();
+    TaskStatuses copy = ModelUtils.deepCopy(taskStatuses);
+    long copyMs = (System.nanoTime() - startTime) / 1000000;
+    long copyBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+    LOGGER.logInfo(
+        "5000 TaskStatuses: " +
+            "YAML: DeepEqualsMs: [%s], DeepEqualsAllocatedBytes: [%s], DeepCopyMs: [%s], DeepCopyAllocatedBytes: [%s], " +
+            "Structural: DeepEqualsMs: [%s], DeepEqualsAllocatedBytes: [%s], DeepCopyMs: [%s], DeepCopyAllocatedBytes: [%s]",
+        yamlEqualsMs, yamlEqualsBytes, yamlCopyMs, yamlCopyBytes, equalsMs, equalsBytes, copyMs, copyBytes);
+
+    Assert.assertTrue(ModelUtils.deepEquals(yamlCopy, copy));
+    Assert.assertTrue(equalsBytes < yamlEqualsBytes);
+    Assert.assertTrue(copyBytes < yamlCopyBytes);
+  }
+}
@@ -0,0 +1,120 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.utils;
+
+import com.microsoft.frameworklauncher.common.model.*;
+import com.microsoft.frameworklauncher.utils.YamlUtilsTest.YamlUtilsTestHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class ModelUtilsTest {
+  private static final DefaultLogger LOGGER = new DefaultLogger(ModelUtilsTest.class);
+
+  @Test
+  public void testDeepCopy() throws Exception {
+    YamlUtilsTestHelper object = YamlUtilsTestHelper.newInstance(
+        1024, 3.14f, 3.14, true, "Model Test");
+
+    YamlUtilsTestHelper resultObjectFromDeepCopy = ModelUtils.deepCopy(object);
+    Assert.assertNotSame(object, resultObjectFromDeepCopy);
+    Assert.assertTrue(ModelUtils.deepEquals(object, resultObjectFromDeepCopy));
+    Assert.assertTrue(YamlUtils.deepEquals(object, resultObjectFromDeepCopy));
+
+    resultObjectFromDeepCopy.setNullField("");
+    Assert.assertFalse(ModelUtils.deepEquals(object, resultObjectFromDeepCopy));
+
+    resultObjectFromDeepCopy.setNullField(null);
+    Assert.assertTrue(ModelUtils.deepEquals(object, resultObjectFromDeepCopy));
+
+    resultObjectFromDeepCopy.setIntegerField(null);
+    Assert.assertFalse(ModelUtils.deepEquals(object, resultObjectFromDeepCopy));
+
+    // The copy should not share any mutable object with the original one
+    FrameworkStatus frameworkStatus = YamlTestUtils.newInstance(FrameworkStatus.class);
+    FrameworkStatus frameworkStatusCopy = ModelUtils.deepCopy(frameworkStatus);
+    Assert.assertNotSame(
+        frameworkStatus.getFrameworkRetryPolicyState(), frameworkStatusCopy.getFrameworkRetryPolicyState());
+    frameworkStatusCopy.getFrameworkRetryPolicyState().setRetriedCount(1);
+    Assert.assertFalse(ModelUtils.deepEquals(frameworkStatus, frameworkStatusCopy));
+    Assert.assertFalse(YamlUtils.deepEquals(frameworkStatus, frameworkStatusCopy));
+
+    TaskStatuses taskStatuses = newTaskStatuses(100);
+    TaskStatuses taskStatusesCopy = ModelUtils.deepCopy(taskStatuses);
+    taskStatusesCopy.getTaskStatusArray().get(99).setContainerIp(null);
+    Assert.assertFalse(ModelUtils.deepEquals(taskStatuses, taskStatusesCopy));
+    Assert.assertNotNull(taskStatuses.getTaskStatusArray().get(99).getContainerIp());
+  }
+
+  @Test
+  public void testDeepEquals() throws Exception {
+    YamlUtilsTestHelper object1 = null;
+    YamlUtilsTestHelper object2 = new YamlUtilsTestHelper();
+    YamlUtilsTestHelper object3 = new YamlUtilsTestHelper();
+    YamlUtilsTestHelper object4 = YamlUtilsTestHelper.newInstance(
+        1024, 3.14f, 3.14, true, "Model Test");
+
+    Assert.assertTrue(ModelUtils.deepEquals(null, null));
+    Assert.assertFalse(ModelUtils.deepEquals(object1, object2));
+    Assert.assertFalse(ModelUtils.deepEquals(object1, object4));
+    Assert.assertFalse(ModelUtils.deepEquals(object2, object4));
+    Assert.assertTrue(ModelUtils.deepEquals(object2, object3));
+    Assert.assertEquals(ModelUtils.deepHashCode(object2), ModelUtils.deepHashCode(object3));
+
+    // The Map order should not matter
+    Map<String, TaskRoleDescriptor> taskRoles = new HashMap<>();
+    Map<String, TaskRoleDescriptor> otherTaskRoles = new TreeMap<>(Comparator.reverseOrder());
+    for (String taskRoleName : Arrays.asList("ps", "worker", "chief")) {
+      TaskRoleDescriptor taskRole = YamlTestUtils.newInstance(TaskRoleDescriptor.class);
+      taskRoles.put(taskRoleName, taskRole);
+      otherTaskRoles.put(taskRoleName, ModelUtils.deepCopy(taskRole));
+    }
+    Assert.assertTrue(ModelUtils.deepEquals(taskRoles, otherTaskRoles));
+    Assert.assertEquals(ModelUtils.deepHashCode(taskRoles), ModelUtils.deepHashCode(otherTaskRoles));
+
+    otherTaskRoles.get("ps").setTaskNumber(2);
+    Assert.assertFalse(ModelUtils.deepEquals(taskRoles, otherTaskRoles));
+    otherTaskRoles.remove("ps");
+    Assert.assertFalse(ModelUtils.deepEquals(taskRoles, otherTaskRoles));
+  }
+
+  static TaskStatuses newTaskStatuses(int taskNumber) {
+    List<TaskStatus> taskStatusArray = new ArrayList<>();
+    for (int i = 0; i < taskNumber; i++) {
+      TaskStatus taskStatus = new TaskStatus();
+      taskStatus.setTaskIndex(i);
+      taskStatus.setTaskRoleName("worker");
+      taskStatus.setTaskState(TaskState.CONTAINER_RUNNING);
+      taskStatus.setTaskRetryPolicyState(new RetryPolicyState());
+      taskStatus.setTaskCreatedTimestamp(1500000000000L + i);
+      taskStatus.setContainerId(String.format("container_e01_1500000000000_0001_01_%06d", i + 2));
+      taskStatus.setContainerHost(String.format("node%s.cluster.local", i % 100));
+      taskStatus.setContainerIp(String.format("10.0.%s.%s", i % 100 / 250, i % 100));
+      taskStatus.setContainerGpus(15L);
+      taskStatus.setContainerLaunchedTimestamp(1500000001000L + i);
+      taskStatusArray.add(taskStatus);
+    }
+
+    TaskStatuses taskStatuses = new TaskStatuses();
+    taskStatuses.setTaskRoleName("worker");
+    taskStatuses.setTaskStatusArray(taskStatusArray);
+    taskStatuses.setFrameworkVersion(1);
+    return taskStatuses;
+  }
+}
@@ -0,0 +1,111 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PartitionedSystemTaskQueueTest {
+
+  @Test
+  public void testKeyedOrderAndGlobalBarrier() throws Exception {
+    PartitionedSystemTaskQueue queue = new PartitionedSystemTaskQueue(e -> {
+      e.printStackTrace();
+      return false;
+    }, 4);
+
+    int keyCount = 16;
+    int taskCountPerKey = 100;
+    Map<String, List<Integer>> executedIndexes = Collections.synchronizedMap(new HashMap<>());
+    List<Integer> executedCountsInGlobalTask = new ArrayList<>();
+    CountDownLatch completedLatch = new CountDownLatch(1);
+
+    for (int i = 0; i < taskCountPerKey; i++) {
+      for (int k = 0; k < keyCount; k++) {
+        String key = "Key" + k;
+        int index = i;
+        queue.queueSystemTask(key, () -> {
+          executedIndexes.computeIfAbsent(key, x -> Collections.synchronizedList(new ArrayList<>())).add(index);
+        });
+      }
+      if (i == taskCountPerKey / 2 - 1) {
+        // All previous keyed tasks must be completed before the global task
+        queue.queueSystemTask(() -> {
+          int executedCount = 0;
+          for (List<Integer> indexes : executedIndexes.values()) {
+            executedCount += indexes.size();
+          }
+          executedCountsInGlobalTask.add(executedCount);
+        });
+      }
+    }
+    queue.queueSystemTask(completedLatch::countDown);
+    queue.start();
+
+    Assert.assertTrue(completedLatch.await(30, TimeUnit.SECONDS));
+    Assert.assertEquals(Collections.singletonList(keyCount * taskCountPerKey / 2), executedCountsInGlobalTask);
+    Assert.assertEquals(keyCount, executedIndexes.size());
+    for (List<Integer> indexes : executedIndexes.values()) {
+      Assert.assertEquals(taskCountPerKey, indexes.size());
+      for (int i = 0; i < taskCountPerKey; i++) {
+        Assert.assertEquals(i, (int) indexes.get(i));
+      }
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testGlobalTasksQueuedConcurrently() throws Exception {
+    PartitionedSystemTaskQueue queue = new PartitionedSystemTaskQueue(e -> {
+      e.printStackTrace();
+      return false;
+    }, 8);
+
+    // The GlobalTasks queued by different threads at the same time should never deadlock the partitions,
+    // which is decided by the queued order, so the queue is started after they are queued like the others.
+    int threadCount = 8;
+    int globalTaskCountPerThread = 200;
+    CountDownLatch startLatch = new CountDownLatch(1);
+    CountDownLatch completedLatch = new CountDownLatch(threadCount * globalTaskCountPerThread);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      Thread thread = new Thread(() -> {
+        try {
+          startLatch.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < globalTaskCountPerThread; i++) {
+          queue.queueSystemTask(completedLatch::countDown);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    startLatch.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    queue.start();
+    Assert.assertTrue(completedLatch.await(30, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,58 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RateLimiterTest {
+  private static long acquireMs(RateLimiter rateLimiter, int count) throws InterruptedException {
+    long startNanos = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      rateLimiter.acquire();
+    }
+    return (System.nanoTime() - startNanos) / 1000000;
+  }
+
+  @Test
+  public void testSpacedAcquire() throws Exception {
+    RateLimiter rateLimiter = new RateLimiter(20);
+
+    // The first acquire is free, and the others are spaced by 50ms
+    Assert.assertTrue(acquireMs(rateLimiter, 1) < 40);
+    Assert.assertTrue(acquireMs(rateLimiter, 10) >= 450);
+  }
+
+  @Test
+  public void testNoBurstAfterIdle() throws Exception {
+    RateLimiter rateLimiter = new RateLimiter(20);
+    acquireMs(rateLimiter, 1);
+
+    // The idle time is not accumulated as a burst: only the next acquire is free after idle,
+    // and the following ones are still spaced.
+    Thread.sleep(500);
+    Assert.assertTrue(acquireMs(rateLimiter, 1) < 40);
+    Assert.assertTrue(acquireMs(rateLimiter, 4) >= 180);
+  }
+
+  @Test
+  public void testNoLimit() throws Exception {
+    Assert.assertTrue(acquireMs(new RateLimiter(0), 1000) < 1000);
+    Assert.assertTrue(acquireMs(new RateLimiter(-1), 1000) < 1000);
+  }
+}
@@ -0,0 +1,65 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RetryPolicyTest {
+
+  @Test
+  public void testExponentialBackoffDelay() {
+    // Starts from minDelaySec, doubled for each consecutive retry and capped at maxDelaySec
+    int delaySec = 0;
+    int[] expectedDelaySecs = {10, 20, 40, 80, 100, 100};
+    for (int expectedDelaySec : expectedDelaySecs) {
+      delaySec = RetryPolicy.calcExponentialBackoffDelay(delaySec, 10, 100);
+      Assert.assertEquals(expectedDelaySec, delaySec);
+    }
+
+    // minDelaySec larger than maxDelaySec
+    Assert.assertEquals(100, RetryPolicy.calcExponentialBackoffDelay(0, 200, 100));
+    Assert.assertEquals(200, RetryPolicy.calcExponentialBackoffDelay(100, 200, 100));
+
+    // No overflow for a large lastDelaySec
+    Assert.assertEquals(100, RetryPolicy.calcExponentialBackoffDelay(Integer.MAX_VALUE, 10, 100));
+  }
+
+  @Test
+  public void testExponentialBackoffDelayResetAfterLongRun() {
+    // The last run is unknown
+    Assert.assertEquals(80, RetryPolicy.calcExponentialBackoffDelay(40, null, null, 10, 100));
+
+    // The last run is crash looping
+    Assert.assertEquals(80, RetryPolicy.calcExponentialBackoffDelay(40, 0L, 100 * 1000L, 10, 100));
+
+    // The last run has lasted longer than maxDelaySec
+    Assert.assertEquals(10, RetryPolicy.calcExponentialBackoffDelay(40, 0L, 100 * 1000L + 1, 10, 100));
+    Assert.assertEquals(10, RetryPolicy.calcExponentialBackoffDelay(100, 0L, 3600 * 1000L, 10, 100));
+  }
+
+  @Test
+  public void testRandomJitterDelay() {
+    for (int i = 0; i < 1000; i++) {
+      int jitterDelaySec = RetryPolicy.calcRandomJitterDelay(100);
+      Assert.assertTrue(jitterDelaySec >= 50 && jitterDelaySec <= 100);
+    }
+    Assert.assertEquals(0, RetryPolicy.calcRandomJitterDelay(0));
+    Assert.assertTrue(RetryPolicy.calcRandomJitterDelay(1) <= 1);
+  }
+}
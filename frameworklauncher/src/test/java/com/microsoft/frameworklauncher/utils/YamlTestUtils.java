@@ -73,6 +73,18 @@ public static <T> void testObjectToYaml(T object, String configFileName, Class<T
         String.format("%s: Test result and expect do not match!", configFileName),
         YamlUtils.deepEquals(object, resultObjectFromBytes));
 
+    // Test structural DeepCopy and DeepEquals
+    T resultObjectFromDeepCopy = ModelUtils.deepCopy(object);
+    Assert.assertNotSame(object, resultObjectFromDeepCopy);
+    Assert.assertTrue(
+        String.format("%s: Test result and expect do not match!", configFileName),
+        YamlUtils.deepEquals(object, resultObjectFromDeepCopy));
+    Assert.assertTrue(
+        String.format("%s: Test result and expect do not match!", configFileName),
+        ModelUtils.deepEquals(object, resultObjectFromFile) &&
+            ModelUtils.deepEquals(object, resultObjectFromDeepCopy));
+    Assert.assertEquals(
+        ModelUtils.deepHashCode(object), ModelUtils.deepHashCode(resultObjectFromDeepCopy));
   }
 
   public static <T> void testField(String yamlFilePath, Class<T> tClass)
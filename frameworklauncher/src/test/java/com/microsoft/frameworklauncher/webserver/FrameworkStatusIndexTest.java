@@ -0,0 +1,96 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.webserver;
+
+import com.microsoft.frameworklauncher.common.WebCommon;
+import com.microsoft.frameworklauncher.common.model.FrameworkState;
+import com.microsoft.frameworklauncher.common.model.FrameworkStatus;
+import com.microsoft.frameworklauncher.common.model.FrameworkStatusPage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public class FrameworkStatusIndexTest {
+  private static FrameworkStatus newFrameworkStatus(String frameworkName, FrameworkState frameworkState) {
+    FrameworkStatus frameworkStatus = new FrameworkStatus();
+    frameworkStatus.setFrameworkName(frameworkName);
+    frameworkStatus.setFrameworkState(frameworkState);
+    frameworkStatus.setApplicationProgress(0.5f);
+    frameworkStatus.setApplicationExitDiagnostics("Diagnostics");
+    return frameworkStatus;
+  }
+
+  private static FrameworkStatusPage list(
+      FrameworkStatusIndex index, FrameworkState frameworkState, Set<String> frameworkNames,
+      String startAfter, int limit, Set<String> fields) throws Exception {
+    return WebCommon.toObject(new String(
+        index.list(frameworkState, frameworkNames, startAfter, limit, fields), StandardCharsets.UTF_8),
+        FrameworkStatusPage.class);
+  }
+
+  private static List<String> getFrameworkNames(FrameworkStatusPage page) {
+    List<String> frameworkNames = new ArrayList<>();
+    for (FrameworkStatus frameworkStatus : page.getFrameworkStatuses()) {
+      frameworkNames.add(frameworkStatus.getFrameworkName());
+    }
+    return frameworkNames;
+  }
+
+  @Test
+  public void testFrameworkStatusIndex() throws Exception {
+    Map<String, FrameworkStatus> frameworkStatuses = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      String frameworkName = "Framework" + i;
+      frameworkStatuses.put(frameworkName, newFrameworkStatus(frameworkName,
+          i % 2 == 0 ? FrameworkState.APPLICATION_RUNNING : FrameworkState.FRAMEWORK_COMPLETED));
+    }
+    FrameworkStatusIndex index = new FrameworkStatusIndex(frameworkStatuses, new FrameworkStatusIndex());
+
+    // Paginate all FrameworkStatuses in the FrameworkName order
+    FrameworkStatusPage page = list(index, null, null, null, 4, null);
+    Assert.assertEquals(Arrays.asList("Framework0", "Framework1", "Framework2", "Framework3"), getFrameworkNames(page));
+    Assert.assertEquals("Framework3", page.getNextStartAfter());
+    page = list(index, null, null, page.getNextStartAfter(), 6, null);
+    Assert.assertEquals(6, page.getFrameworkStatuses().size());
+    Assert.assertNull(page.getNextStartAfter());
+    Assert.assertEquals("Diagnostics", page.getFrameworkStatuses().get(0).getApplicationExitDiagnostics());
+
+    // Filter by FrameworkState and FrameworkNames
+    page = list(index, FrameworkState.APPLICATION_RUNNING,
+        new HashSet<>(Arrays.asList("Framework1", "Framework2", "Framework4")), null, 10, null);
+    Assert.assertEquals(Arrays.asList("Framework2", "Framework4"), getFrameworkNames(page));
+    page = list(index, FrameworkState.FRAMEWORK_WAITING, null, null, 10, null);
+    Assert.assertTrue(page.getFrameworkStatuses().isEmpty());
+
+    // Project the fields
+    page = list(index, null, null, "Framework8", 10,
+        new HashSet<>(Arrays.asList("frameworkName", "applicationProgress")));
+    Assert.assertEquals(Arrays.asList("Framework9"), getFrameworkNames(page));
+    Assert.assertEquals(0.5f, page.getFrameworkStatuses().get(0).getApplicationProgress(), 0);
+    Assert.assertNull(page.getFrameworkStatuses().get(0).getApplicationExitDiagnostics());
+
+    // The changed FrameworkStatus is reindexed
+    frameworkStatuses.put("Framework0", newFrameworkStatus("Framework0", FrameworkState.FRAMEWORK_COMPLETED));
+    frameworkStatuses.remove("Framework2");
+    index = new FrameworkStatusIndex(frameworkStatuses, index);
+    page = list(index, FrameworkState.APPLICATION_RUNNING, null, null, 10, null);
+    Assert.assertEquals(Arrays.asList("Framework4", "Framework6", "Framework8"), getFrameworkNames(page));
+  }
+}
@@ -0,0 +1,189 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.webserver;
+
+import com.microsoft.frameworklauncher.common.WebCommon;
+import com.microsoft.frameworklauncher.common.exceptions.BadRequestException;
+import com.microsoft.frameworklauncher.common.exceptions.NotFoundException;
+import com.microsoft.frameworklauncher.common.model.*;
+import com.microsoft.frameworklauncher.utils.CommonUtils;
+import com.microsoft.frameworklauncher.utils.TestUtils;
+import com.microsoft.frameworklauncher.zookeeperstore.MockZookeeperStore;
+import org.apache.http.HttpStatus;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static com.microsoft.frameworklauncher.utils.YamlTestUtils.INPUTS_DIR;
+
+public class LauncherModuleTest {
+  private static final String ZK_BASE_DIR = TestUtils.RESOURCE_ROOT + File.separator + "launcherModuleZkDir";
+
+  // The HttpServletRequest without any header, parameter and client information
+  private static final HttpServletRequest EMPTY_HTTP_REQUEST = (HttpServletRequest) Proxy.newProxyInstance(
+      LauncherModuleTest.class.getClassLoader(), new Class<?>[]{HttpServletRequest.class},
+      (proxy, method, args) -> null);
+
+  private LauncherConfiguration conf;
+  private RequestManager requestManager;
+  private StatusManager statusManager;
+  private LauncherModule launcherModule;
+
+  private static FrameworkDescriptor readFrameworkDescriptor(String configFileName) throws Exception {
+    return WebCommon.toObject(
+        CommonUtils.readFile(INPUTS_DIR + configFileName + ".json"), FrameworkDescriptor.class);
+  }
+
+  private static BatchFrameworkDescriptors newBatchFrameworkDescriptors(
+      Map<String, FrameworkDescriptor> frameworkDescriptors) {
+    BatchFrameworkDescriptors batchFrameworkDescriptors = new BatchFrameworkDescriptors();
+    batchFrameworkDescriptors.setFrameworkDescriptors(frameworkDescriptors);
+    return batchFrameworkDescriptors;
+  }
+
+  private static Map<String, Integer> getStatusCodes(BatchFrameworkResults batchFrameworkResults) {
+    Map<String, Integer> statusCodes = new HashMap<>();
+    for (BatchFrameworkResult result : batchFrameworkResults.getResults()) {
+      statusCodes.put(result.getFrameworkName(), result.getStatusCode());
+    }
+    return statusCodes;
+  }
+
+  private static FrameworkStatus newFrameworkStatus(String frameworkName, FrameworkState frameworkState) {
+    FrameworkStatus frameworkStatus = new FrameworkStatus();
+    frameworkStatus.setFrameworkName(frameworkName);
+    frameworkStatus.setFrameworkState(frameworkState);
+    return frameworkStatus;
+  }
+
+  @Before
+  public void init() throws Exception {
+    conf = new LauncherConfiguration();
+    requestManager = new RequestManager(null, conf, MockZookeeperStore.newStandaloneInstanceWithClean(ZK_BASE_DIR));
+    requestManager.start();
+
+    // The StatusManager only serves the FrameworkStatusIndex fed by the tests
+    statusManager = new StatusManager(null, conf, null);
+    launcherModule = new LauncherModule(conf, statusManager, requestManager);
+  }
+
+  @Test
+  public void testPutFrameworksPartially() throws Exception {
+    // FrameworkDescriptionMini has 14 Tasks, so only one of them can be accepted
+    conf.setMaxTotalTaskNumber(20);
+
+    Map<String, FrameworkDescriptor> frameworkDescriptors = new LinkedHashMap<>();
+    frameworkDescriptors.put("Accepted", readFrameworkDescriptor("FrameworkDescriptionMini"));
+    frameworkDescriptors.put("Invalid", readFrameworkDescriptor("WrongFrameworkDescription"));
+    frameworkDescriptors.put("Throttled", readFrameworkDescriptor("FrameworkDescriptionMini"));
+
+    BatchFrameworkResults results = launcherModule.putFrameworks(
+        EMPTY_HTTP_REQUEST, newBatchFrameworkDescriptors(frameworkDescriptors));
+    Map<String, Integer> statusCodes = getStatusCodes(results);
+    Assert.assertEquals(3, results.getResults().size());
+    Assert.assertEquals(HttpStatus.SC_ACCEPTED, (int) statusCodes.get("Accepted"));
+    Assert.assertEquals(HttpStatus.SC_BAD_REQUEST, (int) statusCodes.get("Invalid"));
+    Assert.assertEquals(WebCommon.SC_TOO_MANY_REQUESTS, (int) statusCodes.get("Throttled"));
+
+    // Only the accepted one is set, and the rejected ones do not reject it
+    FrameworkRequest frameworkRequest = requestManager.getFrameworkRequest("Accepted");
+    Assert.assertEquals(LaunchClientType.UNKNOWN, frameworkRequest.getLaunchClientType());
+    Assert.assertEquals(Collections.singleton("Accepted"), requestManager.getFrameworkNames(null, null));
+    for (String frameworkName : Arrays.asList("Invalid", "Throttled")) {
+      try {
+        requestManager.getFrameworkRequest(frameworkName);
+        Assert.fail(frameworkName + " should not be set");
+      } catch (NotFoundException ignored) {
+      }
+    }
+  }
+
+  @Test
+  public void testPutTooManyFrameworks() throws Exception {
+    FrameworkDescriptor frameworkDescriptor = readFrameworkDescriptor("FrameworkDescriptionMini");
+    Map<String, FrameworkDescriptor> frameworkDescriptors = new HashMap<>();
+    for (int i = 0; i <= WebCommon.MAX_BATCH_FRAMEWORK_NUMBER; i++) {
+      frameworkDescriptors.put("Framework" + i, frameworkDescriptor);
+    }
+
+    try {
+      launcherModule.putFrameworks(EMPTY_HTTP_REQUEST, newBatchFrameworkDescriptors(frameworkDescriptors));
+      Assert.fail("Too many Frameworks should be rejected");
+    } catch (BadRequestException ignored) {
+    }
+    Assert.assertEquals(0, requestManager.getFrameworkNames(null, null).size());
+  }
+
+  @Test
+  public void testGetFrameworksByPage() throws Exception {
+    Map<String, FrameworkDescriptor> frameworkDescriptors = new HashMap<>();
+    for (int i = 4; i >= 0; i--) {
+      frameworkDescriptors.put("Framework" + i, readFrameworkDescriptor("FrameworkDescriptionMini"));
+    }
+    launcherModule.putFrameworks(EMPTY_HTTP_REQUEST, newBatchFrameworkDescriptors(frameworkDescriptors));
+
+    // Framework5 is not requested, so it is not listed even if its FrameworkStatus is not yet deleted
+    Map<String, FrameworkStatus> frameworkStatuses = new HashMap<>();
+    for (int i = 0; i <= 5; i++) {
+      String frameworkName = "Framework" + i;
+      frameworkStatuses.put(frameworkName, newFrameworkStatus(frameworkName,
+          i % 2 == 0 ? FrameworkState.APPLICATION_RUNNING : FrameworkState.FRAMEWORK_COMPLETED));
+    }
+    statusManager.updateFrameworkStatusIndex(frameworkStatuses);
+
+    // Page through all Frameworks in the sorted order
+    RequestedFrameworkNames page = launcherModule.getFrameworks(EMPTY_HTTP_REQUEST, null, null, null, 2);
+    Assert.assertEquals(Arrays.asList("Framework0", "Framework1"), page.getFrameworkNames());
+    Assert.assertEquals("Framework1", page.getNextStartAfter());
+
+    page = launcherModule.getFrameworks(EMPTY_HTTP_REQUEST, null, null, page.getNextStartAfter(), 2);
+    Assert.assertEquals(Arrays.asList("Framework2", "Framework3"), page.getFrameworkNames());
+    Assert.assertEquals("Framework3", page.getNextStartAfter());
+
+    page = launcherModule.getFrameworks(EMPTY_HTTP_REQUEST, null, null, page.getNextStartAfter(), 2);
+    Assert.assertEquals(Collections.singletonList("Framework4"), page.getFrameworkNames());
+    Assert.assertNull(page.getNextStartAfter());
+
+    // StartAfter is still valid after it is deleted
+    requestManager.deleteFrameworkRequest("Framework1");
+    page = launcherModule.getFrameworks(EMPTY_HTTP_REQUEST, null, null, "Framework1", null);
+    Assert.assertEquals(Arrays.asList("Framework2", "Framework3", "Framework4"), page.getFrameworkNames());
+    Assert.assertNull(page.getNextStartAfter());
+
+    // Filter by FrameworkState in the same page
+    page = launcherModule.getFrameworks(
+        EMPTY_HTTP_REQUEST, FrameworkState.APPLICATION_RUNNING.name(), null, null, 1);
+    Assert.assertEquals(Collections.singletonList("Framework0"), page.getFrameworkNames());
+    Assert.assertEquals("Framework0", page.getNextStartAfter());
+    page = launcherModule.getFrameworks(
+        EMPTY_HTTP_REQUEST, FrameworkState.APPLICATION_RUNNING.name(), null, page.getNextStartAfter(), 2);
+    Assert.assertEquals(Arrays.asList("Framework2", "Framework4"), page.getFrameworkNames());
+    Assert.assertNull(page.getNextStartAfter());
+
+    try {
+      launcherModule.getFrameworks(EMPTY_HTTP_REQUEST, null, null, null, 0);
+      Assert.fail("Non-positive Limit should be rejected");
+    } catch (BadRequestException ignored) {
+    }
+  }
+}
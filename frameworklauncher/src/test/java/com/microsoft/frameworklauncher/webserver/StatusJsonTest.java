@@ -0,0 +1,86 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.webserver;
+
+import com.microsoft.frameworklauncher.common.WebCommon;
+import com.microsoft.frameworklauncher.common.model.FrameworkStatus;
+import org.apache.http.HttpStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
+
+public class StatusJsonTest {
+  private static StatusJson newStatusJson(String eTag) {
+    FrameworkStatus frameworkStatus = new FrameworkStatus();
+    frameworkStatus.setFrameworkName("TestStatusJson");
+    return new StatusJson(frameworkStatus, eTag);
+  }
+
+  @Test
+  public void testMatches() throws Exception {
+    StatusJson statusJson = newStatusJson("1-2");
+
+    // No or empty If-None-Match
+    Assert.assertFalse(statusJson.matches(null));
+    Assert.assertFalse(statusJson.matches(""));
+
+    // Strong, weak and unquoted tags
+    Assert.assertTrue(statusJson.matches("\"1-2\""));
+    Assert.assertTrue(statusJson.matches("W/\"1-2\""));
+    Assert.assertTrue(statusJson.matches("1-2"));
+    Assert.assertFalse(statusJson.matches("\"1-3\""));
+    Assert.assertFalse(statusJson.matches("W/\"1-3\""));
+    Assert.assertFalse(statusJson.matches("\"1-2"));
+
+    // List of tags, with or without spaces
+    Assert.assertTrue(statusJson.matches("\"0-1\", \"1-2\""));
+    Assert.assertTrue(statusJson.matches("\"0-1\",W/\"1-2\""));
+    Assert.assertFalse(statusJson.matches("\"0-1\", \"1-3\""));
+
+    // Any tag
+    Assert.assertTrue(statusJson.matches("*"));
+    Assert.assertTrue(statusJson.matches("\"0-1\", *"));
+  }
+
+  @Test
+  public void testStatusResponse() throws Exception {
+    StatusJson statusJson = newStatusJson("1-2");
+
+    Response response = LauncherModule.toStatusResponse(statusJson, null);
+    Assert.assertEquals(HttpStatus.SC_OK, response.getStatus());
+    Assert.assertEquals(new EntityTag("1-2"), response.getMetadata().getFirst(HttpHeaders.ETAG));
+    FrameworkStatus frameworkStatus = WebCommon.toObject(
+        new String((byte[]) response.getEntity(), StandardCharsets.UTF_8), FrameworkStatus.class);
+    Assert.assertEquals("TestStatusJson", frameworkStatus.getFrameworkName());
+
+    // The same JSON is served without serializing again
+    Assert.assertSame(statusJson.getJson(), response.getEntity());
+
+    response = LauncherModule.toStatusResponse(statusJson, "W/\"0-1\", \"1-2\"");
+    Assert.assertEquals(HttpStatus.SC_NOT_MODIFIED, response.getStatus());
+    Assert.assertEquals(new EntityTag("1-2"), response.getMetadata().getFirst(HttpHeaders.ETAG));
+    Assert.assertNull(response.getEntity());
+
+    response = LauncherModule.toStatusResponse(statusJson, "\"1-3\"");
+    Assert.assertEquals(HttpStatus.SC_OK, response.getStatus());
+  }
+}
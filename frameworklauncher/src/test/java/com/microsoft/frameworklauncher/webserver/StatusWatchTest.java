@@ -0,0 +1,151 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.webserver;
+
+import com.microsoft.frameworklauncher.common.WebCommon;
+import com.microsoft.frameworklauncher.common.exceptions.ThrottledRequestException;
+import com.microsoft.frameworklauncher.common.model.*;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+public class StatusWatchTest {
+  private static final String FRAMEWORK_NAME = "Framework";
+
+  private StatusManager statusManager;
+
+  @Before
+  public void setup() {
+    LauncherConfiguration conf = new LauncherConfiguration();
+    conf.setWebServerMaxActiveWatchCount(2);
+    statusManager = new StatusManager(null, conf, null);
+    updateFrameworkStatusVersion(1L);
+  }
+
+  private void updateFrameworkStatusVersion(Long frameworkStatusVersion) {
+    FrameworkStatus frameworkStatus = new FrameworkStatus();
+    frameworkStatus.setFrameworkName(FRAMEWORK_NAME);
+    AggregatedFrameworkStatus aggFrameworkStatus = new AggregatedFrameworkStatus();
+    aggFrameworkStatus.setFrameworkStatus(frameworkStatus);
+
+    Map<String, AggregatedFrameworkStatus> aggFrameworkStatuses = new HashMap<>();
+    aggFrameworkStatuses.put(FRAMEWORK_NAME, aggFrameworkStatus);
+    Map<String, Long> frameworkStatusVersions = new HashMap<>();
+    frameworkStatusVersions.put(FRAMEWORK_NAME, frameworkStatusVersion);
+    statusManager.updateWatchedStatuses(aggFrameworkStatuses, frameworkStatusVersions);
+  }
+
+  private void waitActiveWatchCount(int activeWatchCount) throws Exception {
+    long deadlineTimestamp = System.currentTimeMillis() + 10000;
+    while (statusManager.getActiveWatchCount() != activeWatchCount) {
+      Assert.assertTrue(System.currentTimeMillis() < deadlineTimestamp);
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void testWatchTimeout() throws Exception {
+    long startTimestamp = System.currentTimeMillis();
+    WatchedFrameworkStatus watchedFrameworkStatus = statusManager.watchFrameworkStatus(FRAMEWORK_NAME, 1L, 200);
+    Assert.assertTrue(System.currentTimeMillis() - startTimestamp >= 200);
+    Assert.assertEquals(1L, watchedFrameworkStatus.getFrameworkStatusVersion().longValue());
+
+    Long watchVersion = statusManager.watchFrameworkStatusVersions(null, 0).getWatchVersion();
+    startTimestamp = System.currentTimeMillis();
+    WatchedFrameworkStatusVersions watchedFrameworkStatusVersions =
+        statusManager.watchFrameworkStatusVersions(watchVersion, 200);
+    Assert.assertTrue(System.currentTimeMillis() - startTimestamp >= 200);
+    Assert.assertEquals(watchVersion, watchedFrameworkStatusVersions.getWatchVersion());
+    Assert.assertEquals(0, statusManager.getActiveWatchCount());
+  }
+
+  @Test
+  public void testWatchWakeup() throws Exception {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      Long watchVersion = statusManager.watchFrameworkStatusVersions(null, 0).getWatchVersion();
+      Future<WatchedFrameworkStatus> statusFuture = executor.submit(
+          () -> statusManager.watchFrameworkStatus(FRAMEWORK_NAME, 1L, 60000));
+      Future<WatchedFrameworkStatusVersions> versionsFuture = executor.submit(
+          () -> statusManager.watchFrameworkStatusVersions(watchVersion, 60000));
+      waitActiveWatchCount(2);
+
+      // An unchanged pulling should not wake up the watchers
+      updateFrameworkStatusVersion(1L);
+      Thread.sleep(100);
+      Assert.assertFalse(statusFuture.isDone());
+      Assert.assertFalse(versionsFuture.isDone());
+
+      updateFrameworkStatusVersion(2L);
+      Assert.assertEquals(2L, statusFuture.get(10, TimeUnit.SECONDS).getFrameworkStatusVersion().longValue());
+      WatchedFrameworkStatusVersions watchedFrameworkStatusVersions = versionsFuture.get(10, TimeUnit.SECONDS);
+      Assert.assertEquals(watchVersion + 1, watchedFrameworkStatusVersions.getWatchVersion().longValue());
+      Assert.assertEquals(2L, watchedFrameworkStatusVersions.getFrameworkStatusVersions().get(FRAMEWORK_NAME).longValue());
+      waitActiveWatchCount(0);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testMaxActiveWatchCount() throws Exception {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      Long watchVersion = statusManager.watchFrameworkStatusVersions(null, 0).getWatchVersion();
+      Future<WatchedFrameworkStatus> statusFuture = executor.submit(
+          () -> statusManager.watchFrameworkStatus(FRAMEWORK_NAME, 1L, 60000));
+      Future<WatchedFrameworkStatusVersions> versionsFuture = executor.submit(
+          () -> statusManager.watchFrameworkStatusVersions(watchVersion, 60000));
+      waitActiveWatchCount(2);
+
+      // The watches beyond the MaxActiveWatchCount are rejected with Retry-After
+      try {
+        statusManager.watchFrameworkStatus(FRAMEWORK_NAME, 1L, 60000);
+        Assert.fail("The watch beyond the MaxActiveWatchCount should be rejected");
+      } catch (ThrottledRequestException e) {
+        Assert.assertEquals(WebCommon.WATCH_RETRY_AFTER_SEC, e.getRetryAfterSec().intValue());
+      }
+      try {
+        statusManager.watchFrameworkStatusVersions(watchVersion, 60000);
+        Assert.fail("The watch beyond the MaxActiveWatchCount should be rejected");
+      } catch (ThrottledRequestException e) {
+        Assert.assertEquals(WebCommon.WATCH_RETRY_AFTER_SEC, e.getRetryAfterSec().intValue());
+      }
+      Assert.assertEquals(2, statusManager.getActiveWatchCount());
+
+      // The get without version is not a watch, so it is never rejected
+      Assert.assertEquals(1L,
+          statusManager.watchFrameworkStatus(FRAMEWORK_NAME, null, 60000).getFrameworkStatusVersion().longValue());
+
+      // The released active watches can be reserved again
+      updateFrameworkStatusVersion(2L);
+      statusFuture.get(10, TimeUnit.SECONDS);
+      versionsFuture.get(10, TimeUnit.SECONDS);
+      waitActiveWatchCount(0);
+      long startTimestamp = System.currentTimeMillis();
+      statusManager.watchFrameworkStatus(FRAMEWORK_NAME, 2L, 200);
+      Assert.assertTrue(System.currentTimeMillis() - startTimestamp >= 200);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -17,82 +17,268 @@
 
 package com.microsoft.frameworklauncher.zookeeperstore;
 
+import com.microsoft.frameworklauncher.common.model.ZkObjectFormat;
 import com.microsoft.frameworklauncher.utils.DefaultLogger;
 import com.microsoft.frameworklauncher.utils.YamlUtils;
 import org.apache.log4j.Level;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
+// Simulate ZK nodes by files: The data of the node Path is stored in the file Path.yml,
+// and its child nodes are stored under the directory Path.
 public class MockZooKeeperClient extends ZooKeeperClient {
   private static final DefaultLogger LOGGER = new DefaultLogger(MockZooKeeperClient.class);
+  // The child node to store the payload of a large yaml object, whose own node data is empty like ZK
+  private static final String LARGE_PAYLOAD_NODE_NAME = "MockLargePayload";
 
+  // Whether to throw NoNodeException for the node whose parent node does not exist like ZK,
+  // instead of creating the parent nodes automatically.
+  private final Boolean strict;
+
+  // Simulate zxid by a counter increased on each write, so that writes within the same
+  // file modified time can still be distinguished.
+  // The nodes not written by this client are treated as unchanged, i.e. zxid 0.
+  private final AtomicLong zxid = new AtomicLong(0);
+  // Path -> Mzxid
+  private final Map<String, Long> mzxids = new ConcurrentHashMap<>();
+  // Path -> Pzxid
+  private final Map<String, Long> pzxids = new ConcurrentHashMap<>();
+
+  public MockZooKeeperClient() {
+    this(false);
+  }
+
+  public MockZooKeeperClient(Boolean strict) {
+    this.strict = strict;
+  }
+
+  // Always set in YAML, so that the files are readable for testing
   @Override
-  public <T> void setSmallYamlObject(String path, T yamlObject)
-      throws IOException {
-    String yamlPath = path + ".yml";
-    createFile(yamlPath);
-    YamlUtils.toFile(yamlObject, yamlPath);
+  public <T> void setSmallYamlObject(String path, T yamlObject, ZkObjectFormat format) throws Exception {
+    setData(path, YamlUtils.toBytes(yamlObject));
   }
 
+  // The node data may also be set in other ZkObjectFormat by ZkWriteBatch.setData
   @Override
   public <T> T getSmallYamlObject(String path, Class<T> classRef) throws Exception {
-    try {
-      return YamlUtils.toObject(path + ".yml", classRef);
-    } catch (FileNotFoundException e) {
-      throw new KeeperException.NoNodeException();
-    }
+    return ZkObjectCodec.toObject(getData(path), classRef);
   }
 
   @Override
-  public <T> void setLargeYamlObject(String path, T yamlObject) throws Exception {
-    setSmallYamlObject(path, yamlObject);
+  public <T> void setLargeYamlObject(String path, T yamlObject, ZkObjectFormat format) throws Exception {
+    setData(path, new byte[0]);
+    setSmallYamlObject(ZookeeperStoreStructure.getNodePath(path, LARGE_PAYLOAD_NODE_NAME), yamlObject, format);
   }
 
   @Override
   public <T> T getLargeYamlObject(String path, Class<T> classRef) throws Exception {
-    return getSmallYamlObject(path, classRef);
+    return getSmallYamlObject(ZookeeperStoreStructure.getNodePath(path, LARGE_PAYLOAD_NODE_NAME), classRef);
   }
 
   @Override
-  public void deleteRecursively(String path, Boolean childrenOnly) throws Exception {
-    File file = new File(path);
-    if (file.isDirectory()) {
-      File[] subFiles = file.listFiles();
-      for (File subFile : subFiles) {
-        deleteRecursively(subFile.getAbsolutePath(), false);
+  public <T> void setYamlObject(String path, T yamlObject, ZkObjectFormat format) throws Exception {
+    setSmallYamlObject(path, yamlObject, format);
+  }
+
+  @Override
+  public <T> T getYamlObject(String path, Class<T> classRef) throws Exception {
+    byte[] bytes = getData(path);
+    if (bytes.length > 0) {
+      return ZkObjectCodec.toObject(bytes, classRef);
+    } else {
+      return getLargeYamlObject(path, classRef);
+    }
+  }
+
+  @Override
+  public void commitBatch(ZkWriteBatch batch, IntConsumer committedUnitsListener) throws Exception {
+    for (List<ZkWriteBatch.WriteOp> unitOps : batch.getTransactionUnits()) {
+      for (ZkWriteBatch.WriteOp op : unitOps) {
+        switch (op.getType()) {
+          case SET_SMALL_YAML_OBJECT:
+          case SET_YAML_OBJECT:
+            setSmallYamlObject(op.getPath(), op.getYamlObject(), op.getFormat());
+            break;
+          case SET_LARGE_YAML_OBJECT:
+            setLargeYamlObject(op.getPath(), op.getYamlObject(), op.getFormat());
+            break;
+          case SET_DATA:
+            setData(op.getPath(), op.getData());
+            break;
+          case CREATE_PATH:
+            createPath(op.getPath());
+            break;
+          default:
+            // DELETE_RECURSIVELY
+            deleteRecursively(op.getPath());
+            break;
+        }
       }
+      committedUnitsListener.accept(1);
+    }
+  }
+
+  private byte[] getData(String path) throws Exception {
+    if (!exists(path)) {
+      throw new KeeperException.NoNodeException(path);
+    }
+
+    File file = new File(path + ".yml");
+    return (file.exists() ? Files.readAllBytes(file.toPath()) : new byte[0]);
+  }
+
+  private void setData(String path, byte[] data) throws Exception {
+    Boolean created = !exists(path);
+    if (created) {
+      checkParentExists(path);
+    }
+
+    String yamlPath = path + ".yml";
+    createFile(yamlPath);
+    Files.write(Paths.get(yamlPath), data);
+    onNodeWritten(path, created);
+  }
+
+  @Override
+  public void deleteRecursively(String path, Boolean childrenOnly) throws Exception {
+    if (!exists(path)) {
+      return;
+    }
+
+    for (String child : getChildren(path)) {
+      deleteRecursively(ZookeeperStoreStructure.getNodePath(path, child), false);
     }
 
     if (!childrenOnly) {
-      file.delete();
+      new File(path).delete();
+      new File(path + ".yml").delete();
+      mzxids.remove(path);
+      pzxids.remove(path);
+      pzxids.put(new File(path).getParent(), zxid.incrementAndGet());
     }
   }
 
   @Override
   public Boolean exists(String path) throws Exception {
-    return new File(path + ".yml").exists();
+    return new File(path).isDirectory() || new File(path + ".yml").exists();
   }
 
   @Override
   public List<String> getChildren(String path) throws Exception {
-    File file = new File(path);
-    String[] children = file.list();
-    if (children == null || children.length == 0) {
+    if (!exists(path)) {
+      if (strict) {
+        throw new KeeperException.NoNodeException(path);
+      }
+      return new ArrayList<>();
+    }
+
+    String[] fileNames = new File(path).list();
+    if (fileNames == null) {
       return new ArrayList<>();
     }
-    return Arrays.asList(children);
+
+    Set<String> children = new TreeSet<>();
+    for (String fileName : fileNames) {
+      children.add(fileName.endsWith(".yml") ?
+          fileName.substring(0, fileName.length() - ".yml".length()) : fileName);
+    }
+    return new ArrayList<>(children);
+  }
+
+  @Override
+  public Stat getStat(String path) throws Exception {
+    if (!exists(path)) {
+      return null;
+    }
+
+    File file = new File(path + ".yml");
+    Stat stat = new Stat();
+    stat.setMzxid(mzxids.getOrDefault(path, 0L));
+    stat.setPzxid(pzxids.getOrDefault(path, 0L));
+    stat.setDataLength((int) file.length());
+    return stat;
+  }
+
+  @Override
+  public Map<String, List<String>> getChildrenBatch(Collection<String> paths) throws Exception {
+    Map<String, List<String>> childrenMap = new HashMap<>();
+    for (String path : paths) {
+      if (exists(path)) {
+        childrenMap.put(path, getChildren(path));
+      }
+    }
+    return childrenMap;
+  }
+
+  @Override
+  public Map<String, Stat> getStatBatch(Collection<String> paths) throws Exception {
+    Map<String, Stat> stats = new HashMap<>();
+    for (String path : paths) {
+      Stat stat = getStat(path);
+      if (stat != null) {
+        stats.put(path, stat);
+      }
+    }
+    return stats;
+  }
+
+  @Override
+  public <T> Map<String, T> getSmallYamlObjectBatch(Collection<String> paths, Class<T> classRef) throws Exception {
+    Map<String, T> yamlObjects = new HashMap<>();
+    for (String path : paths) {
+      try {
+        yamlObjects.put(path, getSmallYamlObject(path, classRef));
+      } catch (KeeperException.NoNodeException e) {
+        // Absent in the returned Map
+      }
+    }
+    return yamlObjects;
+  }
+
+  @Override
+  public <T> Map<String, T> getLargeYamlObjectBatch(Collection<String> paths, Class<T> classRef) throws Exception {
+    Map<String, T> yamlObjects = new HashMap<>();
+    for (String path : paths) {
+      try {
+        yamlObjects.put(path, getLargeYamlObject(path, classRef));
+      } catch (KeeperException.NoNodeException e) {
+        // Absent in the returned Map
+      }
+    }
+    return yamlObjects;
+  }
+
+  @Override
+  public Map<String, Long> getLargeYamlObjectVersionBatch(Collection<String> paths) throws Exception {
+    Map<String, Long> versions = new HashMap<>();
+    for (String path : paths) {
+      Stat stat = getStat(path);
+      if (stat != null) {
+        versions.put(path, stat.getMzxid());
+      }
+    }
+    return versions;
+  }
+
+  @Override
+  public void watchSubtree(String rootPath, int maxDepth, Consumer<String> changedPathListener) {
+    // No need to watch, since the periodic pull is enough for testing
   }
 
   public void createFile(String path) {
     File file = new File(path);
     if (!file.exists()) {
-      createPath(file.getParent());
+      createDirectory(file.getParent());
       try {
         file.createNewFile();
       } catch (IOException e) {
@@ -102,12 +288,33 @@ public void createFile(String path) {
   }
 
   @Override
-  public void createPath(String path) {
+  public void createPath(String path) throws Exception {
+    if (!exists(path)) {
+      checkParentExists(path);
+      createDirectory(path);
+      onNodeWritten(path, true);
+    }
+  }
+
+  private void createDirectory(String path) {
     File file = new File(path);
     if (!file.exists()) {
-      createPath(file.getParent());
+      createDirectory(file.getParent());
       file.mkdir();
     }
   }
 
+  private void checkParentExists(String path) throws Exception {
+    if (strict && !exists(new File(path).getParent())) {
+      throw new KeeperException.NoNodeException(path);
+    }
+  }
+
+  private void onNodeWritten(String path, Boolean created) {
+    long writeZxid = zxid.incrementAndGet();
+    mzxids.put(path, writeZxid);
+    if (created) {
+      pzxids.put(new File(path).getParent(), writeZxid);
+    }
+  }
 }
@@ -50,6 +50,12 @@ public static ZookeeperStore newInstanceWithClean(String launchRootPath)
     return instance;
   }
 
+  // Not shared with the other tests, so that the test starts with an empty store
+  public static ZookeeperStore newStandaloneInstanceWithClean(String launchRootPath)
+      throws Exception {
+    return new MockZookeeperStore(launchRootPath, true);
+  }
+
   private void setupZKStructure(String rootPath, Boolean clean)
       throws Exception {
     File file = new File(rootPath);
@@ -0,0 +1,173 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.zookeeperstore;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+public class ZkGroupCommitterTest {
+  // Record the committed paths instead of writing to ZK
+  private static class RecordingZookeeperStore extends ZookeeperStore {
+    private final List<List<String>> committedPathGroups = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger failingCommitCount = new AtomicInteger(0);
+    // The failing commit fails after its first committableUnitCount transaction units are committed
+    private volatile int committableUnitCount = 0;
+
+    public RecordingZookeeperStore() {
+      super((ZooKeeperClient) null, null);
+    }
+
+    @Override
+    public void commitBatch(ZkWriteBatch batch, IntConsumer committedUnitsListener) throws Exception {
+      Boolean failing = (failingCommitCount.getAndDecrement() > 0);
+      List<String> paths = new ArrayList<>();
+      List<List<ZkWriteBatch.WriteOp>> units = batch.getTransactionUnits();
+      for (int i = 0; i < units.size(); i++) {
+        if (failing && i >= committableUnitCount) {
+          if (!paths.isEmpty()) {
+            committedPathGroups.add(paths);
+          }
+          throw new Exception("Commit Failed");
+        }
+
+        // Each unit is committed in its own transaction
+        for (ZkWriteBatch.WriteOp op : units.get(i)) {
+          paths.add(op.getPath());
+        }
+        committedUnitsListener.accept(1);
+      }
+      // Let the concurrent batches be grouped
+      Thread.sleep(10);
+      committedPathGroups.add(paths);
+    }
+  }
+
+  @Test
+  public void testGroupCommit() throws Exception {
+    RecordingZookeeperStore zkStore = new RecordingZookeeperStore();
+    ZkGroupCommitter zkCommitter = new ZkGroupCommitter(zkStore);
+    int writerCount = 20;
+    Object writeLock = new Object();
+    List<String> addedPaths = new ArrayList<>();
+
+    List<Thread> writers = new ArrayList<>();
+    for (int i = 0; i < writerCount; i++) {
+      String path = "/Request/" + i;
+      writers.add(new Thread(() -> {
+        try {
+          Future<Void> commitFuture;
+          synchronized (writeLock) {
+            addedPaths.add(path);
+            commitFuture = zkCommitter.add(new ZkWriteBatch().createPath(path));
+          }
+          zkCommitter.await(commitFuture);
+          Assert.assertTrue(commitFuture.isDone());
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }));
+    }
+    for (Thread writer : writers) {
+      writer.start();
+    }
+    for (Thread writer : writers) {
+      writer.join();
+    }
+
+    // All batches are committed in the added order, and in fewer commits
+    List<String> committedPaths = new ArrayList<>();
+    for (List<String> paths : zkStore.committedPathGroups) {
+      committedPaths.addAll(paths);
+    }
+    Assert.assertEquals(addedPaths, committedPaths);
+    Assert.assertTrue(zkStore.committedPathGroups.size() <= writerCount);
+  }
+
+  @Test
+  public void testDeleteAfterWrite() throws Exception {
+    RecordingZookeeperStore zkStore = new RecordingZookeeperStore();
+    ZkGroupCommitter zkCommitter = new ZkGroupCommitter(zkStore);
+
+    zkCommitter.add(new ZkWriteBatch().createPath("/Request/A/Child"));
+    zkCommitter.add(new ZkWriteBatch().deleteRecursively("/Request/B"));
+    Future<Void> commitFuture = zkCommitter.add(new ZkWriteBatch().deleteRecursively("/Request/A"));
+    zkCommitter.await(commitFuture);
+
+    // The delete of the written subtree should be committed in a new group
+    Assert.assertEquals(2, zkStore.committedPathGroups.size());
+    Assert.assertEquals(2, zkStore.committedPathGroups.get(0).size());
+    Assert.assertEquals("/Request/A", zkStore.committedPathGroups.get(1).get(0));
+  }
+
+  @Test
+  public void testCommitFailed() throws Exception {
+    RecordingZookeeperStore zkStore = new RecordingZookeeperStore();
+    ZkGroupCommitter zkCommitter = new ZkGroupCommitter(zkStore);
+    zkStore.failingCommitCount.set(1);
+
+    Future<Void> commitFuture = zkCommitter.add(new ZkWriteBatch().createPath("/Request/A"));
+    try {
+      zkCommitter.await(commitFuture);
+      Assert.fail("Commit should fail");
+    } catch (Exception e) {
+      Assert.assertEquals("Commit Failed", e.getMessage());
+    }
+
+    // Later batches can still be committed
+    commitFuture = zkCommitter.add(new ZkWriteBatch().createPath("/Request/B"));
+    zkCommitter.await(commitFuture);
+    Assert.assertEquals(1, zkStore.committedPathGroups.size());
+
+    // Empty batch is committed immediately
+    Assert.assertTrue(zkCommitter.add(new ZkWriteBatch()).isDone());
+  }
+
+  @Test
+  public void testCommitGroupFailedPartially() throws Exception {
+    RecordingZookeeperStore zkStore = new RecordingZookeeperStore();
+    ZkGroupCommitter zkCommitter = new ZkGroupCommitter(zkStore);
+    zkStore.failingCommitCount.set(1);
+    zkStore.committableUnitCount = 2;
+
+    // The group fails after the first 2 units, i.e. the batch A and the first unit of the batch B, are committed
+    Future<Void> commitFutureA = zkCommitter.add(new ZkWriteBatch().createPath("/Request/A"));
+    Future<Void> commitFutureB = zkCommitter.add(new ZkWriteBatch()
+        .createPath("/Request/B1").addTransactionBoundary().createPath("/Request/B2"));
+    Future<Void> commitFutureC = zkCommitter.add(new ZkWriteBatch().createPath("/Request/C"));
+    zkCommitter.await(commitFutureA);
+    Assert.assertEquals(Arrays.asList("/Request/A", "/Request/B1"), zkStore.committedPathGroups.get(0));
+
+    // Only the batches which are not fully committed fail
+    for (Future<Void> commitFuture : Arrays.asList(commitFutureB, commitFutureC)) {
+      try {
+        zkCommitter.await(commitFuture);
+        Assert.fail("Commit should fail");
+      } catch (Exception e) {
+        Assert.assertEquals("Commit Failed", e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,128 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.zookeeperstore;
+
+import com.microsoft.frameworklauncher.common.model.TaskStatuses;
+import com.microsoft.frameworklauncher.common.model.ZkObjectFormat;
+import com.microsoft.frameworklauncher.utils.CommonUtils;
+import com.microsoft.frameworklauncher.utils.DefaultLogger;
+import com.microsoft.frameworklauncher.utils.YamlUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+// Manual benchmarks which are excluded from the unit tests, run them by: mvn test -P benchmark
+public class ZkObjectCodecBenchmark {
+  private static final DefaultLogger LOGGER = new DefaultLogger(ZkObjectCodecBenchmark.class);
+
+  // Rough comparison with the YAML path, the result is only logged, since the timing is not stable.
+  @Test
+  public void testCompareFormats() throws Exception {
+    TaskStatuses taskStatuses = ZkObjectCodecTest.newTaskStatuses(5000);
+    int iterations = 3;
+
+    for (ZkObjectFormat format : ZkObjectFormat.values()) {
+      byte[] bytes = null;
+      TaskStatuses resultTaskStatuses = null;
+
+      // Warm up
+      ZkObjectCodec.toObject(ZkObjectCodec.toBytes(taskStatuses, format), TaskStatuses.class);
+
+      long startTime = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        bytes = ZkObjectCodec.toBytes(taskStatuses, format);
+      }
+      long toBytesMs = (System.nanoTime() - startTime) / iterations / 1000000;
+
+      startTime = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        resultTaskStatuses = ZkObjectCodec.toObject(bytes, TaskStatuses.class);
+      }
+      long toObjectMs = (System.nanoTime() - startTime) / iterations / 1000000;
+
+      LOGGER.logInfo(
+          "%s: 5000 TaskStatuses: Bytes: [%s], ToBytesMs: [%s], ToObjectMs: [%s]",
+          format, bytes.length, toBytesMs, toObjectMs);
+
+      Assert.assertTrue(YamlUtils.deepEquals(taskStatuses, resultTaskStatuses));
+      if (format != ZkObjectFormat.YAML) {
+        Assert.assertTrue(bytes.length < YamlUtils.toBytes(taskStatuses).length / 2);
+      }
+    }
+  }
+
+  // Compare the bytes allocated by the large payload path with the legacy one, which concatenates
+  // the parts one by one to read, and copies each part from the whole bytes to write.
+  // The result is only logged, since the allocation is not stable across JVMs.
+  @Test
+  public void testCompareLargePayloadAllocation() throws Exception {
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    int maxPartBytes = 768 * 1024;
+    ZkObjectFormat format = ZkObjectFormat.BINARY;
+    TaskStatuses taskStatuses = ZkObjectCodecTest.newTaskStatuses(30000);
+
+    // Warm up
+    ZkObjectCodec.toObject(ZkObjectCodec.toParts(taskStatuses, format, maxPartBytes), TaskStatuses.class);
+    ZkObjectCodec.toObject(ZkObjectCodec.toBytes(taskStatuses, format), TaskStatuses.class);
+
+    // Legacy write
+    long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+    byte[] bytes = ZkObjectCodec.toBytes(taskStatuses, format);
+    List<byte[]> legacyParts = new ArrayList<>();
+    for (int offset = 0; offset < bytes.length; offset += maxPartBytes) {
+      legacyParts.add(CommonUtils.subArray(bytes, offset, Math.min(bytes.length - offset, maxPartBytes)));
+    }
+    long legacyWriteBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+    // Legacy read
+    startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+    byte[] payload = new byte[0];
+    for (byte[] part : legacyParts) {
+      payload = CommonUtils.concatArrays(payload, part);
+    }
+    TaskStatuses legacyResult = ZkObjectCodec.toObject(payload, TaskStatuses.class);
+    long legacyReadBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+    // Write
+    startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+    List<byte[]> parts = ZkObjectCodec.toParts(taskStatuses, format, maxPartBytes);
+    long writeBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+    // Read
+    startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+    TaskStatuses result = ZkObjectCodec.toObject(parts, TaskStatuses.class);
+    long readBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+    LOGGER.logInfo(
+        "%s: 30000 TaskStatuses: PayloadBytes: [%s], Parts: [%s], " +
+            "Legacy AllocatedBytes: Write: [%s], Read: [%s], " +
+            "AllocatedBytes: Write: [%s], Read: [%s]",
+        format, bytes.length, parts.size(), legacyWriteBytes, legacyReadBytes, writeBytes, readBytes);
+
+    // Full deepEquals is covered by testObjectToParts, and it is too slow for such a large object
+    Assert.assertEquals(legacyParts.size(), parts.size());
+    Assert.assertEquals(legacyResult.getTaskStatusArray().size(), result.getTaskStatusArray().size());
+    Assert.assertTrue(YamlUtils.deepEquals(
+        taskStatuses.getTaskStatusArray().get(29999), result.getTaskStatusArray().get(29999)));
+  }
+}
@@ -0,0 +1,139 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.zookeeperstore;
+
+import com.microsoft.frameworklauncher.common.model.*;
+import com.microsoft.frameworklauncher.utils.CommonUtils;
+import com.microsoft.frameworklauncher.utils.DefaultLogger;
+import com.microsoft.frameworklauncher.utils.YamlTestUtils;
+import com.microsoft.frameworklauncher.utils.YamlUtils;
+import com.microsoft.frameworklauncher.utils.YamlUtilsTest.YamlUtilsTestCompatibilityHelper;
+import com.microsoft.frameworklauncher.utils.YamlUtilsTest.YamlUtilsTestHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ZkObjectCodecTest {
+  private static final DefaultLogger LOGGER = new DefaultLogger(ZkObjectCodecTest.class);
+
+  @Test
+  public void testObjectToBytes() throws Exception {
+    for (ZkObjectFormat format : ZkObjectFormat.values()) {
+      testObjectToBytes(YamlTestUtils.newInstance(FrameworkRequest.class), format, FrameworkRequest.class);
+      testObjectToBytes(YamlTestUtils.newInstance(FrameworkStatus.class), format, FrameworkStatus.class);
+      testObjectToBytes(newTaskStatuses(100), format, TaskStatuses.class);
+      testObjectToBytes(YamlUtilsTestHelper.newInstance(
+          -1024, -3.14f, 3.14, true, "Binary Test"), format, YamlUtilsTestHelper.class);
+
+      // Null property should not be overwritten by its default value
+      TaskStatus taskStatus = new TaskStatus();
+      taskStatus.setTaskState(null);
+      TaskStatus resultTaskStatus = ZkObjectCodec.toObject(
+          ZkObjectCodec.toBytes(taskStatus, format), TaskStatus.class);
+      Assert.assertNull(resultTaskStatus.getTaskState());
+
+      TaskStatuses taskStatuses = newTaskStatuses(100);
+      if (format != ZkObjectFormat.YAML) {
+        Assert.assertTrue(ZkObjectCodec.toBytes(taskStatuses, format).length <
+            YamlUtils.toBytes(taskStatuses).length / 2);
+      }
+    }
+  }
+
+  @Test
+  public void testCompatibility() throws Exception {
+    // Legacy YAML bytes without header should be readable
+    TaskStatuses taskStatuses = newTaskStatuses(100);
+    Assert.assertEquals(ZkObjectFormat.YAML, ZkObjectCodec.getFormat(YamlUtils.toBytes(taskStatuses)));
+    Assert.assertTrue(YamlUtils.deepEquals(taskStatuses,
+        ZkObjectCodec.toObject(YamlUtils.toBytes(taskStatuses), TaskStatuses.class)));
+
+    // Missing and unknown properties should be skipped like YAML
+    YamlUtilsTestCompatibilityHelper object =
+        YamlUtilsTestCompatibilityHelper.newInstance(
+            1024, "String Test", new YamlUtilsTestCompatibilityHelper().getExtraField());
+    for (ZkObjectFormat format : ZkObjectFormat.values()) {
+      YamlUtilsTestCompatibilityHelper resultObjectFromOldBytes = ZkObjectCodec.toObject(
+          ZkObjectCodec.toBytes(YamlUtilsTestHelper.newInstance(
+              object.getIntField(), 3.14f, 3.14, true, object.getStringField()), format),
+          YamlUtilsTestCompatibilityHelper.class);
+      Assert.assertTrue(YamlUtils.deepEquals(object, resultObjectFromOldBytes));
+    }
+  }
+
+  @Test
+  public void testObjectToParts() throws Exception {
+    int maxPartBytes = 1024;
+    for (ZkObjectFormat format : ZkObjectFormat.values()) {
+      TaskStatuses taskStatuses = newTaskStatuses(100);
+      List<byte[]> parts = ZkObjectCodec.toParts(taskStatuses, format, maxPartBytes);
+      byte[] bytes = ZkObjectCodec.toBytes(taskStatuses, format);
+
+      byte[] payload = new byte[0];
+      for (int i = 0; i < parts.size(); i++) {
+        Assert.assertTrue(parts.get(i).length <= maxPartBytes);
+        if (i < parts.size() - 1) {
+          Assert.assertEquals(maxPartBytes, parts.get(i).length);
+        }
+        payload = CommonUtils.concatArrays(payload, parts.get(i));
+      }
+      Assert.assertEquals(ZkObjectCodec.getFormat(bytes), ZkObjectCodec.getFormat(payload));
+      Assert.assertTrue(YamlUtils.deepEquals(taskStatuses, ZkObjectCodec.toObject(payload, TaskStatuses.class)));
+      Assert.assertTrue(YamlUtils.deepEquals(taskStatuses, ZkObjectCodec.toObject(parts, TaskStatuses.class)));
+    }
+  }
+
+  private static <T> void testObjectToBytes(T object, ZkObjectFormat format, Class<T> classRef) {
+    byte[] bytes = ZkObjectCodec.toBytes(object, format);
+    Assert.assertEquals(format, ZkObjectCodec.getFormat(bytes));
+    Assert.assertTrue(
+        String.format("%s: %s: Test result and expect do not match!", format, classRef.getSimpleName()),
+        YamlUtils.deepEquals(object, ZkObjectCodec.toObject(bytes, classRef)));
+  }
+
+  static TaskStatuses newTaskStatuses(int taskNumber) {
+    List<TaskStatus> taskStatusArray = new ArrayList<>();
+    for (int i = 0; i < taskNumber; i++) {
+      TaskStatus taskStatus = new TaskStatus();
+      taskStatus.setTaskIndex(i);
+      taskStatus.setTaskRoleName("worker");
+      taskStatus.setTaskState(TaskState.CONTAINER_RUNNING);
+      taskStatus.setTaskRetryPolicyState(new RetryPolicyState());
+      taskStatus.setTaskCreatedTimestamp(1500000000000L + i);
+      taskStatus.setContainerId(String.format("container_e01_1500000000000_0001_01_%06d", i + 2));
+      taskStatus.setContainerHost(String.format("node%s.cluster.local", i % 100));
+      taskStatus.setContainerIp(String.format("10.0.%s.%s", i % 100 / 250, i % 100));
+      taskStatus.setContainerGpus(15L);
+      taskStatus.setContainerLogHttpAddress(String.format(
+          "http://node%s.cluster.local:8042/node/containerlogs/container_e01_1500000000000_0001_01_%06d/",
+          i % 100, i + 2));
+      taskStatus.setContainerConnectionLostCount(0);
+      taskStatus.setContainerIsDecommissioning(false);
+      taskStatus.setContainerLaunchedTimestamp(1500000001000L + i);
+      taskStatusArray.add(taskStatus);
+    }
+
+    TaskStatuses taskStatuses = new TaskStatuses();
+    taskStatuses.setTaskRoleName("worker");
+    taskStatuses.setTaskStatusArray(taskStatusArray);
+    taskStatuses.setFrameworkVersion(1);
+    return taskStatuses;
+  }
+}
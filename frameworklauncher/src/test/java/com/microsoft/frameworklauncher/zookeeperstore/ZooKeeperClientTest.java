@@ -0,0 +1,356 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.zookeeperstore;
+
+import com.microsoft.frameworklauncher.common.exceptions.NonTransientException;
+import com.microsoft.frameworklauncher.common.model.LauncherStatus;
+import com.microsoft.frameworklauncher.common.model.TaskStatuses;
+import com.microsoft.frameworklauncher.common.model.TransitionQueueStatus;
+import com.microsoft.frameworklauncher.common.model.ZkObjectFormat;
+import com.microsoft.frameworklauncher.utils.ModelUtils;
+import com.microsoft.frameworklauncher.utils.TestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+import org.apache.zookeeper.server.ServerCnxnFactory;
+import org.apache.zookeeper.server.ZooKeeperServer;
+import org.junit.*;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.util.*;
+
+// Test the transactions of ZooKeeperClient against a real standalone ZK server
+public class ZooKeeperClientTest {
+  private static final String ZK_DATA_DIR = TestUtils.RESOURCE_ROOT + File.separator + "zkClientDataDir";
+  private static final String ROOT_PATH = "/ZooKeeperClientTest";
+  private static final String LARGE_OBJECT_PATH = ROOT_PATH + "/LargeObject";
+
+  private static ServerCnxnFactory serverFactory;
+  private static ZooKeeperClient zkClient;
+
+  @BeforeClass
+  public static void startServer() throws Exception {
+    File dataDir = new File(ZK_DATA_DIR);
+    FileUtils.deleteDirectory(dataDir);
+    serverFactory = ServerCnxnFactory.createFactory(new InetSocketAddress("127.0.0.1", 0), 100);
+    serverFactory.startup(new ZooKeeperServer(dataDir, dataDir, 2000));
+    zkClient = new ZooKeeperClient("127.0.0.1:" + serverFactory.getLocalPort());
+  }
+
+  @AfterClass
+  public static void stopServer() throws Exception {
+    serverFactory.shutdown();
+    FileUtils.deleteDirectory(new File(ZK_DATA_DIR));
+  }
+
+  @Before
+  public void init() throws Exception {
+    zkClient.deleteRecursively(ROOT_PATH);
+    zkClient.createPath(ROOT_PATH);
+  }
+
+  @Test
+  public void testSetLargeYamlObject() throws Exception {
+    TaskStatuses taskStatuses = ZkObjectCodecTest.newTaskStatuses(10);
+    zkClient.setLargeYamlObject(LARGE_OBJECT_PATH, taskStatuses, ZkObjectFormat.YAML);
+    assertLargeYamlObject(taskStatuses);
+
+    // The old PayloadVersion is GC'd in the same transaction in which the new one is ready
+    taskStatuses = ZkObjectCodecTest.newTaskStatuses(20);
+    zkClient.setLargeYamlObject(LARGE_OBJECT_PATH, taskStatuses, ZkObjectFormat.YAML);
+    assertLargeYamlObject(taskStatuses);
+  }
+
+  @Test
+  public void testFailedBatchLeavesNoPartialPayload() throws Exception {
+    TaskStatuses taskStatuses = ZkObjectCodecTest.newTaskStatuses(10);
+    zkClient.setLargeYamlObject(LARGE_OBJECT_PATH, taskStatuses, ZkObjectFormat.YAML);
+    List<String> children = zkClient.getChildren(LARGE_OBJECT_PATH);
+
+    // The later write fails since its parent node does not exist
+    ZkWriteBatch batch = new ZkWriteBatch()
+        .setLargeYamlObject(LARGE_OBJECT_PATH, ZkObjectCodecTest.newTaskStatuses(20), ZkObjectFormat.YAML)
+        .setSmallYamlObject(ROOT_PATH + "/NotExist/Child", taskStatuses, ZkObjectFormat.YAML);
+    try {
+      zkClient.commitBatch(batch);
+      Assert.fail("The batch should fail");
+    } catch (KeeperException.NoNodeException ignored) {
+    }
+
+    // Neither the PayloadParts nor the PayloadVersion of the failed batch is left
+    Assert.assertEquals(children, zkClient.getChildren(LARGE_OBJECT_PATH));
+    assertLargeYamlObject(taskStatuses);
+  }
+
+  @Test
+  public void testSetHugeLargeYamlObject() throws Exception {
+    // The PayloadParts cannot fit in one transaction, but they are staged before it
+    TaskStatuses taskStatuses = ZkObjectCodecTest.newTaskStatuses(3000);
+    int bytes = ZkObjectCodec.toBytes(taskStatuses, ZkObjectFormat.YAML).length;
+    Assert.assertTrue(bytes > 2 * 1024 * 1024);
+
+    zkClient.setLargeYamlObject(LARGE_OBJECT_PATH, taskStatuses, ZkObjectFormat.YAML);
+    assertLargeYamlObject(taskStatuses);
+    Assert.assertTrue(ModelUtils.deepEquals(taskStatuses,
+        zkClient.getLargeYamlObjectBatch(Collections.singletonList(LARGE_OBJECT_PATH), TaskStatuses.class)
+            .get(LARGE_OBJECT_PATH)));
+
+    taskStatuses = ZkObjectCodecTest.newTaskStatuses(3500);
+    zkClient.commitBatch(new ZkWriteBatch()
+        .setLargeYamlObject(LARGE_OBJECT_PATH, taskStatuses, ZkObjectFormat.YAML)
+        .setSmallYamlObject(ROOT_PATH + "/SmallObject", new TransitionQueueStatus(), ZkObjectFormat.YAML));
+    assertLargeYamlObject(taskStatuses);
+  }
+
+  @Test
+  public void testCommitBatchByTransactionBoundaries() throws Exception {
+    // Each object can fit in one transaction, but they cannot fit in one transaction together
+    TaskStatuses taskStatuses = ZkObjectCodecTest.newTaskStatuses(600);
+    int bytes = ZkObjectCodec.toBytes(taskStatuses, ZkObjectFormat.YAML).length;
+    Assert.assertTrue(bytes > 400 * 1024 && bytes < 768 * 1024);
+    String smallPath = ROOT_PATH + "/SmallObject";
+    String otherSmallPath = ROOT_PATH + "/OtherSmallObject";
+
+    try {
+      zkClient.commitBatch(new ZkWriteBatch()
+          .setSmallYamlObject(smallPath, taskStatuses, ZkObjectFormat.YAML)
+          .setSmallYamlObject(otherSmallPath, taskStatuses, ZkObjectFormat.YAML));
+      Assert.fail("The batch should be too large to be committed atomically");
+    } catch (NonTransientException ignored) {
+    }
+    Assert.assertFalse(zkClient.exists(smallPath));
+    Assert.assertFalse(zkClient.exists(otherSmallPath));
+
+    zkClient.commitBatch(new ZkWriteBatch()
+        .setSmallYamlObject(smallPath, taskStatuses, ZkObjectFormat.YAML)
+        .addTransactionBoundary()
+        .setSmallYamlObject(otherSmallPath, taskStatuses, ZkObjectFormat.YAML));
+    Assert.assertTrue(ModelUtils.deepEquals(taskStatuses,
+        zkClient.getSmallYamlObject(smallPath, TaskStatuses.class)));
+    Assert.assertTrue(ModelUtils.deepEquals(taskStatuses,
+        zkClient.getSmallYamlObject(otherSmallPath, TaskStatuses.class)));
+
+    // The large objects can be committed atomically together, since their PayloadParts are not in the transaction
+    String otherPath = ROOT_PATH + "/OtherLargeObject";
+    zkClient.commitBatch(new ZkWriteBatch()
+        .setLargeYamlObject(LARGE_OBJECT_PATH, taskStatuses, ZkObjectFormat.YAML)
+        .setLargeYamlObject(otherPath, taskStatuses, ZkObjectFormat.YAML));
+    assertLargeYamlObject(taskStatuses);
+    Assert.assertTrue(ModelUtils.deepEquals(taskStatuses,
+        zkClient.getLargeYamlObject(otherPath, TaskStatuses.class)));
+  }
+
+  @Test(timeout = 60000)
+  public void testBatchReadWithIssueFailure() throws Exception {
+    // The invalid path is rejected before the request is issued, and the batch should still complete
+    try {
+      zkClient.getDataBatch(Arrays.asList(ROOT_PATH, "InvalidPath", ROOT_PATH + "/NotExist"));
+      Assert.fail("The invalid path should fail the batch");
+    } catch (IllegalArgumentException ignored) {
+    }
+
+    Map<String, List<String>> children = zkClient.getChildrenBatch(Arrays.asList(ROOT_PATH, ROOT_PATH + "/NotExist"));
+    Assert.assertEquals(Collections.singleton(ROOT_PATH), children.keySet());
+  }
+
+  @Test
+  public void testWatchSubtree() throws Exception {
+    WatchRecordingZooKeeperClient watchClient = new WatchRecordingZooKeeperClient();
+    watchClient.addNode("/Root");
+    watchClient.addNode("/Root/Framework1");
+    watchClient.addNode("/Root/Framework1/TaskRole1");
+
+    List<String> changedPaths = new ArrayList<>();
+    watchClient.watchSubtree("/Root", 1, changedPaths::add);
+    Assert.assertEquals(new HashSet<>(Arrays.asList("/Root", "/Root/Framework1")), watchClient.watcherPaths());
+
+    // The data watch is registered again after it is triggered
+    watchClient.fireNodeEvent(Watcher.Event.EventType.NodeDataChanged, "/Root/Framework1");
+    Assert.assertEquals(Collections.singletonList("/Root/Framework1"), changedPaths);
+    Assert.assertTrue(watchClient.watcherPaths().contains("/Root/Framework1"));
+
+    // Only the created child is notified, and it is also watched
+    changedPaths.clear();
+    watchClient.addNode("/Root/Framework2");
+    watchClient.fireNodeEvent(Watcher.Event.EventType.NodeChildrenChanged, "/Root");
+    Assert.assertEquals(Collections.singletonList("/Root/Framework2"), changedPaths);
+    Assert.assertTrue(watchClient.watcherPaths().contains("/Root/Framework2"));
+
+    // The deleted node is notified, and it is watched again once it is created
+    changedPaths.clear();
+    watchClient.removeNode("/Root/Framework1");
+    watchClient.fireNodeEvent(Watcher.Event.EventType.NodeDeleted, "/Root/Framework1");
+    Assert.assertEquals(Collections.singletonList("/Root/Framework1"), changedPaths);
+
+    // All watches are registered again and a full resync is notified once the expired session is renewed
+    changedPaths.clear();
+    watchClient.watchers.clear();
+    watchClient.addNode("/Root/Framework1");
+    watchClient.fireStateEvent(Watcher.Event.KeeperState.Expired);
+    Assert.assertEquals(1, watchClient.renewedSessionCount);
+    Assert.assertTrue(changedPaths.isEmpty());
+    watchClient.fireStateEvent(Watcher.Event.KeeperState.SyncConnected);
+    Assert.assertEquals(Collections.singletonList((String) null), changedPaths);
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList("/Root", "/Root/Framework1", "/Root/Framework2")), watchClient.watcherPaths());
+
+    // So does the reconnected session
+    changedPaths.clear();
+    watchClient.fireStateEvent(Watcher.Event.KeeperState.Disconnected);
+    watchClient.fireStateEvent(Watcher.Event.KeeperState.SyncConnected);
+    Assert.assertEquals(Collections.singletonList((String) null), changedPaths);
+    Assert.assertEquals(1, watchClient.renewedSessionCount);
+  }
+
+  @Test
+  public void testWatchSubtreeByLevel() throws Exception {
+    WatchRecordingZooKeeperClient watchClient = new WatchRecordingZooKeeperClient();
+    watchClient.addNode("/Root");
+    for (int f = 0; f < 50; f++) {
+      watchClient.addNode("/Root/Framework" + f);
+      for (int t = 0; t < 4; t++) {
+        watchClient.addNode("/Root/Framework" + f + "/TaskRole" + t);
+      }
+    }
+
+    // All the nodes of a level are watched by one batch
+    List<Thread> notifiedThreads = new ArrayList<>();
+    watchClient.watchSubtree("/Root", 2, (path) -> notifiedThreads.add(Thread.currentThread()));
+    Assert.assertEquals(1 + 50 + 50 * 4, watchClient.watcherPaths().size());
+    Assert.assertEquals(3, watchClient.statBatchCount);
+
+    // The resync is not run in the thread which notifies the reconnection, i.e. the ZK EventThread
+    watchClient.statBatchCount = 0;
+    watchClient.fireStateEvent(Watcher.Event.KeeperState.Disconnected);
+    watchClient.fireStateEvent(Watcher.Event.KeeperState.SyncConnected);
+    Assert.assertEquals(3, watchClient.statBatchCount);
+    Assert.assertEquals(1, notifiedThreads.size());
+    Assert.assertNotEquals(Thread.currentThread(), notifiedThreads.get(0));
+  }
+
+  @Test
+  public void testMetricsNotNotifyLauncherStatusChanges() throws Exception {
+    ZookeeperStoreStructure zkStruct = new ZookeeperStoreStructure(ROOT_PATH + "/Launcher");
+    zkClient.createPath(zkStruct.getLauncherRootPath());
+    zkClient.createPath(zkStruct.getLauncherMetricsPath());
+    ZookeeperStore zkStore = new ZookeeperStore(zkClient, zkStruct);
+    zkStore.setLauncherStatus(new LauncherStatus());
+
+    List<String> changedFrameworkNames = Collections.synchronizedList(new ArrayList<>());
+    zkStore.subscribeLauncherStatusChanges(changedFrameworkNames::add);
+
+    TransitionQueueStatus transitionQueueStatus = new TransitionQueueStatus();
+    transitionQueueStatus.setTransitionQueueLength(10);
+    zkStore.setTransitionQueueStatus(transitionQueueStatus);
+    Assert.assertTrue(ModelUtils.deepEquals(transitionQueueStatus, zkStore.getTransitionQueueStatus()));
+
+    // The LauncherStatus change is notified after the Metrics change, so the Metrics change is not notified
+    // if only the LauncherStatus change is notified.
+    zkStore.setLauncherStatus(new LauncherStatus());
+    long deadlineTimestamp = System.currentTimeMillis() + 10000;
+    while (changedFrameworkNames.isEmpty()) {
+      Assert.assertTrue(System.currentTimeMillis() < deadlineTimestamp);
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(Collections.singletonList((String) null), changedFrameworkNames);
+  }
+
+  // Record the registered watches on the in-memory nodes, and fire the events to them like ZK
+  private static class WatchRecordingZooKeeperClient extends ZooKeeperClient {
+    private final Set<String> nodePaths = new HashSet<>();
+    // Path -> Watcher, which is removed once it is triggered
+    private final Map<String, Watcher> watchers = new HashMap<>();
+    private int renewedSessionCount = 0;
+    private int statBatchCount = 0;
+
+    public void addNode(String path) {
+      nodePaths.add(path);
+    }
+
+    public void removeNode(String path) {
+      nodePaths.remove(path);
+    }
+
+    public Set<String> watcherPaths() {
+      return new HashSet<>(watchers.keySet());
+    }
+
+    // The events are handled asynchronously, so wait until they are handled
+    public void fireNodeEvent(Watcher.Event.EventType type, String path) throws Exception {
+      Watcher watcher = watchers.remove(path);
+      Assert.assertNotNull("No watch on " + path, watcher);
+      watcher.process(new WatchedEvent(type, Watcher.Event.KeeperState.SyncConnected, path));
+      waitSubtreeWatches();
+    }
+
+    public void fireStateEvent(Watcher.Event.KeeperState state) throws Exception {
+      process(new WatchedEvent(Watcher.Event.EventType.None, state, null));
+      waitSubtreeWatches();
+    }
+
+    // The node which does not exist is absent in the returned Map, like the batch reads
+    @Override
+    protected Map<String, Stat> getStatBatch(Collection<String> paths, Watcher watcher) throws Exception {
+      statBatchCount++;
+      Map<String, Stat> stats = new HashMap<>();
+      for (String path : paths) {
+        watchers.put(path, watcher);
+        if (nodePaths.contains(path)) {
+          stats.put(path, new Stat());
+        }
+      }
+      return stats;
+    }
+
+    @Override
+    protected Map<String, List<String>> getChildrenBatch(Collection<String> paths, Watcher watcher) throws Exception {
+      Map<String, List<String>> childrenMap = new HashMap<>();
+      for (String path : paths) {
+        if (!nodePaths.contains(path)) {
+          continue;
+        }
+
+        watchers.put(path, watcher);
+        List<String> children = new ArrayList<>();
+        for (String nodePath : nodePaths) {
+          if (nodePath.startsWith(path + "/") && !nodePath.substring(path.length() + 1).contains("/")) {
+            children.add(nodePath.substring(path.length() + 1));
+          }
+        }
+        childrenMap.put(path, children);
+      }
+      return childrenMap;
+    }
+
+    @Override
+    protected void renewSession() {
+      renewedSessionCount++;
+    }
+  }
+
+  private void assertLargeYamlObject(TaskStatuses expectedTaskStatuses) throws Exception {
+    Assert.assertTrue(ModelUtils.deepEquals(expectedTaskStatuses,
+        zkClient.getLargeYamlObject(LARGE_OBJECT_PATH, TaskStatuses.class)));
+    // Only the ReadyPayloadVersions and the latest PayloadVersion are left
+    Assert.assertEquals(2, zkClient.getChildren(LARGE_OBJECT_PATH).size());
+    Assert.assertEquals(1, zkClient.getChildren(LARGE_OBJECT_PATH + "/ReadyPayloadVersions").size());
+  }
+}
@@ -0,0 +1,128 @@
+// Copyright (c) Microsoft Corporation
+// All rights reserved. 
+//
+// MIT License
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated 
+// documentation files (the "Software"), to deal in the Software without restriction, including without limitation 
+// the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and 
+// to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING 
+// BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND 
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, 
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, 
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. 
+
+package com.microsoft.frameworklauncher.zookeeperstore;
+
+import com.microsoft.frameworklauncher.common.model.FrameworkStatus;
+import com.microsoft.frameworklauncher.common.model.TaskRoleStatus;
+import com.microsoft.frameworklauncher.common.model.TaskStatuses;
+import com.microsoft.frameworklauncher.utils.ModelUtils;
+import com.microsoft.frameworklauncher.utils.TestUtils;
+import org.apache.zookeeper.data.Stat;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.*;
+
+public class ZookeeperStoreTest {
+  private static final String ZK_BASE_DIR = TestUtils.RESOURCE_ROOT + File.separator + "zkStoreDir";
+  private static final String FRAMEWORK_NAME = "TestZookeeperStore";
+  private static final String TASK_ROLE_NAME = "worker";
+
+  private ZooKeeperClient zkClient;
+  private ZookeeperStore zkStore;
+  private String taskStatusesPath;
+
+  @Before
+  public void init() throws Exception {
+    // Throw NoNodeException for the missing parent nodes like ZK
+    zkClient = new MockZooKeeperClient(true);
+    zkClient.deleteRecursively(ZK_BASE_DIR);
+    zkClient.createPath(ZK_BASE_DIR);
+
+    ZookeeperStoreStructure zkStruct = new ZookeeperStoreStructure(ZK_BASE_DIR);
+    zkClient.createPath(zkStruct.getLauncherStatusPath());
+    zkStore = new ZookeeperStore(zkClient, zkStruct);
+    zkStore.setFrameworkStatus(FRAMEWORK_NAME, new FrameworkStatus());
+    zkStore.setTaskRoleStatus(FRAMEWORK_NAME, TASK_ROLE_NAME, new TaskRoleStatus());
+    taskStatusesPath = zkStruct.getTaskStatusesPath(FRAMEWORK_NAME, TASK_ROLE_NAME);
+  }
+
+  @Test
+  public void testSetShardedTaskStatuses() throws Exception {
+    zkStore.setTaskStatusesSharded(true);
+
+    // The TaskStatuses node does not exist before the first set
+    TaskStatuses taskStatuses = ZkObjectCodecTest.newTaskStatuses(120);
+    zkStore.setTaskStatuses(FRAMEWORK_NAME, TASK_ROLE_NAME, taskStatuses, null);
+    assertTaskStatuses(taskStatuses);
+    Assert.assertTrue(zkClient.getStat(taskStatusesPath).getDataLength() > 0);
+    Assert.assertEquals(Collections.singletonList("Shards"), zkClient.getChildren(taskStatusesPath));
+    Assert.assertEquals(3, getShardNames().size());
+
+    // Only the changed shard is set
+    taskStatuses.getTaskStatusArray().get(60).setContainerIp(null);
+    Stat shard0Stat = zkClient.getStat(ZookeeperStoreStructure.getTaskStatusesShardPath(taskStatusesPath, 0));
+    zkStore.setTaskStatuses(FRAMEWORK_NAME, TASK_ROLE_NAME, taskStatuses, Collections.singleton(60));
+    assertTaskStatuses(taskStatuses);
+    Assert.assertEquals(shard0Stat.getMzxid(),
+        zkClient.getStat(ZookeeperStoreStructure.getTaskStatusesShardPath(taskStatusesPath, 0)).getMzxid());
+
+    // The shards of the removed tasks are deleted
+    Set<Integer> removedTaskIndexes = new HashSet<>();
+    for (int taskIndex = 30; taskIndex < 120; taskIndex++) {
+      removedTaskIndexes.add(taskIndex);
+    }
+    taskStatuses.setTaskStatusArray(new ArrayList<>(taskStatuses.getTaskStatusArray().subList(0, 30)));
+    zkStore.setTaskStatuses(FRAMEWORK_NAME, TASK_ROLE_NAME, taskStatuses, removedTaskIndexes);
+    assertTaskStatuses(taskStatuses);
+    Assert.assertEquals(Collections.singletonList("0"), getShardNames());
+  }
+
+  @Test
+  public void testSetLegacyTaskStatuses() throws Exception {
+    TaskStatuses taskStatuses = ZkObjectCodecTest.newTaskStatuses(120);
+    zkStore.setTaskStatuses(FRAMEWORK_NAME, TASK_ROLE_NAME, taskStatuses, null);
+    assertTaskStatuses(taskStatuses);
+
+    // The legacy layout is a large yaml object, whose node data is empty
+    Assert.assertEquals(0, zkClient.getStat(taskStatusesPath).getDataLength());
+    Assert.assertFalse(zkClient.getChildren(taskStatusesPath).contains("Shards"));
+    Assert.assertTrue(ModelUtils.deepEquals(taskStatuses,
+        zkClient.getLargeYamlObject(taskStatusesPath, TaskStatuses.class)));
+  }
+
+  @Test
+  public void testMigrateLegacyTaskStatuses() throws Exception {
+    TaskStatuses taskStatuses = ZkObjectCodecTest.newTaskStatuses(120);
+    zkStore.setTaskStatuses(FRAMEWORK_NAME, TASK_ROLE_NAME, taskStatuses, null);
+    List<String> legacyChildren = zkClient.getChildren(taskStatusesPath);
+    Assert.assertFalse(legacyChildren.isEmpty());
+
+    // The legacy layout is migrated and cleaned once the TaskStatuses is set after TaskStatusesSharded
+    zkStore.setTaskStatusesSharded(true);
+    taskStatuses.getTaskStatusArray().get(0).setContainerIp(null);
+    zkStore.setTaskStatuses(FRAMEWORK_NAME, TASK_ROLE_NAME, taskStatuses, Collections.singleton(0));
+    assertTaskStatuses(taskStatuses);
+    Assert.assertEquals(Collections.singletonList("Shards"), zkClient.getChildren(taskStatusesPath));
+    Assert.assertEquals(3, getShardNames().size());
+  }
+
+  private void assertTaskStatuses(TaskStatuses expectedTaskStatuses) throws Exception {
+    Assert.assertTrue(ModelUtils.deepEquals(expectedTaskStatuses,
+        zkStore.getTaskStatuses(FRAMEWORK_NAME, TASK_ROLE_NAME)));
+    Assert.assertTrue(ModelUtils.deepEquals(expectedTaskStatuses,
+        zkStore.getAggregatedFrameworkStatus(FRAMEWORK_NAME).getAggregatedTaskRoleStatuses()
+            .get(TASK_ROLE_NAME).getTaskStatuses()));
+  }
+
+  private List<String> getShardNames() throws Exception {
+    return zkClient.getChildren(ZookeeperStoreStructure.getTaskStatusesShardsPath(taskStatusesPath));
+  }
+}